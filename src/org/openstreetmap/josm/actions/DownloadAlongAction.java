@@ -14,7 +14,9 @@ import java.awt.geom.Rectangle2D;
 import java.text.MessageFormat;
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
 import java.util.concurrent.Future;
 
 import javax.swing.JLabel;
@@ -232,6 +234,8 @@ public abstract class DownloadAlongAction extends JosmAction {
             private boolean cancel;
             private int ticks;
             private final Rectangle2D r = new Rectangle2D.Double();
+            // cells of a quarter of the buffer size already covered, see calcAreaForWayPoint
+            private final Set<Long> cells = new HashSet<>();
 
             CalculateDownloadArea(boolean newLayer) {
                 super(tr("Calculating Download Area"), displayProgress ? null : NullProgressMonitor.INSTANCE, false);
@@ -268,11 +272,24 @@ public abstract class DownloadAlongAction extends JosmAction {
             }
 
             /**
-             * calculate area enclosing a single point
+             * calculate area enclosing a single point.
+             * Dense tracks give many almost identical rectangles, which make the union of the area very slow.
+             * So the area around the grid cell of the point is added instead, once for each cell.
              */
             private void calcAreaForWayPoint(LatLon c) {
-                r.setRect(c.lon() - bufferX, c.lat() - bufferY, 2 * bufferX, 2 * bufferY);
-                downloadPath.append(r, false);
+                if (!(bufferX > 0 && bufferY > 0)) {
+                    r.setRect(c.lon() - bufferX, c.lat() - bufferY, 2 * bufferX, 2 * bufferY);
+                    downloadPath.append(r, false);
+                    return;
+                }
+                final double cellX = bufferX / 4;
+                final double cellY = bufferY / 4;
+                final int x = (int) Math.floor(c.lon() / cellX);
+                final int y = (int) Math.floor(c.lat() / cellY);
+                if (cells.add(((long) x << 32) | (y & 0xffff_ffffL))) {
+                    r.setRect(x * cellX - bufferX, y * cellY - bufferY, 2 * bufferX + cellX, 2 * bufferY + cellY);
+                    downloadPath.append(r, false);
+                }
             }
 
             @Override
@@ -416,9 +416,8 @@ public class OpenFileAction extends DiskAccessAction {
                 String msg = trn("Opening {0} file...", "Opening {0} files...", files.size(), files.size());
                 getProgressMonitor().setCustomText(msg);
                 getProgressMonitor().indeterminateSubTask(msg);
-                if (importer.importDataHandleExceptions(files, getProgressMonitor().createSubTaskMonitor(files.size(), false))) {
-                    successfullyOpenedFiles.addAll(files);
-                }
+                successfullyOpenedFiles.addAll(
+                        importer.importFilesHandleExceptions(files, getProgressMonitor().createSubTaskMonitor(files.size(), false)));
             } else {
                 for (File f : files) {
                     if (canceled) return;
@@ -428,7 +427,7 @@ public class OpenFileAction extends DiskAccessAction {
                     }
                 }
             }
-            if (this.options.contains(Options.RECORD_HISTORY) && !importer.isBatchImporter()) {
+            if (this.options.contains(Options.RECORD_HISTORY) && importer.recordsFileHistory()) {
                 for (File f : files) {
                     try {
                         if (successfullyOpenedFiles.contains(f)) {
@@ -46,6 +46,27 @@ public class BufferedImageCacheEntry extends CacheEntry {
         }
     }
 
+    /**
+     * Encodes the given image as JPEG and returns a cache entry. JPEG is much smaller than PNG for photos.
+     * Images with transparency are encoded as PNG.
+     * @param img the image
+     * @return a cache entry for the JPEG (or PNG) encoded image
+     * @throws UncheckedIOException if an I/O error occurs
+     */
+    public static BufferedImageCacheEntry jpegEncoded(BufferedImage img) {
+        if (img.getColorModel().hasAlpha()) {
+            return pngEncoded(img);
+        }
+        try (ByteArrayOutputStream output = new ByteArrayOutputStream()) {
+            if (!ImageIO.write(img, "jpg", output)) {
+                return pngEncoded(img);
+            }
+            return new BufferedImageCacheEntry(output.toByteArray());
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
     /**
      * Returns BufferedImage from for the content. Subsequent calls will return the same instance,
      * to reduce overhead of ImageIO
@@ -22,7 +22,9 @@ import org.openstreetmap.josm.tools.Logging;
  */
 public class CacheEntryAttributes extends ElementAttributes {
     private static final long serialVersionUID = 1L; //version
-    private final Map<String, String> attrs = new ConcurrentHashMap<>(RESERVED_KEYS.size());
+    private Map<String, String> attrs = new ConcurrentHashMap<>(RESERVED_KEYS.size());
+    /** Creation time restored by a disk cache, {@code 0} if the creation time of {@link ElementAttributes} applies */
+    private long restoredCreateTime;
     private static final String NO_TILE_AT_ZOOM = "noTileAtZoom";
     private static final String ETAG = "Etag";
     private static final String LAST_MODIFICATION = "lastModification";
@@ -181,6 +183,45 @@ public class CacheEntryAttributes extends ElementAttributes {
         return Collections.unmodifiableMap(attrs);
     }
 
+    /**
+     * Restores all attributes, including the reserved ones, as returned by {@link #getMetadata()}.
+     * Used by disk caches which do not rely on Java serialization.
+     *
+     * @param map attributes to restore
+     */
+    void restore(Map<String, String> map) {
+        attrs.putAll(map);
+    }
+
+    /**
+     * Restores the creation time of the entry, as returned by {@link #getCreateTime()}.
+     * Used by disk caches which do not rely on Java serialization.
+     *
+     * @param createTime creation time to restore, in milliseconds since the epoch
+     */
+    void restoreCreateTime(long createTime) {
+        restoredCreateTime = createTime;
+    }
+
+    @Override
+    public long getCreateTime() {
+        return restoredCreateTime != 0 ? restoredCreateTime : super.getCreateTime();
+    }
+
+    @Override
+    public void setCreateTime() {
+        restoredCreateTime = 0;
+        super.setCreateTime();
+    }
+
+    @Override
+    public CacheEntryAttributes clone() {
+        CacheEntryAttributes clone = (CacheEntryAttributes) super.clone();
+        // the metadata must not be shared with the default attributes of the cache region
+        clone.attrs = new ConcurrentHashMap<>(attrs);
+        return clone;
+    }
+
     /**
      * Returns error message returned while retrieving this object.
      * @return error message returned while retrieving this object
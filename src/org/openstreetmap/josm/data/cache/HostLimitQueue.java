@@ -15,6 +15,9 @@ import org.openstreetmap.josm.tools.Logging;
  * Queue for ThreadPoolExecutor that implements per-host limit. It will acquire a semaphore for each task
  * and it will set a runnable task with semaphore release, when job has finished.
  * <p>
+ * Among the jobs whose host has free slots, the one with the lowest {@link JCSCachedTileLoaderJob#getDownloadPriority()
+ * download priority} is taken first, jobs which are not needed anymore are canceled.
+ * <p>
  * This implementation doesn't guarantee to have at most hostLimit connections per host[1], and it doesn't
  * guarantee that all threads will be busy, when there is work for them[2]. <br>
  * [1] More connection per host may happen, when ThreadPoolExecutor is growing its pool, and thus
@@ -51,28 +54,40 @@ public class HostLimitQueue extends LinkedBlockingDeque<Runnable> {
     }
 
     private JCSCachedTileLoaderJob<?, ?> findJob() {
+        JCSCachedTileLoaderJob<?, ?> best = null;
+        double bestPriority = Double.POSITIVE_INFINITY;
         for (Runnable r : this) {
             if (r instanceof JCSCachedTileLoaderJob) {
                 JCSCachedTileLoaderJob<?, ?> job = (JCSCachedTileLoaderJob<?, ?>) r;
-                if (tryAcquireSemaphore(job)) {
+                double priority = job.getDownloadPriority();
+                if (priority == Double.POSITIVE_INFINITY) {
+                    // job is not needed anymore, e.g. the tile has been scrolled out of view
                     if (remove(job)) {
-                        return job;
-                    } else {
-                        // we have acquired the semaphore, but we didn't manage to remove job, as someone else did
-                        // release the semaphore and look for another candidate
-                        releaseSemaphore(job);
+                        job.handleJobCancellation();
                     }
-                } else {
-                    URL url = null;
-                    try {
-                        url = job.getUrl();
-                    } catch (IOException e) {
-                        Logging.debug(e);
+                } else if (priority < bestPriority) {
+                    if (getSemaphore(job).availablePermits() > 0) {
+                        best = job;
+                        bestPriority = priority;
+                    } else if (Logging.isDebugEnabled()) {
+                        URL url = null;
+                        try {
+                            url = job.getUrl();
+                        } catch (IOException e) {
+                            Logging.debug(e);
+                        }
+                        Logging.debug("TMS - Skipping job {0} because host limit reached", url);
                     }
-                    Logging.debug("TMS - Skipping job {0} because host limit reached", url);
                 }
             }
         }
+        if (best != null && tryAcquireSemaphore(best)) {
+            if (remove(best)) {
+                return best;
+            }
+            // we have acquired the semaphore, but we didn't manage to remove job, as someone else did
+            releaseSemaphore(best);
+        }
         return null;
     }
 
@@ -17,6 +17,7 @@ import java.util.logging.SimpleFormatter;
 
 import org.apache.commons.jcs3.JCS;
 import org.apache.commons.jcs3.access.CacheAccess;
+import org.apache.commons.jcs3.auxiliary.AuxiliaryCache;
 import org.apache.commons.jcs3.auxiliary.AuxiliaryCacheFactory;
 import org.apache.commons.jcs3.auxiliary.disk.behavior.IDiskCacheAttributes;
 import org.apache.commons.jcs3.auxiliary.disk.block.BlockDiskCacheAttributes;
@@ -49,6 +50,16 @@ public final class JCSCacheManager {
      */
     public static final BooleanProperty USE_BLOCK_CACHE = new BooleanProperty(PREFERENCE_PREFIX + ".use_block_cache", true);
 
+    /**
+     * Property that determines if the memory mapped disk cache is used, takes precedence over {@link #USE_BLOCK_CACHE}
+     * @see MappedDiskCache
+     */
+    public static final BooleanProperty USE_MAPPED_CACHE = new BooleanProperty(PREFERENCE_PREFIX + ".use_mapped_cache", false);
+
+    private static final String BLOCK_SUFFIX = "_BLOCK_v2";
+    private static final String INDEX_SUFFIX = "_INDEX_v2";
+    private static final String MAPPED_SUFFIX = "_MMAP_v1";
+
     private static final AuxiliaryCacheFactory DISK_CACHE_FACTORY = getDiskCacheFactory();
     private static FileLock cacheDirLock;
 
@@ -154,6 +165,9 @@ public final class JCSCacheManager {
 
     private static AuxiliaryCacheFactory getDiskCacheFactory() {
         try {
+            if (useMappedCache()) {
+                return new MappedDiskCacheFactory();
+            }
             return useBlockCache() ? new BlockDiskCacheFactory() : new IndexedDiskCacheFactory();
         } catch (SecurityException | LinkageError e) {
             Logging.error(e);
@@ -165,6 +179,17 @@ public final class JCSCacheManager {
         return Boolean.TRUE.equals(USE_BLOCK_CACHE.get());
     }
 
+    private static boolean useMappedCache() {
+        return Boolean.TRUE.equals(USE_MAPPED_CACHE.get());
+    }
+
+    private static String getDiskCacheSuffix() {
+        if (useMappedCache()) {
+            return MAPPED_SUFFIX;
+        }
+        return useBlockCache() ? BLOCK_SUFFIX : INDEX_SUFFIX;
+    }
+
     /**
      * Returns configured cache object for named cache region
      * @param <K> key type
@@ -194,8 +219,12 @@ public final class JCSCacheManager {
             try {
                 IDiskCacheAttributes diskAttributes = getDiskCacheAttributes(maxDiskObjects, cachePath, cacheName);
                 if (cc.getAuxCacheList().isEmpty()) {
-                    cc.setAuxCaches(Collections.singletonList(DISK_CACHE_FACTORY.createCache(
-                            diskAttributes, null, null, new StandardSerializer())));
+                    AuxiliaryCache<K, V> diskCache = DISK_CACHE_FACTORY.createCache(diskAttributes, null, null, new StandardSerializer());
+                    if (diskCache instanceof MappedDiskCache) {
+                        // the tiles read from disk expire as configured for the region
+                        ((MappedDiskCache<K, V>) diskCache).setDefaultElementAttributes(cc.getElementAttributes());
+                    }
+                    cc.setAuxCaches(Collections.singletonList(diskCache));
                 }
             } catch (Exception e) { // NOPMD
                 // in case any error in setting auxiliary cache, do not use disk cache at all - only memory
@@ -224,10 +253,20 @@ public final class JCSCacheManager {
 
     private static IDiskCacheAttributes getDiskCacheAttributes(int maxDiskObjects, String cachePath, String cacheName) {
         IDiskCacheAttributes ret;
-        removeStaleFiles(cachePath + File.separator + cacheName, useBlockCache() ? "_INDEX_v2" : "_BLOCK_v2");
-        String newCacheName = cacheName + (useBlockCache() ? "_BLOCK_v2" : "_INDEX_v2");
+        String suffix = getDiskCacheSuffix();
+        for (String staleSuffix : Arrays.asList(BLOCK_SUFFIX, INDEX_SUFFIX, MAPPED_SUFFIX)) {
+            if (!staleSuffix.equals(suffix)) {
+                removeStaleFiles(cachePath + File.separator + cacheName, staleSuffix);
+            }
+        }
+        String newCacheName = cacheName + suffix;
 
-        if (useBlockCache()) {
+        if (useMappedCache()) {
+            // evicts entries by itself and shrinks the data file, so the configured size can always be used
+            MappedDiskCacheAttributes mappedAttr = new MappedDiskCacheAttributes();
+            mappedAttr.setMaxKeySize(maxDiskObjects);
+            ret = mappedAttr;
+        } else if (useBlockCache()) {
             BlockDiskCacheAttributes blockAttr = new BlockDiskCacheAttributes();
             /*
              * BlockDiskCache never optimizes the file, so when file size is reduced, it will never be truncated to desired size.
@@ -9,6 +9,7 @@ import java.net.HttpURLConnection;
 import java.net.URL;
 import java.nio.file.Files;
 import java.security.SecureRandom;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
 import java.util.Map;
@@ -16,6 +17,7 @@ import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.LinkedBlockingDeque;
+import java.util.concurrent.RejectedExecutionException;
 import java.util.concurrent.ThreadPoolExecutor;
 import java.util.concurrent.TimeUnit;
 import java.util.regex.Matcher;
@@ -42,6 +44,9 @@ import org.apache.commons.jcs3.engine.behavior.ICacheElement;
  * This class will keep only one Job running for specified tile. All others will just finish, but
  * listeners will be gathered and notified, once download job will be finished
  *
+ * If allowed by the subclass, expired entries are returned immediately and verified in the background
+ * by a small pool of threads. Listeners are notified again, if the entry has changed on the server.
+ *
  * @author Wiktor Niesiobędzki
  * @param <K> cache entry key type
  * @param <V> cache value type
@@ -60,6 +65,16 @@ public abstract class JCSCachedTileLoaderJob<K, V extends CacheEntry> implements
      */
     public static final IntegerProperty THREAD_LIMIT = new IntegerProperty("cache.jcs.max_threads", 10);
 
+    /**
+     * maximum threads verifying expired entries in the background
+     */
+    public static final IntegerProperty REVALIDATION_THREAD_LIMIT = new IntegerProperty("cache.jcs.revalidation_max_threads", 2);
+
+    /**
+     * maximum number of expired entries waiting for verification, further entries are verified on next request
+     */
+    private static final int REVALIDATION_QUEUE_LIMIT = 1000;
+
     /*
      * ThreadPoolExecutor starts new threads, until THREAD_LIMIT is reached. Then it puts tasks into LinkedBlockingDeque.
      *
@@ -80,7 +95,21 @@ public abstract class JCSCachedTileLoaderJob<K, V extends CacheEntry> implements
             Utils.newThreadFactory("JCS-downloader-%d", Thread.NORM_PRIORITY)
             );
 
+    private static final ThreadPoolExecutor REVALIDATION_DISPATCHER = new ThreadPoolExecutor(
+            Math.max(1, REVALIDATION_THREAD_LIMIT.get()),
+            Math.max(1, REVALIDATION_THREAD_LIMIT.get()),
+            30, // keepalive for thread
+            TimeUnit.SECONDS,
+            new LinkedBlockingDeque<>(REVALIDATION_QUEUE_LIMIT),
+            Utils.newThreadFactory("JCS-revalidator-%d", Thread.MIN_PRIORITY)
+            );
+
+    static {
+        REVALIDATION_DISPATCHER.allowCoreThreadTimeOut(true);
+    }
+
     private static final ConcurrentMap<String, Set<ICachedLoaderListener>> inProgress = new ConcurrentHashMap<>();
+    private static final Set<String> revalidating = ConcurrentHashMap.newKeySet();
     private static final ConcurrentMap<String, Boolean> useHead = new ConcurrentHashMap<>();
 
     protected final long now; // when the job started
@@ -128,7 +157,7 @@ public abstract class JCSCachedTileLoaderJob<K, V extends CacheEntry> implements
 
     private void ensureCacheElement() {
         if (cacheElement == null && getCacheKey() != null) {
-            cacheElement = cache.getCacheElement(getCacheKey());
+            cacheElement = getCacheElement(getCacheKey());
             if (cacheElement != null) {
                 attributes = (CacheEntryAttributes) cacheElement.getElementAttributes();
                 cacheData = cacheElement.getVal();
@@ -136,6 +165,15 @@ public abstract class JCSCachedTileLoaderJob<K, V extends CacheEntry> implements
         }
     }
 
+    /**
+     * Returns the cache element for the given key.
+     * @param key the cache key
+     * @return the cache element, or {@code null} if it is not cached
+     */
+    protected ICacheElement<K, V> getCacheElement(K key) {
+        return cache.getCacheElement(key);
+    }
+
     @Override
     public V get() {
         ensureCacheElement();
@@ -200,6 +238,30 @@ public abstract class JCSCachedTileLoaderJob<K, V extends CacheEntry> implements
         return attributes.getResponseCode() < 500;
     }
 
+    /**
+     * Checks if an expired entry may be returned to the listeners before it has been verified.
+     * If so, it is verified in the background and {@link #staleEntryReplaced} is called if it has changed.
+     * <p>
+     * This implementation returns {@code false}, so listeners are notified once, after the entry has been verified.
+     * @return {@code true} if expired entries may be returned before they have been verified
+     */
+    protected boolean isStaleWhileRevalidateAllowed() {
+        return false;
+    }
+
+    /**
+     * Called when an expired entry, which was already returned to the listeners, has been replaced by a newer version
+     * from the server. {@link #cacheData} and {@link #attributes} contain the new entry.
+     * <p>
+     * This implementation notifies the listeners again.
+     * @param listeners the listeners which got the expired entry
+     */
+    protected void staleEntryReplaced(Set<ICachedLoaderListener> listeners) {
+        for (ICachedLoaderListener l: listeners) {
+            l.loadingFinished(cacheData, attributes, LoadResult.SUCCESS);
+        }
+    }
+
     /**
      * Returns key under which discovered server settings will be kept.
      * @return key under which discovered server settings will be kept
@@ -229,6 +291,14 @@ public abstract class JCSCachedTileLoaderJob<K, V extends CacheEntry> implements
                 return;
             }
 
+            if (!force && cacheElement != null && isStaleWhileRevalidateAllowed() && isObjectLoadable()
+                    && now - attributes.getCreateTime() <= ABSOLUTE_EXPIRE_TIME_LIMIT) {
+                // return expired object from cache, and check it in background
+                Logging.debug("JCS - Returning expired object from cache, verifying in background: {0}", getCacheKey());
+                scheduleRevalidation(finishLoading(LoadResult.SUCCESS));
+                return;
+            }
+
             // try to load object from remote resource
             if (loadObject()) {
                 finishLoading(LoadResult.SUCCESS);
@@ -249,7 +319,7 @@ public abstract class JCSCachedTileLoaderJob<K, V extends CacheEntry> implements
         }
     }
 
-    private void finishLoading(LoadResult result) {
+    private Set<ICachedLoaderListener> finishLoading(LoadResult result) {
         Set<ICachedLoaderListener> listeners;
         try {
             listeners = inProgress.remove(getUrl().toString());
@@ -259,11 +329,49 @@ public abstract class JCSCachedTileLoaderJob<K, V extends CacheEntry> implements
         }
         if (listeners == null) {
             Logging.warn("Listener not found for URL: {0}. Listener not notified!", getUrlNoException());
-            return;
+            return null;
         }
         for (ICachedLoaderListener l: listeners) {
             l.loadingFinished(cacheData, attributes, result);
         }
+        return listeners;
+    }
+
+    /**
+     * Queues the verification of the expired entry. Only one verification per URL is queued at a time,
+     * requests for the same URL from other jobs, e.g. of other layers, are skipped meanwhile.
+     * @param listeners the listeners which got the expired entry
+     */
+    private void scheduleRevalidation(Set<ICachedLoaderListener> listeners) {
+        URL url = getUrlNoException();
+        if (url == null || !revalidating.add(url.toString())) {
+            return;
+        }
+        try {
+            REVALIDATION_DISPATCHER.execute(() -> revalidate(url, listeners));
+        } catch (RejectedExecutionException e) {
+            // too many entries waiting, the entry will be verified on next request
+            Logging.trace(e);
+            revalidating.remove(url.toString());
+        }
+    }
+
+    private void revalidate(URL url, Set<ICachedLoaderListener> listeners) {
+        final Thread currentThread = Thread.currentThread();
+        final String oldName = currentThread.getName();
+        currentThread.setName("JCS Revalidating: " + url);
+        V stale = cacheData;
+        try {
+            if (loadObject() && cacheData != stale && !Arrays.equals(cacheData.getContent(), stale.getContent())) {
+                Logging.debug("JCS - Expired object has changed on server: {0}", url);
+                if (listeners != null) {
+                    staleEntryReplaced(listeners);
+                }
+            }
+        } finally {
+            revalidating.remove(url.toString());
+            currentThread.setName(oldName);
+        }
     }
 
     protected boolean isCacheElementValid() {
@@ -583,6 +691,16 @@ public abstract class JCSCachedTileLoaderJob<K, V extends CacheEntry> implements
 
     }
 
+    /**
+     * Returns the priority of this job in the download queue. Jobs with lower values are started first.
+     * The value may change while the job is queued, e.g. when the map view is moved.
+     * @return the priority, or {@link Double#POSITIVE_INFINITY} if the job is not needed anymore and may be canceled
+     * @see HostLimitQueue
+     */
+    public double getDownloadPriority() {
+        return 0;
+    }
+
     /**
      * Marks this job as canceled
      */
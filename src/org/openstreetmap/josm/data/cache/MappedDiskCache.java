@@ -0,0 +1,707 @@
+// License: GPL. For details, see LICENSE file.
+package org.openstreetmap.josm.data.cache;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.zip.CRC32;
+import java.util.zip.CheckedInputStream;
+import java.util.zip.CheckedOutputStream;
+
+import org.apache.commons.jcs3.auxiliary.AuxiliaryCacheAttributes;
+import org.apache.commons.jcs3.auxiliary.disk.AbstractDiskCache;
+import org.apache.commons.jcs3.engine.CacheElement;
+import org.apache.commons.jcs3.engine.behavior.ICacheElement;
+import org.apache.commons.jcs3.engine.behavior.IElementAttributes;
+import org.apache.commons.jcs3.engine.stats.StatElement;
+import org.apache.commons.jcs3.engine.stats.Stats;
+import org.apache.commons.jcs3.engine.stats.behavior.IStatElement;
+import org.apache.commons.jcs3.engine.stats.behavior.IStats;
+import org.openstreetmap.josm.tools.Logging;
+import org.openstreetmap.josm.tools.Utils;
+
+/**
+ * JCS disk cache which stores all entries in a single append-only data file, read through memory mapping.
+ * <p>
+ * Compared to the {@code BlockDiskCache} and the {@code IndexedDiskCache}:
+ * <ul>
+ * <li>tiles ({@link BufferedImageCacheEntry} with {@link CacheEntryAttributes}) are stored as raw image bytes plus their
+ * attributes, without Java serialization. Other values are stored using the element serializer.</li>
+ * <li>the key index is a compact open-addressed hash table ({@link MappedDiskCacheIndex}) instead of a map of keys,
+ * it is saved in the {@code .key} file on shutdown and loaded without deserialization.</li>
+ * <li>entries are evicted with the CLOCK algorithm once the live data exceeds {@link MappedDiskCacheAttributes#getMaxKeySize()},
+ * and the data file is compacted in place when more than a third of it is unused, so the file shrinks again.</li>
+ * <li>each record carries a checksum: if the index is missing or outdated (e.g. after a crash), it is rebuilt by scanning
+ * the data file, and incomplete records at the end of the file are discarded.</li>
+ * </ul>
+ * Full segments of {@value #SEGMENT_SIZE} bytes of the data file are memory mapped, the last, growing segment is read
+ * with positional reads.
+ *
+ * @param <K> key type
+ * @param <V> value type
+ */
+public class MappedDiskCache<K, V> extends AbstractDiskCache<K, V> {
+
+    /** Size of the memory mapped segments of the data file */
+    static final int SEGMENT_SIZE = 1 << 26;
+    /** Size of the data file header: magic, version, generation, reserved */
+    static final int HEADER_SIZE = 32;
+    /** Size of the record header: magic, generation, type, key type, reserved, key, metadata and content lengths */
+    static final int RECORD_HEADER_SIZE = 24;
+    private static final int RECORD_TRAILER_SIZE = 4;
+    /** Records are compacted once the unused part of the data file exceeds this size and half of the live data */
+    private static final long MIN_COMPACTION_GARBAGE = 16L << 20;
+
+    private static final long FILE_MAGIC = 0x4a4f534d4d415044L; // JOSMMAPD
+    private static final int FILE_VERSION = 2;
+    private static final int RECORD_MAGIC = 0x5245434d; // RECM
+    private static final int INDEX_MAGIC = 0x49445831; // IDX1
+
+    private static final byte TYPE_REMOVED = 0;
+    private static final byte TYPE_TILE = 1;
+    private static final byte TYPE_SERIALIZED = 2;
+    private static final byte KEY_STRING = 0;
+    private static final byte KEY_SERIALIZED = 1;
+
+    private final MappedDiskCacheAttributes attributes;
+    private final File dataFile;
+    private final File keyFile;
+    private final FileChannel channel;
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final MappedDiskCacheIndex index = new MappedDiskCacheIndex();
+    private IElementAttributes defaultElementAttributes;
+    private final Object segmentLock = new Object();
+    private MappedByteBuffer[] segments = new MappedByteBuffer[0];
+    private int generation;
+    private volatile long dataEnd;
+    private int compactions;
+
+    /**
+     * Constructs a new {@code MappedDiskCache} and opens, or creates, its files.
+     * @param attributes cache configuration
+     * @throws IOException if the data file cannot be opened
+     */
+    public MappedDiskCache(MappedDiskCacheAttributes attributes) throws IOException {
+        super(attributes);
+        this.attributes = attributes;
+        this.dataFile = new File(attributes.getDiskPath(), attributes.getCacheName() + ".data");
+        this.keyFile = new File(attributes.getDiskPath(), attributes.getCacheName() + ".key");
+        this.channel = FileChannel.open(dataFile.toPath(), StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        try {
+            open();
+        } catch (IOException e) {
+            channel.close();
+            throw e;
+        }
+        setAlive(true);
+    }
+
+    /**
+     * Sets the default element attributes of the cache region, copied to the restored tiles.
+     * @param defaultElementAttributes default element attributes of the cache region, can be {@code null}
+     */
+    public void setDefaultElementAttributes(IElementAttributes defaultElementAttributes) {
+        this.defaultElementAttributes = defaultElementAttributes;
+    }
+
+    private void open() throws IOException {
+        long fileSize = channel.size();
+        if (!readHeader(fileSize)) {
+            generation = 0;
+            resetFile();
+            return;
+        }
+        if (!loadIndex(fileSize)) {
+            index.clear();
+            dataEnd = HEADER_SIZE;
+        }
+        long indexed = dataEnd;
+        scan(fileSize);
+        if (dataEnd > indexed) {
+            Logging.info("{0}: recovered {1} bytes of records missing in the index", getCacheName(), dataEnd - indexed);
+        }
+        if (dataEnd < fileSize) {
+            // nothing is mapped yet, so this also works on systems which do not allow to truncate mapped files
+            channel.truncate(dataEnd);
+        }
+        ensureLimits();
+    }
+
+    private boolean readHeader(long fileSize) throws IOException {
+        if (fileSize < HEADER_SIZE) {
+            return false;
+        }
+        ByteBuffer header = readFromChannel(0, HEADER_SIZE);
+        if (header.getLong(0) != FILE_MAGIC || header.getInt(8) != FILE_VERSION) {
+            Logging.warn("{0}: unknown data file format, clearing the cache", getCacheName());
+            return false;
+        }
+        generation = header.getInt(12);
+        return true;
+    }
+
+    private void writeHeader() throws IOException {
+        ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+        header.putLong(0, FILE_MAGIC).putInt(8, FILE_VERSION).putInt(12, generation);
+        writeToChannel(header, 0);
+        channel.force(false);
+    }
+
+    /**
+     * Starts a new, empty data file generation.
+     */
+    private void resetFile() throws IOException {
+        generation++;
+        index.clear();
+        clearSegments();
+        dataEnd = HEADER_SIZE;
+        writeHeader();
+        truncate();
+        Utils.deleteFileIfExists(keyFile);
+    }
+
+    /**
+     * Loads the index saved on shutdown, if it matches the data file.
+     * @return {@code true} if the index was loaded, {@link #dataEnd} is then set to the end of the indexed records
+     */
+    private boolean loadIndex(long fileSize) {
+        if (!keyFile.isFile()) {
+            return false;
+        }
+        CRC32 crc = new CRC32();
+        try (InputStream in = Files.newInputStream(keyFile.toPath());
+             DataInputStream data = new DataInputStream(new CheckedInputStream(new BufferedInputStream(in), crc))) {
+            if (data.readInt() != INDEX_MAGIC || data.readInt() != generation) {
+                return false;
+            }
+            int size = data.readInt();
+            long end = data.readLong();
+            if (size < 0 || end < HEADER_SIZE || end > fileSize) {
+                return false;
+            }
+            for (int i = 0; i < size; i++) {
+                index.put(data.readLong(), data.readLong(), data.readInt());
+            }
+            long expected = crc.getValue();
+            if (data.readInt() != (int) expected) {
+                Logging.warn("{0}: corrupted index, rebuilding it", getCacheName());
+                index.clear();
+                return false;
+            }
+            dataEnd = end;
+            return true;
+        } catch (IOException e) {
+            Logging.log(Logging.LEVEL_WARN, getCacheName() + ": unable to read index, rebuilding it", e);
+            index.clear();
+            return false;
+        }
+    }
+
+    private void saveIndex() throws IOException {
+        CRC32 crc = new CRC32();
+        try (OutputStream out = Files.newOutputStream(keyFile.toPath());
+             CheckedOutputStream checked = new CheckedOutputStream(new BufferedOutputStream(out), crc);
+             DataOutputStream data = new DataOutputStream(checked)) {
+            data.writeInt(INDEX_MAGIC);
+            data.writeInt(generation);
+            data.writeInt(index.size());
+            data.writeLong(dataEnd);
+            for (int slot : index.getSlotsByOffset()) {
+                data.writeLong(index.getHash(slot));
+                data.writeLong(index.getOffset(slot));
+                data.writeInt(index.getLength(slot));
+            }
+            data.flush();
+            data.writeInt((int) crc.getValue());
+        }
+    }
+
+    /**
+     * Adds the valid records following {@link #dataEnd} to the index and moves {@link #dataEnd} after them.
+     * The scan stops at the first record which is incomplete, corrupted, or belongs to an older generation.
+     */
+    private void scan(long fileSize) throws IOException {
+        long pos = dataEnd;
+        while (pos + RECORD_HEADER_SIZE + RECORD_TRAILER_SIZE <= fileSize) {
+            ByteBuffer header = readFromChannel(pos, RECORD_HEADER_SIZE);
+            if (header.getInt(0) != RECORD_MAGIC || header.getInt(4) != generation) {
+                break;
+            }
+            long length = getRecordLength(header.getInt(12), header.getInt(16), header.getInt(20));
+            if (length < 0 || pos + length > fileSize) {
+                break;
+            }
+            ByteBuffer record = readFromChannel(pos, (int) length);
+            if (record.getInt((int) length - RECORD_TRAILER_SIZE) != (int) checksum(record)) {
+                break;
+            }
+            long hash = MappedDiskCacheIndex.hash(getKeyBytes(record));
+            if (record.get(8) == TYPE_REMOVED) {
+                index.remove(hash);
+            } else {
+                index.put(hash, pos, (int) length);
+            }
+            pos += length;
+        }
+        dataEnd = pos;
+    }
+
+    private static long getRecordLength(int keyLength, int metaLength, int contentLength) {
+        if (keyLength < 0 || metaLength < 0 || contentLength < 0) {
+            return -1;
+        }
+        long length = (long) RECORD_HEADER_SIZE + keyLength + metaLength + contentLength + RECORD_TRAILER_SIZE;
+        return length <= Integer.MAX_VALUE ? length : -1;
+    }
+
+    /**
+     * Computes the checksum of a record, which covers everything but the magic, the generation and the checksum itself.
+     */
+    private static long checksum(ByteBuffer record) {
+        CRC32 crc = new CRC32();
+        ByteBuffer covered = record.duplicate();
+        covered.position(8).limit(record.limit() - RECORD_TRAILER_SIZE);
+        crc.update(covered);
+        return crc.getValue();
+    }
+
+    private static byte[] getKeyBytes(ByteBuffer record) {
+        byte[] key = new byte[record.getInt(12)];
+        ByteBuffer b = record.duplicate();
+        b.position(RECORD_HEADER_SIZE);
+        b.get(key);
+        return key;
+    }
+
+    @Override
+    protected ICacheElement<K, V> processGet(K key) throws IOException {
+        byte[] keyBytes = encodeKey(key);
+        long hash = MappedDiskCacheIndex.hash(keyBytes);
+        lock.readLock().lock();
+        try {
+            int slot = index.find(hash);
+            if (slot < 0) {
+                return null;
+            }
+            index.touch(slot);
+            ByteBuffer record = readRecord(index.getOffset(slot), index.getLength(slot));
+            if (!Arrays.equals(keyBytes, getKeyBytes(record))) {
+                return null; // hash collision
+            }
+            return decode(key, record);
+        } catch (ClassNotFoundException | BufferUnderflowException | IndexOutOfBoundsException e) {
+            Logging.log(Logging.LEVEL_WARN, getCacheName() + ": unable to read entry " + key, e);
+            return null;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    protected Map<K, ICacheElement<K, V>> processGetMatching(String pattern) throws IOException {
+        Map<K, ICacheElement<K, V>> result = new HashMap<>();
+        for (K key : getKeyMatcher().getMatchingKeysFromArray(pattern, getKeySet())) {
+            ICacheElement<K, V> element = processGet(key);
+            if (element != null) {
+                result.put(key, element);
+            }
+        }
+        return result;
+    }
+
+    @Override
+    protected void processUpdate(ICacheElement<K, V> element) throws IOException {
+        byte[] keyBytes = encodeKey(element.getKey());
+        ByteBuffer record = encode(element, keyBytes);
+        lock.writeLock().lock();
+        try {
+            long offset = append(record);
+            index.put(MappedDiskCacheIndex.hash(keyBytes), offset, record.capacity());
+            ensureLimits();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    protected boolean processRemove(K key) throws IOException {
+        lock.writeLock().lock();
+        try {
+            if (key instanceof String && ((String) key).endsWith(NAME_COMPONENT_DELIMITER)) {
+                return removePartial((String) key);
+            }
+            return remove(encodeKey(key));
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Removes all entries whose key starts with the given prefix.
+     */
+    private boolean removePartial(String prefix) throws IOException {
+        List<byte[]> keys = new ArrayList<>();
+        for (int slot : index.getSlotsByOffset()) {
+            ByteBuffer record = readRecord(index.getOffset(slot), index.getLength(slot));
+            if (record.get(9) == KEY_STRING) {
+                byte[] keyBytes = getKeyBytes(record);
+                if (new String(keyBytes, StandardCharsets.UTF_8).startsWith(prefix)) {
+                    keys.add(keyBytes);
+                }
+            }
+        }
+        boolean removed = false;
+        for (byte[] keyBytes : keys) {
+            removed |= remove(keyBytes);
+        }
+        return removed;
+    }
+
+    private boolean remove(byte[] keyBytes) throws IOException {
+        long hash = MappedDiskCacheIndex.hash(keyBytes);
+        int slot = index.find(hash);
+        if (slot < 0 || !Arrays.equals(keyBytes, getKeyBytes(readRecord(index.getOffset(slot), index.getLength(slot))))) {
+            return false;
+        }
+        index.remove(hash);
+        // the tombstone prevents the entry from being restored if the index has to be rebuilt from the data file
+        append(buildRecord(TYPE_REMOVED, (byte) 0, keyBytes, new byte[0], new byte[0]));
+        return true;
+    }
+
+    @Override
+    protected void processRemoveAll() throws IOException {
+        lock.writeLock().lock();
+        try {
+            resetFile();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    protected void processDispose() throws IOException {
+        lock.writeLock().lock();
+        try {
+            saveIndex();
+        } finally {
+            clearSegments();
+            try {
+                channel.close();
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+    }
+
+    @Override
+    public Set<K> getKeySet() throws IOException {
+        lock.readLock().lock();
+        try {
+            Set<K> keys = new HashSet<>(index.size() * 4 / 3 + 1);
+            for (int slot : index.getSlotsByOffset()) {
+                ByteBuffer record = readRecord(index.getOffset(slot), index.getLength(slot));
+                keys.add(decodeKey(record.get(9), getKeyBytes(record)));
+            }
+            return keys;
+        } catch (ClassNotFoundException e) {
+            throw new IOException(e);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public int getSize() {
+        return index.size();
+    }
+
+    @Override
+    protected String getDiskLocation() {
+        return dataFile.getAbsolutePath();
+    }
+
+    @Override
+    public AuxiliaryCacheAttributes getAuxiliaryCacheAttributes() {
+        return attributes;
+    }
+
+    @Override
+    public IStats getStatistics() {
+        IStats stats = new Stats();
+        stats.setTypeName("Mapped Disk Cache");
+        List<IStatElement<?>> elems = new ArrayList<>();
+        elems.add(new StatElement<>("Is Alive", isAlive()));
+        elems.add(new StatElement<>("Key Map Size", getSize()));
+        elems.add(new StatElement<>("Data File Length", dataEnd));
+        elems.add(new StatElement<>("Live Data Length", index.getTotalLength()));
+        elems.add(new StatElement<>("Compactions", compactions));
+        elems.addAll(super.getStatistics().getStatElements());
+        stats.setStatElements(elems);
+        return stats;
+    }
+
+    /**
+     * Evicts entries if the live data exceeds the size limit, and compacts the data file if too much of it is unused.
+     */
+    private void ensureLimits() throws IOException {
+        long limit = attributes.getMaxKeySize() * 1024L;
+        if (limit > 0 && index.getTotalLength() > limit) {
+            // evict some more, so that the next updates do not need to evict again
+            long target = limit - limit / 20;
+            while (index.getTotalLength() > target) {
+                index.evict();
+            }
+        }
+        long garbage = dataEnd - HEADER_SIZE - index.getTotalLength();
+        if (garbage > MIN_COMPACTION_GARBAGE && garbage > index.getTotalLength() / 2) {
+            compact();
+        }
+    }
+
+    /**
+     * Moves all live records to the start of the data file, in the order of their offsets, and truncates the file.
+     * <p>
+     * The moved records get a new generation, which is written to the file header first. If the compaction is interrupted,
+     * the scan of the data file stops at the first record of the old generation.
+     */
+    private void compact() throws IOException {
+        long start = System.nanoTime();
+        long oldEnd = dataEnd;
+        generation++;
+        writeHeader();
+        clearSegments();
+        long pos = HEADER_SIZE;
+        for (int slot : index.getSlotsByOffset()) {
+            long offset = index.getOffset(slot);
+            int length = index.getLength(slot);
+            if (offset == pos) {
+                ByteBuffer gen = ByteBuffer.allocate(4);
+                gen.putInt(0, generation);
+                writeToChannel(gen, offset + 4);
+            } else {
+                ByteBuffer record = readFromChannel(offset, length);
+                record.putInt(4, generation);
+                writeToChannel(record, pos);
+            }
+            index.setOffset(slot, pos);
+            pos += length;
+        }
+        dataEnd = pos;
+        truncate();
+        compactions++;
+        Logging.debug("{0}: compacted data file from {1} to {2} bytes in {3} ms", getCacheName(), oldEnd, dataEnd,
+                (System.nanoTime() - start) / 1_000_000);
+    }
+
+    private void truncate() {
+        try {
+            channel.truncate(dataEnd);
+        } catch (IOException e) {
+            // not possible on some systems while parts of the file are still mapped, the file is truncated on next start
+            Logging.trace(e);
+        }
+    }
+
+    private long append(ByteBuffer record) throws IOException {
+        long offset = dataEnd;
+        record.putInt(4, generation);
+        writeToChannel(record, offset);
+        dataEnd = offset + record.capacity();
+        return offset;
+    }
+
+    private void writeToChannel(ByteBuffer buffer, long position) throws IOException {
+        ByteBuffer b = buffer.duplicate();
+        b.rewind();
+        long pos = position;
+        while (b.hasRemaining()) {
+            pos += channel.write(b, pos);
+        }
+    }
+
+    private ByteBuffer readFromChannel(long position, int length) throws IOException {
+        ByteBuffer b = ByteBuffer.allocate(length);
+        long pos = position;
+        while (b.hasRemaining()) {
+            int read = channel.read(b, pos);
+            if (read < 0) {
+                throw new EOFException(dataFile + ": unexpected end of file at " + pos);
+            }
+            pos += read;
+        }
+        b.flip();
+        return b;
+    }
+
+    /**
+     * Reads a record, from the mapped segment if the record is completely contained in a full segment.
+     */
+    private ByteBuffer readRecord(long offset, int length) throws IOException {
+        int segment = (int) (offset / SEGMENT_SIZE);
+        long segmentStart = (long) segment * SEGMENT_SIZE;
+        if (offset + length <= segmentStart + SEGMENT_SIZE) {
+            MappedByteBuffer mapped = getSegment(segment);
+            if (mapped != null) {
+                ByteBuffer b = mapped.duplicate();
+                int start = (int) (offset - segmentStart);
+                b.position(start).limit(start + length);
+                return b.slice();
+            }
+        }
+        return readFromChannel(offset, length);
+    }
+
+    private MappedByteBuffer getSegment(int segment) throws IOException {
+        if ((long) (segment + 1) * SEGMENT_SIZE > dataEnd) {
+            return null; // the last segment is still growing
+        }
+        synchronized (segmentLock) {
+            if (segment >= segments.length) {
+                segments = Arrays.copyOf(segments, segment + 1);
+            }
+            if (segments[segment] == null) {
+                segments[segment] = channel.map(FileChannel.MapMode.READ_ONLY, (long) segment * SEGMENT_SIZE, SEGMENT_SIZE);
+            }
+            return segments[segment];
+        }
+    }
+
+    private void clearSegments() {
+        synchronized (segmentLock) {
+            // the mappings are released by the garbage collector
+            segments = new MappedByteBuffer[0];
+        }
+    }
+
+    private byte[] encodeKey(K key) throws IOException {
+        return key instanceof String ? ((String) key).getBytes(StandardCharsets.UTF_8) : getElementSerializer().serialize(key);
+    }
+
+    @SuppressWarnings("unchecked")
+    private K decodeKey(byte keyType, byte[] keyBytes) throws IOException, ClassNotFoundException {
+        return keyType == KEY_STRING ? (K) new String(keyBytes, StandardCharsets.UTF_8) : getElementSerializer().deSerialize(keyBytes, null);
+    }
+
+    private ByteBuffer encode(ICacheElement<K, V> element, byte[] keyBytes) throws IOException {
+        byte keyType = element.getKey() instanceof String ? KEY_STRING : KEY_SERIALIZED;
+        V value = element.getVal();
+        IElementAttributes attr = element.getElementAttributes();
+        if (value != null && value.getClass() == BufferedImageCacheEntry.class && attr != null && attr.getClass() == CacheEntryAttributes.class) {
+            byte[] meta = encodeMetadata(element.getCacheName(), attr.getCreateTime(), ((CacheEntryAttributes) attr).getMetadata());
+            return buildRecord(TYPE_TILE, keyType, keyBytes, meta, ((CacheEntry) value).getContent());
+        }
+        return buildRecord(TYPE_SERIALIZED, keyType, keyBytes, getElementSerializer().serialize(element), new byte[0]);
+    }
+
+    @SuppressWarnings("unchecked")
+    private ICacheElement<K, V> decode(K key, ByteBuffer record) throws IOException, ClassNotFoundException {
+        ByteBuffer b = record.duplicate();
+        int keyLength = b.getInt(12);
+        int metaLength = b.getInt(16);
+        int contentLength = b.getInt(20);
+        byte[] meta = new byte[metaLength];
+        b.position(RECORD_HEADER_SIZE + keyLength);
+        b.get(meta);
+        if (b.get(8) == TYPE_TILE) {
+            byte[] content = new byte[contentLength];
+            b.get(content);
+            CacheEntryAttributes attr = newTileAttributes();
+            String cacheName = decodeMetadata(meta, attr);
+            return new CacheElement<>(cacheName, key, (V) new BufferedImageCacheEntry(content), attr);
+        }
+        return getElementSerializer().deSerialize(meta, null);
+    }
+
+    /**
+     * Returns the attributes of a restored tile: a copy of the default element attributes of the cache region,
+     * so that the entry expires as configured in {@link JCSCacheManager}.
+     * @return new attributes for a restored tile
+     */
+    private CacheEntryAttributes newTileAttributes() {
+        IElementAttributes defaults = defaultElementAttributes;
+        return defaults instanceof CacheEntryAttributes ? ((CacheEntryAttributes) defaults).clone() : new CacheEntryAttributes();
+    }
+
+    private static byte[] encodeMetadata(String cacheName, long createTime, Map<String, String> metadata) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(128);
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            writeString(out, cacheName);
+            out.writeLong(createTime);
+            out.writeInt(metadata.size());
+            for (Map.Entry<String, String> e : metadata.entrySet()) {
+                writeString(out, e.getKey());
+                writeString(out, e.getValue());
+            }
+        }
+        return bytes.toByteArray();
+    }
+
+    private static String decodeMetadata(byte[] meta, CacheEntryAttributes attr) throws IOException {
+        try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(meta))) {
+            String cacheName = readString(in);
+            attr.restoreCreateTime(in.readLong());
+            int size = in.readInt();
+            Map<String, String> metadata = new HashMap<>(size * 4 / 3 + 1);
+            for (int i = 0; i < size; i++) {
+                metadata.put(readString(in), readString(in));
+            }
+            attr.restore(metadata);
+            return cacheName;
+        }
+    }
+
+    private static void writeString(DataOutputStream out, String s) throws IOException {
+        byte[] bytes = s.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    private static String readString(DataInputStream in) throws IOException {
+        byte[] bytes = new byte[in.readInt()];
+        in.readFully(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static ByteBuffer buildRecord(byte type, byte keyType, byte[] key, byte[] meta, byte[] content) throws IOException {
+        long length = getRecordLength(key.length, meta.length, content.length);
+        if (length < 0) {
+            throw new IOException("Cache entry too large");
+        }
+        ByteBuffer record = ByteBuffer.allocate((int) length);
+        record.putInt(RECORD_MAGIC).putInt(0).put(type).put(keyType).putShort((short) 0)
+              .putInt(key.length).putInt(meta.length).putInt(content.length)
+              .put(key).put(meta).put(content);
+        record.putInt((int) checksum(record.duplicate().limit((int) length)));
+        record.flip();
+        return record;
+    }
+
+    @Override
+    public String toString() {
+        return "MappedDiskCache [" + getCacheName() + ", " + index + ", dataEnd=" + dataEnd + ']';
+    }
+}
@@ -0,0 +1,34 @@
+// License: GPL. For details, see LICENSE file.
+package org.openstreetmap.josm.data.cache;
+
+import org.apache.commons.jcs3.auxiliary.disk.AbstractDiskCacheAttributes;
+
+/**
+ * Configuration of a {@link MappedDiskCache}.
+ */
+public class MappedDiskCacheAttributes extends AbstractDiskCacheAttributes {
+    private static final long serialVersionUID = 1L;
+
+    private int maxKeySize = -1;
+
+    /**
+     * Returns the maximum size of the live data.
+     * @return the maximum size in kB, or a value {@code <= 0} for no limit
+     */
+    public int getMaxKeySize() {
+        return maxKeySize;
+    }
+
+    /**
+     * Sets the maximum size of the live data. Least recently used entries are evicted if the limit is exceeded.
+     * @param maxKeySize the maximum size in kB, or a value {@code <= 0} for no limit
+     */
+    public void setMaxKeySize(int maxKeySize) {
+        this.maxKeySize = maxKeySize;
+    }
+
+    @Override
+    public String toString() {
+        return "MappedDiskCacheAttributes [maxKeySize=" + maxKeySize + ", " + super.toString() + ']';
+    }
+}
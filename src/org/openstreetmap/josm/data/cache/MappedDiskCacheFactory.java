@@ -0,0 +1,25 @@
+// License: GPL. For details, see LICENSE file.
+package org.openstreetmap.josm.data.cache;
+
+import java.io.IOException;
+
+import org.apache.commons.jcs3.auxiliary.AbstractAuxiliaryCacheFactory;
+import org.apache.commons.jcs3.auxiliary.AuxiliaryCacheAttributes;
+import org.apache.commons.jcs3.engine.behavior.ICompositeCacheManager;
+import org.apache.commons.jcs3.engine.behavior.IElementSerializer;
+import org.apache.commons.jcs3.engine.logging.behavior.ICacheEventLogger;
+
+/**
+ * Creates {@link MappedDiskCache} instances.
+ */
+public class MappedDiskCacheFactory extends AbstractAuxiliaryCacheFactory {
+
+    @Override
+    public <K, V> MappedDiskCache<K, V> createCache(AuxiliaryCacheAttributes attr, ICompositeCacheManager cacheMgr,
+            ICacheEventLogger cacheEventLogger, IElementSerializer elementSerializer) throws IOException {
+        MappedDiskCache<K, V> cache = new MappedDiskCache<>((MappedDiskCacheAttributes) attr);
+        cache.setCacheEventLogger(cacheEventLogger);
+        cache.setElementSerializer(elementSerializer);
+        return cache;
+    }
+}
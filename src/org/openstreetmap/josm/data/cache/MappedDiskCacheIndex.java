@@ -0,0 +1,248 @@
+// License: GPL. For details, see LICENSE file.
+package org.openstreetmap.josm.data.cache;
+
+import java.util.Arrays;
+
+/**
+ * Open-addressed hash index of the records of a {@link MappedDiskCache}.
+ * <p>
+ * Each slot holds the 64 bit hash of a key, the offset and the length of the record in the data file, and a reference
+ * bit for the CLOCK eviction. The slots are stored in primitive arrays (21 bytes per slot), collisions are resolved
+ * with linear probing and removals use backward shift deletion, so no tombstones are needed.
+ * <p>
+ * This class is not thread-safe.
+ */
+final class MappedDiskCacheIndex {
+    private static final int MIN_CAPACITY = 1024;
+
+    private long[] hashes;
+    private long[] offsets;
+    private int[] lengths;
+    private boolean[] referenced;
+    private int mask;
+    private int size;
+    private long totalLength;
+    private int clockHand;
+
+    MappedDiskCacheIndex() {
+        allocate(MIN_CAPACITY);
+    }
+
+    private void allocate(int capacity) {
+        hashes = new long[capacity];
+        offsets = new long[capacity];
+        lengths = new int[capacity];
+        referenced = new boolean[capacity];
+        mask = capacity - 1;
+        clockHand = 0;
+    }
+
+    /**
+     * Returns the hash used by this index for the given encoded key (64 bit FNV-1a). The value {@code 0} is never returned.
+     * @param key the encoded key
+     * @return the hash of the key
+     */
+    static long hash(byte[] key) {
+        long h = 0xcbf29ce484222325L;
+        for (byte b : key) {
+            h ^= b & 0xff;
+            h *= 0x100000001b3L;
+        }
+        return h == 0 ? 1 : h;
+    }
+
+    private int slotOf(long hash) {
+        long h = hash ^ (hash >>> 32);
+        return (int) (h ^ (h >>> 16)) & mask;
+    }
+
+    /**
+     * Returns the slot of the given hash.
+     * @param hash the key hash
+     * @return the slot, or {@code -1} if the hash is not in the index
+     */
+    int find(long hash) {
+        for (int slot = slotOf(hash); hashes[slot] != 0; slot = (slot + 1) & mask) {
+            if (hashes[slot] == hash) {
+                return slot;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Adds or replaces an entry.
+     * @param hash the key hash
+     * @param offset the offset of the record
+     * @param length the length of the record
+     * @return the length of the replaced record, or {@code 0}
+     */
+    int put(long hash, long offset, int length) {
+        if (size >= (mask + 1) / 4 * 3) {
+            resize((mask + 1) * 2);
+        }
+        int slot = slotOf(hash);
+        while (hashes[slot] != 0 && hashes[slot] != hash) {
+            slot = (slot + 1) & mask;
+        }
+        int old = 0;
+        if (hashes[slot] == 0) {
+            size++;
+        } else {
+            old = lengths[slot];
+        }
+        hashes[slot] = hash;
+        offsets[slot] = offset;
+        lengths[slot] = length;
+        referenced[slot] = true;
+        totalLength += length - old;
+        return old;
+    }
+
+    /**
+     * Removes an entry.
+     * @param hash the key hash
+     * @return the length of the removed record, or {@code 0}
+     */
+    int remove(long hash) {
+        int slot = find(hash);
+        return slot >= 0 ? removeSlot(slot) : 0;
+    }
+
+    private int removeSlot(int slot) {
+        int length = lengths[slot];
+        size--;
+        totalLength -= length;
+        // backward shift deletion: move the following entries of the cluster to the free slot, if allowed by their home slot
+        int free = slot;
+        for (int next = (slot + 1) & mask; hashes[next] != 0; next = (next + 1) & mask) {
+            int home = slotOf(hashes[next]);
+            if (((next - home) & mask) >= ((next - free) & mask)) {
+                hashes[free] = hashes[next];
+                offsets[free] = offsets[next];
+                lengths[free] = lengths[next];
+                referenced[free] = referenced[next];
+                free = next;
+            }
+        }
+        hashes[free] = 0;
+        referenced[free] = false;
+        return length;
+    }
+
+    /**
+     * Marks the entry in the given slot as recently used.
+     * @param slot the slot
+     */
+    void touch(int slot) {
+        referenced[slot] = true;
+    }
+
+    /**
+     * Removes the next entry selected by the CLOCK algorithm, i.e. the next entry which was not used since the last sweep.
+     * @return the length of the removed record, or {@code 0} if the index is empty
+     */
+    int evict() {
+        if (size == 0) {
+            return 0;
+        }
+        while (true) {
+            int slot = clockHand;
+            clockHand = (clockHand + 1) & mask;
+            if (hashes[slot] != 0) {
+                if (referenced[slot]) {
+                    referenced[slot] = false;
+                } else {
+                    // the entry following the removed one may be shifted into this slot, check it next
+                    clockHand = slot;
+                    return removeSlot(slot);
+                }
+            }
+        }
+    }
+
+    private void resize(int capacity) {
+        long[] oldHashes = hashes;
+        long[] oldOffsets = offsets;
+        int[] oldLengths = lengths;
+        boolean[] oldReferenced = referenced;
+        allocate(capacity);
+        size = 0;
+        totalLength = 0;
+        for (int i = 0; i < oldHashes.length; i++) {
+            if (oldHashes[i] != 0) {
+                put(oldHashes[i], oldOffsets[i], oldLengths[i]);
+                referenced[find(oldHashes[i])] = oldReferenced[i];
+            }
+        }
+    }
+
+    /**
+     * Removes all entries.
+     */
+    void clear() {
+        allocate(MIN_CAPACITY);
+        size = 0;
+        totalLength = 0;
+    }
+
+    /**
+     * Returns the occupied slots, ordered by record offset.
+     * @return the occupied slots
+     */
+    int[] getSlotsByOffset() {
+        long[] sortedOffsets = new long[size];
+        int n = 0;
+        for (int i = 0; i < hashes.length; i++) {
+            if (hashes[i] != 0) {
+                sortedOffsets[n++] = offsets[i];
+            }
+        }
+        Arrays.sort(sortedOffsets);
+        // the offsets are unique, as each entry refers to its own record
+        int[] slots = new int[size];
+        for (int i = 0; i < hashes.length; i++) {
+            if (hashes[i] != 0) {
+                slots[Arrays.binarySearch(sortedOffsets, offsets[i])] = i;
+            }
+        }
+        return slots;
+    }
+
+    long getHash(int slot) {
+        return hashes[slot];
+    }
+
+    long getOffset(int slot) {
+        return offsets[slot];
+    }
+
+    void setOffset(int slot, long offset) {
+        offsets[slot] = offset;
+    }
+
+    int getLength(int slot) {
+        return lengths[slot];
+    }
+
+    /**
+     * Returns the number of entries.
+     * @return the number of entries
+     */
+    int size() {
+        return size;
+    }
+
+    /**
+     * Returns the sum of the lengths of all records in the index.
+     * @return the size of the live records in bytes
+     */
+    long getTotalLength() {
+        return totalLength;
+    }
+
+    @Override
+    public String toString() {
+        return "MappedDiskCacheIndex [size=" + size + ", totalLength=" + totalLength + ']';
+    }
+}
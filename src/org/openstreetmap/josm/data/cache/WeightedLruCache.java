@@ -0,0 +1,189 @@
+// License: GPL. For details, see LICENSE file.
+package org.openstreetmap.josm.data.cache;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.BiConsumer;
+import java.util.function.LongSupplier;
+import java.util.function.Predicate;
+import java.util.function.ToLongFunction;
+
+/**
+ * A least recently used cache whose capacity is a total weight, e.g. a number of bytes, instead of a number of entries.
+ * <p>
+ * The weight of a value is computed once, when it is added. The capacity is queried on each modification, so it may
+ * change over time, e.g. depending on the available memory.
+ * The eviction listener is called after the cache lock has been released.
+ * <p>
+ * This class is thread-safe.
+ *
+ * @param <K> key type
+ * @param <V> value type
+ */
+public class WeightedLruCache<K, V> {
+
+    private static final class Node<V> {
+        private final V value;
+        private final long weight;
+
+        Node(V value, long weight) {
+            this.value = value;
+            this.weight = weight;
+        }
+    }
+
+    private final LinkedHashMap<K, Node<V>> map = new LinkedHashMap<>(16, 0.75f, true);
+    private final ToLongFunction<? super V> weigher;
+    private final LongSupplier capacity;
+    private final BiConsumer<? super K, ? super V> evictionListener;
+    private long weight;
+    private long evictions;
+
+    /**
+     * Constructs a new {@code WeightedLruCache}.
+     * @param weigher computes the weight of a value, must not be negative
+     * @param capacity supplies the maximum total weight
+     * @param evictionListener called for values which have been evicted because the capacity was exceeded, may be {@code null}
+     */
+    public WeightedLruCache(ToLongFunction<? super V> weigher, LongSupplier capacity, BiConsumer<? super K, ? super V> evictionListener) {
+        this.weigher = weigher;
+        this.capacity = capacity;
+        this.evictionListener = evictionListener;
+    }
+
+    /**
+     * Returns the value for the given key and marks it as most recently used.
+     * @param key the key
+     * @return the value, or {@code null}
+     */
+    public synchronized V get(K key) {
+        Node<V> node = map.get(key);
+        return node != null ? node.value : null;
+    }
+
+    /**
+     * Adds a value as most recently used one, and evicts the least recently used values if the capacity is exceeded.
+     * A value which is heavier than the capacity is evicted immediately.
+     * @param key the key
+     * @param value the value
+     * @return the previous value for the key, or {@code null}
+     */
+    public V put(K key, V value) {
+        Node<V> old;
+        List<Map.Entry<K, Node<V>>> evicted;
+        long w = weigher.applyAsLong(value);
+        synchronized (this) {
+            old = map.put(key, new Node<>(value, w));
+            weight += w;
+            if (old != null) {
+                weight -= old.weight;
+            }
+            evicted = evict();
+        }
+        notifyEvicted(evicted);
+        return old != null ? old.value : null;
+    }
+
+    /**
+     * Removes a value. The eviction listener is not called.
+     * @param key the key
+     * @return the removed value, or {@code null}
+     */
+    public synchronized V remove(K key) {
+        Node<V> old = map.remove(key);
+        if (old == null) {
+            return null;
+        }
+        weight -= old.weight;
+        return old.value;
+    }
+
+    /**
+     * Removes the values whose keys match a predicate. The eviction listener is not called.
+     * @param predicate the keys to remove
+     */
+    public synchronized void removeIf(Predicate<? super K> predicate) {
+        for (Iterator<Map.Entry<K, Node<V>>> it = map.entrySet().iterator(); it.hasNext();) {
+            Map.Entry<K, Node<V>> entry = it.next();
+            if (predicate.test(entry.getKey())) {
+                weight -= entry.getValue().weight;
+                it.remove();
+            }
+        }
+    }
+
+    /**
+     * Removes all values. The eviction listener is not called.
+     */
+    public synchronized void clear() {
+        map.clear();
+        weight = 0;
+    }
+
+    /**
+     * Evicts the least recently used values until the current capacity is respected, e.g. after the capacity has been reduced.
+     */
+    public void trim() {
+        List<Map.Entry<K, Node<V>>> evicted;
+        synchronized (this) {
+            evicted = evict();
+        }
+        notifyEvicted(evicted);
+    }
+
+    private List<Map.Entry<K, Node<V>>> evict() {
+        long max = capacity.getAsLong();
+        if (weight <= max) {
+            return null;
+        }
+        List<Map.Entry<K, Node<V>>> evicted = new ArrayList<>();
+        for (Iterator<Map.Entry<K, Node<V>>> it = map.entrySet().iterator(); it.hasNext() && weight > max;) {
+            Map.Entry<K, Node<V>> e = it.next();
+            it.remove();
+            weight -= e.getValue().weight;
+            evictions++;
+            evicted.add(e);
+        }
+        return evicted;
+    }
+
+    private void notifyEvicted(List<Map.Entry<K, Node<V>>> evicted) {
+        if (evicted != null && evictionListener != null) {
+            for (Map.Entry<K, Node<V>> e : evicted) {
+                evictionListener.accept(e.getKey(), e.getValue().value);
+            }
+        }
+    }
+
+    /**
+     * Returns the total weight of the values in the cache.
+     * @return the total weight
+     */
+    public synchronized long getWeight() {
+        return weight;
+    }
+
+    /**
+     * Returns the number of values in the cache.
+     * @return the number of values
+     */
+    public synchronized int size() {
+        return map.size();
+    }
+
+    /**
+     * Returns the number of values evicted because the capacity was exceeded.
+     * @return the number of evictions
+     */
+    public synchronized long getEvictions() {
+        return evictions;
+    }
+
+    @Override
+    public synchronized String toString() {
+        return "WeightedLruCache [size=" + map.size() + ", weight=" + weight + ", evictions=" + evictions + ']';
+    }
+}
@@ -0,0 +1,508 @@
+// License: GPL. For details, see LICENSE file.
+package org.openstreetmap.josm.data.gpx;
+
+import java.awt.Color;
+import java.time.Instant;
+import java.util.AbstractCollection;
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+
+import org.openstreetmap.josm.data.Bounds;
+import org.openstreetmap.josm.data.coor.ILatLon;
+import org.openstreetmap.josm.data.coor.LatLon;
+
+/**
+ * A gpx track segment which stores the coordinates, time, elevation, hdop, fix and RTKLib quality of its points in arrays.
+ * <p>
+ * A {@link WayPoint} with its attribute map needs several hundred bytes, which adds up for long recordings.
+ * This segment keeps about 46 bytes per point. Points with other attributes or with extensions are kept as they are.
+ * <p>
+ * {@link #getWayPoints()} creates the way points when they are accessed. Except for the points which are kept as they
+ * are, each call returns new objects, so changes to them are not stored in the segment.
+ * The drawing state of the points (color, direction, projected coordinates) is kept in the segment while iterating
+ * over a {@link Line} of this segment.
+ */
+public class CompactGpxTrackSegment extends WithAttributes implements IGpxTrackSegment {
+
+    /** value of {@link #times} for points without time */
+    private static final long NO_TIME = Long.MIN_VALUE;
+    /** value of {@link #qualities} for points without RTKLib quality */
+    private static final byte NO_QUALITY = -1;
+
+    private static final int DRAW_LINE = 0x8;
+    private static final int DIR_MASK = 0x7;
+
+    private final int size;
+    private final double[] lats;
+    private final double[] lons;
+    private final long[] times;
+    private final String[] elevations;
+    private final float[] hdops;
+    private final String[] fixes;
+    private final byte[] qualities;
+    /** points which do not fit into the arrays, or {@code null} if there are none */
+    private final WayPoint[] points;
+    private final boolean hasTime;
+    private final Bounds bounds;
+    private final double length;
+
+    // drawing state, see WayPoint#customColoring, WayPoint#drawLine and WayPoint#dir
+    private Color[] colors;
+    private byte[] drawFlags;
+    // projected coordinates, see WayPoint#getEastNorth
+    private double[] easts;
+    private double[] norths;
+    private Object eastNorthCacheKey;
+
+    /**
+     * Builds a {@link CompactGpxTrackSegment} point by point.
+     */
+    public static class Builder {
+        private int size;
+        private double[] lats = new double[16];
+        private double[] lons = new double[16];
+        private long[] times = new long[16];
+        private String[] elevations = new String[16];
+        private float[] hdops = new float[16];
+        private String[] fixes = new String[16];
+        private byte[] qualities = new byte[16];
+        private WayPoint[] points;
+        private boolean hasTime;
+        // elevations and fixes are often repeated, share the strings
+        private final Map<String, String> strings = new HashMap<>();
+
+        /**
+         * Appends a point. Unless the point has other attributes than time, elevation, hdop, fix and RTKLib quality,
+         * the point itself is not referenced afterwards.
+         * @param wpt the point
+         * @return this builder
+         */
+        public Builder add(WayPoint wpt) {
+            addPoint(wpt.lat(), wpt.lon());
+            if (!storeAttributes(wpt)) {
+                if (points == null) {
+                    points = new WayPoint[lats.length];
+                }
+                points[size] = wpt;
+            }
+            hasTime |= wpt.hasDate();
+            size++;
+            return this;
+        }
+
+        /**
+         * Appends a point without creating a {@link WayPoint}, for parsers which read only these attributes.
+         * @param lat the latitude
+         * @param lon the longitude
+         * @param time the time, or {@code null}
+         * @param ele the elevation, or {@code null}
+         * @param hdop the hdop, or {@link Float#NaN}
+         * @param fix the fix, or {@code null}
+         * @return this builder
+         */
+        public Builder add(double lat, double lon, Instant time, String ele, float hdop, String fix) {
+            return add(lat, lon, time, ele, hdop, fix, NO_QUALITY);
+        }
+
+        /**
+         * Appends a point without creating a {@link WayPoint}, for parsers which read only these attributes.
+         * @param lat the latitude
+         * @param lon the longitude
+         * @param time the time, or {@code null}
+         * @param ele the elevation, or {@code null}
+         * @param hdop the hdop, or {@link Float#NaN}
+         * @param fix the fix, or {@code null}
+         * @param quality the RTKLib quality, or a negative value
+         * @return this builder
+         */
+        public Builder add(double lat, double lon, Instant time, String ele, float hdop, String fix, int quality) {
+            if ((time != null && time.getNano() % 1_000_000 != 0) || quality > Byte.MAX_VALUE) {
+                // sub-millisecond time or large quality, keep the point as it is
+                WayPoint wpt = new WayPoint(lat, lon);
+                wpt.setInstant(time);
+                if (ele != null) {
+                    wpt.put(GpxConstants.PT_ELE, ele);
+                }
+                if (!Float.isNaN(hdop)) {
+                    wpt.put(GpxConstants.PT_HDOP, hdop);
+                }
+                if (fix != null) {
+                    wpt.put(GpxConstants.PT_FIX, fix);
+                }
+                if (quality >= 0) {
+                    wpt.put(GpxConstants.RTKLIB_Q, quality);
+                }
+                return add(wpt);
+            }
+            addPoint(lat, lon);
+            if (time != null) {
+                times[size] = time.toEpochMilli();
+                hasTime = true;
+            }
+            elevations[size] = share(ele);
+            hdops[size] = hdop;
+            fixes[size] = share(fix);
+            if (quality >= 0) {
+                qualities[size] = (byte) quality;
+            }
+            size++;
+            return this;
+        }
+
+        private void addPoint(double lat, double lon) {
+            if (size == lats.length) {
+                int capacity = size + (size >> 1);
+                lats = Arrays.copyOf(lats, capacity);
+                lons = Arrays.copyOf(lons, capacity);
+                times = Arrays.copyOf(times, capacity);
+                elevations = Arrays.copyOf(elevations, capacity);
+                hdops = Arrays.copyOf(hdops, capacity);
+                fixes = Arrays.copyOf(fixes, capacity);
+                qualities = Arrays.copyOf(qualities, capacity);
+                if (points != null) {
+                    points = Arrays.copyOf(points, capacity);
+                }
+            }
+            lats[size] = lat;
+            lons[size] = lon;
+            times[size] = NO_TIME;
+            elevations[size] = null;
+            hdops[size] = Float.NaN;
+            fixes[size] = null;
+            qualities[size] = NO_QUALITY;
+        }
+
+        private String share(String value) {
+            return value == null ? null : strings.computeIfAbsent(value, v -> v);
+        }
+
+        private boolean storeAttributes(WayPoint wpt) {
+            if (wpt.hasExtensions() && !wpt.getExtensions().isEmpty()) {
+                return false;
+            }
+            for (Map.Entry<String, Object> e : wpt.attr.entrySet()) {
+                Object value = e.getValue();
+                if (GpxConstants.PT_TIME.equals(e.getKey()) && value instanceof Instant
+                        && ((Instant) value).getNano() % 1_000_000 == 0) {
+                    times[size] = ((Instant) value).toEpochMilli();
+                } else if (GpxConstants.PT_ELE.equals(e.getKey()) && value instanceof String) {
+                    elevations[size] = share((String) value);
+                } else if (GpxConstants.PT_HDOP.equals(e.getKey()) && value instanceof Float && !((Float) value).isNaN()) {
+                    hdops[size] = (Float) value;
+                } else if (GpxConstants.PT_FIX.equals(e.getKey()) && value instanceof String) {
+                    fixes[size] = share((String) value);
+                } else if (GpxConstants.RTKLIB_Q.equals(e.getKey()) && value instanceof Integer
+                        && (Integer) value >= 0 && (Integer) value <= Byte.MAX_VALUE) {
+                    qualities[size] = ((Integer) value).byteValue();
+                } else {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        /**
+         * Returns the number of points added so far.
+         * @return the number of points
+         */
+        public int size() {
+            return size;
+        }
+
+        /**
+         * Creates the segment.
+         * @return the new segment
+         */
+        public CompactGpxTrackSegment build() {
+            return new CompactGpxTrackSegment(this);
+        }
+    }
+
+    private CompactGpxTrackSegment(Builder builder) {
+        size = builder.size;
+        lats = Arrays.copyOf(builder.lats, size);
+        lons = Arrays.copyOf(builder.lons, size);
+        times = Arrays.copyOf(builder.times, size);
+        elevations = Arrays.copyOf(builder.elevations, size);
+        hdops = Arrays.copyOf(builder.hdops, size);
+        fixes = Arrays.copyOf(builder.fixes, size);
+        qualities = Arrays.copyOf(builder.qualities, size);
+        points = builder.points == null ? null : Arrays.copyOf(builder.points, size);
+        hasTime = builder.hasTime;
+        bounds = calculateBounds();
+        length = calculateLength();
+    }
+
+    /**
+     * Constructs a new {@code CompactGpxTrackSegment}.
+     * @param wayPoints list of waypoints
+     */
+    public CompactGpxTrackSegment(Collection<WayPoint> wayPoints) {
+        this(addAll(new Builder(), wayPoints));
+    }
+
+    private static Builder addAll(Builder builder, Collection<WayPoint> wayPoints) {
+        wayPoints.forEach(builder::add);
+        return builder;
+    }
+
+    private Bounds calculateBounds() {
+        Bounds result = null;
+        for (int i = 0; i < size; i++) {
+            if (result == null) {
+                result = new Bounds(lats[i], lons[i], true);
+            } else {
+                result.extend(lats[i], lons[i]);
+            }
+        }
+        return result;
+    }
+
+    private double calculateLength() {
+        double result = 0.0; // in meters
+        for (int i = 1; i < size; i++) {
+            double d = new LatLon(lats[i - 1], lons[i - 1]).greatCircleDistance((ILatLon) new LatLon(lats[i], lons[i]));
+            if (!Double.isNaN(d) && !Double.isInfinite(d)) {
+                result += d;
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Returns the number of points.
+     * @return the number of points
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Returns the latitude of a point.
+     * @param index index of the point
+     * @return the latitude
+     */
+    public double getLat(int index) {
+        return lats[index];
+    }
+
+    /**
+     * Returns the longitude of a point.
+     * @param index index of the point
+     * @return the longitude
+     */
+    public double getLon(int index) {
+        return lons[index];
+    }
+
+    /**
+     * Determines if a point has a time.
+     * @param index index of the point
+     * @return {@code true} if the point has a time
+     * @see WayPoint#hasDate()
+     */
+    public boolean hasTime(int index) {
+        return points != null && points[index] != null ? points[index].hasDate() : times[index] != NO_TIME;
+    }
+
+    /**
+     * Returns the time of a point in milliseconds since the epoch.
+     * @param index index of the point
+     * @return the time, or 0 if the point has no time
+     * @see WayPoint#getTimeInMillis()
+     */
+    public long getTimeInMillis(int index) {
+        if (points != null && points[index] != null) {
+            return points[index].getTimeInMillis();
+        }
+        return times[index] == NO_TIME ? 0 : times[index];
+    }
+
+    /**
+     * Determines if any point of this segment has a time.
+     * @return {@code true} if any point has a time
+     */
+    public boolean hasTime() {
+        return hasTime;
+    }
+
+    /**
+     * Returns a point.
+     * @param index index of the point
+     * @return the point, a new object unless the point is kept as it is
+     */
+    public WayPoint getWayPoint(int index) {
+        if (points != null && points[index] != null) {
+            return points[index];
+        }
+        WayPoint wpt = new WayPoint(lats[index], lons[index]);
+        if (times[index] != NO_TIME) {
+            wpt.setInstant(Instant.ofEpochMilli(times[index]));
+        }
+        if (elevations[index] != null) {
+            wpt.put(GpxConstants.PT_ELE, elevations[index]);
+        }
+        if (!Float.isNaN(hdops[index])) {
+            wpt.put(GpxConstants.PT_HDOP, hdops[index]);
+        }
+        if (fixes[index] != null) {
+            wpt.put(GpxConstants.PT_FIX, fixes[index]);
+        }
+        if (qualities[index] != NO_QUALITY) {
+            wpt.put(GpxConstants.RTKLIB_Q, (int) qualities[index]);
+        }
+        synchronized (this) {
+            if (colors != null) {
+                wpt.customColoring = colors[index];
+                wpt.drawLine = (drawFlags[index] & DRAW_LINE) != 0;
+                wpt.dir = drawFlags[index] & DIR_MASK;
+            }
+            if (easts != null) {
+                wpt.setEastNorthCache(easts[index], norths[index], eastNorthCacheKey);
+            }
+        }
+        return wpt;
+    }
+
+    /**
+     * Stores the drawing state of a point created by {@link #getWayPoint}.
+     */
+    private synchronized void storeDrawingState(int index, WayPoint wpt) {
+        if (points != null && points[index] != null) {
+            return;
+        }
+        if (colors == null) {
+            colors = new Color[size];
+            drawFlags = new byte[size];
+        }
+        colors[index] = wpt.customColoring;
+        drawFlags[index] = (byte) ((wpt.drawLine ? DRAW_LINE : 0) | (wpt.dir & DIR_MASK));
+        Object key = wpt.getEastNorthCacheKey();
+        if (key != null && !Double.isNaN(wpt.getCachedEast())) {
+            if (easts == null || !Objects.equals(key, eastNorthCacheKey)) {
+                easts = new double[size];
+                norths = new double[size];
+                Arrays.fill(easts, Double.NaN);
+                Arrays.fill(norths, Double.NaN);
+                eastNorthCacheKey = key;
+            }
+            easts[index] = wpt.getCachedEast();
+            norths[index] = wpt.getCachedNorth();
+        }
+    }
+
+    /**
+     * Invalidate the cache of east/north coordinates of all points.
+     * @see WayPoint#invalidateEastNorthCache()
+     */
+    public synchronized void invalidateEastNorthCache() {
+        easts = null;
+        norths = null;
+        eastNorthCacheKey = null;
+        if (points != null) {
+            for (WayPoint wpt : points) {
+                if (wpt != null) {
+                    wpt.invalidateEastNorthCache();
+                }
+            }
+        }
+    }
+
+    /**
+     * Returns the points for drawing. The drawing state set on a point is stored in the segment,
+     * when the iterator moves to the next point.
+     * @return the points, created while iterating
+     * @see Line
+     */
+    Collection<WayPoint> getDrawingPoints() {
+        return new AbstractCollection<WayPoint>() {
+            @Override
+            public Iterator<WayPoint> iterator() {
+                return new Iterator<WayPoint>() {
+                    private int next;
+                    private WayPoint current;
+
+                    @Override
+                    public boolean hasNext() {
+                        if (current != null) {
+                            storeDrawingState(next - 1, current);
+                            current = null;
+                        }
+                        return next < size;
+                    }
+
+                    @Override
+                    public WayPoint next() {
+                        if (!hasNext()) {
+                            throw new NoSuchElementException();
+                        }
+                        current = getWayPoint(next++);
+                        return current;
+                    }
+                };
+            }
+
+            @Override
+            public int size() {
+                return size;
+            }
+        };
+    }
+
+    @Override
+    public Bounds getBounds() {
+        return bounds == null ? null : new Bounds(bounds);
+    }
+
+    @Override
+    public List<WayPoint> getWayPoints() {
+        return new AbstractList<WayPoint>() {
+            @Override
+            public WayPoint get(int index) {
+                Objects.checkIndex(index, size);
+                return getWayPoint(index);
+            }
+
+            @Override
+            public int size() {
+                return size;
+            }
+        };
+    }
+
+    @Override
+    public double length() {
+        return length;
+    }
+
+    @Override
+    public int getUpdateCount() {
+        return 0;
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(super.hashCode(), getWayPoints());
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (this == obj)
+            return true;
+        if (obj == null)
+            return false;
+        if (!super.equals(obj))
+            return false;
+        if (getClass() != obj.getClass())
+            return false;
+        CompactGpxTrackSegment other = (CompactGpxTrackSegment) obj;
+        return getWayPoints().equals(other.getWayPoints());
+    }
+}
@@ -20,14 +20,17 @@ import java.util.Objects;
 import java.util.Optional;
 import java.util.OptionalLong;
 import java.util.Set;
+import java.util.concurrent.Future;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
 import org.openstreetmap.josm.data.Bounds;
 import org.openstreetmap.josm.data.Data;
 import org.openstreetmap.josm.data.DataSource;
+import org.openstreetmap.josm.data.ProjectionBounds;
 import org.openstreetmap.josm.data.coor.EastNorth;
 import org.openstreetmap.josm.data.gpx.IGpxTrack.GpxTrackChangeListener;
+import org.openstreetmap.josm.data.projection.Projection;
 import org.openstreetmap.josm.data.projection.ProjectionRegistry;
 import org.openstreetmap.josm.gui.MainApplication;
 import org.openstreetmap.josm.gui.layer.GpxLayer;
@@ -105,6 +108,10 @@ public class GpxData extends WithAttributes implements Data, IGpxLayerPrefs {
     private boolean updating;
     private boolean initializing;
     private boolean suppressedInvalidate;
+    private volatile GpxDataIndex index;
+    private GpxSimplification simplification;
+    /** the computation of {@link #simplification} in the background, or {@code null} */
+    private Future<?> simplificationTask;
 
     /**
      * Tracks. Access is discouraged, use {@link #getTracks()} to read.
@@ -837,75 +844,80 @@ public class GpxData extends WithAttributes implements Data, IGpxLayerPrefs {
         double px = p.east();
         double py = p.north();
         double rx = 0.0, ry = 0.0, sx, sy, x, y;
-        for (IGpxTrack track : privateTracks) {
-            for (IGpxTrackSegment seg : track.getSegments()) {
-                WayPoint r = null;
-                for (WayPoint wpSeg : seg.getWayPoints()) {
-                    EastNorth en = wpSeg.getEastNorth(ProjectionRegistry.getProjection());
-                    if (r == null) {
-                        r = wpSeg;
-                        rx = en.east();
-                        ry = en.north();
-                        x = px - rx;
-                        y = py - ry;
-                        double pRsq = x * x + y * y;
-                        if (pRsq < pnminsq) {
-                            pnminsq = pRsq;
-                            bestEN = en;
-                            if (r.hasDate()) {
-                                bestTime = r.getTime();
-                            }
-                        }
-                    } else {
-                        sx = en.east();
-                        sy = en.north();
-                        double a = sy - ry;
-                        double b = rx - sx;
-                        double c = -a * rx - b * ry;
-                        double rssq = a * a + b * b;
-                        if (rssq == 0) {
-                            continue;
-                        }
-                        double pnsq = a * px + b * py + c;
-                        pnsq = pnsq * pnsq / rssq;
-                        if (pnsq < pnminsq) {
-                            x = px - rx;
-                            y = py - ry;
-                            double prsq = x * x + y * y;
-                            x = px - sx;
-                            y = py - sy;
-                            double pssq = x * x + y * y;
-                            if (prsq - pnsq <= rssq && pssq - pnsq <= rssq) {
-                                double rnoverRS = Math.sqrt((prsq - pnsq) / rssq);
-                                double nx = rx - rnoverRS * b;
-                                double ny = ry + rnoverRS * a;
-                                bestEN = new EastNorth(nx, ny);
-                                if (r.hasDate() && wpSeg.hasDate()) {
-                                    bestTime = r.getTime() + rnoverRS * (wpSeg.getTime() - r.getTime());
-                                }
-                                pnminsq = pnsq;
-                            }
-                        }
-                        r = wpSeg;
-                        rx = sx;
-                        ry = sy;
+        // only the parts of the segments near p need to be checked
+        for (GpxDataIndex.Part part : getIndex().search(getSearchBounds(p, tolerance))) {
+            List<WayPoint> wpts = GpxDataIndex.getWayPoints(part.getSegment());
+            WayPoint r = null;
+            for (int i = part.getFromIndex(); i <= part.getToIndex(); i++) {
+                WayPoint wpSeg = wpts.get(i);
+                EastNorth en = wpSeg.getEastNorth(ProjectionRegistry.getProjection());
+                if (r == null) {
+                    r = wpSeg;
+                    rx = en.east();
+                    ry = en.north();
+                    if (i > 0) {
+                        // not the first point of the segment, only the lines are checked
+                        continue;
                     }
-                }
-                if (r != null) {
-                    EastNorth c = r.getEastNorth(ProjectionRegistry.getProjection());
-                    /* if there is only one point in the seg, it will do this twice, but no matter */
-                    rx = c.east();
-                    ry = c.north();
                     x = px - rx;
                     y = py - ry;
-                    double prsq = x * x + y * y;
-                    if (prsq < pnminsq) {
-                        pnminsq = prsq;
-                        bestEN = c;
+                    double pRsq = x * x + y * y;
+                    if (pRsq < pnminsq) {
+                        pnminsq = pRsq;
+                        bestEN = en;
                         if (r.hasDate()) {
                             bestTime = r.getTime();
                         }
                     }
+                } else {
+                    sx = en.east();
+                    sy = en.north();
+                    double a = sy - ry;
+                    double b = rx - sx;
+                    double c = -a * rx - b * ry;
+                    double rssq = a * a + b * b;
+                    if (rssq == 0) {
+                        continue;
+                    }
+                    double pnsq = a * px + b * py + c;
+                    pnsq = pnsq * pnsq / rssq;
+                    if (pnsq < pnminsq) {
+                        x = px - rx;
+                        y = py - ry;
+                        double prsq = x * x + y * y;
+                        x = px - sx;
+                        y = py - sy;
+                        double pssq = x * x + y * y;
+                        if (prsq - pnsq <= rssq && pssq - pnsq <= rssq) {
+                            double rnoverRS = Math.sqrt((prsq - pnsq) / rssq);
+                            double nx = rx - rnoverRS * b;
+                            double ny = ry + rnoverRS * a;
+                            bestEN = new EastNorth(nx, ny);
+                            if (r.hasDate() && wpSeg.hasDate()) {
+                                bestTime = r.getTime() + rnoverRS * (wpSeg.getTime() - r.getTime());
+                            }
+                            pnminsq = pnsq;
+                        }
+                    }
+                    r = wpSeg;
+                    rx = sx;
+                    ry = sy;
+                }
+            }
+            if (r != null && part.getToIndex() == wpts.size() - 1) {
+                EastNorth c = r.getEastNorth(ProjectionRegistry.getProjection());
+                /* if there is only one point in the seg, it will do this twice, but no matter */
+                rx = c.east();
+                ry = c.north();
+                x = px - rx;
+                y = py - ry;
+                double prsq = x * x + y * y;
+                if (prsq < pnminsq) {
+                    pnminsq = prsq;
+                    bestEN = c;
+                    if (r.hasDate()) {
+                        bestTime = r.getTime();
+                    }
                 }
             }
         }
@@ -918,6 +930,68 @@ public class GpxData extends WithAttributes implements Data, IGpxLayerPrefs {
         return best;
     }
 
+    private static Bounds getSearchBounds(EastNorth p, double tolerance) {
+        if (!Double.isFinite(tolerance)) {
+            return new Bounds(-90, -180, 90, 180);
+        }
+        double d = Math.abs(tolerance);
+        return ProjectionRegistry.getProjection().getLatLonBoundsBox(
+                new ProjectionBounds(p.east() - d, p.north() - d, p.east() + d, p.north() + d));
+    }
+
+    /**
+     * Returns the spatial and temporal index of the track points. It is created when needed,
+     * and dropped when the data is changed.
+     * @return the index
+     */
+    public synchronized GpxDataIndex getIndex() {
+        GpxDataIndex result = index;
+        if (result == null) {
+            result = new GpxDataIndex(getTrackSegmentsStream().collect(Collectors.toList()));
+            index = result;
+        }
+        return result;
+    }
+
+    /**
+     * Returns the simplification of the track segments for the current projection. It is computed in the background
+     * when needed, and dropped when the data is changed or the east/north cache is reset.
+     * @param whenComputed called in the background thread when the simplification was computed,
+     * if it is not available yet
+     * @return the simplification, or {@code null} if it is not computed yet
+     */
+    public synchronized GpxSimplification getSimplification(Runnable whenComputed) {
+        Projection projection = ProjectionRegistry.getProjection();
+        if (simplification != null && simplification.getProjection() == projection) {
+            return simplification;
+        }
+        if (simplificationTask == null) {
+            Future<?>[] task = new Future<?>[1];
+            task[0] = GpxSimplification.computeInBackground(getTrackSegmentsStream().collect(Collectors.toList()), projection,
+                    result -> {
+                        synchronized (this) {
+                            // the data may have changed in the meantime
+                            if (simplificationTask != task[0]) {
+                                return;
+                            }
+                            simplification = result;
+                            simplificationTask = null;
+                        }
+                        whenComputed.run();
+                    });
+            simplificationTask = task[0];
+        }
+        return null;
+    }
+
+    private synchronized void dropSimplification() {
+        simplification = null;
+        if (simplificationTask != null) {
+            simplificationTask.cancel(false);
+            simplificationTask = null;
+        }
+    }
+
     /**
      * Iterate over all track segments and over all routes.
      *
@@ -934,8 +1008,15 @@ public class GpxData extends WithAttributes implements Data, IGpxLayerPrefs {
      * Resets the internal caches of east/north coordinates.
      */
     public synchronized void resetEastNorthCache() {
+        dropSimplification();
         privateWaypoints.forEach(WayPoint::invalidateEastNorthCache);
-        getTrackPoints().forEach(WayPoint::invalidateEastNorthCache);
+        getTrackSegmentsStream().forEach(seg -> {
+            if (seg instanceof CompactGpxTrackSegment) {
+                ((CompactGpxTrackSegment) seg).invalidateEastNorthCache();
+            } else {
+                seg.getWayPoints().forEach(WayPoint::invalidateEastNorthCache);
+            }
+        });
         for (GpxRoute route: getRoutes()) {
             if (route.routePoints == null) {
                 continue;
@@ -991,7 +1072,7 @@ public class GpxData extends WithAttributes implements Data, IGpxLayerPrefs {
         private Line getNext() {
             if (itTracks != null) {
                 if (itTrackSegments != null && itTrackSegments.hasNext()) {
-                    return new Line(itTrackSegments.next(), trackAttributes, curTrack.getColor());
+                    return Line.forDrawing(itTrackSegments.next(), trackAttributes, curTrack.getColor());
                 } else {
                     while (itTracks.hasNext()) {
                         curTrack = itTracks.next();
@@ -1001,7 +1082,7 @@ public class GpxData extends WithAttributes implements Data, IGpxLayerPrefs {
                             continue;
                         itTrackSegments = curTrack.getSegments().iterator();
                         if (itTrackSegments.hasNext()) {
-                            return new Line(itTrackSegments.next(), trackAttributes, curTrack.getColor());
+                            return Line.forDrawing(itTrackSegments.next(), trackAttributes, curTrack.getColor());
                         }
                     }
                     // if we get here, all the Tracks are finished; Continue with Routes
@@ -1153,6 +1234,8 @@ public class GpxData extends WithAttributes implements Data, IGpxLayerPrefs {
     }
 
     private void fireInvalidate(boolean setModified) {
+        index = null;
+        dropSimplification();
         if (setModified) {
             setModified(true);
         }
@@ -0,0 +1,205 @@
+// License: GPL. For details, see LICENSE file.
+package org.openstreetmap.josm.data.gpx;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.openstreetmap.josm.data.Bounds;
+import org.openstreetmap.josm.data.IQuadBucketType;
+import org.openstreetmap.josm.data.osm.BBox;
+import org.openstreetmap.josm.data.osm.QuadBuckets;
+import org.openstreetmap.josm.tools.date.Interval;
+
+/**
+ * Spatial and temporal index of the track points of a {@link GpxData}.
+ * <p>
+ * The points of each track segment are split into parts of consecutive points. The parts are stored in a
+ * {@link QuadBuckets} by their bounding box, so that a query for an area only needs to look at the points of the
+ * parts found. Consecutive parts of a segment share one point, so each line between two points is contained in one part.
+ * The earliest and latest time of each segment is kept, to find the segments in a time interval without looking at
+ * their points.
+ * <p>
+ * The index is created by {@link GpxData#getIndex()} and dropped when the data is changed.
+ */
+public final class GpxDataIndex {
+
+    /** Maximum number of lines in a part */
+    static final int PART_SIZE = 64;
+
+    private static final Comparator<Part> DATA_ORDER = Comparator.comparingInt(p -> p.order);
+
+    /**
+     * Consecutive points of a track segment.
+     */
+    public static final class Part implements IQuadBucketType {
+        private final IGpxTrackSegment segment;
+        private final int order;
+        private final int from;
+        private final int to;
+        private final BBox bbox = new BBox();
+        private long minTime = Long.MAX_VALUE;
+        private long maxTime = Long.MIN_VALUE;
+
+        private Part(IGpxTrackSegment segment, int order, int from, int to) {
+            this.segment = segment;
+            this.order = order;
+            this.from = from;
+            this.to = to;
+        }
+
+        /**
+         * Returns the track segment.
+         * @return the track segment
+         */
+        public IGpxTrackSegment getSegment() {
+            return segment;
+        }
+
+        /**
+         * Returns the index of the first point of this part in {@link GpxDataIndex#getWayPoints}.
+         * @return the index of the first point
+         */
+        public int getFromIndex() {
+            return from;
+        }
+
+        /**
+         * Returns the index of the last point of this part in {@link GpxDataIndex#getWayPoints}.
+         * @return the index of the last point, inclusive
+         */
+        public int getToIndex() {
+            return to;
+        }
+
+        /**
+         * Determines if a point of this part has a time.
+         * @return {@code true} if a point of this part has a time
+         */
+        public boolean hasTime() {
+            return minTime <= maxTime;
+        }
+
+        @Override
+        public BBox getBBox() {
+            return bbox;
+        }
+
+        private void add(double lat, double lon, boolean hasTime, long time) {
+            bbox.add(lon, lat);
+            if (hasTime) {
+                minTime = Math.min(minTime, time);
+                maxTime = Math.max(maxTime, time);
+            }
+        }
+    }
+
+    private final QuadBuckets<Part> parts = new QuadBuckets<>();
+    /** earliest and latest time of each segment */
+    private final Map<IGpxTrackSegment, long[]> segmentTimes = new IdentityHashMap<>();
+
+    /**
+     * Constructs a new {@code GpxDataIndex}.
+     * @param segments the track segments, in the order of the data
+     */
+    GpxDataIndex(Collection<IGpxTrackSegment> segments) {
+        int order = 0;
+        for (IGpxTrackSegment segment : segments) {
+            long[] times = {Long.MAX_VALUE, Long.MIN_VALUE};
+            for (Part part : split(segment, order)) {
+                parts.add(part);
+                if (part.hasTime()) {
+                    times[0] = Math.min(times[0], part.minTime);
+                    times[1] = Math.max(times[1], part.maxTime);
+                }
+                order++;
+            }
+            segmentTimes.put(segment, times);
+        }
+    }
+
+    private static List<Part> split(IGpxTrackSegment segment, int order) {
+        List<Part> result = new ArrayList<>();
+        if (segment.getWayPoints().isEmpty()) {
+            return result;
+        }
+        if (segment instanceof CompactGpxTrackSegment) {
+            CompactGpxTrackSegment compact = (CompactGpxTrackSegment) segment;
+            int size = compact.size();
+            for (int from = 0; from == 0 || from < size - 1; from += PART_SIZE) {
+                Part part = new Part(segment, order + result.size(), from, Math.min(from + PART_SIZE, size - 1));
+                for (int i = part.from; i <= part.to; i++) {
+                    part.add(compact.getLat(i), compact.getLon(i), compact.hasTime(i), compact.getTimeInMillis(i));
+                }
+                result.add(part);
+            }
+        } else {
+            List<WayPoint> wpts = getWayPoints(segment);
+            int size = wpts.size();
+            for (int from = 0; from == 0 || from < size - 1; from += PART_SIZE) {
+                Part part = new Part(segment, order + result.size(), from, Math.min(from + PART_SIZE, size - 1));
+                for (int i = part.from; i <= part.to; i++) {
+                    WayPoint wpt = wpts.get(i);
+                    part.add(wpt.lat(), wpt.lon(), wpt.hasDate(), wpt.getTimeInMillis());
+                }
+                result.add(part);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Returns the points of a track segment as list, to access the points of a {@link Part} by their index.
+     * @param segment the track segment
+     * @return the points of the segment
+     */
+    public static List<WayPoint> getWayPoints(IGpxTrackSegment segment) {
+        Collection<WayPoint> wpts = segment.getWayPoints();
+        return wpts instanceof List ? (List<WayPoint>) wpts : new ArrayList<>(wpts);
+    }
+
+    /**
+     * Determines if a track segment is indexed.
+     * @param segment the track segment
+     * @return {@code true} if the segment is part of this index
+     */
+    public boolean contains(IGpxTrackSegment segment) {
+        return segmentTimes.containsKey(segment);
+    }
+
+    /**
+     * Returns the parts of the track segments within an area.
+     * @param bounds the area, may cross the 180th meridian
+     * @return the parts whose bounding box intersects the area, in the order of the data
+     */
+    public synchronized List<Part> search(Bounds bounds) {
+        List<Part> result;
+        if (bounds.crosses180thMeridian()) {
+            Set<Part> found = new LinkedHashSet<>(parts.search(
+                    new BBox(bounds.getMinLon(), bounds.getMinLat(), 180, bounds.getMaxLat())));
+            found.addAll(parts.search(new BBox(-180, bounds.getMinLat(), bounds.getMaxLon(), bounds.getMaxLat())));
+            result = new ArrayList<>(found);
+        } else {
+            result = parts.search(bounds.toBBox());
+        }
+        result.sort(DATA_ORDER);
+        return result;
+    }
+
+    /**
+     * Returns the earliest and latest time of the points of a track segment.
+     * @param segment the track segment
+     * @return the time interval, or {@code null} if no point of the segment has a time or the segment is not indexed
+     */
+    public Interval getTimeRange(IGpxTrackSegment segment) {
+        long[] times = segmentTimes.get(segment);
+        return times == null || times[0] > times[1] ? null
+                : new Interval(Instant.ofEpochMilli(times[0]), Instant.ofEpochMilli(times[1]));
+    }
+}
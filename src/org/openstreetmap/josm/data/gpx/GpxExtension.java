@@ -45,14 +45,15 @@ public class GpxExtension extends WithAttributes {
         String p = findPrefix(namespaceURI);
         if (p == null) {
             if (dot != -1) {
-                prefix = qName.substring(0, dot);
+                // the same few names are repeated for each point, share the strings
+                prefix = Utils.intern(qName.substring(0, dot));
             } else {
                 prefix = "";
             }
         } else {
             prefix = p;
         }
-        key = qName.substring(dot + 1);
+        key = Utils.intern(qName.substring(dot + 1));
         for (int i = 0; i < atts.getLength(); i++) {
             attr.put(atts.getLocalName(i), atts.getValue(i));
         }
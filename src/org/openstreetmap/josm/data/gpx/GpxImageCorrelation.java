@@ -3,8 +3,12 @@ package org.openstreetmap.josm.data.gpx;
 
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.IdentityHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
 import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
 
 import org.openstreetmap.josm.data.coor.ILatLon;
 import org.openstreetmap.josm.data.coor.LatLon;
@@ -14,6 +18,7 @@ import org.openstreetmap.josm.spi.preferences.Config;
 import org.openstreetmap.josm.tools.Logging;
 import org.openstreetmap.josm.tools.Pair;
 import org.openstreetmap.josm.tools.Utils;
+import org.openstreetmap.josm.tools.date.Interval;
 
 /**
  * Correlation logic for {@code CorrelateGpxWithImages}.
@@ -21,10 +26,23 @@ import org.openstreetmap.josm.tools.Utils;
  */
 public final class GpxImageCorrelation {
 
+    private static final ForkJoinPool THREAD_POOL = newForkJoinPool();
+    /** the time of points without timestamp */
+    private static final long NO_TIME = Long.MIN_VALUE;
+
     private GpxImageCorrelation() {
         // Hide public constructor
     }
 
+    private static ForkJoinPool newForkJoinPool() {
+        try {
+            return Utils.newForkJoinPool("geoimage.correlation.numberOfThreads", "gpx-image-correlation-%d", Thread.NORM_PRIORITY);
+        } catch (SecurityException e) {
+            Logging.log(Logging.LEVEL_ERROR, "Unable to create new ForkJoinPool", e);
+            return null;
+        }
+    }
+
     /**
      * Match a list of photos to a gpx track with given settings.
      * All images need a exifTime attribute and the List must be sorted according to these times.
@@ -34,268 +52,350 @@ public final class GpxImageCorrelation {
      * @return number of matched points
      */
     public static int matchGpxTrack(List<? extends GpxImageEntry> images, GpxData selectedGpx, GpxImageCorrelationSettings settings) {
-        int ret = 0;
-
         if (Logging.isDebugEnabled()) {
             Logging.debug("Correlating {0} images to {1} GPX track segments using {2}",
                     images.size(), selectedGpx.getTrackSegsCount(), settings);
         }
+        int ret = new Correlation(images, selectedGpx, settings.isForceTags())
+                .match(settings.getOffset(), settings.getDirectionPositionSettings(), null);
+        Logging.debug("Correlated {0} total points", ret);
+        return ret;
+    }
 
-        boolean trkInt, trkTag, segInt, segTag;
-        int trkTime, trkDist, trkTagTime, segTime, segDist, segTagTime;
-
-        if (settings.isForceTags()) {
-            // temporary option to override advanced settings and activate all possible interpolations / tagging methods
-            trkInt = trkTag = segInt = segTag = true;
-            trkTime = trkDist = trkTagTime = segTime = segDist = segTagTime = Integer.MAX_VALUE;
+    /**
+     * Counts the photos which would be matched to a gpx track for several time offsets, without modifying the photos.
+     * The offsets are tried in parallel, to find the offset which matches the most photos.
+     * All images need a exifTime attribute and the List must be sorted according to these times.
+     * @param images images to match
+     * @param selectedGpx selected GPX data
+     * @param forceTags force tagging of all photos, otherwise prefs are used
+     * @param offsets the time offsets in milliseconds
+     * @return the number of matched photos for each offset
+     */
+    public static int[] countMatches(List<? extends GpxImageEntry> images, GpxData selectedGpx, boolean forceTags, long... offsets) {
+        final Correlation correlation = new Correlation(images, selectedGpx, forceTags);
+        // the times are interpolated once, afterwards the points are only read
+        correlation.prepareCount();
+        final int[] result = new int[offsets.length];
+        final Runnable count = () -> IntStream.range(0, offsets.length).parallel()
+                .forEach(k -> result[k] = correlation.match(offsets[k], null, new boolean[images.size()]));
+        if (THREAD_POOL != null) {
+            THREAD_POOL.submit(count).join();
         } else {
-            // Load the settings
-            trkInt = Config.getPref().getBoolean("geoimage.trk.int", false);
-            trkTime = Config.getPref().getBoolean("geoimage.trk.int.time", false) ?
-                    Config.getPref().getInt("geoimage.trk.int.time.val", 60) : Integer.MAX_VALUE;
-            trkDist = Config.getPref().getBoolean("geoimage.trk.int.dist", false) ?
-                    Config.getPref().getInt("geoimage.trk.int.dist.val", 50) : Integer.MAX_VALUE;
-
-            trkTag = Config.getPref().getBoolean("geoimage.trk.tag", true);
-            trkTagTime = Config.getPref().getBoolean("geoimage.trk.tag.time", true) ?
-                    Config.getPref().getInt("geoimage.trk.tag.time.val", 2) : Integer.MAX_VALUE;
-
-            segInt = Config.getPref().getBoolean("geoimage.seg.int", true);
-            segTime = Config.getPref().getBoolean("geoimage.seg.int.time", true) ?
-                    Config.getPref().getInt("geoimage.seg.int.time.val", 60) : Integer.MAX_VALUE;
-            segDist = Config.getPref().getBoolean("geoimage.seg.int.dist", true) ?
-                    Config.getPref().getInt("geoimage.seg.int.dist.val", 50) : Integer.MAX_VALUE;
-
-            segTag = Config.getPref().getBoolean("geoimage.seg.tag", true);
-            segTagTime = Config.getPref().getBoolean("geoimage.seg.tag.time", true) ?
-                    Config.getPref().getInt("geoimage.seg.tag.time.val", 2) : Integer.MAX_VALUE;
+            count.run();
+        }
+        return result;
+    }
+
+    /**
+     * The correlation of sorted photos with the tracks of a gpx data. The photos and the track points are walked
+     * together in time order (merge join): the search of the photos before a point starts at the photos of the previous point.
+     */
+    private static final class Correlation {
+        private final List<? extends GpxImageEntry> images;
+        /** the EXIF times of the images, in milliseconds */
+        private final long[] imageTimes;
+        private final GpxDataIndex index;
+        private final List<List<Pair<IGpxTrackSegment, List<WayPoint>>>> tracks;
+        /** the times of the points of each segment, when the photos are only counted */
+        private final Map<IGpxTrackSegment, long[]> countTimes = new IdentityHashMap<>();
+
+        private final boolean trkInt, trkTag, segInt, segTag;
+        private final int trkTime, trkDist, trkTagTime, segTime, segDist, segTagTime;
+
+        Correlation(List<? extends GpxImageEntry> images, GpxData selectedGpx, boolean forceTags) {
+            this.images = images;
+            this.imageTimes = new long[images.size()];
+            for (int i = 0; i < imageTimes.length; i++) {
+                imageTimes[i] = images.get(i).getExifInstant().toEpochMilli();
+            }
+            this.index = selectedGpx.getIndex();
+            this.tracks = loadTracks(selectedGpx.getTracks());
+
+            if (forceTags) {
+                // temporary option to override advanced settings and activate all possible interpolations / tagging methods
+                trkInt = trkTag = segInt = segTag = true;
+                trkTime = trkDist = trkTagTime = segTime = segDist = segTagTime = Integer.MAX_VALUE;
+            } else {
+                // Load the settings
+                trkInt = Config.getPref().getBoolean("geoimage.trk.int", false);
+                trkTime = Config.getPref().getBoolean("geoimage.trk.int.time", false) ?
+                        Config.getPref().getInt("geoimage.trk.int.time.val", 60) : Integer.MAX_VALUE;
+                trkDist = Config.getPref().getBoolean("geoimage.trk.int.dist", false) ?
+                        Config.getPref().getInt("geoimage.trk.int.dist.val", 50) : Integer.MAX_VALUE;
+
+                trkTag = Config.getPref().getBoolean("geoimage.trk.tag", true);
+                trkTagTime = Config.getPref().getBoolean("geoimage.trk.tag.time", true) ?
+                        Config.getPref().getInt("geoimage.trk.tag.time.val", 2) : Integer.MAX_VALUE;
+
+                segInt = Config.getPref().getBoolean("geoimage.seg.int", true);
+                segTime = Config.getPref().getBoolean("geoimage.seg.int.time", true) ?
+                        Config.getPref().getInt("geoimage.seg.int.time.val", 60) : Integer.MAX_VALUE;
+                segDist = Config.getPref().getBoolean("geoimage.seg.int.dist", true) ?
+                        Config.getPref().getInt("geoimage.seg.int.dist.val", 50) : Integer.MAX_VALUE;
+
+                segTag = Config.getPref().getBoolean("geoimage.seg.tag", true);
+                segTagTime = Config.getPref().getBoolean("geoimage.seg.tag.time", true) ?
+                        Config.getPref().getInt("geoimage.seg.tag.time.val", 2) : Integer.MAX_VALUE;
+            }
         }
 
-        final GpxImageDirectionPositionSettings dirpos = settings.getDirectionPositionSettings();
-        final long offset = settings.getOffset();
-
-        boolean isFirst = true;
-        long prevWpTime = 0;
-        WayPoint prevWp = null;
-
-        for (List<List<WayPoint>> segs : loadTracks(selectedGpx.getTracks())) {
-            boolean firstSegment = true;
-            for (List<WayPoint> wps : segs) {
-                int size = wps.size();
-                for (int i = 0; i < size; i++) {
-                    final WayPoint curWp = wps.get(i);
-                    // Interpolate timestamps in the segment, if one or more waypoints miss them
-                    if (!curWp.hasDate()) {
-                        //check if any of the following waypoints has a timestamp...
-                        if (i > 0 && wps.get(i - 1).hasDate()) {
-                            long prevWpTimeNoOffset = wps.get(i - 1).getTimeInMillis();
-                            double totalDist = 0;
-                            List<Pair<Double, WayPoint>> nextWps = new ArrayList<>();
-                            for (int j = i; j < size; j++) {
-                                totalDist += wps.get(j - 1).greatCircleDistance(wps.get(j));
-                                nextWps.add(new Pair<>(totalDist, wps.get(j)));
-                                if (wps.get(j).hasDate()) {
-                                    // ...if yes, interpolate everything in between
-                                    long timeDiff = wps.get(j).getTimeInMillis() - prevWpTimeNoOffset;
-                                    for (Pair<Double, WayPoint> pair : nextWps) {
-                                        pair.b.setTimeInMillis((long) (prevWpTimeNoOffset + (timeDiff * (pair.a / totalDist))));
+        /**
+         * Interpolates the missing timestamps of all segments and keeps the times of the points,
+         * to count the matched photos for several offsets at once.
+         */
+        void prepareCount() {
+            for (List<Pair<IGpxTrackSegment, List<WayPoint>>> segs : tracks) {
+                for (int s = 0; s < segs.size(); s++) {
+                    IGpxTrackSegment segment = segs.get(s).a;
+                    List<WayPoint> wps = new ArrayList<>(segs.get(s).b);
+                    for (int i = 1; i < wps.size(); i++) {
+                        if (!wps.get(i).hasDate() && wps.get(i - 1).hasDate()) {
+                            interpolateMissingTimes(wps, i);
+                        }
+                    }
+                    segs.set(s, new Pair<>(segment, wps));
+                    countTimes.put(segment, getTimes(wps));
+                }
+            }
+        }
+
+        /**
+         * Matches the photos to the tracks.
+         * @param offset the time offset of the photos
+         * @param dirpos the direction and position settings, not used when the photos are only counted
+         * @param matched if not {@code null}, the photos are only counted: the photos already matched, which are set
+         * when a photo is matched. Otherwise the temporary copies of the photos are updated.
+         * @return the number of matched photos
+         */
+        int match(long offset, GpxImageDirectionPositionSettings dirpos, boolean[] matched) {
+            int ret = 0;
+            boolean isFirst = true;
+            long prevWpTime = 0;
+            WayPoint prevWp = null;
+
+            final ImageCursor cursor = new ImageCursor(imageTimes);
+            final long maxTagMillis = TimeUnit.MINUTES.toMillis(Math.max(trkTagTime, segTagTime));
+
+            for (List<Pair<IGpxTrackSegment, List<WayPoint>>> segs : tracks) {
+                boolean firstSegment = true;
+                for (Pair<IGpxTrackSegment, List<WayPoint>> seg : segs) {
+                    if (isOutsideImages(index.getTimeRange(seg.a), offset, prevWpTime, maxTagMillis)) {
+                        // no image can be matched to the points of this segment, only continue after it
+                        firstSegment = isFirst = false;
+                        prevWp = getLastPointWithDate(seg.b);
+                        prevWpTime = prevWp.getTimeInMillis() + offset;
+                        continue;
+                    }
+                    final List<WayPoint> wps;
+                    final long[] times;
+                    if (matched != null) {
+                        // prepared by prepareCount, the points are only read
+                        wps = seg.b;
+                        times = countTimes.get(seg.a);
+                    } else {
+                        // the points are modified when their time is interpolated
+                        wps = new ArrayList<>(seg.b);
+                        times = getTimes(wps);
+                    }
+                    int size = wps.size();
+                    for (int i = 0; i < size; i++) {
+                        final WayPoint curWp = wps.get(i);
+                        // Interpolate timestamps in the segment, if one or more waypoints miss them
+                        if (times[i] == NO_TIME) {
+                            //check if any of the following waypoints has a timestamp...
+                            if (i > 0 && times[i - 1] != NO_TIME) {
+                                if (matched == null) {
+                                    interpolateMissingTimes(wps, i);
+                                    for (int j = i; j < size && times[j] == NO_TIME && wps.get(j).hasDate(); j++) {
+                                        times[j] = wps.get(j).getTimeInMillis();
                                     }
-                                    break;
                                 }
+                                if (times[i] == NO_TIME) {
+                                    break; //It's pointless to continue with this segment, because none of the following waypoints had a timestamp
+                                }
+                            } else {
+                                // Timestamps on waypoints without preceding timestamps in the same segment can not be interpolated, so try next one
+                                continue;
                             }
-                            if (!curWp.hasDate()) {
-                                break; //It's pointless to continue with this segment, because none of the following waypoints had a timestamp
-                            }
-                        } else {
-                            // Timestamps on waypoints without preceding timestamps in the same segment can not be interpolated, so try next one
-                            continue;
                         }
-                    }
 
-                    final long curWpTime = curWp.getTimeInMillis() + offset;
-                    boolean interpolate = true;
-                    int tagTime = 0;
-                    if (i == 0) {
-                        if (firstSegment) {
-                            // First segment of the track, so apply settings for tracks
-                            firstSegment = false;
-                            if (!trkInt || isFirst || prevWp == null ||
-                                    Math.abs(curWpTime - prevWpTime) > TimeUnit.MINUTES.toMillis(trkTime) ||
-                                    prevWp.greatCircleDistance(curWp) > trkDist) {
-                                isFirst = false;
-                                interpolate = false;
-                                if (trkTag) {
-                                    tagTime = trkTagTime;
+                        final long curWpTime = times[i] + offset;
+                        boolean interpolate = true;
+                        int tagTime = 0;
+                        if (i == 0) {
+                            if (firstSegment) {
+                                // First segment of the track, so apply settings for tracks
+                                firstSegment = false;
+                                if (!trkInt || isFirst || prevWp == null ||
+                                        Math.abs(curWpTime - prevWpTime) > TimeUnit.MINUTES.toMillis(trkTime) ||
+                                        prevWp.greatCircleDistance(curWp) > trkDist) {
+                                    isFirst = false;
+                                    interpolate = false;
+                                    if (trkTag) {
+                                        tagTime = trkTagTime;
+                                    }
                                 }
-                            }
-                        } else {
-                            // Apply settings for segments
-                            if (!segInt || prevWp == null ||
-                                    Math.abs(curWpTime - prevWpTime) > TimeUnit.MINUTES.toMillis(segTime) ||
-                                    prevWp.greatCircleDistance(curWp) > segDist) {
-                                interpolate = false;
-                                if (segTag) {
-                                    tagTime = segTagTime;
+                            } else {
+                                // Apply settings for segments
+                                if (!segInt || prevWp == null ||
+                                        Math.abs(curWpTime - prevWpTime) > TimeUnit.MINUTES.toMillis(segTime) ||
+                                        prevWp.greatCircleDistance(curWp) > segDist) {
+                                    interpolate = false;
+                                    if (segTag) {
+                                        tagTime = segTagTime;
+                                    }
                                 }
                             }
                         }
+                        WayPoint nextWp = i < size - 1 ? wps.get(i + 1) : null;
+                        ret += matchPoints(cursor, prevWp, prevWpTime, curWp, curWpTime, offset, interpolate, tagTime, nextWp,
+                                dirpos, matched);
+                        prevWp = curWp;
+                        prevWpTime = curWpTime;
                     }
-                    WayPoint nextWp = i < size - 1 ? wps.get(i + 1) : null;
-                    ret += matchPoints(images, prevWp, prevWpTime, curWp, curWpTime, offset, interpolate, tagTime, nextWp, dirpos);
-                    prevWp = curWp;
-                    prevWpTime = curWpTime;
                 }
             }
+            if (trkTag && prevWp != null) {
+                ret += matchPoints(cursor, prevWp, prevWpTime, prevWp, prevWpTime, offset, false, trkTagTime, null, dirpos, matched);
+            }
+            return ret;
         }
-        if (trkTag && prevWp != null) {
-            ret += matchPoints(images, prevWp, prevWpTime, prevWp, prevWpTime, offset, false, trkTagTime, null, dirpos);
-        }
-        Logging.debug("Correlated {0} total points", ret);
-        return ret;
-    }
 
-    static List<List<List<WayPoint>>> loadTracks(Collection<IGpxTrack> tracks) {
-        List<List<List<WayPoint>>> trks = new ArrayList<>();
-        for (IGpxTrack trk : tracks) {
-            List<List<WayPoint>> segs = new ArrayList<>();
-            for (IGpxTrackSegment seg : trk.getSegments()) {
-                List<WayPoint> wps = new ArrayList<>(seg.getWayPoints());
-                if (!wps.isEmpty()) {
-                    //remove waypoints at the beginning of the track/segment without timestamps
-                    int wp;
-                    for (wp = 0; wp < wps.size(); wp++) {
-                        if (wps.get(wp).hasDate()) {
-                            break;
-                        }
-                    }
-                    if (wp == 0) {
-                        segs.add(wps);
-                    } else if (wp < wps.size()) {
-                        segs.add(wps.subList(wp, wps.size()));
-                    }
-                }
-            }
-            //sort segments by first waypoint
-            if (!segs.isEmpty()) {
-                segs.sort((o1, o2) -> {
-                    if (o1.isEmpty() || o2.isEmpty())
-                        return 0;
-                    return o1.get(0).compareTo(o2.get(0));
-                });
-                trks.add(segs);
+        /**
+         * Determines if the points of a segment are too early or too late to match any image.
+         * @param range the time range of the segment
+         * @param offset the time offset of the images
+         * @param prevWpTime the time of the last point before the segment, with offset
+         * @param maxTagMillis the maximum time between a point and an image tagged with its position
+         * @return {@code true} if no image can be matched to the points of the segment
+         */
+        private boolean isOutsideImages(Interval range, long offset, long prevWpTime, long maxTagMillis) {
+            if (imageTimes.length == 0 || range == null) {
+                return false;
             }
+            final long firstImageTime = imageTimes[0];
+            final long lastImageTime = imageTimes[imageTimes.length - 1];
+            final long start = range.getStart().toEpochMilli() + offset;
+            final long end = range.getEnd().toEpochMilli() + offset;
+            // images after all points of a segment can only be tagged with the position of its last point, within the tag time,
+            // and images before the previous point are never matched
+            return (firstImageTime - end > maxTagMillis && firstImageTime - prevWpTime > maxTagMillis)
+                || (start > lastImageTime && prevWpTime > lastImageTime);
         }
-        //sort tracks by first waypoint of first segment
-        trks.sort((o1, o2) -> {
-            if (o1.isEmpty() || o1.get(0).isEmpty()
-             || o2.isEmpty() || o2.get(0).isEmpty())
-                return 0;
-            return o1.get(0).get(0).compareTo(o2.get(0).get(0));
-        });
-        return trks;
-    }
 
-    static Double getElevation(WayPoint wp) {
-        if (wp != null) {
-            String value = wp.getString(GpxConstants.PT_ELE);
-            if (!Utils.isEmpty(value)) {
-                try {
-                    return Double.valueOf(value);
-                } catch (NumberFormatException e) {
-                    Logging.warn(e);
-                }
-            }
+        private boolean isMatched(int i, boolean[] matched) {
+            return matched != null ? matched[i] : images.get(i).getTmp().hasNewGpsData();
         }
-        return null;
-    }
 
-    private static int matchPoints(List<? extends GpxImageEntry> images, WayPoint prevWp, long prevWpTime, WayPoint curWp, long curWpTime,
-            long offset, boolean interpolate, int tagTime, WayPoint nextWp, GpxImageDirectionPositionSettings dirpos) {
+        private int matchPoints(ImageCursor cursor, WayPoint prevWp, long prevWpTime, WayPoint curWp, long curWpTime,
+                long offset, boolean interpolate, int tagTime, WayPoint nextWp, GpxImageDirectionPositionSettings dirpos,
+                boolean[] matched) {
 
-        final boolean isLast = nextWp == null;
+            final boolean isLast = nextWp == null;
 
-        // i is the index of the timewise last photo that has the same or earlier EXIF time
-        int i;
-        if (isLast) {
-            i = images.size() - 1;
-        } else {
-            i = getLastIndexOfListBefore(images, curWpTime);
-        }
+            // i is the index of the timewise last photo that has the same or earlier EXIF time
+            int i;
+            if (isLast) {
+                i = imageTimes.length - 1;
+            } else {
+                i = cursor.getLastIndexAtOrBefore(curWpTime);
+            }
 
-        if (Logging.isDebugEnabled()) {
-            Logging.debug("Correlating images for i={1} - curWp={2}/{3} - prevWp={4}/{5} - nextWp={6} - tagTime={7} - interpolate={8}",
-                    i, curWp, curWpTime, prevWp, prevWpTime, nextWp, tagTime, interpolate);
-        }
+            if (Logging.isDebugEnabled()) {
+                Logging.debug("Correlating images for i={0} - curWp={1}/{2} - prevWp={3}/{4} - nextWp={5} - tagTime={6} - interpolate={7}",
+                        i, curWp, curWpTime, prevWp, prevWpTime, nextWp, tagTime, interpolate);
+            }
 
-        // no photos match
-        if (i < 0) {
-            Logging.debug("Correlated nothing, no photos match");
-            return 0;
-        }
+            // no photos match, the photos are searched backwards until the time of the previous point
+            if (i < 0 || imageTimes[i] < prevWpTime) {
+                return 0;
+            }
+
+            int ret = 0;
 
-        int ret = 0;
-        Double speed = null;
-        Double prevElevation = null;
+            if (!interpolate || isLast) {
+                final long half = Math.abs(curWpTime - prevWpTime) / 2;
+                final long tagms = TimeUnit.MINUTES.toMillis(tagTime);
+                while (i >= 0) {
+                    final long time = imageTimes[i];
+                    if ((!isLast && time > curWpTime) || time < prevWpTime) {
+                        break;
+                    }
+                    if (!isMatched(i, matched) &&
+                            (Math.abs(time - curWpTime) <= tagms
+                            || Math.abs(prevWpTime - time) <= tagms)) {
+                        if (matched != null) {
+                            matched[i] = true;
+                        } else {
+                            final GpxImageEntry curImg = images.get(i);
+                            final GpxImageEntry curTmp = curImg.getTmp();
+                            if (prevWp != null && time < curWpTime - half) {
+                                curTmp.setPos(prevWp.getCoor());
+                            } else {
+                                curTmp.setPos(curWp.getCoor());
+                            }
+                            if (nextWp != null && dirpos.isSetImageDirection()) {
+                                double direction = curWp.bearing(nextWp);
+                                curTmp.setExifImgDir(computeDirection(direction, dirpos.getImageDirectionAngleOffset()));
+                            }
+                            curTmp.setGpsTime(curImg.getExifInstant().minusMillis(offset));
+                            curTmp.flagNewGpsData();
+                            curImg.tmpUpdated();
+                        }
+                        ret++;
+                    }
+                    i--;
+                }
+            } else if (prevWp != null) {
+                if (matched != null) {
+                    // all the photos since the previous point are matched
+                    for (; i >= 0 && imageTimes[i] >= prevWpTime; i--) {
+                        if (!matched[i]) {
+                            matched[i] = true;
+                            ret++;
+                        }
+                    }
+                    return ret;
+                }
+                ret = interpolate(i, prevWp, prevWpTime, curWp, curWpTime, offset, nextWp, dirpos);
+            }
+            return ret;
+        }
 
-        if (prevWp != null && interpolate) {
+        /**
+         * Sets the positions of the photos taken between two points by a linear interpolation of the coordinates
+         * between the points, assuming a constant speed in between. The values which are the same for all photos
+         * are computed once.
+         */
+        private int interpolate(int last, WayPoint prevWp, long prevWpTime, WayPoint curWp, long curWpTime,
+                long offset, WayPoint nextWp, GpxImageDirectionPositionSettings dirpos) {
+            int ret = 0;
+            Double speed = null;
             double distance = prevWp.greatCircleDistance(curWp);
             // This is in km/h, 3.6 * m/s
             if (curWpTime > prevWpTime) {
                 speed = 3600 * distance / (curWpTime - prevWpTime);
             }
-            prevElevation = getElevation(prevWp);
-        }
-
-        final Double curElevation = getElevation(curWp);
-
-        if (!interpolate || isLast) {
-            final long half = Math.abs(curWpTime - prevWpTime) / 2;
-            while (i >= 0) {
-                final GpxImageEntry curImg = images.get(i);
-                final GpxImageEntry curTmp = curImg.getTmp();
-                final long time = curImg.getExifInstant().toEpochMilli();
-                if ((!isLast && time > curWpTime) || time < prevWpTime) {
-                    break;
-                }
-                long tagms = TimeUnit.MINUTES.toMillis(tagTime);
-                if (!curTmp.hasNewGpsData() &&
-                        (Math.abs(time - curWpTime) <= tagms
-                        || Math.abs(prevWpTime - time) <= tagms)) {
-                    if (prevWp != null && time < curWpTime - half) {
-                        curTmp.setPos(prevWp.getCoor());
-                    } else {
-                        curTmp.setPos(curWp.getCoor());
-                    }
-                    if (nextWp != null && dirpos.isSetImageDirection()) {
-                        double direction = curWp.bearing(nextWp);
-                        curTmp.setExifImgDir(computeDirection(direction, dirpos.getImageDirectionAngleOffset()));
-                    }
-                    curTmp.setGpsTime(curImg.getExifInstant().minusMillis(offset));
-                    curTmp.flagNewGpsData();
-                    curImg.tmpUpdated();
+            final Double prevElevation = getElevation(prevWp);
+            final Double curElevation = getElevation(curWp);
+            final long timeSpan = Math.abs(curWpTime - prevWpTime);
+            final boolean shiftXY = dirpos.getShiftImageX() != 0d || dirpos.getShiftImageY() != 0d;
+            final LatLon prevCoor = prevWp.getCoor();
+            final LatLon curCoor = curWp.getCoor();
 
-                    ret++;
-                }
-                i--;
-            }
-        } else if (prevWp != null) {
-            // This code gives a simple linear interpolation of the coordinates between current and
-            // previous track point assuming a constant speed in between
             @SuppressWarnings("null")
             LatLon nextCoorForDirection = nextWp.getCoor();
-            while (i >= 0) {
-                final GpxImageEntry curImg = images.get(i);
-                final long imgTime = curImg.getExifInstant().toEpochMilli();
+            for (int i = last; i >= 0; i--) {
+                final long imgTime = imageTimes[i];
                 if (imgTime < prevWpTime) {
                     break;
                 }
+                final GpxImageEntry curImg = images.get(i);
                 final GpxImageEntry curTmp = curImg.getTmp();
                 if (!curTmp.hasNewGpsData()) {
                     // The values of timeDiff are between 0 and 1, it is not seconds but a dimensionless variable
-                    final double timeDiff = (double) (imgTime - prevWpTime) / Math.abs(curWpTime - prevWpTime);
-                    final boolean shiftXY = dirpos.getShiftImageX() != 0d || dirpos.getShiftImageY() != 0d;
-                    final LatLon prevCoor = prevWp.getCoor();
-                    final LatLon curCoor = curWp.getCoor();
+                    final double timeDiff = (double) (imgTime - prevWpTime) / timeSpan;
                     LatLon position = prevCoor.interpolate(curCoor, timeDiff);
                     if (nextCoorForDirection != null && (shiftXY || dirpos.isSetImageDirection())) {
                         double direction = position.bearing((ILatLon) nextCoorForDirection);
@@ -324,48 +424,157 @@ public final class GpxImageCorrelation {
                     nextCoorForDirection = curCoor;
                     ret++;
                 }
-                i--;
             }
+            Logging.debug("Correlated {0} image(s)", ret);
+            return ret;
         }
-        Logging.debug("Correlated {0} image(s)", ret);
-        return ret;
     }
 
-    private static double computeDirection(double direction, double angleOffset) {
-        return (Utils.toDegrees(direction) + angleOffset) % 360d;
+    /**
+     * Returns the times of points in milliseconds, {@link #NO_TIME} for the points without timestamp.
+     * @param wps the points
+     * @return the times of the points
+     */
+    private static long[] getTimes(List<WayPoint> wps) {
+        long[] times = new long[wps.size()];
+        for (int i = 0; i < times.length; i++) {
+            WayPoint wp = wps.get(i);
+            times[i] = wp.hasDate() ? wp.getTimeInMillis() : NO_TIME;
+        }
+        return times;
     }
 
-    private static int getLastIndexOfListBefore(List<? extends GpxImageEntry> images, long searchedTime) {
-        int lstSize = images.size();
-
-        // No photos or the first photo taken is later than the search period
-        if (lstSize == 0 || searchedTime < images.get(0).getExifInstant().toEpochMilli())
-            return -1;
-
-        // The search period is later than the last photo
-        if (searchedTime > images.get(lstSize - 1).getExifInstant().toEpochMilli())
-            return lstSize-1;
-
-        // The searched index is somewhere in the middle, do a binary search from the beginning
-        int curIndex;
-        int startIndex = 0;
-        int endIndex = lstSize-1;
-        while (endIndex - startIndex > 1) {
-            curIndex = (endIndex + startIndex) / 2;
-            if (searchedTime > images.get(curIndex).getExifInstant().toEpochMilli()) {
-                startIndex = curIndex;
+    /**
+     * Interpolates the missing timestamps from a point of a segment until the next point with a timestamp,
+     * by the distance along the segment. Nothing is changed if no following point has a timestamp.
+     * @param wps the points of the segment
+     * @param first the index of the first point without timestamp, the previous point must have a timestamp
+     */
+    private static void interpolateMissingTimes(List<WayPoint> wps, int first) {
+        long prevWpTimeNoOffset = wps.get(first - 1).getTimeInMillis();
+        double totalDist = 0;
+        List<Pair<Double, WayPoint>> nextWps = new ArrayList<>();
+        for (int j = first; j < wps.size(); j++) {
+            totalDist += wps.get(j - 1).greatCircleDistance(wps.get(j));
+            nextWps.add(new Pair<>(totalDist, wps.get(j)));
+            if (wps.get(j).hasDate()) {
+                // ...if yes, interpolate everything in between
+                long timeDiff = wps.get(j).getTimeInMillis() - prevWpTimeNoOffset;
+                for (Pair<Double, WayPoint> pair : nextWps) {
+                    pair.b.setTimeInMillis((long) (prevWpTimeNoOffset + (timeDiff * (pair.a / totalDist))));
+                }
+                break;
+            }
+        }
+    }
+
+    /**
+     * The EXIF times of sorted images, searched for the times of track points. The points mostly come in time order,
+     * so the search starts from the result of the previous search and gallops forward.
+     */
+    static final class ImageCursor {
+        private final long[] times;
+        private int last = -1;
+
+        ImageCursor(long[] times) {
+            this.times = times;
+        }
+
+        /**
+         * Returns the index of the timewise last image with the same or an earlier time.
+         * @param time the time in milliseconds
+         * @return the index of the image, or -1 if all images are later
+         */
+        int getLastIndexAtOrBefore(long time) {
+            // invariant: times[lo] <= time < times[hi], -1 and times.length act as sentinels
+            int lo;
+            int hi;
+            if (last >= 0 && times[last] <= time) {
+                lo = last;
+                int step = 1;
+                hi = lo + step;
+                while (hi < times.length && times[hi] <= time) {
+                    lo = hi;
+                    step <<= 1;
+                    hi = lo + step;
+                }
+                hi = Math.min(hi, times.length);
             } else {
-                endIndex = curIndex;
+                lo = -1;
+                hi = last >= 0 ? last : times.length;
+            }
+            while (hi - lo > 1) {
+                int mid = (lo + hi) >>> 1;
+                if (times[mid] <= time) {
+                    lo = mid;
+                } else {
+                    hi = mid;
+                }
+            }
+            if (lo >= 0) {
+                last = lo;
+            }
+            return lo;
+        }
+    }
+
+    private static WayPoint getLastPointWithDate(List<WayPoint> wps) {
+        for (int i = wps.size() - 1; i > 0; i--) {
+            WayPoint wp = wps.get(i);
+            if (wp.hasDate()) {
+                return wp;
+            }
+        }
+        return wps.get(0);
+    }
+
+    static List<List<Pair<IGpxTrackSegment, List<WayPoint>>>> loadTracks(Collection<IGpxTrack> tracks) {
+        List<List<Pair<IGpxTrackSegment, List<WayPoint>>>> trks = new ArrayList<>();
+        for (IGpxTrack trk : tracks) {
+            List<Pair<IGpxTrackSegment, List<WayPoint>>> segs = new ArrayList<>();
+            for (IGpxTrackSegment seg : trk.getSegments()) {
+                List<WayPoint> wps = GpxDataIndex.getWayPoints(seg);
+                if (!wps.isEmpty()) {
+                    //remove waypoints at the beginning of the track/segment without timestamps
+                    int wp;
+                    for (wp = 0; wp < wps.size(); wp++) {
+                        if (wps.get(wp).hasDate()) {
+                            break;
+                        }
+                    }
+                    if (wp == 0) {
+                        segs.add(new Pair<>(seg, wps));
+                    } else if (wp < wps.size()) {
+                        segs.add(new Pair<>(seg, wps.subList(wp, wps.size())));
+                    }
+                }
+            }
+            //sort segments by first waypoint
+            if (!segs.isEmpty()) {
+                segs.sort((o1, o2) -> o1.b.get(0).compareTo(o2.b.get(0)));
+                trks.add(segs);
             }
         }
-        if (searchedTime < images.get(endIndex).getExifInstant().toEpochMilli())
-            return startIndex;
+        //sort tracks by first waypoint of first segment
+        trks.sort((o1, o2) -> o1.get(0).b.get(0).compareTo(o2.get(0).b.get(0)));
+        return trks;
+    }
 
-        // This final loop is to check if photos with the exact same EXIF time follows
-        while ((endIndex < (lstSize - 1)) && (images.get(endIndex).getExifInstant().toEpochMilli()
-                == images.get(endIndex + 1).getExifInstant().toEpochMilli())) {
-            endIndex++;
+    static Double getElevation(WayPoint wp) {
+        if (wp != null) {
+            String value = wp.getString(GpxConstants.PT_ELE);
+            if (!Utils.isEmpty(value)) {
+                try {
+                    return Double.valueOf(value);
+                } catch (NumberFormatException e) {
+                    Logging.warn(e);
+                }
+            }
         }
-        return endIndex;
+        return null;
+    }
+
+    private static double computeDirection(double direction, double angleOffset) {
+        return (Utils.toDegrees(direction) + angleOffset) % 360d;
     }
 }
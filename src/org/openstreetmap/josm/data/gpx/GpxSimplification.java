@@ -0,0 +1,163 @@
+// License: GPL. For details, see LICENSE file.
+package org.openstreetmap.josm.data.gpx;
+
+import java.util.ArrayDeque;
+import java.util.Collection;
+import java.util.Deque;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Consumer;
+
+import org.openstreetmap.josm.data.coor.EastNorth;
+import org.openstreetmap.josm.data.coor.LatLon;
+import org.openstreetmap.josm.data.projection.Projection;
+import org.openstreetmap.josm.tools.Utils;
+
+/**
+ * Simplification of the track segments of a {@link GpxData}, to draw less points at lower zoom levels.
+ * <p>
+ * The Douglas-Peucker algorithm is applied to the east/north coordinates of each segment, for all tolerances at once:
+ * each point gets the largest tolerance for which it is kept. Drawing only the points whose tolerance is greater than
+ * the size of a pixel gives a line which differs from the full line by less than a pixel.
+ * The first and the last point of a segment are always kept.
+ * <p>
+ * The simplification is computed in the background by {@link GpxData#getSimplification}, and dropped when the data
+ * is changed or the projection changes.
+ */
+public final class GpxSimplification {
+
+    private static final ExecutorService EXECUTOR =
+            Executors.newSingleThreadExecutor(Utils.newThreadFactory("gpx-simplification-%d", Thread.MIN_PRIORITY));
+
+    private final Projection projection;
+    private final Map<IGpxTrackSegment, float[]> tolerances = new IdentityHashMap<>();
+
+    /**
+     * Constructs a new {@code GpxSimplification}.
+     * @param segments the track segments
+     * @param projection the projection of the east/north coordinates
+     */
+    GpxSimplification(Collection<IGpxTrackSegment> segments, Projection projection) {
+        this.projection = projection;
+        for (IGpxTrackSegment segment : segments) {
+            tolerances.put(segment, computeTolerances(segment, projection));
+        }
+    }
+
+    /**
+     * Computes the simplification in the background.
+     * @param segments the track segments
+     * @param projection the projection of the east/north coordinates
+     * @param consumer called in the background thread with the simplification
+     * @return the background task
+     */
+    static Future<?> computeInBackground(Collection<IGpxTrackSegment> segments, Projection projection,
+            Consumer<GpxSimplification> consumer) {
+        return EXECUTOR.submit(() -> consumer.accept(new GpxSimplification(segments, projection)));
+    }
+
+    private static float[] computeTolerances(IGpxTrackSegment segment, Projection projection) {
+        int size;
+        double[] easts;
+        double[] norths;
+        if (segment instanceof CompactGpxTrackSegment) {
+            CompactGpxTrackSegment compact = (CompactGpxTrackSegment) segment;
+            size = compact.size();
+            easts = new double[size];
+            norths = new double[size];
+            for (int i = 0; i < size; i++) {
+                EastNorth en = projection.latlon2eastNorth(new LatLon(compact.getLat(i), compact.getLon(i)));
+                easts[i] = en.east();
+                norths[i] = en.north();
+            }
+        } else {
+            List<WayPoint> wpts = GpxDataIndex.getWayPoints(segment);
+            size = wpts.size();
+            easts = new double[size];
+            norths = new double[size];
+            for (int i = 0; i < size; i++) {
+                EastNorth en = projection.latlon2eastNorth(wpts.get(i));
+                easts[i] = en.east();
+                norths[i] = en.north();
+            }
+        }
+        return computeTolerances(easts, norths);
+    }
+
+    /**
+     * Computes the largest tolerance for which each point of a line is kept by the Douglas-Peucker algorithm.
+     * The tolerance of a point is at most the tolerance of the point which split the line before, so the points
+     * kept for a tolerance are the same as for the Douglas-Peucker algorithm run with this tolerance.
+     * @param easts the east coordinates of the points
+     * @param norths the north coordinates of the points
+     * @return the tolerances, infinite for the first and last point
+     */
+    static float[] computeTolerances(double[] easts, double[] norths) {
+        final int size = easts.length;
+        final float[] result = new float[size];
+        if (size == 0) {
+            return result;
+        }
+        result[0] = Float.POSITIVE_INFINITY;
+        result[size - 1] = Float.POSITIVE_INFINITY;
+        Deque<int[]> ranges = new ArrayDeque<>();
+        ranges.push(new int[] {0, size - 1});
+        while (!ranges.isEmpty()) {
+            int[] range = ranges.pop();
+            int from = range[0];
+            int to = range[1];
+            if (to - from < 2) {
+                continue;
+            }
+            double max = -1;
+            int split = from + 1;
+            for (int i = from + 1; i < to; i++) {
+                double d = distanceToLine(easts, norths, i, from, to);
+                if (Double.isNaN(d) || d > max) {
+                    max = Double.isNaN(d) ? Double.POSITIVE_INFINITY : d;
+                    split = i;
+                }
+            }
+            result[split] = (float) Math.min(max, Math.min(result[from], result[to]));
+            ranges.push(new int[] {from, split});
+            ranges.push(new int[] {split, to});
+        }
+        return result;
+    }
+
+    /**
+     * Returns the distance of a point to the line between two other points.
+     */
+    private static double distanceToLine(double[] easts, double[] norths, int point, int from, int to) {
+        double dx = easts[to] - easts[from];
+        double dy = norths[to] - norths[from];
+        double px = easts[point] - easts[from];
+        double py = norths[point] - norths[from];
+        double lengthSq = dx * dx + dy * dy;
+        double u = lengthSq > 0 ? Utils.clamp((px * dx + py * dy) / lengthSq, 0, 1) : 0;
+        return Math.hypot(px - u * dx, py - u * dy);
+    }
+
+    /**
+     * Returns the projection of the east/north coordinates used for the simplification.
+     * @return the projection
+     */
+    public Projection getProjection() {
+        return projection;
+    }
+
+    /**
+     * Returns the tolerances of the points of a track segment. A point is needed to draw the segment with a tolerance
+     * if its value is greater than the tolerance. The array must not be modified.
+     * @param segment the track segment
+     * @return the tolerances in east/north units, in the order of {@link GpxDataIndex#getWayPoints},
+     * or {@code null} if the segment is not part of this simplification
+     */
+    public float[] getTolerances(IGpxTrackSegment segment) {
+        return tolerances.get(segment);
+    }
+}
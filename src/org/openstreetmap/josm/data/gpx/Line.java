@@ -15,6 +15,7 @@ public class Line implements Collection<WayPoint> {
     private final Collection<WayPoint> waypoints;
     private final boolean unordered;
     private final Color color;
+    private final IGpxTrackSegment segment;
 
     /**
      * Constructs a new {@code Line}.
@@ -24,11 +25,23 @@ public class Line implements Collection<WayPoint> {
      * @since 15496
      */
     public Line(Collection<WayPoint> waypoints, Map<String, Object> attributes, Color color) {
+        this(waypoints, attributes, color, null);
+    }
+
+    private Line(Collection<WayPoint> waypoints, Map<String, Object> attributes, Color color, IGpxTrackSegment segment) {
         this.color = color;
         this.waypoints = Objects.requireNonNull(waypoints);
+        this.segment = segment;
         unordered = attributes.isEmpty() && waypoints.stream().allMatch(x -> x.get(GpxConstants.PT_TIME) == null);
     }
 
+    private Line(CompactGpxTrackSegment trackSegment, Map<String, Object> trackAttributes, Color color) {
+        this.color = color;
+        this.waypoints = trackSegment.getDrawingPoints();
+        this.segment = trackSegment;
+        unordered = trackAttributes.isEmpty() && !trackSegment.hasTime();
+    }
+
     /**
      * Constructs a new {@code Line}.
      * @param trackSegment track segment
@@ -37,7 +50,22 @@ public class Line implements Collection<WayPoint> {
      * @since 15496
      */
     public Line(IGpxTrackSegment trackSegment, Map<String, Object> trackAttributes, Color color) {
-        this(trackSegment.getWayPoints(), trackAttributes, color);
+        this(trackSegment.getWayPoints(), trackAttributes, color, trackSegment);
+    }
+
+    /**
+     * Creates a new {@code Line} for drawing. Points of a {@link CompactGpxTrackSegment} are created while iterating,
+     * and their drawing state is stored in the segment.
+     * @param trackSegment track segment
+     * @param trackAttributes track attributes
+     * @param color color of the track
+     * @return the new line
+     */
+    public static Line forDrawing(IGpxTrackSegment trackSegment, Map<String, Object> trackAttributes, Color color) {
+        if (trackSegment instanceof CompactGpxTrackSegment) {
+            return new Line((CompactGpxTrackSegment) trackSegment, trackAttributes, color);
+        }
+        return new Line(trackSegment, trackAttributes, color);
     }
 
     /**
@@ -56,6 +84,14 @@ public class Line implements Collection<WayPoint> {
         return unordered;
     }
 
+    /**
+     * Returns the track segment of this line.
+     * @return the track segment, or {@code null} if this line is not created from a track segment
+     */
+    public IGpxTrackSegment getSegment() {
+        return segment;
+    }
+
     /**
      * Returns the track/route color
      * @return the color
@@ -85,6 +85,17 @@ public class WayPoint extends WithAttributes implements Comparable<WayPoint>, Te
         lon = ll.lon();
     }
 
+    /**
+     * Constructs a new {@code WayPoint} from lat/lon coordinates, without creating a {@link LatLon}.
+     * @param lat latitude
+     * @param lon longitude
+     */
+    WayPoint(double lat, double lon) {
+        attr = new HashMap<>(0);
+        this.lat = lat;
+        this.lon = lon;
+    }
+
     /**
      * Invalidate the internal cache of east/north coordinates.
      */
@@ -125,6 +136,30 @@ public class WayPoint extends WithAttributes implements Comparable<WayPoint>, Te
         return new EastNorth(east, north);
     }
 
+    /**
+     * Sets the internal cache of east/north coordinates, e.g. from a value stored outside of this way point.
+     * @param east east coordinate
+     * @param north north coordinate
+     * @param cacheKey the cache key of the projection used
+     */
+    void setEastNorthCache(double east, double north, Object cacheKey) {
+        this.east = east;
+        this.north = north;
+        this.eastNorthCacheKey = cacheKey;
+    }
+
+    double getCachedEast() {
+        return east;
+    }
+
+    double getCachedNorth() {
+        return north;
+    }
+
+    Object getEastNorthCacheKey() {
+        return eastNorthCacheKey;
+    }
+
     @Override
     public String toString() {
         return "WayPoint (" + (attr.containsKey(GPX_NAME) ? get(GPX_NAME) + ", " : "") + getCoor() + ", " + attr + ')';
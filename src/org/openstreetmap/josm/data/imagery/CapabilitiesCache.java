@@ -0,0 +1,100 @@
+// License: GPL. For details, see LICENSE file.
+package org.openstreetmap.josm.data.imagery;
+
+import java.io.File;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.TreeMap;
+
+/**
+ * Parsed GetCapabilities documents, kept in memory while the cached document on disk is unchanged.
+ * <p>
+ * The documents are downloaded and refreshed by {@link org.openstreetmap.josm.io.CachedFile}, using If-Modified-Since.
+ * Parsing them takes much longer than checking the cached file, and the same document is parsed for each layer
+ * using the service, e.g. when a session is restored. The parsed result is reused as long as the cached file has
+ * the same modification time and size. The parsed objects must not be modified by the callers.
+ *
+ * @param <T> type of the parsed document
+ */
+public class CapabilitiesCache<T> {
+
+    private static final class Document<T> {
+        private final String path;
+        private final long lastModified;
+        private final long length;
+        private final T value;
+
+        Document(File file, T value) {
+            this.path = file.getAbsolutePath();
+            this.lastModified = file.lastModified();
+            this.length = file.length();
+            this.value = value;
+        }
+
+        boolean matches(File file) {
+            return path.equals(file.getAbsolutePath()) && lastModified == file.lastModified() && length == file.length();
+        }
+    }
+
+    private final Map<String, Document<T>> documents;
+
+    /**
+     * Constructs a new {@code CapabilitiesCache}.
+     * @param maxEntries maximum number of documents kept, the least recently used ones are dropped
+     */
+    public CapabilitiesCache(int maxEntries) {
+        this.documents = new LinkedHashMap<String, Document<T>>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Document<T>> eldest) {
+                return size() > maxEntries;
+            }
+        };
+    }
+
+    private static String getKey(String url, Map<String, String> headers) {
+        return headers == null || headers.isEmpty() ? url : url + ' ' + new TreeMap<>(headers);
+    }
+
+    /**
+     * Returns a parsed document.
+     * @param url the URL of the document
+     * @param headers HTTP headers used to get the document, may be {@code null}
+     * @param file the cached file of the document
+     * @return the parsed document, or {@code null} if it is not cached or the cached file has changed since
+     */
+    public synchronized T get(String url, Map<String, String> headers, File file) {
+        String key = getKey(url, headers);
+        Document<T> document = documents.get(key);
+        if (document == null) {
+            return null;
+        }
+        if (file == null || !document.matches(file)) {
+            documents.remove(key);
+            return null;
+        }
+        return document.value;
+    }
+
+    /**
+     * Stores a parsed document.
+     * @param url the URL of the document
+     * @param headers HTTP headers used to get the document, may be {@code null}
+     * @param file the cached file the document has been parsed from. If {@code null}, nothing is stored
+     * @param value the parsed document
+     */
+    public synchronized void put(String url, Map<String, String> headers, File file, T value) {
+        if (file != null) {
+            documents.put(getKey(url, headers), new Document<>(file, Objects.requireNonNull(value)));
+        }
+    }
+
+    /**
+     * Drops a parsed document, e.g. when the cached file is cleared.
+     * @param url the URL of the document
+     * @param headers HTTP headers used to get the document, may be {@code null}
+     */
+    public synchronized void remove(String url, Map<String, String> headers) {
+        documents.remove(getKey(url, headers));
+    }
+}
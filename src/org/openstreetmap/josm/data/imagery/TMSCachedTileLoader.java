@@ -39,6 +39,11 @@ public class TMSCachedTileLoader implements TileLoader, CachedTileLoader {
      */
     public static final IntegerProperty HOST_LIMIT = new IntegerProperty("imagery.tms.tmsloader.maxjobsperhost", 6);
 
+    /**
+     * number of tiles around the displayed area, which are still downloaded, other queued downloads are canceled
+     */
+    public static final IntegerProperty OFFSCREEN_MARGIN = new IntegerProperty("imagery.tms.tmsloader.offscreen_margin", 2);
+
     /**
      * separate from JCS thread pool for TMS loader, so we can have different thread pools for default JCS
      * and for TMS imagery
@@ -47,6 +52,8 @@ public class TMSCachedTileLoader implements TileLoader, CachedTileLoader {
 
     private ThreadPoolExecutor downloadExecutor = DEFAULT_DOWNLOAD_JOB_DISPATCHER;
     protected final TileJobOptions options;
+    private volatile TileViewport viewport;
+    private boolean decodeImages = true;
 
     /**
      * Constructor
@@ -101,17 +108,57 @@ public class TMSCachedTileLoader implements TileLoader, CachedTileLoader {
 
     @Override
     public TileJob createTileLoaderJob(Tile tile) {
-        return new TMSCachedTileLoaderJob(
-                listener,
+        TMSCachedTileLoaderJob job = new TMSCachedTileLoaderJob(
+                decodeImages ? listener : null,
                 tile,
                 cache,
                 options,
                 getDownloadExecutor());
+        job.setViewport(this::getViewport);
+        job.setDecodeImage(decodeImages);
+        return job;
+    }
+
+    /**
+     * Sets whether the images of loaded tiles are decoded and the listener is notified.
+     * Loaders which only fill the cache, e.g. for prefetching, do not need the images.
+     * @param decodeImages {@code false} to only store the tiles in the cache
+     */
+    public void setDecodeImages(boolean decodeImages) {
+        this.decodeImages = decodeImages;
+    }
+
+    /**
+     * Determines whether the images of loaded tiles are decoded and the listener is notified.
+     * @return {@code true} if the images are decoded
+     * @see #setDecodeImages(boolean)
+     */
+    public boolean isDecodeImages() {
+        return decodeImages;
+    }
+
+    /**
+     * Sets the currently displayed tiles, so that queued downloads are ranked by their distance to the view,
+     * and downloads of tiles which are not visible anymore are canceled.
+     * @param viewport the displayed tiles, or {@code null} to download tiles in the order they were requested
+     */
+    public void setViewport(TileViewport viewport) {
+        this.viewport = viewport;
+    }
+
+    /**
+     * Returns the currently displayed tiles.
+     * @return the displayed tiles, or {@code null}
+     * @see #setViewport(TileViewport)
+     */
+    public TileViewport getViewport() {
+        return viewport;
     }
 
     @Override
     public void clearCache(TileSource source) {
         this.cache.remove(source.getName() + ICache.NAME_COMPONENT_DELIMITER);
+        TileMemoryBudget.getInstance().clearCompressed();
     }
 
     /**
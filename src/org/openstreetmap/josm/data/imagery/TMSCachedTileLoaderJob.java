@@ -19,11 +19,13 @@ import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.ThreadPoolExecutor;
 import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
 import org.apache.commons.jcs3.access.behavior.ICacheAccess;
 import org.apache.commons.jcs3.engine.behavior.ICache;
+import org.apache.commons.jcs3.engine.behavior.ICacheElement;
 import org.openstreetmap.gui.jmapviewer.Tile;
 import org.openstreetmap.gui.jmapviewer.interfaces.TileJob;
 import org.openstreetmap.gui.jmapviewer.interfaces.TileLoaderListener;
@@ -36,6 +38,7 @@ import org.openstreetmap.josm.data.cache.ICachedLoaderListener;
 import org.openstreetmap.josm.data.cache.JCSCachedTileLoaderJob;
 import org.openstreetmap.josm.data.imagery.vectortile.VectorTile;
 import org.openstreetmap.josm.data.imagery.vectortile.mapbox.MVTFile;
+import org.openstreetmap.josm.data.preferences.BooleanProperty;
 import org.openstreetmap.josm.data.preferences.LongProperty;
 import org.openstreetmap.josm.tools.HttpClient;
 import org.openstreetmap.josm.tools.Logging;
@@ -52,12 +55,17 @@ public class TMSCachedTileLoaderJob extends JCSCachedTileLoaderJob<String, Buffe
     public static final LongProperty MAXIMUM_EXPIRES = new LongProperty("imagery.generic.maximum_expires", TimeUnit.DAYS.toMillis(30));
     /** General minimum expires for tiles. Might be overridden by imagery settings */
     public static final LongProperty MINIMUM_EXPIRES = new LongProperty("imagery.generic.minimum_expires", TimeUnit.HOURS.toMillis(1));
+    /** Whether expired tiles are displayed while they are verified with the server in the background */
+    public static final BooleanProperty STALE_WHILE_REVALIDATE = new BooleanProperty("imagery.generic.stale_while_revalidate", true);
     static final Pattern SERVICE_EXCEPTION_PATTERN = Pattern.compile("(?s).+<ServiceException[^>]*>(.+)</ServiceException>.+");
     static final Pattern CDATA_PATTERN = Pattern.compile("(?s)\\s*<!\\[CDATA\\[(.+)\\]\\]>\\s*");
     static final Pattern JSON_PATTERN = Pattern.compile("\\{\"message\":\"(.+)\"\\}");
     protected final Tile tile;
     private volatile URL url;
     private final TileJobOptions options;
+    private Supplier<TileViewport> viewport;
+    private boolean decodeImage = true;
+    private volatile Set<TileLoaderListener> finishedListeners;
 
     // we need another deduplication of Tile Loader listeners, as for each submit, new TMSCachedTileLoaderJob was created
     // that way, we reduce calls to tileLoadingFinished, and general CPU load due to surplus Map repaints
@@ -94,6 +102,35 @@ public class TMSCachedTileLoaderJob extends JCSCachedTileLoaderJob<String, Buffe
         return null;
     }
 
+    /**
+     * Sets the supplier of the currently displayed tiles, used to rank this job in the download queue.
+     * @param viewport supplier of the displayed tiles, which may supply {@code null}
+     */
+    void setViewport(Supplier<TileViewport> viewport) {
+        this.viewport = viewport;
+    }
+
+    /**
+     * Sets whether the image of the tile is decoded when it has been loaded.
+     * If not, the job only fills the cache, and listeners of other jobs for the same tile are left for those jobs.
+     * @param decodeImage {@code false} to only store the tile in the cache
+     */
+    void setDecodeImage(boolean decodeImage) {
+        this.decodeImage = decodeImage;
+    }
+
+    @Override
+    public double getDownloadPriority() {
+        TileViewport v = viewport != null ? viewport.get() : null;
+        return v != null ? v.getPriority(tile.getZoom(), tile.getXtile(), tile.getYtile()) : super.getDownloadPriority();
+    }
+
+    @Override
+    protected ICacheElement<String, BufferedImageCacheEntry> getCacheElement(String key) {
+        ICacheElement<String, BufferedImageCacheEntry> element = TileMemoryBudget.getInstance().getCompressed(key);
+        return element != null ? element : super.getCacheElement(key);
+    }
+
     /*
      *  this doesn't needs to be synchronized, as it's not that costly to keep only one execution
      *  in parallel, but URL creation and Tile.getUrl() are costly and are not needed when fetching
@@ -185,7 +222,17 @@ public class TMSCachedTileLoaderJob extends JCSCachedTileLoaderJob<String, Buffe
     @Override
     public void loadingFinished(CacheEntry object, CacheEntryAttributes attributes, LoadResult result) {
         this.attributes = attributes; // as we might get notification from other object than our selfs, pass attributes along
+        if (!decodeImage) {
+            tile.finishLoading();
+            if (result == LoadResult.SUCCESS && object instanceof BufferedImageCacheEntry && object.getContent().length > 0) {
+                TileMemoryBudget.getInstance().putCompressed(getCacheKey(), (BufferedImageCacheEntry) object, attributes);
+            }
+            return;
+        }
         Set<TileLoaderListener> listeners = inProgress.remove(getCacheKey());
+        if (listeners != null) {
+            finishedListeners = listeners;
+        }
         boolean status = result == LoadResult.SUCCESS;
 
         try {
@@ -208,6 +255,9 @@ public class TMSCachedTileLoaderJob extends JCSCachedTileLoaderJob<String, Buffe
                     }
                 }
                 status &= tryLoadTileImage(object); //try to keep returned image as background
+                if (status && object instanceof BufferedImageCacheEntry && object.getContent().length > 0) {
+                    TileMemoryBudget.getInstance().putCompressed(getCacheKey(), (BufferedImageCacheEntry) object, attributes);
+                }
                 break;
             case FAILURE:
                 handleError(attributes);
@@ -236,6 +286,46 @@ public class TMSCachedTileLoaderJob extends JCSCachedTileLoaderJob<String, Buffe
         }
     }
 
+    @Override
+    protected boolean isStaleWhileRevalidateAllowed() {
+        return STALE_WHILE_REVALIDATE.get();
+    }
+
+    @Override
+    protected void staleEntryReplaced(Set<ICachedLoaderListener> listeners) {
+        for (ICachedLoaderListener l: listeners) {
+            if (l instanceof TMSCachedTileLoaderJob) {
+                ((TMSCachedTileLoaderJob) l).reloadTile(cacheData, attributes);
+            } else {
+                l.loadingFinished(cacheData, attributes, LoadResult.SUCCESS);
+            }
+        }
+    }
+
+    /**
+     * Replaces the image of the already loaded tile, after a newer version has been downloaded in the background.
+     * Unlike {@link #loadingFinished}, the listeners which got the expired tile are notified again.
+     */
+    private void reloadTile(CacheEntry object, CacheEntryAttributes attributes) {
+        this.attributes = attributes;
+        if (object instanceof BufferedImageCacheEntry && object.getContent().length > 0) {
+            TileMemoryBudget.getInstance().putCompressed(getCacheKey(), (BufferedImageCacheEntry) object, attributes);
+        }
+        Set<TileLoaderListener> listeners = finishedListeners;
+        if (!decodeImage || listeners == null) {
+            return;
+        }
+        try {
+            if (tryLoadTileImage(object)) {
+                for (TileLoaderListener l: listeners) {
+                    l.tileLoadingFinished(tile, true);
+                }
+            }
+        } catch (IOException e) {
+            Logging.warn("JCS TMS - error reloading object for tile {0}: {1}", tile.getKey(), e.getMessage());
+        }
+    }
+
     private void handleError(CacheEntryAttributes attributes) {
         if (tile.hasError() && tile.getErrorMessage() != null) {
             // tile has already set error message, don't overwrite it
@@ -340,6 +430,9 @@ public class TMSCachedTileLoaderJob extends JCSCachedTileLoaderJob<String, Buffe
                         }
                         return false;
                     }
+                    if (!(tile instanceof VectorTile)) {
+                        TileMemoryBudget.getInstance().imageLoaded(tile);
+                    }
                 } catch (UnsatisfiedLinkError | SecurityException e) {
                     throw new IOException(e);
                 }
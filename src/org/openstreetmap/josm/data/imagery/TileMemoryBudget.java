@@ -0,0 +1,189 @@
+// License: GPL. For details, see LICENSE file.
+package org.openstreetmap.josm.data.imagery;
+
+import java.awt.image.BufferedImage;
+import java.awt.image.DataBuffer;
+
+import org.apache.commons.jcs3.engine.CacheElement;
+import org.apache.commons.jcs3.engine.behavior.ICacheElement;
+import org.openstreetmap.gui.jmapviewer.Tile;
+import org.openstreetmap.gui.jmapviewer.interfaces.TileSource;
+import org.openstreetmap.josm.data.cache.BufferedImageCacheEntry;
+import org.openstreetmap.josm.data.cache.CacheEntryAttributes;
+import org.openstreetmap.josm.data.cache.WeightedLruCache;
+import org.openstreetmap.josm.data.preferences.IntegerProperty;
+import org.openstreetmap.josm.tools.MemoryManager;
+
+/**
+ * Keeps the memory used by imagery tiles within a byte budget shared by all imagery layers.
+ * <p>
+ * Two tiers are managed:
+ * <ul>
+ * <li>decoded tile images, which are released from their {@link Tile} when the budget is exceeded, so that they are
+ * decoded again when needed. A share of this budget is kept for the reduced images of missing tiles,</li>
+ * <li>compressed tile data, which saves a disk cache lookup when a released tile is loaded again.</li>
+ * </ul>
+ * Both budgets are a percentage of the memory available to JOSM, so the number of tiles kept in memory depends on
+ * the tile size and the heap size instead of a fixed number of objects.
+ * @see MemoryManager#getMaxMemory()
+ */
+public final class TileMemoryBudget {
+
+    /** Percentage of the available memory used for decoded tile images */
+    public static final IntegerProperty DECODED_MEMORY_PERCENT = new IntegerProperty("imagery.cache.decoded_memory_percent", 30);
+    /** Percentage of the available memory used for compressed tile data */
+    public static final IntegerProperty COMPRESSED_MEMORY_PERCENT = new IntegerProperty("imagery.cache.compressed_memory_percent", 5);
+    /** Percentage of the decoded tile image budget used for reduced images built from the tiles of higher zoom levels */
+    public static final IntegerProperty MIP_SHARE_PERCENT = new IntegerProperty("imagery.cache.mip_share_percent", 15);
+
+    private static final TileMemoryBudget INSTANCE = new TileMemoryBudget();
+
+    /**
+     * Identity key of a tile, as {@link Tile#equals} compares tile coordinates and source only.
+     */
+    private static final class TileRef {
+        private final Tile tile;
+
+        TileRef(Tile tile) {
+            this.tile = tile;
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            return obj instanceof TileRef && ((TileRef) obj).tile == tile;
+        }
+
+        @Override
+        public int hashCode() {
+            return System.identityHashCode(tile);
+        }
+    }
+
+    private final WeightedLruCache<TileRef, BufferedImage> decoded = new WeightedLruCache<>(
+            TileMemoryBudget::getImageSize, () -> getBudget(DECODED_MEMORY_PERCENT) - getMipBudget(), TileMemoryBudget::releaseImage);
+    private final WeightedLruCache<String, ICacheElement<String, BufferedImageCacheEntry>> compressed = new WeightedLruCache<>(
+            e -> e.getVal().getContent().length, () -> getBudget(COMPRESSED_MEMORY_PERCENT), null);
+
+    private TileMemoryBudget() {
+        // release memory as soon as the budgets are reduced
+        DECODED_MEMORY_PERCENT.addListener(e -> trim());
+        COMPRESSED_MEMORY_PERCENT.addListener(e -> trim());
+        MIP_SHARE_PERCENT.addListener(e -> trim());
+    }
+
+    /**
+     * Returns the unique instance.
+     * @return the unique instance
+     */
+    public static TileMemoryBudget getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * Returns a memory budget given as a percentage of the memory available to JOSM.
+     * @param percent percentage of the available memory, clamped to [0, 100]
+     * @return the budget in bytes
+     * @see MemoryManager#getMaxMemory()
+     */
+    public static long getBudget(IntegerProperty percent) {
+        return MemoryManager.getInstance().getMaxMemory() / 100 * Math.max(0, Math.min(100, percent.get()));
+    }
+
+    /**
+     * Returns the memory budget of the reduced tile images. It is part of the budget of the decoded tile images,
+     * which keeps the rest.
+     * @return the budget in bytes
+     * @see #MIP_SHARE_PERCENT
+     */
+    public static long getMipBudget() {
+        return getBudget(DECODED_MEMORY_PERCENT) / 100 * Math.max(0, Math.min(100, MIP_SHARE_PERCENT.get()));
+    }
+
+    /**
+     * Returns the size of the raster of an image.
+     * @param img the image
+     * @return the size in bytes
+     */
+    public static long getImageSize(BufferedImage img) {
+        DataBuffer buffer = img.getRaster().getDataBuffer();
+        return (long) buffer.getSize() * buffer.getNumBanks() * DataBuffer.getDataTypeSize(buffer.getDataType()) / 8;
+    }
+
+    private static void releaseImage(TileRef ref, BufferedImage img) {
+        Tile tile = ref.tile;
+        synchronized (tile) {
+            if (tile.getImage() == img && !tile.isLoading()) {
+                tile.setImage(null);
+                tile.setLoaded(false);
+            }
+        }
+    }
+
+    /**
+     * Registers the image of a tile which has just been decoded. Least recently used images of other tiles may be released.
+     * @param tile the tile
+     */
+    public void imageLoaded(Tile tile) {
+        BufferedImage img = tile.getImage();
+        if (img != null) {
+            decoded.put(new TileRef(tile), img);
+        }
+    }
+
+    /**
+     * Marks the image of a tile as recently used, e.g. when it is painted.
+     * @param tile the tile
+     */
+    public void touch(Tile tile) {
+        decoded.get(new TileRef(tile));
+    }
+
+    /**
+     * Returns compressed tile data kept in memory.
+     * @param key the cache key of the tile
+     * @return the cache element, or {@code null}
+     */
+    public ICacheElement<String, BufferedImageCacheEntry> getCompressed(String key) {
+        return compressed.get(key);
+    }
+
+    /**
+     * Keeps compressed tile data in memory.
+     * @param key the cache key of the tile
+     * @param entry the compressed tile data
+     * @param attributes the cache entry attributes
+     */
+    public void putCompressed(String key, BufferedImageCacheEntry entry, CacheEntryAttributes attributes) {
+        // do not keep a reference to an image decoded by the entry, it is accounted for by the decoded tier
+        compressed.put(key, new CacheElement<>("", key, new BufferedImageCacheEntry(entry.getContent()), attributes));
+    }
+
+    /**
+     * Forgets the decoded images of the tiles of a tile source, e.g. when its layer is removed,
+     * so that the tiles and their images are not kept reachable.
+     * @param source the tile source
+     */
+    public void release(TileSource source) {
+        decoded.removeIf(ref -> ref.tile.getTileSource() == source);
+    }
+
+    /**
+     * Discards all compressed tile data kept in memory, e.g. when the disk cache has been cleared.
+     */
+    public void clearCompressed() {
+        compressed.clear();
+    }
+
+    /**
+     * Releases the least recently used images and compressed data until the budgets are respected, e.g. after they have been reduced.
+     */
+    public void trim() {
+        decoded.trim();
+        compressed.trim();
+    }
+
+    @Override
+    public String toString() {
+        return "TileMemoryBudget [decoded=" + decoded + ", compressed=" + compressed + ']';
+    }
+}
@@ -0,0 +1,65 @@
+// License: GPL. For details, see LICENSE file.
+package org.openstreetmap.josm.data.imagery;
+
+/**
+ * The range of tiles currently displayed by an imagery layer, used to rank tile downloads.
+ * <p>
+ * Tiles close to the center of the view at the displayed zoom level are downloaded first, tiles of other zoom levels
+ * (used while zooming) afterwards. Tiles which do not intersect the view, extended by a margin, are not needed anymore.
+ */
+public final class TileViewport {
+    private final int zoom;
+    private final int minX;
+    private final int maxX;
+    private final int minY;
+    private final int maxY;
+    private final int margin;
+    private final double radius;
+
+    /**
+     * Constructs a new {@code TileViewport}.
+     * @param zoom displayed zoom level
+     * @param minX minimum tile x index, inclusive
+     * @param maxX maximum tile x index, inclusive
+     * @param minY minimum tile y index, inclusive
+     * @param maxY maximum tile y index, inclusive
+     * @param margin number of tiles around the view which are still needed, e.g. for small pans
+     */
+    public TileViewport(int zoom, int minX, int maxX, int minY, int maxY, int margin) {
+        this.zoom = zoom;
+        this.minX = minX;
+        this.maxX = maxX;
+        this.minY = minY;
+        this.maxY = maxY;
+        this.margin = margin;
+        this.radius = Math.hypot(maxX + 1 - minX, maxY + 1 - minY) / 2;
+    }
+
+    /**
+     * Returns the download priority of a tile.
+     * @param tileZoom zoom level of the tile
+     * @param x x index of the tile
+     * @param y y index of the tile
+     * @return distance of the tile to the view center, in tiles of the displayed zoom level, plus a penalty for other zoom
+     * levels, or {@link Double#POSITIVE_INFINITY} if the tile is outside of the view
+     */
+    public double getPriority(int tileZoom, int x, int y) {
+        // bounds of the tile in tiles of the displayed zoom level
+        double scale = Math.scalb(1.0, zoom - tileZoom);
+        double x0 = x * scale;
+        double x1 = (x + 1) * scale;
+        double y0 = y * scale;
+        double y1 = (y + 1) * scale;
+        if (x1 <= minX - margin || x0 >= maxX + 1 + margin || y1 <= minY - margin || y0 >= maxY + 1 + margin) {
+            return Double.POSITIVE_INFINITY;
+        }
+        double dx = (x0 + x1 - minX - maxX - 1) / 2;
+        double dy = (y0 + y1 - minY - maxY - 1) / 2;
+        return Math.hypot(dx, dy) + radius * Math.abs(zoom - tileZoom);
+    }
+
+    @Override
+    public String toString() {
+        return "TileViewport [zoom=" + zoom + ", x=" + minX + ".." + maxX + ", y=" + minY + ".." + maxY + ']';
+    }
+}
@@ -40,6 +40,10 @@ public class WMSCachedTileLoader extends TMSCachedTileLoader {
 
     @Override
     public TileJob createTileLoaderJob(Tile tile) {
-        return new WMSCachedTileLoaderJob(listener, tile, cache, options, getDownloadExecutor());
+        WMSCachedTileLoaderJob job = new WMSCachedTileLoaderJob(isDecodeImages() ? listener : null, tile, cache, options,
+                getDownloadExecutor());
+        job.setViewport(this::getViewport);
+        job.setDecodeImage(isDecodeImages());
+        return job;
     }
 }
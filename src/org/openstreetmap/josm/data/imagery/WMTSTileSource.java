@@ -18,6 +18,7 @@ import static org.openstreetmap.josm.tools.I18n.tr;
 
 import java.awt.Point;
 import java.io.ByteArrayInputStream;
+import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
 import java.nio.charset.StandardCharsets;
@@ -109,6 +110,9 @@ public class WMTSTileSource extends AbstractTMSTileSource implements TemplatedTi
     private static final String URL_GET_ENCODING_PARAMS = "SERVICE=WMTS&REQUEST=GetTile&VERSION=1.0.0&LAYER={layer}&STYLE={style}&"
             + "FORMAT={format}&tileMatrixSet={TileMatrixSet}&tileMatrix={TileMatrix}&tileRow={TileRow}&tileCol={TileCol}";
 
+    /** Parsed capabilities documents, shared by all layers of a service */
+    private static final CapabilitiesCache<WMTSCapabilities> CAPABILITIES_CACHE = new CapabilitiesCache<>(16);
+
     private int cachedTileSize = -1;
 
     private static final class TileMatrix {
@@ -448,50 +452,59 @@ public class WMTSTileSource extends AbstractTMSTileSource implements TemplatedTi
      * @throws IllegalArgumentException in case of any other error
      */
     public static WMTSCapabilities getCapabilities(String url, Map<String, String> headers) throws IOException, WMTSGetCapabilitiesException {
-        try (CachedFile cf = new CachedFile(url); InputStream in = cf.setHttpHeaders(headers).
-                setMaxAge(Config.getPref().getLong("wmts.capabilities.cache.max_age", 7 * CachedFile.DAYS)).
-                setCachingStrategy(CachedFile.CachingStrategy.IfModifiedSince).
-                getInputStream()) {
-            byte[] data = in.readAllBytes();
-            if (data.length == 0) {
-                cf.clear();
-                throw new IllegalArgumentException("Could not read data from: " + url);
+        try (CachedFile cf = new CachedFile(url)) {
+            File file = cf.setHttpHeaders(headers).
+                    setMaxAge(Config.getPref().getLong("wmts.capabilities.cache.max_age", 7 * CachedFile.DAYS)).
+                    setCachingStrategy(CachedFile.CachingStrategy.IfModifiedSince).
+                    getFile();
+            WMTSCapabilities cached = CAPABILITIES_CACHE.get(url, headers, file);
+            if (cached != null) {
+                return cached;
             }
+            try (InputStream in = cf.getInputStream()) {
+                byte[] data = in.readAllBytes();
+                if (data.length == 0) {
+                    cf.clear();
+                    throw new IllegalArgumentException("Could not read data from: " + url);
+                }
 
-            try {
-                XMLStreamReader reader = GetCapabilitiesParseHelper.getReader(new ByteArrayInputStream(data));
-                WMTSCapabilities ret = null;
-                Collection<Layer> layers = null;
-                for (int event = reader.getEventType(); reader.hasNext(); event = reader.next()) {
-                    if (event == START_ELEMENT) {
-                        QName qName = reader.getName();
-                        if (QN_OWS_OPERATIONS_METADATA.equals(qName)) {
-                            ret = parseOperationMetadata(reader);
-                        } else if (QN_CONTENTS.equals(qName)) {
-                            layers = parseContents(reader);
+                try {
+                    XMLStreamReader reader = GetCapabilitiesParseHelper.getReader(new ByteArrayInputStream(data));
+                    WMTSCapabilities ret = null;
+                    Collection<Layer> layers = null;
+                    for (int event = reader.getEventType(); reader.hasNext(); event = reader.next()) {
+                        if (event == START_ELEMENT) {
+                            QName qName = reader.getName();
+                            if (QN_OWS_OPERATIONS_METADATA.equals(qName)) {
+                                ret = parseOperationMetadata(reader);
+                            } else if (QN_CONTENTS.equals(qName)) {
+                                layers = parseContents(reader);
+                            }
                         }
                     }
+                    if (ret == null) {
+                        /*
+                         *  see #12168 - create dummy operation metadata - not all WMTS services provide this information
+                         *
+                         *  WMTS Standard:
+                         *  > Resource oriented architecture style HTTP encodings SHALL not be described in the OperationsMetadata section.
+                         *
+                         *  And OperationMetada is not mandatory element. So REST mode is justifiable
+                         */
+                        ret = new WMTSCapabilities(url, TransferMode.REST);
+                    }
+                    if (layers == null) {
+                        throw new WMTSGetCapabilitiesException(tr("WMTS Capabilities document did not contain layers in url: {0}", url));
+                    }
+                    ret.addLayers(layers);
+                    CAPABILITIES_CACHE.put(url, headers, file, ret);
+                    return ret;
+                } catch (XMLStreamException e) {
+                    cf.clear();
+                    CAPABILITIES_CACHE.remove(url, headers);
+                    Logging.warn(new String(data, StandardCharsets.UTF_8));
+                    throw new WMTSGetCapabilitiesException(tr("Error during parsing of WMTS Capabilities document: {0}", e.getMessage()), e);
                 }
-                if (ret == null) {
-                    /*
-                     *  see #12168 - create dummy operation metadata - not all WMTS services provide this information
-                     *
-                     *  WMTS Standard:
-                     *  > Resource oriented architecture style HTTP encodings SHALL not be described in the OperationsMetadata section.
-                     *
-                     *  And OperationMetada is not mandatory element. So REST mode is justifiable
-                     */
-                    ret = new WMTSCapabilities(url, TransferMode.REST);
-                }
-                if (layers == null) {
-                    throw new WMTSGetCapabilitiesException(tr("WMTS Capabilities document did not contain layers in url: {0}", url));
-                }
-                ret.addLayers(layers);
-                return ret;
-            } catch (XMLStreamException e) {
-                cf.clear();
-                Logging.warn(new String(data, StandardCharsets.UTF_8));
-                throw new WMTSGetCapabilitiesException(tr("Error during parsing of WMTS Capabilities document: {0}", e.getMessage()), e);
             }
         } catch (InvalidPathException e) {
             throw new WMTSGetCapabilitiesException(tr("Invalid path for GetCapabilities document: {0}", e.getMessage()), e);
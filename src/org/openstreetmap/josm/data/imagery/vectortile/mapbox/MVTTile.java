@@ -8,6 +8,7 @@ import java.util.ArrayList;
 import java.util.Collection;
 import java.util.List;
 import java.util.Objects;
+import java.util.stream.Collectors;
 
 import org.openstreetmap.gui.jmapviewer.Tile;
 import org.openstreetmap.gui.jmapviewer.interfaces.ICoordinate;
@@ -52,18 +53,11 @@ public class MVTTile extends Tile implements VectorTile, IQuadBucketType {
             this.initLoading();
             ProtobufParser parser = new ProtobufParser(inputStream);
             Collection<ProtobufRecord> protobufRecords = parser.allRecords();
-            this.layers = new ArrayList<>(protobufRecords.size());
-            for (ProtobufRecord protoBufRecord : protobufRecords) {
-                if (protoBufRecord.getField() == Layer.LAYER_FIELD) {
-                    try (protoBufRecord; // Cleanup bytes
-                         ProtobufParser tParser = new ProtobufParser(protoBufRecord.getBytes())) {
-                        this.layers.add(new Layer(tParser.allRecords()));
-                    } catch (IOException e) {
-                        Logging.error(e);
-                    }
-                }
-            }
-            this.layers = new ArrayList<>(this.layers);
+            // The layers are independent of each other, so they are decoded in parallel
+            this.layers = protobufRecords.parallelStream()
+                    .filter(protoBufRecord -> protoBufRecord.getField() == Layer.LAYER_FIELD)
+                    .map(MVTTile::parseLayer).filter(Objects::nonNull)
+                    .collect(Collectors.toCollection(ArrayList::new));
 
             this.extent = layers.stream().filter(Objects::nonNull).mapToInt(Layer::getExtent).max().orElse(Layer.DEFAULT_EXTENT);
             if (this.getData() != null) {
@@ -78,6 +72,16 @@ public class MVTTile extends Tile implements VectorTile, IQuadBucketType {
         }
     }
 
+    private static Layer parseLayer(ProtobufRecord protoBufRecord) {
+        try (protoBufRecord; // Cleanup bytes
+             ProtobufParser tParser = new ProtobufParser(protoBufRecord.getBytes())) {
+            return new Layer(tParser.allRecords());
+        } catch (IOException e) {
+            Logging.error(e);
+            return null;
+        }
+    }
+
     @Override
     public Collection<Layer> getLayers() {
         return this.layers;
@@ -77,6 +77,18 @@ public class ValidatorPrefHelper extends SourcePrefHelper {
      */
     public static final BooleanProperty PREF_UNFURL = new BooleanProperty(PREFIX + ".force.unfurl.window", true);
 
+    /**
+     * The preferences key for the persistent cache of validation results of tests which only look at a single primitive
+     * @see org.openstreetmap.josm.data.validation.ValidationResultCache
+     */
+    public static final BooleanProperty PREF_USE_RESULT_CACHE = new BooleanProperty(PREFIX + ".resultcache", true);
+
+    /**
+     * The preferences key for collecting timing information of the tests during validation
+     * @see org.openstreetmap.josm.data.validation.ValidationProfile
+     */
+    public static final BooleanProperty PREF_PROFILE = new BooleanProperty(PREFIX + ".profile", false);
+
     /**
      * Constructs a new {@code PresetPrefHelper}.
      */
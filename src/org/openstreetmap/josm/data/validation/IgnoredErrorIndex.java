@@ -0,0 +1,215 @@
+// License: GPL. For details, see LICENSE file.
+package org.openstreetmap.josm.data.validation;
+
+import java.util.ArrayDeque;
+import java.util.Collection;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Index of the ignore list entries, see {@link OsmValidator#getIgnoredErrors()}.
+ * <p>
+ * An ignore list entry has the form {@code <code><group>[:<type>_<id>]*}, e.g. {@code -1234_1201_Some description:n_1:w_2},
+ * see {@link TestError#getIgnoreGroup()}, {@link TestError#getIgnoreSubGroup()} and {@link TestError#getIgnoreState()}.
+ * The entries are stored in a trie whose levels are the code, the rest of the group, and the primitive ids, so that
+ * the lookup time does not depend on the number of entries. Errors whose code does not appear in the ignore list
+ * are rejected without building any ignore key.
+ * <p>
+ * The index is updated incrementally with {@link #add} and {@link #remove}.
+ */
+final class IgnoredErrorIndex {
+
+    private static final class TrieNode {
+        private Map<String, TrieNode> children;
+        private boolean terminal;
+
+        TrieNode get(String component) {
+            return children != null ? children.get(component) : null;
+        }
+
+        TrieNode getOrCreate(String component) {
+            if (children == null) {
+                children = new HashMap<>(4);
+            }
+            return children.computeIfAbsent(component, k -> new TrieNode());
+        }
+
+        boolean isEmpty() {
+            return !terminal && (children == null || children.isEmpty());
+        }
+    }
+
+    private TrieNode root = new TrieNode();
+    private int size;
+
+    /**
+     * Adds an ignore list entry.
+     * @param key the ignore list entry
+     */
+    void add(String key) {
+        TrieNode node = root;
+        for (String component : split(key)) {
+            node = node.getOrCreate(component);
+        }
+        if (!node.terminal) {
+            node.terminal = true;
+            size++;
+        }
+    }
+
+    /**
+     * Removes an ignore list entry.
+     * @param key the ignore list entry
+     */
+    void remove(String key) {
+        Deque<TrieNode> path = new ArrayDeque<>();
+        Deque<String> components = new ArrayDeque<>();
+        TrieNode node = root;
+        for (String component : split(key)) {
+            path.push(node);
+            components.push(component);
+            node = node.get(component);
+            if (node == null) {
+                return;
+            }
+        }
+        if (!node.terminal) {
+            return;
+        }
+        node.terminal = false;
+        size--;
+        // prune the nodes which are no longer needed
+        while (!path.isEmpty() && node.isEmpty()) {
+            node = path.pop();
+            node.children.remove(components.pop());
+        }
+    }
+
+    /**
+     * Replaces the content of this index.
+     * @param keys the ignore list entries
+     */
+    void rebuild(Collection<String> keys) {
+        root = new TrieNode();
+        size = 0;
+        keys.forEach(this::add);
+    }
+
+    /**
+     * Returns the number of entries.
+     * @return the number of entries
+     */
+    int size() {
+        return size;
+    }
+
+    /**
+     * Determines if the ignore list contains an entry.
+     * @param key the ignore list entry
+     * @return {@code true} if the entry is in the ignore list
+     */
+    boolean contains(String key) {
+        TrieNode node = root;
+        for (String component : split(key)) {
+            node = node.get(component);
+            if (node == null) {
+                return false;
+            }
+        }
+        return node.terminal;
+    }
+
+    /**
+     * Determines if the ignore list contains an entry for the given group and primitives.
+     * This is equivalent to {@code contains(group + ':' + String.join(":", primitives))}, without building the key.
+     * @param group the ignore group or sub group
+     * @param primitives the primitives in the form {@code <type>_<id>}, in the order of the ignore list entry
+     * @return {@code true} if the entry is in the ignore list
+     */
+    boolean contains(String group, Collection<String> primitives) {
+        int codeLength = getCodeLength(group);
+        TrieNode node = root.get(group.substring(0, codeLength));
+        if (node != null) {
+            node = node.get(group.substring(codeLength));
+        }
+        if (node == null) {
+            return false;
+        }
+        for (String primitive : primitives) {
+            node = node.get(primitive);
+            if (node == null) {
+                return false;
+            }
+        }
+        return node.terminal;
+    }
+
+    /**
+     * Determines if the ignore list contains any entry for the given code.
+     * @param code the code, i.e. the leading number of an ignore list entry
+     * @return {@code true} if an entry starts with the given code
+     */
+    boolean containsCode(String code) {
+        return root.get(code) != null;
+    }
+
+    /**
+     * Splits an ignore list entry into its components: code, rest of the group, primitives.
+     * @param key the ignore list entry
+     * @return the components
+     */
+    static Deque<String> split(String key) {
+        Deque<String> components = new ArrayDeque<>();
+        int end = key.length();
+        int colon = key.lastIndexOf(':', end - 1);
+        while (colon >= 0 && isPrimitive(key, colon + 1, end)) {
+            components.push(key.substring(colon + 1, end));
+            end = colon;
+            colon = end > 0 ? key.lastIndexOf(':', end - 1) : -1;
+        }
+        String group = key.substring(0, end);
+        int codeLength = getCodeLength(group);
+        components.push(group.substring(codeLength));
+        components.push(group.substring(0, codeLength));
+        return components;
+    }
+
+    /**
+     * Determines if the given part of an ignore list entry denotes a primitive, i.e. has the form {@code <type>_<id>}.
+     */
+    private static boolean isPrimitive(String key, int start, int end) {
+        if (end - start < 3 || "nwru".indexOf(key.charAt(start)) < 0 || key.charAt(start + 1) != '_') {
+            return false;
+        }
+        int i = start + 2;
+        if (key.charAt(i) == '-') {
+            i++;
+        }
+        if (i == end) {
+            return false;
+        }
+        for (; i < end; i++) {
+            if (key.charAt(i) < '0' || key.charAt(i) > '9') {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Returns the length of the code at the start of the given ignore group, i.e. an optional minus sign followed by digits.
+     */
+    private static int getCodeLength(String group) {
+        int i = !group.isEmpty() && group.charAt(0) == '-' ? 1 : 0;
+        while (i < group.length() && group.charAt(i) >= '0' && group.charAt(i) <= '9') {
+            i++;
+        }
+        return i;
+    }
+
+    @Override
+    public String toString() {
+        return "IgnoredErrorIndex [size=" + size + ']';
+    }
+}
@@ -101,6 +101,8 @@ public final class OsmValidator {
     private static double griddetail;
 
     private static final SortedMap<String, String> ignoredErrors = new TreeMap<>();
+    /** Index of the keys of {@link #ignoredErrors}, for fast lookups */
+    private static final IgnoredErrorIndex ignoredErrorIndex = new IgnoredErrorIndex();
     /**
      * All registered tests
      */
@@ -245,6 +247,7 @@ public final class OsmValidator {
             }
             removeLegacyEntries(Config.getPref().get(ValidatorPrefHelper.PREF_IGNORELIST_FORMAT).isEmpty());
         }
+        ignoredErrorIndex.rebuild(ignoredErrors.keySet());
     }
 
     private static void removeLegacyEntries(boolean force) {
@@ -301,6 +304,18 @@ public final class OsmValidator {
     public static void addIgnoredError(String s, String description) {
         if (description == null) description = "";
         ignoredErrors.put(s, description);
+        ignoredErrorIndex.add(s);
+    }
+
+    /**
+     * Removes an ignored error
+     * @param s The ignore group / sub group name
+     * @return the description of the removed entry, or {@code null} if there was no such entry
+     */
+    public static String removeIgnoredError(String s) {
+        String description = ignoredErrors.remove(s);
+        ignoredErrorIndex.remove(s);
+        return description;
     }
 
     /**
@@ -328,6 +343,7 @@ public final class OsmValidator {
             ignoredErrors.clear();
             ignoredErrors.putAll(tmap);
         }
+        ignoredErrorIndex.rebuild(ignoredErrors.keySet());
     }
 
     private static boolean sameCode(String key1, String key2) {
@@ -358,15 +374,35 @@ public final class OsmValidator {
      * @return <code>true</code> to ignore that error
      */
     public static boolean hasIgnoredError(String s) {
-        return ignoredErrors.containsKey(s);
+        return ignoredErrorIndex.contains(s);
+    }
+
+    /**
+     * Check if a error should be ignored
+     * @param group The ignore group / sub group name
+     * @param primitives The ignored objects in the form {@code <type>_<id>}, sorted as in {@link TestError#getIgnoreState()}
+     * @return <code>true</code> to ignore that error
+     */
+    static boolean hasIgnoredError(String group, Collection<String> primitives) {
+        return ignoredErrorIndex.contains(group, primitives);
+    }
+
+    /**
+     * Check if any error with the given code may be ignored
+     * @param code The leading code of the ignore group, see {@link TestError#getIgnoreGroup()}
+     * @return <code>true</code> if there is an ignore list entry for this code
+     */
+    static boolean hasIgnoredErrorCode(String code) {
+        return ignoredErrorIndex.containsCode(code);
     }
 
     /**
-     * Get the list of all ignored errors
-     * @return The <code>Collection&lt;String&gt;</code> of errors that are ignored
+     * Get the list of all ignored errors.
+     * Use {@link #addIgnoredError} and {@link #removeIgnoredError} to modify it.
+     * @return An unmodifiable view of the errors that are ignored
      */
     public static SortedMap<String, String> getIgnoredErrors() {
-        return ignoredErrors;
+        return Collections.unmodifiableSortedMap(ignoredErrors);
     }
 
     /**
@@ -512,8 +548,8 @@ public final class OsmValidator {
     public static void saveIgnoredErrors() {
         List<Map<String, String>> list = new ArrayList<>();
         cleanupIgnoredErrors();
-        ignoredErrors.remove("3000"); // see #19053
-        ignoredErrors.remove("3701"); // see #18230
+        removeIgnoredError("3000"); // see #19053
+        removeIgnoredError("3701"); // see #18230
         list.add(ignoredErrors);
         int i = 0;
         while (i < list.size()) {
@@ -706,5 +742,6 @@ public final class OsmValidator {
      */
     static void clearIgnoredErrors() {
         ignoredErrors.clear();
+        ignoredErrorIndex.rebuild(ignoredErrors.keySet());
     }
 }
@@ -81,6 +81,12 @@ public class Test implements OsmPrimitiveVisitor {
 
     private boolean showElementCount;
 
+    /** the result cache to use for the current run, see {@link #isResultCacheable()} */
+    private ValidationResultCache resultCache;
+
+    /** the profile collecting timing information for the current run, if any */
+    private ValidationProfile profile;
+
     /**
      * Constructor
      * @param name Name of the test
@@ -215,7 +221,7 @@ public class Test implements OsmPrimitiveVisitor {
                 break;
             }
             if (isPrimitiveUsable(p)) {
-                p.accept(this);
+                visitCached(p);
             }
             if (progressMonitor != null) {
                 progressMonitor.worked(1);
@@ -229,6 +235,62 @@ public class Test implements OsmPrimitiveVisitor {
         }
     }
 
+    private void visitCached(OsmPrimitive p) {
+        if (resultCache == null) {
+            p.accept(this);
+        } else if (!resultCache.restore(this, p, errors)) {
+            int size = errors.size();
+            p.accept(this);
+            resultCache.store(this, p, errors.subList(size, errors.size()));
+        }
+    }
+
+    /**
+     * Determines if the results of this test for a primitive only depend on the primitive itself, i.e. on its id,
+     * version and tags. Results of such tests are stored in the {@link ValidationResultCache} and reused for
+     * unchanged primitives. Tests looking at geometry, referrers or other primitives must not return {@code true}.
+     * @return {@code true} if the results of this test can be cached per primitive
+     * @see #getResultCacheFingerprint()
+     */
+    public boolean isResultCacheable() {
+        return false;
+    }
+
+    /**
+     * Returns a string describing the configuration of this test which influences its results, e.g. preference values.
+     * Cached results are only reused if the fingerprint did not change.
+     * @return the configuration fingerprint, empty by default
+     * @see #isResultCacheable()
+     */
+    public String getResultCacheFingerprint() {
+        return "";
+    }
+
+    /**
+     * Sets the result cache to use for the next run.
+     * @param resultCache the result cache, or {@code null} to disable caching
+     */
+    void setResultCache(ValidationResultCache resultCache) {
+        this.resultCache = resultCache;
+    }
+
+    /**
+     * Sets the profile collecting timing information for the next run.
+     * @param profile the profile, or {@code null} to disable profiling
+     */
+    public void setProfile(ValidationProfile profile) {
+        this.profile = profile;
+    }
+
+    /**
+     * Returns the profile collecting timing information for the current run.
+     * Tests may use it to record timing information of their rules.
+     * @return the profile, or {@code null} if profiling is disabled
+     */
+    protected final ValidationProfile getProfile() {
+        return profile;
+    }
+
     /**
      * Determines if the primitive is usable for tests.
      * @param p The primitive
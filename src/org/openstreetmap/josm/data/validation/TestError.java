@@ -11,7 +11,6 @@ import java.util.Collection;
 import java.util.Collections;
 import java.util.List;
 import java.util.Locale;
-import java.util.Map;
 import java.util.Set;
 import java.util.TreeSet;
 import java.util.function.Supplier;
@@ -309,6 +308,14 @@ public class TestError implements Comparable<TestError> {
         return description;
     }
 
+    /**
+     * Gets the English error description, used for ignoring errors
+     * @return the English error description
+     */
+    String getDescriptionEn() {
+        return descriptionEn;
+    }
+
     /**
      * Gets the list of primitives affected by this error
      * @return the list of primitives affected by this error
@@ -351,6 +358,17 @@ public class TestError implements Comparable<TestError> {
      * @return The ignore state ({@link #getIgnoreGroup} + ignored object list)
      */
     private String getIgnoreState(boolean useOriginal) {
+        Collection<String> strings = getIgnoredPrimitives();
+        if (strings == null)
+            return null;
+        return strings.stream().map(o -> ':' + o).collect(Collectors.joining("", getIgnoreSubGroup(useOriginal), ""));
+    }
+
+    /**
+     * Returns the primitives of this error as used in the ignore state.
+     * @return the sorted primitives in the form {@code <type>_<id>}, or null if any primitive is new
+     */
+    private Collection<String> getIgnoredPrimitives() {
         Collection<String> strings = new TreeSet<>();
         for (OsmPrimitive o : primitives) {
             // ignore data not yet uploaded
@@ -366,7 +384,7 @@ public class TestError implements Comparable<TestError> {
             }
             strings.add(type + '_' + o.getId());
         }
-        return strings.stream().map(o -> ':' + o).collect(Collectors.joining("", getIgnoreSubGroup(useOriginal), ""));
+        return strings;
     }
 
     /**
@@ -380,6 +398,10 @@ public class TestError implements Comparable<TestError> {
     }
 
     private boolean calcIgnored() {
+        // Most errors are not ignored, avoid building the ignore keys if no entry has the code of this error
+        if (!OsmValidator.hasIgnoredErrorCode(Integer.toString(code))
+                && !OsmValidator.hasIgnoredErrorCode(Integer.toString(uniqueCode)))
+            return false;
         // Begin code removal section (backwards compatibility)
         if (OsmValidator.hasIgnoredError(getIgnoreGroup(true))) {
             updateIgnoreList(getIgnoreGroup(true), getIgnoreGroup(false));
@@ -389,10 +411,9 @@ public class TestError implements Comparable<TestError> {
             updateIgnoreList(getIgnoreSubGroup(true), getIgnoreSubGroup(false));
             return true;
         }
-        String oldState = getIgnoreState(true);
-        String state = getIgnoreState(false);
-        if (oldState != null && OsmValidator.hasIgnoredError(oldState)) {
-            updateIgnoreList(oldState, state);
+        Collection<String> ignoredPrimitives = getIgnoredPrimitives();
+        if (ignoredPrimitives != null && OsmValidator.hasIgnoredError(getIgnoreSubGroup(true), ignoredPrimitives)) {
+            updateIgnoreList(getIgnoreState(true), getIgnoreState(false));
             return true;
         }
         // End code removal section
@@ -400,7 +421,7 @@ public class TestError implements Comparable<TestError> {
             return true;
         if (OsmValidator.hasIgnoredError(getIgnoreSubGroup()))
             return true;
-        return state != null && OsmValidator.hasIgnoredError(state);
+        return ignoredPrimitives != null && OsmValidator.hasIgnoredError(getIgnoreSubGroup(), ignoredPrimitives);
     }
 
     /**
@@ -410,10 +431,9 @@ public class TestError implements Comparable<TestError> {
      */
     private static void updateIgnoreList(String oldKey, String newKey) {
         if (switchOver) {
-            Map<String, String> errors = OsmValidator.getIgnoredErrors();
-            if (errors.containsKey(oldKey)) {
-                String value = errors.remove(oldKey);
-                errors.put(newKey, value);
+            String value = OsmValidator.removeIgnoredError(oldKey);
+            if (value != null) {
+                OsmValidator.addIgnoredError(newKey, value);
             }
         }
     }
@@ -675,6 +695,18 @@ public class TestError implements Comparable<TestError> {
         return false;
     }
 
+    /**
+     * Determines if this error only concerns the given primitive and can be rebuilt from its
+     * severity, code and messages alone, see {@link ValidationResultCache}.
+     * @param p the primitive
+     * @return {@code true} if this error can be rebuilt for {@code p}
+     */
+    boolean isReproducibleFor(OsmPrimitive p) {
+        return fixingCommand == null && !incompletePrimitives
+                && primitives.size() == 1 && primitives.iterator().next() == p
+                && highlighted.size() == 1 && highlighted.iterator().next() == p;
+    }
+
     @Override
     public String toString() {
         return "TestError [tester=" + tester + ", unique code=" + this.uniqueCode +
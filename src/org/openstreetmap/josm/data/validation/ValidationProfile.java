@@ -0,0 +1,251 @@
+// License: GPL. For details, see LICENSE file.
+package org.openstreetmap.josm.data.validation;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+import org.openstreetmap.josm.data.preferences.sources.ValidatorPrefHelper;
+
+import jakarta.json.Json;
+import jakarta.json.JsonArrayBuilder;
+import jakarta.json.JsonObject;
+
+/**
+ * Timing information collected during a validation run.
+ * <p>
+ * For each test the wall time, the number of visited primitives and the number of errors are recorded.
+ * Tests may record additional information for their rules, see {@link #addRuleTiming}; this is done by the
+ * {@link org.openstreetmap.josm.data.validation.tests.MapCSSTagChecker MapCSSTagChecker}.
+ * <p>
+ * Profiling is only performed if requested with {@link ValidationTask#setProfile} or if
+ * {@link ValidatorPrefHelper#PREF_PROFILE} is enabled, it has no cost otherwise.
+ */
+public class ValidationProfile {
+
+    /**
+     * Timing of a single test.
+     */
+    public static final class TestTiming {
+        private final String name;
+        private final String className;
+        private long nanos;
+        private long primitives;
+        private long errors;
+
+        TestTiming(String name, String className) {
+            this.name = name;
+            this.className = className;
+        }
+
+        /**
+         * Returns the test name.
+         * @return the test name
+         */
+        public String getName() {
+            return name;
+        }
+
+        /**
+         * Returns the name of the test class.
+         * @return the name of the test class
+         */
+        public String getClassName() {
+            return className;
+        }
+
+        /**
+         * Returns the wall time spent in the test.
+         * @return the wall time in milliseconds
+         */
+        public double getMillis() {
+            return nanos / 1_000_000d;
+        }
+
+        /**
+         * Returns the number of primitives given to the test.
+         * @return the number of primitives
+         */
+        public long getPrimitives() {
+            return primitives;
+        }
+
+        /**
+         * Returns the number of primitives handled per second.
+         * @return the throughput in primitives per second
+         */
+        public double getPrimitivesPerSecond() {
+            return nanos > 0 ? primitives * (double) TimeUnit.SECONDS.toNanos(1) / nanos : 0;
+        }
+
+        /**
+         * Returns the number of errors found by the test.
+         * @return the number of errors
+         */
+        public long getErrors() {
+            return errors;
+        }
+    }
+
+    /**
+     * Timing of a single rule of a test, e.g. a MapCSS rule.
+     */
+    public static final class RuleTiming {
+        private final String source;
+        private final String rule;
+        private long nanos;
+        private long evaluations;
+        private long matches;
+
+        RuleTiming(String source, String rule) {
+            this.source = source;
+            this.rule = rule;
+        }
+
+        /**
+         * Records one evaluation of the rule.
+         * @param nanos the time spent in nanoseconds
+         * @param matched whether the rule matched
+         */
+        public void add(long nanos, boolean matched) {
+            this.nanos += nanos;
+            this.evaluations++;
+            if (matched) {
+                this.matches++;
+            }
+        }
+
+        /**
+         * Returns the source of the rule, e.g. the title of the rule file.
+         * @return the source of the rule
+         */
+        public String getSource() {
+            return source;
+        }
+
+        /**
+         * Returns a textual representation of the rule.
+         * @return the rule
+         */
+        public String getRule() {
+            return rule;
+        }
+
+        /**
+         * Returns the time spent matching the rule.
+         * @return the time in milliseconds
+         */
+        public double getMillis() {
+            return nanos / 1_000_000d;
+        }
+
+        /**
+         * Returns how often the rule was evaluated.
+         * @return the number of evaluations
+         */
+        public long getEvaluations() {
+            return evaluations;
+        }
+
+        /**
+         * Returns how often the rule matched.
+         * @return the number of matches
+         */
+        public long getMatches() {
+            return matches;
+        }
+    }
+
+    private final Map<Class<?>, TestTiming> tests = new IdentityHashMap<>();
+    private final Map<Object, RuleTiming> rules = new IdentityHashMap<>();
+
+    /**
+     * Records the run of a test.
+     * @param test the test
+     * @param nanos the wall time in nanoseconds
+     * @param primitives the number of primitives given to the test
+     * @param errors the number of errors found
+     */
+    public synchronized void addTest(Test test, long nanos, long primitives, long errors) {
+        TestTiming timing = tests.computeIfAbsent(test.getClass(), k -> new TestTiming(test.getName(), k.getName()));
+        timing.nanos += nanos;
+        timing.primitives += primitives;
+        timing.errors += errors;
+    }
+
+    /**
+     * Records one evaluation of a rule.
+     * @param key the identity of the rule
+     * @param source supplier for the source of the rule, called once per rule
+     * @param rule supplier for the textual representation of the rule, called once per rule
+     * @param nanos the time spent in nanoseconds
+     * @param matched whether the rule matched
+     */
+    public synchronized void addRuleTiming(Object key, Supplier<String> source, Supplier<String> rule, long nanos, boolean matched) {
+        rules.computeIfAbsent(key, k -> new RuleTiming(source.get(), rule.get())).add(nanos, matched);
+    }
+
+    /**
+     * Returns the test timings, most expensive first.
+     * @return the test timings
+     */
+    public synchronized List<TestTiming> getTestTimings() {
+        List<TestTiming> result = new ArrayList<>(tests.values());
+        result.sort(Comparator.comparingLong((TestTiming t) -> t.nanos).reversed());
+        return result;
+    }
+
+    /**
+     * Returns the rule timings, most expensive first.
+     * @return the rule timings
+     */
+    public synchronized List<RuleTiming> getRuleTimings() {
+        List<RuleTiming> result = new ArrayList<>(rules.values());
+        result.sort(Comparator.comparingLong((RuleTiming t) -> t.nanos).reversed());
+        return result;
+    }
+
+    /**
+     * Converts this profile to JSON.
+     * @return the JSON representation of this profile
+     */
+    public JsonObject toJson() {
+        JsonArrayBuilder testArray = Json.createArrayBuilder();
+        for (TestTiming t : getTestTimings()) {
+            testArray.add(Json.createObjectBuilder()
+                    .add("test", t.getName())
+                    .add("class", t.getClassName())
+                    .add("timeMs", t.getMillis())
+                    .add("primitives", t.getPrimitives())
+                    .add("primitivesPerSecond", t.getPrimitivesPerSecond())
+                    .add("errors", t.getErrors()));
+        }
+        JsonArrayBuilder ruleArray = Json.createArrayBuilder();
+        for (RuleTiming r : getRuleTimings()) {
+            ruleArray.add(Json.createObjectBuilder()
+                    .add("source", r.getSource())
+                    .add("rule", r.getRule())
+                    .add("timeMs", r.getMillis())
+                    .add("evaluations", r.getEvaluations())
+                    .add("matches", r.getMatches()));
+        }
+        return Json.createObjectBuilder()
+                .add("tests", testArray)
+                .add("rules", ruleArray)
+                .build();
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder("ValidationProfile:");
+        for (TestTiming t : getTestTimings()) {
+            sb.append(String.format("%n  %-50s %10.1f ms %10d primitives %10d errors", t.getName(), t.getMillis(),
+                    t.getPrimitives(), t.getErrors()));
+        }
+        return sb.toString();
+    }
+}
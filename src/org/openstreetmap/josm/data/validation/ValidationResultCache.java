@@ -0,0 +1,196 @@
+// License: GPL. For details, see LICENSE file.
+package org.openstreetmap.josm.data.validation;
+
+import java.io.Serializable;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.commons.jcs3.access.behavior.ICacheAccess;
+import org.openstreetmap.josm.data.Version;
+import org.openstreetmap.josm.data.cache.JCSCacheManager;
+import org.openstreetmap.josm.data.osm.OsmPrimitive;
+import org.openstreetmap.josm.data.preferences.IntegerProperty;
+import org.openstreetmap.josm.data.preferences.sources.ValidatorPrefHelper;
+import org.openstreetmap.josm.tools.LanguageInfo;
+import org.openstreetmap.josm.tools.Logging;
+import org.openstreetmap.josm.tools.Utils;
+
+/**
+ * Persistent cache of validation results, stored in the {@linkplain OsmValidator#getValidatorDir() validator directory}.
+ * <p>
+ * Only tests which declare themselves as {@linkplain Test#isResultCacheable() cacheable} are considered. Their results are
+ * keyed by primitive id, version and tags, and by a fingerprint of the test configuration. New or modified primitives are
+ * never cached. Results which cannot be rebuilt from the stored data (errors with fixes, errors involving other primitives)
+ * are not stored, so that the primitive is checked again next time.
+ * <p>
+ * A new instance is created for each validation run, it collects the hit and miss statistics of that run.
+ * @see ValidatorPrefHelper#PREF_USE_RESULT_CACHE
+ */
+public final class ValidationResultCache {
+
+    /** Maximum size of the on-disk result cache in kB */
+    public static final IntegerProperty MAX_DISK_CACHE_SIZE = new IntegerProperty(ValidatorPrefHelper.PREFIX + ".resultcache.maxsize", 50_000);
+
+    private static ICacheAccess<String, CachedErrors> cacheAccess;
+
+    private final ICacheAccess<String, CachedErrors> cache;
+    private final Map<Test, String> fingerprints = new HashMap<>();
+    private long hits;
+    private long misses;
+
+    ValidationResultCache(ICacheAccess<String, CachedErrors> cache) {
+        this.cache = cache;
+    }
+
+    /**
+     * Creates a new result cache for one validation run, backed by the shared on-disk cache.
+     * @return a new result cache, or {@code null} if the on-disk cache is not available
+     */
+    public static ValidationResultCache create() {
+        ICacheAccess<String, CachedErrors> access = getCacheAccess();
+        return access != null ? new ValidationResultCache(access) : null;
+    }
+
+    private static synchronized ICacheAccess<String, CachedErrors> getCacheAccess() {
+        if (cacheAccess == null) {
+            cacheAccess = JCSCacheManager.getCache("validator-results", 0, MAX_DISK_CACHE_SIZE.get(), OsmValidator.getValidatorDir());
+        }
+        return cacheAccess;
+    }
+
+    /**
+     * Removes all cached results from memory and disk.
+     */
+    public static synchronized void clearAll() {
+        if (cacheAccess != null) {
+            cacheAccess.clear();
+        }
+    }
+
+    /**
+     * Determines if results for the given primitive can be cached.
+     * @param p the primitive
+     * @return {@code true} if the primitive exists on the server and has not been changed locally
+     */
+    static boolean isCacheable(OsmPrimitive p) {
+        return !p.isNew() && !p.isModified() && !p.isIncomplete() && p.getVersion() > 0;
+    }
+
+    /**
+     * Adds the cached errors of the given test for the given primitive, if any.
+     * @param test the test
+     * @param p the primitive
+     * @param errors the collection to add the cached errors to
+     * @return {@code true} if cached results were found, {@code false} if the primitive has to be checked
+     */
+    boolean restore(Test test, OsmPrimitive p, Collection<TestError> errors) {
+        if (!isCacheable(p)) {
+            return false;
+        }
+        CachedErrors cached = cache.get(getKey(test, p));
+        if (cached == null) {
+            misses++;
+            return false;
+        }
+        hits++;
+        cached.addTo(test, p, errors);
+        return true;
+    }
+
+    /**
+     * Stores the errors found by the given test for the given primitive.
+     * Nothing is stored if one of the errors cannot be rebuilt from the cache.
+     * @param test the test
+     * @param p the primitive
+     * @param errors the errors found by {@code test} for {@code p}
+     */
+    void store(Test test, OsmPrimitive p, List<TestError> errors) {
+        if (!isCacheable(p) || errors.stream().anyMatch(e -> !e.isReproducibleFor(p))) {
+            return;
+        }
+        try {
+            cache.put(getKey(test, p), new CachedErrors(errors));
+        } catch (RuntimeException e) { // NOPMD
+            Logging.warn(e);
+        }
+    }
+
+    private String getKey(Test test, OsmPrimitive p) {
+        String fingerprint = fingerprints.computeIfAbsent(test, ValidationResultCache::getFingerprint);
+        return fingerprint + ':' + p.getType().getAPIName().charAt(0) + p.getUniqueId()
+                + 'v' + p.getVersion() + 't' + Integer.toHexString(p.getKeys().hashCode());
+    }
+
+    private static String getFingerprint(Test test) {
+        return Utils.md5Hex(String.join("|",
+                Version.getInstance().getVersionString(),
+                LanguageInfo.getJOSMLocaleCode(),
+                test.getClass().getName(),
+                Boolean.toString(test.isBeforeUpload),
+                Boolean.toString(ValidatorPrefHelper.PREF_OTHER.get()),
+                Boolean.toString(ValidatorPrefHelper.PREF_OTHER_UPLOAD.get()),
+                test.getResultCacheFingerprint()));
+    }
+
+    /**
+     * Returns the number of primitives for which cached results were used.
+     * @return the number of cache hits
+     */
+    public long getHits() {
+        return hits;
+    }
+
+    /**
+     * Returns the number of cacheable primitives which had to be checked.
+     * @return the number of cache misses
+     */
+    public long getMisses() {
+        return misses;
+    }
+
+    @Override
+    public String toString() {
+        return "ValidationResultCache [hits=" + hits + ", misses=" + misses + ']';
+    }
+
+    /**
+     * The errors of one test for one primitive, as stored on disk.
+     */
+    static final class CachedErrors implements Serializable {
+        private static final long serialVersionUID = 1L;
+
+        private final String[] severities;
+        private final int[] codes;
+        private final String[] messages;
+        private final String[] descriptions;
+        private final String[] descriptionsEn;
+
+        CachedErrors(List<TestError> errors) {
+            int size = errors.size();
+            severities = new String[size];
+            codes = new int[size];
+            messages = new String[size];
+            descriptions = new String[size];
+            descriptionsEn = new String[size];
+            for (int i = 0; i < size; i++) {
+                TestError error = errors.get(i);
+                severities[i] = error.getSeverity().name();
+                codes[i] = error.getCode();
+                messages[i] = error.getMessage();
+                descriptions[i] = error.getDescription();
+                descriptionsEn[i] = error.getDescriptionEn();
+            }
+        }
+
+        void addTo(Test test, OsmPrimitive p, Collection<TestError> errors) {
+            for (int i = 0; i < codes.length; i++) {
+                errors.add(TestError.builder(test, Severity.valueOf(severities[i]), codes[i])
+                        .messageWithManuallyTranslatedDescription(messages[i], descriptions[i], descriptionsEn[i])
+                        .primitives(p)
+                        .build());
+            }
+        }
+    }
+}
@@ -27,6 +27,7 @@ import org.openstreetmap.josm.gui.dialogs.ValidatorDialog;
 import org.openstreetmap.josm.gui.progress.ProgressMonitor;
 import org.openstreetmap.josm.gui.progress.swing.PleaseWaitProgressMonitor;
 import org.openstreetmap.josm.gui.util.GuiHelper;
+import org.openstreetmap.josm.tools.Logging;
 import org.openstreetmap.josm.tools.Utils;
 
 /**
@@ -41,6 +42,8 @@ public class ValidationTask extends PleaseWaitRunnable {
     private boolean canceled;
     private final List<TestError> errors = new ArrayList<>();
     private BiConsumer<ValidationTask, Test> testConsumer;
+    private ValidationResultCache resultCache;
+    private ValidationProfile profile;
 
     /**
      * Constructs a new {@code ValidationTask}
@@ -145,6 +148,9 @@ public class ValidationTask extends PleaseWaitRunnable {
                 if (!map.validatorDialog.isShowing() || Boolean.TRUE.equals(ValidatorPrefHelper.PREF_UNFURL.get()))
                     map.validatorDialog.unfurlDialog();
                 map.validatorDialog.tree.setErrors(errors);
+                if (profile != null) {
+                    map.validatorDialog.setValidationProfile(profile);
+                }
                 //FIXME: nicer way to find / invalidate the corresponding error layer
                 ValidatorDialog.invalidateValidatorLayers();
                 if (!errors.isEmpty()) {
@@ -179,6 +185,12 @@ public class ValidationTask extends PleaseWaitRunnable {
             filter.addAll(other);
         }
         getProgressMonitor().setTicksCount(tests.size() * validatedPrimitives.size());
+        if (Boolean.TRUE.equals(ValidatorPrefHelper.PREF_USE_RESULT_CACHE.get())) {
+            resultCache = ValidationResultCache.create();
+        }
+        if (profile == null && Boolean.TRUE.equals(ValidatorPrefHelper.PREF_PROFILE.get())) {
+            profile = new ValidationProfile();
+        }
 
         for (Test test : tests) {
             if (canceled)
@@ -188,13 +200,21 @@ public class ValidationTask extends PleaseWaitRunnable {
             test.setBeforeUpload(this.beforeUpload);
             // Pre-upload checks only run on a partial selection.
             test.setPartialSelection(isPartial);
+            test.setResultCache(test.isResultCacheable() ? resultCache : null);
+            test.setProfile(profile);
+            final long start = profile != null ? System.nanoTime() : 0;
             test.startTest(getProgressMonitor().createSubTaskMonitor(validatedPrimitives.size(), false));
             test.visit(validatedPrimitives);
             test.endTest();
+            test.setResultCache(null);
+            test.setProfile(null);
             if (isPartial && Boolean.TRUE.equals(ValidatorPrefHelper.PREF_REMOVE_IRRELEVANT.get())) {
                 // #23397: remove errors for objects which were not in the initial list of primitives
                 test.removeIrrelevantErrors(filter);
             }
+            if (profile != null) {
+                profile.addTest(test, System.nanoTime() - start, validatedPrimitives.size(), test.getErrors().size());
+            }
 
             errors.addAll(test.getErrors());
             if (this.testConsumer != null) {
@@ -204,6 +224,9 @@ public class ValidationTask extends PleaseWaitRunnable {
             test.setBeforeUpload(false);
         }
         tests = null;
+        if (resultCache != null) {
+            Logging.info("Validation result cache: {0} hits, {1} misses", resultCache.getHits(), resultCache.getMisses());
+        }
         if (Boolean.TRUE.equals(ValidatorPrefHelper.PREF_USE_IGNORE.get())) {
             getProgressMonitor().setCustomText("");
             getProgressMonitor().subTask(tr("Updating ignored errors ..."));
@@ -232,6 +255,32 @@ public class ValidationTask extends PleaseWaitRunnable {
         return errors;
     }
 
+    /**
+     * Gets the result cache used by this task.
+     * @return the result cache, or {@code null} if result caching is disabled or the task did not run yet
+     * @see ValidatorPrefHelper#PREF_USE_RESULT_CACHE
+     */
+    public ValidationResultCache getResultCache() {
+        return resultCache;
+    }
+
+    /**
+     * Sets the profile collecting timing information of the tests. If not set, a profile is only created
+     * if {@link ValidatorPrefHelper#PREF_PROFILE} is enabled.
+     * @param profile the profile to fill
+     */
+    public void setProfile(ValidationProfile profile) {
+        this.profile = profile;
+    }
+
+    /**
+     * Gets the profile collecting timing information of the tests.
+     * @return the profile, or {@code null} if profiling is disabled
+     */
+    public ValidationProfile getProfile() {
+        return profile;
+    }
+
     /**
      * A test consumer to avoid filling up memory. A test consumer <i>may</i> remove tests it has consumed.
      * @param testConsumer The consumer which takes a {@link ValidationTask} ({@code this}) and the test that finished.
@@ -81,6 +81,8 @@ public class ValidatorCLI implements CLIModule {
     private final Map<String, List<String>> changeFiles = new HashMap<>();
     /** The output file(s). If {@code null}, use input filename as base (replace extension with geojson). input → output */
     private final Map<String, String> output = new HashMap<>();
+    /** The profile output file(s). input → profile output */
+    private final Map<String, String> profileOutput = new HashMap<>();
 
     private static final Supplier<ProgressMonitor> progressMonitorFactory = CLIProgressMonitor::new;
 
@@ -96,6 +98,8 @@ public class ValidatorCLI implements CLIModule {
         OUTPUT(true, 'o', OptionParser.OptionCount.MULTIPLE),
         /** --change-file=&lt;change-file&gt;         Add a change file */
         CHANGE_FILE(true, 'c', OptionParser.OptionCount.MULTIPLE),
+        /** --profile=&lt;profile-file&gt;            Write timing information for the current input file */
+        PROFILE(true, '*', OptionParser.OptionCount.MULTIPLE),
         /** --warn                                    Set logging level to warn */
         WARN(false, '*'),
         /** --debug                                   Set logging level to debug */
@@ -291,7 +295,15 @@ public class ValidatorCLI implements CLIModule {
                     writeErrors(geoJSONMapRouletteWriter, fileOutputStream, test.getErrors());
                     t.getErrors().removeIf(test.getErrors()::contains);
                 });
+                final String profileFile = this.profileOutput.get(inputFile);
+                if (profileFile != null) {
+                    validationTask.setProfile(new ValidationProfile());
+                }
                 validationTask.run();
+                if (profileFile != null) {
+                    Files.write(Paths.get(profileFile),
+                            validationTask.getProfile().toJson().toString().getBytes(StandardCharsets.UTF_8));
+                }
             }
         } finally {
             if (dataLayer != null) {
@@ -446,6 +458,9 @@ public class ValidatorCLI implements CLIModule {
         case CHANGE_FILE:
             this.changeFiles.computeIfAbsent(currentInput, key -> new ArrayList<>()).add(argument);
             break;
+        case PROFILE:
+            this.profileOutput.put(currentInput, argument);
+            break;
         case LANGUAGE:
             I18n.set(argument);
             break;
@@ -495,7 +510,8 @@ public class ValidatorCLI implements CLIModule {
                 "\t--output|-o <file>        " + tr("Output data file name (.geojson, line-by-line delimited for MapRoulette). Optional.")
                                                + '\n' +
                 "\t--change-file|-c <file>   " + tr("Change file name (.osc). Can be specified multiple times per input.") + '\n' +
-                helpPadding                    + tr("Changes will be applied in the specified order. Optional.");
+                helpPadding                    + tr("Changes will be applied in the specified order. Optional.") + '\n' +
+                "\t--profile <file>          " + tr("Timing information output file name (.json) for the current input. Optional.");
         // CHECKSTYLE.ON: SingleSpaceSeparator
     }
 }
@@ -245,6 +245,16 @@ public class ConditionalKeys extends Test.TagTest {
         return errors;
     }
 
+    @Override
+    public boolean isResultCacheable() {
+        return true;
+    }
+
+    @Override
+    public String getResultCacheFingerprint() {
+        return openingHourTest.getResultCacheFingerprint();
+    }
+
     @Override
     public void check(OsmPrimitive p) {
         if (p.isTagged()) {
@@ -24,7 +24,6 @@ import org.openstreetmap.josm.data.coor.LatLon;
 import org.openstreetmap.josm.data.osm.Hash;
 import org.openstreetmap.josm.data.osm.Node;
 import org.openstreetmap.josm.data.osm.OsmPrimitive;
-import org.openstreetmap.josm.data.osm.Storage;
 import org.openstreetmap.josm.data.osm.Way;
 import org.openstreetmap.josm.data.validation.Severity;
 import org.openstreetmap.josm.data.validation.Test;
@@ -42,6 +41,9 @@ public class DuplicateNode extends Test {
 
     protected static class NodeHash implements Hash<Object, Object> {
 
+        /** Key used for nodes without coordinates */
+        static final long UNKNOWN_COOR = Long.MIN_VALUE;
+
         private final double precision = Config.getPref().getDouble("validator.duplicatenodes.precision", 0.);
 
         /**
@@ -75,6 +77,46 @@ public class DuplicateNode extends Test {
                 throw new AssertionError();
         }
 
+        /**
+         * Returns the rounded coordinates of the given node packed into a single {@code long}.
+         * Two nodes have the same key if and only if {@link #getLatLon} returns the same coordinates for both.
+         * @param n the node
+         * @return the packed rounded coordinates, or {@link #UNKNOWN_COOR} if the node has no coordinates
+         */
+        long getKey(Node n) {
+            if (!n.isLatLonKnown())
+                return UNKNOWN_COOR;
+            return precision == 0 ? packCoor(n.lat(), n.lon()) : packCoor(n.lat(), n.lon(), precision);
+        }
+
+        /**
+         * Packs coordinates rounded to {@linkplain LatLon#MAX_SERVER_PRECISION OSM precision} into a single {@code long}.
+         * @param lat latitude
+         * @param lon longitude
+         * @return the packed coordinates, latitude in the upper and longitude in the lower 32 bits
+         */
+        static long packCoor(double lat, double lon) {
+            return pack(Math.round(lat * LatLon.MAX_SERVER_INV_PRECISION), Math.round(lon * LatLon.MAX_SERVER_INV_PRECISION));
+        }
+
+        /**
+         * Packs coordinates rounded to the given precision into a single {@code long}.
+         * A precision finer than {@linkplain LatLon#MAX_SERVER_PRECISION OSM precision} is treated as OSM precision.
+         * @param lat latitude
+         * @param lon longitude
+         * @param precision the precision in degrees
+         * @return the packed coordinates, latitude in the upper and longitude in the lower 32 bits
+         */
+        static long packCoor(double lat, double lon, double precision) {
+            if (precision < LatLon.MAX_SERVER_PRECISION)
+                return packCoor(lat, lon);
+            return pack(Math.round(lat / precision), Math.round(lon / precision));
+        }
+
+        private static long pack(long lat, long lon) {
+            return (lat << 32) | (lon & 0xffffffffL);
+        }
+
         @Override
         public boolean equals(Object k, Object t) {
             LatLon coorK = getLatLon(k);
@@ -104,13 +146,14 @@ public class DuplicateNode extends Test {
     private static final String[] TYPES = {
             "none", HIGHWAY, RAILWAY, WATERWAY, "boundary", "power", "natural", "landuse", "building"};
 
-    /** The map of potential duplicates.
+    /** The map of potential duplicates, keyed by the {@linkplain NodeHash#getKey packed rounded position}.
      *
      * If there is exactly one node for a given pos, the map includes a pair &lt;pos, Node&gt;.
      * If there are multiple nodes for a given pos, the map includes a pair
      * &lt;pos, List&lt;Node&gt;&gt;
      */
-    private Storage<Object> potentialDuplicates;
+    private Map<Long, Object> potentialDuplicates;
+    private NodeHash nodeHash;
 
     /**
      * Constructor
@@ -123,13 +166,14 @@ public class DuplicateNode extends Test {
     @Override
     public void startTest(ProgressMonitor monitor) {
         super.startTest(monitor);
-        potentialDuplicates = new Storage<>(new NodeHash());
+        potentialDuplicates = new HashMap<>();
+        nodeHash = new NodeHash();
     }
 
     @SuppressWarnings("unchecked")
     @Override
     public void endTest() {
-        for (Object v: potentialDuplicates) {
+        for (Object v: potentialDuplicates.values()) {
             if (v instanceof Node) {
                 // just one node at this position. Nothing to report as error
                 continue;
@@ -153,6 +197,7 @@ public class DuplicateNode extends Test {
         }
         super.endTest();
         potentialDuplicates = null;
+        nodeHash = null;
     }
 
     /**
@@ -254,18 +299,17 @@ public class DuplicateNode extends Test {
     @Override
     public void visit(Node n) {
         if (n.isUsable()) {
-            Object old = potentialDuplicates.get(n);
-            if (old == null) {
-                // in most cases there is just one node at a given position. We
-                // avoid to create an extra object and add remember the node
-                // itself at this position
-                potentialDuplicates.put(n);
-            } else if (old instanceof Node) {
+            Long key = nodeHash.getKey(n);
+            // in most cases there is just one node at a given position. We
+            // avoid to create an extra object and add remember the node
+            // itself at this position
+            Object old = potentialDuplicates.putIfAbsent(key, n);
+            if (old instanceof Node) {
                 // we have an additional node at the same position. Create an extra
                 // object to keep track of the nodes at this position.
                 //
-                potentialDuplicates.put(Stream.of((Node) old, n).collect(Collectors.toList()));
-            } else {
+                potentialDuplicates.put(key, Stream.of((Node) old, n).collect(Collectors.toList()));
+            } else if (old != null) {
                 // we have more  than two nodes at the same position.
                 //
                 ((List<Node>) old).add(n);
@@ -6,15 +6,16 @@ import static org.openstreetmap.josm.tools.I18n.tr;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
-import java.util.HashSet;
+import java.util.HashMap;
 import java.util.LinkedHashSet;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
-import java.util.Objects;
 import java.util.Set;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
 import java.util.stream.IntStream;
+import java.util.stream.Stream;
 
 import org.openstreetmap.josm.command.ChangeMembersCommand;
 import org.openstreetmap.josm.command.Command;
@@ -39,55 +40,25 @@ import org.openstreetmap.josm.tools.MultiMap;
 public class DuplicateWay extends Test {
 
     /**
-      * Class to store a way reduced to coordinates and keys. Essentially this is used to call the
-      * <code>equals{}</code> function.
-      */
-    private static class WayPair {
-        private final List<LatLon> coor;
-        private final Map<String, String> keys;
-
-        WayPair(List<LatLon> coor, Map<String, String> keys) {
-            this.coor = coor;
-            this.keys = keys;
-        }
-
-        @Override
-        public int hashCode() {
-            return Objects.hash(coor, keys);
-        }
-
-        @Override
-        public boolean equals(Object obj) {
-            if (this == obj) return true;
-            if (obj == null || getClass() != obj.getClass()) return false;
-            WayPair wayPair = (WayPair) obj;
-            return Objects.equals(coor, wayPair.coor) &&
-                    Objects.equals(keys, wayPair.keys);
-        }
-    }
-
-    /**
-      * Class to store a way reduced to coordinates. Essentially this is used to call the
-      * <code>equals{}</code> function.
-      */
-    private static class WayPairNoTags {
+     * Ways with the same position, i.e. with the same list of coordinates (possibly reversed, see #8015).
+     */
+    private static class SameWays {
         private final List<LatLon> coor;
+        private final List<Way> ways = new ArrayList<>(2);
+        /** Whether one of the ways has no direction keys, i.e. if reversed ways may be added */
+        private boolean reversible;
 
-        WayPairNoTags(List<LatLon> coor) {
+        SameWays(List<LatLon> coor) {
             this.coor = coor;
         }
 
-        @Override
-        public int hashCode() {
-            return Objects.hash(coor);
-        }
-
-        @Override
-        public boolean equals(Object obj) {
-            if (this == obj) return true;
-            if (obj == null || getClass() != obj.getClass()) return false;
-            WayPairNoTags that = (WayPairNoTags) obj;
-            return Objects.equals(coor, that.coor);
+        boolean add(Way w, List<LatLon> wLat, Supplier<List<LatLon>> reversedwLat) {
+            if (coor.equals(wLat) || (reversible && !w.hasDirectionKeys() && coor.equals(reversedwLat.get()))) {
+                ways.add(w);
+                reversible |= !w.hasDirectionKeys();
+                return true;
+            }
+            return false;
         }
     }
 
@@ -96,14 +67,15 @@ public class DuplicateWay extends Test {
     /** Test identification for identical ways (coordinates only). */
     protected static final int SAME_WAY = 1402;
 
-    /** Bag of all ways */
-    private MultiMap<WayPair, OsmPrimitive> ways;
-
-    /** Bag of all ways, regardless of tags */
-    private MultiMap<WayPairNoTags, OsmPrimitive> waysNoTags;
+    /** 64-bit FNV prime used for the geometry fingerprint */
+    private static final long FINGERPRINT_PRIME = 0x100000001b3L;
 
-    /** Set of known hashcodes for list of coordinates **/
-    private Set<Integer> knownHashCodes;
+    /**
+     * Ways by geometry fingerprint, see {@link #getFingerprint}.
+     * If there is exactly one way for a given fingerprint, the map includes a pair &lt;fingerprint, Way&gt;.
+     * If there are multiple ways, the map includes a pair &lt;fingerprint, List&lt;Way&gt;&gt;.
+     */
+    private Map<Long, Object> ways;
     private List<Way> waysToCheck;
 
     /**
@@ -118,9 +90,7 @@ public class DuplicateWay extends Test {
     public void startTest(ProgressMonitor monitor) {
         super.startTest(monitor);
         waysToCheck = new ArrayList<>();
-        ways = new MultiMap<>(1000);
-        waysNoTags = new MultiMap<>(1000);
-        knownHashCodes = new HashSet<>(1000);
+        ways = new HashMap<>(1000);
     }
 
     @Override
@@ -141,48 +111,43 @@ public class DuplicateWay extends Test {
             extended.forEach(this::checkWay);
         }
 
-        for (Set<OsmPrimitive> duplicated : ways.values()) {
-            if (duplicated.size() > 1) {
-                TestError testError = TestError.builder(this, Severity.ERROR, DUPLICATE_WAY)
-                        .message(tr("Duplicated ways"))
-                        .primitives(duplicated)
-                        .build();
-                errors.add(testError);
+        List<SameWays> sameWays = new ArrayList<>();
+        List<TestError> sameWayErrors = new ArrayList<>();
+        for (Object v : ways.values()) {
+            if (v instanceof List<?>) {
+                @SuppressWarnings("unchecked")
+                List<Way> candidates = (List<Way>) v;
+                sameWays.addAll(getSameWays(candidates));
             }
         }
 
-        for (Set<OsmPrimitive> sameway : waysNoTags.values()) {
-            if (sameway.size() > 1) {
-                //Report error only if at least some tags are different, as otherwise the error was already reported as duplicated ways
-                Map<String, String> tags0 = null;
-                boolean skip = true;
-
-                for (OsmPrimitive o : sameway) {
-                    if (tags0 == null) {
-                        tags0 = o.getKeys();
-                        removeUninterestingKeys(tags0);
-                    } else {
-                        Map<String, String> tagsCmp = o.getKeys();
-                        removeUninterestingKeys(tagsCmp);
-                        if (!tagsCmp.equals(tags0)) {
-                            skip = false;
-                            break;
-                        }
-                    }
-                }
-                if (skip) {
-                    continue;
+        for (SameWays same : sameWays) {
+            MultiMap<Map<String, String>, OsmPrimitive> byKeys = new MultiMap<>();
+            for (Way w : same.ways) {
+                Map<String, String> wkeys = w.getKeys();
+                removeUninterestingKeys(wkeys);
+                byKeys.put(wkeys, w);
+            }
+            for (Set<OsmPrimitive> duplicated : byKeys.values()) {
+                if (duplicated.size() > 1) {
+                    TestError testError = TestError.builder(this, Severity.ERROR, DUPLICATE_WAY)
+                            .message(tr("Duplicated ways"))
+                            .primitives(duplicated)
+                            .build();
+                    errors.add(testError);
                 }
+            }
+            //Report error only if at least some tags are different, as otherwise the error was already reported as duplicated ways
+            if (byKeys.size() > 1) {
                 TestError testError = TestError.builder(this, Severity.WARNING, SAME_WAY)
                         .message(tr("Ways with same position"))
-                        .primitives(sameway)
+                        .primitives(same.ways)
                         .build();
-                errors.add(testError);
+                sameWayErrors.add(testError);
             }
         }
+        errors.addAll(sameWayErrors);
         ways = null;
-        waysNoTags = null;
-        knownHashCodes = null;
         waysToCheck = null;
         super.endTest();
     }
@@ -208,29 +173,88 @@ public class DuplicateWay extends Test {
     }
 
     private void checkWay(Way w) {
-        List<LatLon> wLat = getOrderedNodes(w);
-        // If this way has not direction-dependant keys, make sure the list is ordered the same for all ways (fix #8015)
-        if (!w.hasDirectionKeys()) {
-            int hash = wLat.hashCode();
-            if (!knownHashCodes.contains(hash)) {
-                List<LatLon> reversedwLat = new ArrayList<>(wLat);
-                Collections.reverse(reversedwLat);
-                int reverseHash = reversedwLat.hashCode();
-                if (!knownHashCodes.contains(reverseHash)) {
-                    // Neither hash or reversed hash is known, remember hash
-                    knownHashCodes.add(hash);
-                } else {
-                    // Reversed hash is known, use the reverse list then
-                    wLat = reversedwLat;
+        // Only the fingerprint is computed here, coordinates and tags are compared on collision
+        Long key = getFingerprint(w);
+        Object old = ways.putIfAbsent(key, w);
+        if (old instanceof Way) {
+            ways.put(key, Stream.of((Way) old, w).collect(Collectors.toList()));
+        } else if (old != null) {
+            @SuppressWarnings("unchecked")
+            List<Way> list = (List<Way>) old;
+            list.add(w);
+        }
+    }
+
+    /**
+     * Splits ways with the same fingerprint into groups of ways with the same position.
+     * If a way has no direction-dependant keys, it is considered the same as a way with the reversed list of nodes (fix #8015).
+     * @param candidates the ways with the same fingerprint, in the order of the visit
+     * @return the groups of ways with the same position containing at least two ways
+     */
+    private static List<SameWays> getSameWays(List<Way> candidates) {
+        List<SameWays> result = new ArrayList<>();
+        for (Way w : candidates) {
+            List<LatLon> wLat = getOrderedNodes(w);
+            List<List<LatLon>> reversed = new ArrayList<>(1);
+            Supplier<List<LatLon>> reversedwLat = () -> {
+                if (reversed.isEmpty()) {
+                    List<LatLon> r = new ArrayList<>(wLat);
+                    Collections.reverse(r);
+                    reversed.add(r);
                 }
+                return reversed.get(0);
+            };
+            if (result.stream().noneMatch(same -> same.add(w, wLat, reversedwLat))) {
+                SameWays same = new SameWays(wLat);
+                same.add(w, wLat, reversedwLat);
+                result.add(same);
             }
         }
-        Map<String, String> wkeys = w.getKeys();
-        removeUninterestingKeys(wkeys);
-        WayPair wKey = new WayPair(wLat, wkeys);
-        ways.put(wKey, w);
-        WayPairNoTags wKeyN = new WayPairNoTags(wLat);
-        waysNoTags.put(wKeyN, w);
+        result.removeIf(same -> same.ways.size() < 2);
+        return result;
+    }
+
+    /**
+     * Computes a fingerprint of the geometry of the given way, i.e. a rolling hash over the coordinates rounded to
+     * {@linkplain LatLon#MAX_SERVER_PRECISION OSM precision}, in the order of {@link #getOrderedNodes}.
+     * The fingerprint does not depend on the direction of the way. Ways with the same position have the same fingerprint.
+     * @param w way
+     * @return the fingerprint
+     */
+    static long getFingerprint(Way w) {
+        int size = w.getNodesCount();
+        int start = 0;
+        if (w.isClosed()) {
+            long lowestNodeId = w.getNode(0).getUniqueId();
+            for (int i = 1; i < size; i++) {
+                if (w.getNode(i).getUniqueId() < lowestNodeId) {
+                    lowestNodeId = w.getNode(i).getUniqueId();
+                    start = i;
+                }
+            }
+        }
+        long forward = 0;
+        long backward = 0;
+        for (int k = 0; k < size; k++) {
+            forward = forward * FINGERPRINT_PRIME ^ getPackedCoor(getOrderedNode(w, start, k));
+            backward = backward * FINGERPRINT_PRIME ^ getPackedCoor(getOrderedNode(w, start, size - 1 - k));
+        }
+        return Math.min(forward, backward);
+    }
+
+    /**
+     * Returns the node at the given index of the list built by {@link #getOrderedNodes}, without building the list.
+     */
+    private static Node getOrderedNode(Way w, int start, int k) {
+        if (!w.isClosed()) {
+            return w.getNode(k);
+        }
+        int size = w.getNodesCount();
+        return k == size - 1 ? w.getNode(start) : w.getNode((start + k) % (size - 1));
+    }
+
+    private static long getPackedCoor(Node n) {
+        return n.isLatLonKnown() ? DuplicateNode.NodeHash.packCoor(n.lat(), n.lon()) : DuplicateNode.NodeHash.UNKNOWN_COOR;
     }
 
     /**
@@ -119,6 +119,11 @@ public class InternetTags extends Test.TagTest {
         return errors;
     }
 
+    @Override
+    public boolean isResultCacheable() {
+        return true;
+    }
+
     @Override
     public void check(OsmPrimitive p) {
         p.visitKeys((primitive, k, value) -> {
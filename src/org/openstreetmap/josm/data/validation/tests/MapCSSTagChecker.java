@@ -21,6 +21,7 @@ import java.util.Objects;
 import java.util.Set;
 import java.util.function.Consumer;
 import java.util.function.Predicate;
+import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
 import org.openstreetmap.josm.data.osm.IPrimitive;
@@ -33,6 +34,7 @@ import org.openstreetmap.josm.data.validation.OsmValidator;
 import org.openstreetmap.josm.data.validation.Severity;
 import org.openstreetmap.josm.data.validation.Test;
 import org.openstreetmap.josm.data.validation.TestError;
+import org.openstreetmap.josm.data.validation.ValidationProfile;
 import org.openstreetmap.josm.gui.mappaint.Environment;
 import org.openstreetmap.josm.gui.mappaint.MultiCascade;
 import org.openstreetmap.josm.gui.mappaint.mapcss.MapCSSRule;
@@ -165,24 +167,19 @@ public class MapCSSTagChecker extends Test.TagTest {
         env.mpAreaCache = mpAreaCache;
         env.toMatchForSurrounding = toMatchForSurrounding;
 
+        final ValidationProfile profile = getProfile();
         Iterator<MapCSSRule> candidates = indexData.getRuleCandidates(p);
         while (candidates.hasNext()) {
             MapCSSRule r = candidates.next();
+            final long start = profile != null ? System.nanoTime() : 0;
+            boolean matched = false;
             for (Selector selector : r.selectors) {
                 env.clearSelectorMatchingInformation();
                 if (!selector.matches(env)) { // as side effect env.parent will be set (if s is a child selector)
                     continue;
                 }
-                MapCSSTagCheckerAndRule test = ruleToCheckMap.computeIfAbsent(r, rule -> checks.entrySet().stream()
-                        .map(e -> e.getValue().stream()
-                                // rule.selectors might be different due to MapCSSStyleIndex, however, the declarations are the same object
-                                .filter(c -> c.rule.declaration == rule.declaration)
-                                .findFirst()
-                                .map(c -> new MapCSSTagCheckerAndRule(c, getTitle(e.getKey())))
-                                .orElse(null))
-                        .filter(Objects::nonNull)
-                        .findFirst()
-                        .orElse(null));
+                matched = true;
+                MapCSSTagCheckerAndRule test = getTestForRule(r);
                 MapCSSTagCheckerRule check = test == null ? null : test.tagCheck;
                 if (check != null) {
                     r.declaration.execute(env);
@@ -193,10 +190,38 @@ public class MapCSSTagChecker extends Test.TagTest {
                     }
                 }
             }
+            if (profile != null) {
+                // the declaration is shared by all copies of the rule created by MapCSSStyleIndex
+                profile.addRuleTiming(r.declaration, () -> getRuleSource(r), () -> getRuleText(r), System.nanoTime() - start, matched);
+            }
         }
         return res;
     }
 
+    private MapCSSTagCheckerAndRule getTestForRule(MapCSSRule r) {
+        return ruleToCheckMap.computeIfAbsent(r, rule -> checks.entrySet().stream()
+                .map(e -> e.getValue().stream()
+                        // rule.selectors might be different due to MapCSSStyleIndex, however, the declarations are the same object
+                        .filter(c -> c.rule.declaration == rule.declaration)
+                        .findFirst()
+                        .map(c -> new MapCSSTagCheckerAndRule(c, getTitle(e.getKey())))
+                        .orElse(null))
+                .filter(Objects::nonNull)
+                .findFirst()
+                .orElse(null));
+    }
+
+    private String getRuleSource(MapCSSRule r) {
+        MapCSSTagCheckerAndRule test = getTestForRule(r);
+        return test != null ? test.getSource() : tr("unknown");
+    }
+
+    private String getRuleText(MapCSSRule r) {
+        MapCSSTagCheckerAndRule test = getTestForRule(r);
+        MapCSSRule original = test != null && test.tagCheck != null ? test.tagCheck.rule : r;
+        return original.selectors.stream().map(Selector::toString).collect(Collectors.joining(", "));
+    }
+
     private String getTitle(String url) {
         return urlTitles.getOrDefault(url, tr("unknown"));
     }
@@ -5,16 +5,17 @@ import static org.openstreetmap.josm.tools.I18n.marktr;
 import static org.openstreetmap.josm.tools.I18n.tr;
 
 import java.awt.geom.Area;
-import java.awt.geom.Point2D;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
+import java.util.Comparator;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
 import java.util.stream.Collectors;
 import java.util.stream.IntStream;
 
@@ -30,14 +31,19 @@ import org.openstreetmap.josm.data.osm.Way;
 import org.openstreetmap.josm.data.osm.WaySegment;
 import org.openstreetmap.josm.data.osm.visitor.paint.relations.Multipolygon;
 import org.openstreetmap.josm.data.osm.visitor.paint.relations.Multipolygon.PolyData;
+import org.openstreetmap.josm.data.osm.visitor.paint.relations.MultipolygonCache;
 import org.openstreetmap.josm.data.validation.Severity;
 import org.openstreetmap.josm.data.validation.Test;
 import org.openstreetmap.josm.data.validation.TestError;
+import org.openstreetmap.josm.gui.MainApplication;
+import org.openstreetmap.josm.gui.layer.OsmDataLayer;
 import org.openstreetmap.josm.gui.mappaint.ElemStyles;
 import org.openstreetmap.josm.gui.mappaint.MapPaintStyles;
 import org.openstreetmap.josm.gui.mappaint.styleelement.AreaElement;
+import org.openstreetmap.josm.gui.progress.ProgressMonitor;
 import org.openstreetmap.josm.tools.Geometry;
 import org.openstreetmap.josm.tools.Geometry.PolygonIntersection;
+import org.openstreetmap.josm.tools.Logging;
 import org.openstreetmap.josm.tools.Utils;
 
 /**
@@ -83,10 +89,71 @@ public class MultipolygonTest extends Test {
     private static final int FOUND_INSIDE = 1;
     private static final int FOUND_OUTSIDE = 2;
 
+    private static final ForkJoinPool THREAD_POOL = newForkJoinPool();
+
     /** set when used to build a multipolygon relation */
     private Relation createdRelation;
     /** might be set when creating a relation and touching rings were found. */
     private boolean repeatCheck;
+    /** complete multipolygons whose geometry is checked in {@link #endTest()}, {@code null} if not running as part of a test run */
+    private List<RelationCheck> pendingChecks;
+
+    /**
+     * The checks of a complete multipolygon relation which require the assembled multipolygon.
+     * The geometry checks of independent relations may be run concurrently, they only read the data and collect
+     * their errors locally.
+     */
+    private final class RelationCheck {
+        private final Relation r;
+        private final boolean useCache;
+        private final List<TestError> tmpErrors;
+        private final List<TestError> geometryErrors = new ArrayList<>();
+        private Multipolygon polygon;
+
+        RelationCheck(Relation r, List<TestError> tmpErrors) {
+            this.r = r;
+            this.tmpErrors = tmpErrors;
+            // the multipolygon cache is only kept up to date for the data sets of layers
+            this.useCache = r.getDataSet() != null && MainApplication.getLayerManager().getLayersOfType(OsmDataLayer.class).stream()
+                    .anyMatch(l -> l.getDataSet() == r.getDataSet());
+        }
+
+        void checkGeometry() {
+            // reuse the multipolygon which has been assembled for rendering, if any
+            polygon = useCache ? MultipolygonCache.getInstance().get(r) : new Multipolygon(r);
+            checkGeometryAndRoles(r, polygon, geometryErrors);
+        }
+
+        void addErrors() {
+            checkStyleConsistency(r, polygon, errors);
+            errors.addAll(geometryErrors);
+            // see #17010: don't report problems twice
+            tmpErrors.removeIf(e -> e.getCode() == WRONG_MEMBER_ROLE);
+            errors.addAll(tmpErrors);
+        }
+    }
+
+    /**
+     * A way segment and its bounding box, for the sweep-line in {@link #findIntersectingWays(Relation)}.
+     */
+    private static final class SweepSegment {
+        private final WaySegment segment;
+        /** index of the way in the relation, segments of the same way are never compared */
+        private final int wayIndex;
+        private final double minX;
+        private final double maxX;
+        private final double minY;
+        private final double maxY;
+
+        SweepSegment(WaySegment segment, int wayIndex, EastNorth en1, EastNorth en2) {
+            this.segment = segment;
+            this.wayIndex = wayIndex;
+            this.minX = Math.min(en1.east(), en2.east());
+            this.maxX = Math.max(en1.east(), en2.east());
+            this.minY = Math.min(en1.north(), en2.north());
+            this.maxY = Math.max(en1.north(), en2.north());
+        }
+    }
 
     /**
      * Constructs a new {@code MultipolygonTest}.
@@ -96,6 +163,37 @@ public class MultipolygonTest extends Test {
                 tr("This test checks if multipolygons are valid."));
     }
 
+    private static ForkJoinPool newForkJoinPool() {
+        try {
+            return Utils.newForkJoinPool(
+                    "validator.multipolygon.numberOfThreads", "multipolygon-test-%d", Thread.NORM_PRIORITY);
+        } catch (SecurityException e) {
+            Logging.log(Logging.LEVEL_ERROR, "Unable to create new ForkJoinPool", e);
+            return null;
+        }
+    }
+
+    @Override
+    public void startTest(ProgressMonitor progressMonitor) {
+        super.startTest(progressMonitor);
+        pendingChecks = new ArrayList<>();
+    }
+
+    @Override
+    public void endTest() {
+        if (pendingChecks != null) {
+            List<RelationCheck> checks = pendingChecks;
+            pendingChecks = null;
+            if (THREAD_POOL != null && checks.size() > 1) {
+                THREAD_POOL.submit(() -> checks.parallelStream().forEach(RelationCheck::checkGeometry)).join();
+            } else {
+                checks.forEach(RelationCheck::checkGeometry);
+            }
+            checks.forEach(RelationCheck::addErrors);
+        }
+        super.endTest();
+    }
+
     @Override
     public void visit(Relation r) {
         if (r.isMultipolygon() && !r.isEmpty()) {
@@ -113,11 +211,15 @@ public class MultipolygonTest extends Test {
                 if (r.hasIncompleteMembers()) {
                     findIntersectingWaysIncomplete(r);
                 } else {
-                    Multipolygon polygon = new Multipolygon(r);
-                    checkStyleConsistency(r, polygon);
-                    checkGeometryAndRoles(r, polygon);
-                    // see #17010: don't report problems twice
-                    tmpErrors.removeIf(e -> e.getCode() == WRONG_MEMBER_ROLE);
+                    RelationCheck check = new RelationCheck(r, tmpErrors);
+                    if (pendingChecks != null) {
+                        // the geometry is checked in endTest
+                        pendingChecks.add(check);
+                    } else {
+                        check.checkGeometry();
+                        check.addErrors();
+                    }
+                    return;
                 }
             }
             errors.addAll(tmpErrors);
@@ -133,19 +235,20 @@ public class MultipolygonTest extends Test {
      * </ul>
      * @param r relation
      * @param polygon multipolygon
+     * @param result the list to which the errors are added
      */
-    private void checkStyleConsistency(Relation r, Multipolygon polygon) {
+    private void checkStyleConsistency(Relation r, Multipolygon polygon, List<TestError> result) {
         if (MapPaintStyles.getStyles() != null && !r.isBoundary()) {
             AreaElement area = ElemStyles.getAreaElemStyle(r, false);
             if (area == null) {
-                errors.add(TestError.builder(this, Severity.OTHER, NO_STYLE)
+                result.add(TestError.builder(this, Severity.OTHER, NO_STYLE)
                         .message(tr("No area style for multipolygon"))
                         .primitives(r)
                         .build());
             } else {
                 for (Way wInner : polygon.getInnerWays()) {
                     if (wInner.isClosed() && area.equals(ElemStyles.getAreaElemStyle(wInner, false))) {
-                        errors.add(TestError.builder(this, Severity.OTHER, INNER_STYLE_MISMATCH)
+                        result.add(TestError.builder(this, Severity.OTHER, INNER_STYLE_MISMATCH)
                                 .message(tr("With the currently used mappaint style the style for inner way equals the multipolygon style"))
                                 .primitives(Arrays.asList(r, wInner))
                                 .highlight(wInner)
@@ -158,13 +261,13 @@ public class MultipolygonTest extends Test {
                     AreaElement areaOuter = ElemStyles.getAreaElemStyle(wOuter, false);
                     if (areaOuter != null) {
                         if (!area.equals(areaOuter)) {
-                            errors.add(TestError.builder(this, Severity.OTHER, OUTER_STYLE_MISMATCH)
+                            result.add(TestError.builder(this, Severity.OTHER, OUTER_STYLE_MISMATCH)
                                     .message(tr("With the currently used mappaint style the style for outer way mismatches the area style"))
                                     .primitives(Arrays.asList(r, wOuter))
                                     .highlight(wOuter)
                                     .build());
                         } else { /* style on outer way of multipolygon, but equal to polygon */
-                            errors.add(TestError.builder(this, Severity.WARNING, OUTER_STYLE)
+                            result.add(TestError.builder(this, Severity.WARNING, OUTER_STYLE)
                                     .message(tr("Area style on outer way"))
                                     .primitives(Arrays.asList(r, wOuter))
                                     .highlight(wOuter)
@@ -184,16 +287,17 @@ public class MultipolygonTest extends Test {
      * </ul>
      * @param r relation
      * @param polygon multipolygon
+     * @param result the list to which the errors are added
      */
-    private void checkGeometryAndRoles(Relation r, Multipolygon polygon) {
-        int oldErrorsSize = errors.size();
+    private void checkGeometryAndRoles(Relation r, Multipolygon polygon, List<TestError> result) {
+        int oldErrorsSize = result.size();
 
         Map<Long, RelationMember> wayMap = r.getMembers().stream()
                 .filter(RelationMember::isWay)
                 .collect(Collectors.toMap(mem -> mem.getWay().getUniqueId(), mem -> mem, (a, b) -> b));
         List<Node> openNodes = polygon.getOpenEnds();
         if (!openNodes.isEmpty() || wayMap.isEmpty()) {
-            errors.add(TestError.builder(this, Severity.ERROR, NON_CLOSED_WAY)
+            result.add(TestError.builder(this, Severity.ERROR, NON_CLOSED_WAY)
                     .message(tr("Multipolygon is not closed"))
                     .primitives(combineRelAndPrimitives(r, openNodes))
                     .highlight(openNodes)
@@ -214,12 +318,12 @@ public class MultipolygonTest extends Test {
         allPolygons.addAll(outerPolygons);
         allPolygons.addAll(innerPolygons);
 
-        Map<PolyData, List<PolyData>> crossingPolyMap = findIntersectingWays(r, innerPolygons, outerPolygons);
+        Map<PolyData, List<PolyData>> crossingPolyMap = findIntersectingWays(r, innerPolygons, outerPolygons, result);
 
         if (!sharedNodes.isEmpty()) {
             for (int i = 0; i < allPolygons.size(); i++) {
                 PolyData pd1 = allPolygons.get(i);
-                checkPolygonForSelfIntersection(r, pd1);
+                checkPolygonForSelfIntersection(r, pd1, result);
                 // check if this ring has a way that is known to intersect with another way
 
                 if (!hasIntersectionWay(pd1, intersectionWays))
@@ -228,17 +332,17 @@ public class MultipolygonTest extends Test {
                 for (int j = i + 1; j < allPolygons.size(); j++) {
                     PolyData pd2 = allPolygons.get(j);
                     if (!checkProblemMap(crossingPolyMap, pd1, pd2) && hasIntersectionWay(pd2, intersectionWays)) {
-                        checkPolygonsForSharedNodes(r, pd1, pd2, sharedNodes);
+                        checkPolygonsForSharedNodes(r, pd1, pd2, sharedNodes, result);
                     }
                 }
             }
         }
-        boolean checkRoles = IntStream.range(oldErrorsSize, errors.size())
-                .noneMatch(i -> errors.get(i).getSeverity() != Severity.OTHER);
+        boolean checkRoles = IntStream.range(oldErrorsSize, result.size())
+                .noneMatch(i -> result.get(i).getSeverity() != Severity.OTHER);
         if (checkRoles) {
             // we found no intersection or crossing between the polygons and they are closed
             // now we can calculate the nesting level to verify the roles with some simple node checks
-            checkOrSetRoles(r, allPolygons, wayMap, sharedNodes);
+            checkOrSetRoles(r, allPolygons, wayMap, sharedNodes, result);
         }
     }
 
@@ -257,8 +361,9 @@ public class MultipolygonTest extends Test {
      * An self intersection in a single way is checked in {@link SelfIntersectingWay}.
      * @param r the relation
      * @param pd the ring
+     * @param result the list to which the errors are added
      */
-    private void checkPolygonForSelfIntersection(Relation r, PolyData pd) {
+    private void checkPolygonForSelfIntersection(Relation r, PolyData pd, List<TestError> result) {
         if (pd.getWayIds().size() == 1)
             return;
         List<Node> wayNodes = pd.getNodes();
@@ -279,7 +384,7 @@ public class MultipolygonTest extends Test {
             List<OsmPrimitive> prims = new ArrayList<>();
             prims.add(r);
             prims.addAll(isNodes);
-            errors.add(TestError.builder(this, Severity.WARNING, CROSSING_WAYS)
+            result.add(TestError.builder(this, Severity.WARNING, CROSSING_WAYS)
                     .message(tr("Self-intersecting polygon ring"))
                     .primitives(prims)
                     .highlight(isNodes)
@@ -324,7 +429,7 @@ public class MultipolygonTest extends Test {
         CROSSING
     }
 
-    private void checkPolygonsForSharedNodes(Relation r, PolyData pd1, PolyData pd2, Set<Node> allSharedNodes) {
+    private void checkPolygonsForSharedNodes(Relation r, PolyData pd1, PolyData pd2, Set<Node> allSharedNodes, List<TestError> result) {
         Set<Node> sharedByPolygons = new HashSet<>(allSharedNodes);
         sharedByPolygons.retainAll(pd1.getNodes());
         sharedByPolygons.retainAll(pd2.getNodes());
@@ -355,13 +460,13 @@ public class MultipolygonTest extends Test {
                 }
             }
             if (errorCode == RINGS_SHARE_NODES) {
-                errors.add(TestError.builder(this, Severity.OTHER, errorCode)
+                result.add(TestError.builder(this, Severity.OTHER, errorCode)
                         .message(tr("Multipolygon rings share node"))
                         .primitives(prims)
                         .highlight(sharedByPolygons)
                         .build());
             } else {
-                errors.add(TestError.builder(this, Severity.WARNING, errorCode)
+                result.add(TestError.builder(this, Severity.WARNING, errorCode)
                         .message(errorCode == CROSSING_WAYS ? tr("Intersection between multipolygon ways") : tr("Multipolygon rings are equal"))
                         .primitives(prims)
                         .highlight(sharedByPolygons)
@@ -439,8 +544,10 @@ public class MultipolygonTest extends Test {
      * @param allPolygons list of polygon rings
      * @param wayMap maps way ids to relation members
      * @param sharedNodes all nodes shared by multiple ways of this multipolygon
+     * @param result the list to which the errors are added
      */
-    private void checkOrSetRoles(Relation r, List<PolyData> allPolygons, Map<Long, RelationMember> wayMap, Set<Node> sharedNodes) {
+    private void checkOrSetRoles(Relation r, List<PolyData> allPolygons, Map<Long, RelationMember> wayMap, Set<Node> sharedNodes,
+            List<TestError> result) {
         PolygonLevelFinder levelFinder = new PolygonLevelFinder(sharedNodes);
         List<PolygonLevel> list = levelFinder.findOuterWays(allPolygons);
         if (Utils.isEmpty(list)) {
@@ -472,7 +579,7 @@ public class MultipolygonTest extends Test {
             for (long wayId : pol.outerWay.getWayIds()) {
                 RelationMember member = wayMap.get(wayId);
                 if (!calculatedRole.equals(member.getRole())) {
-                    errors.add(TestError.builder(this, Severity.ERROR, WRONG_MEMBER_ROLE)
+                    result.add(TestError.builder(this, Severity.ERROR, WRONG_MEMBER_ROLE)
                             .message(RelationChecker.ROLE_VERIF_PROBLEM_MSG,
                                     marktr("Role for ''{0}'' should be ''{1}''"),
                                     member.getMember().getDisplayName(DefaultNameFormatter.getInstance()),
@@ -482,7 +589,7 @@ public class MultipolygonTest extends Test {
                             .build());
                     if (pol.level == 0 && INNER.equals(member.getRole())) {
                         // maybe only add this error if we found an outer ring with correct role(s) ?
-                        errors.add(TestError.builder(this, Severity.ERROR, INNER_WAY_OUTSIDE)
+                        result.add(TestError.builder(this, Severity.ERROR, INNER_WAY_OUTSIDE)
                                 .message(tr("Multipolygon inner way is outside"))
                                 .primitives(Arrays.asList(r, member.getMember()))
                                 .highlight(member.getMember())
@@ -510,16 +617,18 @@ public class MultipolygonTest extends Test {
      * @param r the relation (for error reporting)
      * @param innerPolygons list of inner polygons
      * @param outerPolygons list of outer polygons
+     * @param result the list to which the errors are added
      * @return map with crossing polygons
      */
     private Map<PolyData, List<PolyData>> findIntersectingWays(Relation r, List<PolyData> innerPolygons,
-            List<PolyData> outerPolygons) {
+            List<PolyData> outerPolygons, List<TestError> result) {
         HashMap<PolyData, List<PolyData>> crossingPolygonsMap = new HashMap<>();
         HashMap<PolyData, List<PolyData>> sharedWaySegmentsPolygonsMap = new HashMap<>();
+        List<Map<List<Way>, List<WaySegment>>> intersectingWays = findIntersectingWays(r);
 
         for (int loop = 0; loop < 2; loop++) {
 
-            Map<List<Way>, List<WaySegment>> crossingWays = findIntersectingWays(r, loop == 1);
+            Map<List<Way>, List<WaySegment>> crossingWays = intersectingWays.get(loop);
 
             if (!crossingWays.isEmpty()) {
                 Map<PolyData, List<PolyData>> problemPolygonMap = (loop == 0) ? crossingPolygonsMap
@@ -561,7 +670,7 @@ public class MultipolygonTest extends Test {
                         String msg = loop == 0 ? tr("Intersection between multipolygon ways")
                                 : samePoly ? tr("Multipolygon ring contains segment twice")
                                         : tr("Multipolygon outer way shares segment with other ring");
-                        errors.add(TestError.builder(this, Severity.ERROR, CROSSING_WAYS)
+                        result.add(TestError.builder(this, Severity.ERROR, CROSSING_WAYS)
                                 .message(msg)
                                 .primitives(Arrays.asList(r, ways.get(0), ways.get(1)))
                                 .highlightWaySegments(entry.getValue())
@@ -584,8 +693,9 @@ public class MultipolygonTest extends Test {
                 .filter(m -> m.getRole().isEmpty() || OUTER.equals(m.getRole()))
                 .map(RelationMember::getMember)
                 .collect(Collectors.toSet());
+        List<Map<List<Way>, List<WaySegment>>> intersectingWays = findIntersectingWays(r);
         for (int loop = 0; loop < 2; loop++) {
-            for (Entry<List<Way>, List<WaySegment>> entry : findIntersectingWays(r, loop == 1).entrySet()) {
+            for (Entry<List<Way>, List<WaySegment>> entry : intersectingWays.get(loop).entrySet()) {
                 List<Way> ways = entry.getKey();
                 if (ways.size() != 2)
                     continue;
@@ -607,23 +717,62 @@ public class MultipolygonTest extends Test {
     }
 
     /**
-     * See {@link CrossingWays}
+     * Finds the member ways which are crossing without sharing a node, and the member ways sharing way segments.
+     * The results are the same as the ones of {@link CrossingWays#findIntersectingWay}, but the segments are found with
+     * a sweep-line over the bounding boxes of the segments instead of a grid of cells.
      * @param r the relation
-     * @param findSharedWaySegments true: find shared way segments instead of crossings
-     * @return map with crossing ways and the related segments
+     * @return a list with the map of crossing ways and the map of ways sharing way segments, both with the related segments
      */
-    private static Map<List<Way>, List<WaySegment>> findIntersectingWays(Relation r, boolean findSharedWaySegments) {
-        /* All way segments, grouped by cells */
-        final Map<Point2D, List<WaySegment>> cellSegments = new HashMap<>(1000);
+    private static List<Map<List<Way>, List<WaySegment>>> findIntersectingWays(Relation r) {
         /* The detected crossing ways */
         final Map<List<Way>, List<WaySegment>> crossingWays = new HashMap<>(50);
+        /* The detected ways sharing segments */
+        final Map<List<Way>, List<WaySegment>> sharedWaySegments = new HashMap<>(50);
 
+        Map<Way, Integer> wayIndex = new HashMap<>();
+        List<SweepSegment> segments = new ArrayList<>();
         for (Way w: r.getMemberPrimitives(Way.class)) {
-            if (!w.hasIncompleteNodes()) {
-                CrossingWays.findIntersectingWay(w, cellSegments, crossingWays, findSharedWaySegments);
+            if (w.hasIncompleteNodes() || wayIndex.putIfAbsent(w, wayIndex.size()) != null)
+                continue;
+            int nodesSize = w.getNodesCount();
+            for (int i = 0; i < nodesSize - 1; i++) {
+                final WaySegment es = new WaySegment(w, i);
+                final EastNorth en1 = es.getFirstNode().getEastNorth();
+                final EastNorth en2 = es.getSecondNode().getEastNorth();
+                if (en1 == null || en2 == null) {
+                    Logging.warn("Crossing ways test skipped " + es);
+                    continue;
+                }
+                segments.add(new SweepSegment(es, wayIndex.get(w), en1, en2));
+            }
+        }
+
+        segments.sort(Comparator.comparingDouble(s -> s.minX));
+        List<SweepSegment> active = new ArrayList<>();
+        for (SweepSegment s1 : segments) {
+            active.removeIf(s2 -> s2.maxX < s1.minX);
+            for (SweepSegment s2 : active) {
+                if (s1.wayIndex == s2.wayIndex // reported by CrossingWays.SelfIntersection
+                        || s2.maxY < s1.minY || s2.minY > s1.maxY)
+                    continue;
+                // same order as CrossingWays.findIntersectingWay: segment of the way which comes later first
+                WaySegment es1 = s1.wayIndex > s2.wayIndex ? s1.segment : s2.segment;
+                WaySegment es2 = s1.wayIndex > s2.wayIndex ? s2.segment : s1.segment;
+                Map<List<Way>, List<WaySegment>> found;
+                if (es1.isSimilar(es2)) {
+                    found = sharedWaySegments;
+                } else if (es1.intersects(es2)) {
+                    found = crossingWays;
+                } else {
+                    continue;
+                }
+                List<WaySegment> highlight = found.computeIfAbsent(Arrays.asList(es1.getWay(), es2.getWay()), k -> new ArrayList<>(2));
+                highlight.add(es1);
+                highlight.add(es2);
             }
+            active.add(s1);
         }
-        return crossingWays;
+        return Arrays.asList(crossingWays, sharedWaySegments);
     }
 
     /**
@@ -913,7 +1062,7 @@ public class MultipolygonTest extends Test {
             if (!hasRepeatedMembers) {
                 polygon = new Multipolygon(r);
                 // don't check style consistency here
-                checkGeometryAndRoles(r, polygon);
+                checkGeometryAndRoles(r, polygon, errors);
             }
             createdRelation = null; // makes sure that repeatCheck is only set once
         } while (repeatCheck);
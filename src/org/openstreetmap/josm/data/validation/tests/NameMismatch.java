@@ -70,6 +70,11 @@ public class NameMismatch extends Test.TagTest {
                 .build());
     }
 
+    @Override
+    public boolean isResultCacheable() {
+        return true;
+    }
+
     /**
      * Check a primitive for a name mismatch.
      *
@@ -124,6 +124,16 @@ public class OpeningHourTest extends TagTest {
         }
     }
 
+    @Override
+    public boolean isResultCacheable() {
+        return true;
+    }
+
+    @Override
+    public String getResultCacheFingerprint() {
+        return "strict=" + PREF_STRICT_MODE.get();
+    }
+
     @Override
     public void check(final OsmPrimitive p) {
         addErrorsForPrimitive(p, this.errors);
@@ -558,15 +558,35 @@ public class VectorDataSet implements OsmData<VectorPrimitive, VectorNode, Vecto
      * @param tile The tile to add
      */
     public void addTileData(MVTTile tile) {
+        // The primitives of the tile are built on the loader thread and are not visible before the tile is added,
+        // so only the insertion needs the write lock
+        tile.getData().getAllPrimitives().forEach(primitive -> primitive.setDataSet(this));
         tryWrite(this.readWriteLock, () -> {
             final int currentZoom = tile.getZoom();
             // computeIfAbsent should be thread safe (ConcurrentHashMap indicates it is, anyway)
             final Storage<MVTTile> dataStore = this.dataStoreMap.computeIfAbsent(currentZoom, tZoom -> new Storage<>());
-            tile.getData().getAllPrimitives().forEach(primitive -> primitive.setDataSet(this));
             dataStore.add(tile);
         });
     }
 
+    /**
+     * Remove tile data from this dataset, e.g. for tiles which are no longer in the tile cache of the layer
+     * @param predicate The tiles to remove
+     */
+    public void removeTileData(Predicate<MVTTile> predicate) {
+        final List<MVTTile> removed = new ArrayList<>();
+        tryWrite(this.readWriteLock, () -> {
+            for (Storage<MVTTile> dataStore : this.dataStoreMap.values()) {
+                final List<MVTTile> toRemove = dataStore.stream().filter(predicate).collect(Collectors.toList());
+                dataStore.removeAll(toRemove);
+                removed.addAll(toRemove);
+            }
+            this.dataStoreMap.values().removeIf(Collection::isEmpty);
+        });
+        // Release the primitives of the removed tiles
+        removed.forEach(tile -> tile.getData().destroy());
+    }
+
     /**
      * Try to read something (here to avoid boilerplate)
      *
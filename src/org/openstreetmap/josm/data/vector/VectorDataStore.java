@@ -2,7 +2,6 @@
 package org.openstreetmap.josm.data.vector;
 
 import static java.util.stream.Collectors.toCollection;
-import static java.util.stream.Collectors.toList;
 
 import java.awt.Shape;
 import java.awt.geom.Area;
@@ -12,6 +11,7 @@ import java.awt.geom.PathIterator;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
@@ -307,11 +307,17 @@ public class VectorDataStore extends DataStore<VectorPrimitive, VectorNode, Vect
         }
         // Replace original_ids with the same object (reduce memory usage)
         // Strings aren't interned automatically in some GC implementations
-        Collection<IPrimitive> primitives = this.getAllPrimitives().stream().filter(p -> p.hasKey(ORIGINAL_ID)).collect(toList());
-        List<String> toReplace = primitives.stream().map(p -> p.get(ORIGINAL_ID)).filter(Objects::nonNull).collect(toList());
-        primitives.stream().filter(p -> toReplace.contains(p.get(ORIGINAL_ID)))
-                .forEach(p -> p.put(ORIGINAL_ID, toReplace.stream().filter(shared -> shared.equals(p.get(ORIGINAL_ID)))
-                        .findAny().orElse(null)));
+        // A map keeps this linear in the number of primitives
+        final Map<String, String> shared = new HashMap<>();
+        for (IPrimitive primitive : this.getAllPrimitives()) {
+            final String originalId = primitive.get(ORIGINAL_ID);
+            if (originalId != null) {
+                final String sharedId = shared.putIfAbsent(originalId, originalId);
+                if (sharedId != null) {
+                    primitive.put(ORIGINAL_ID, sharedId);
+                }
+            }
+        }
     }
 
     private <T extends Tile & VectorTile> void addFeatureData(T tile, Layer layer, Collection<Feature> features) {
@@ -52,11 +52,13 @@ import org.openstreetmap.josm.data.preferences.sources.ValidatorPrefHelper;
 import org.openstreetmap.josm.data.validation.OsmValidator;
 import org.openstreetmap.josm.data.validation.Severity;
 import org.openstreetmap.josm.data.validation.TestError;
+import org.openstreetmap.josm.data.validation.ValidationProfile;
 import org.openstreetmap.josm.data.validation.ValidatorVisitor;
 import org.openstreetmap.josm.gui.MainApplication;
 import org.openstreetmap.josm.gui.PleaseWaitRunnable;
 import org.openstreetmap.josm.gui.PopupMenuHandler;
 import org.openstreetmap.josm.gui.SideButton;
+import org.openstreetmap.josm.gui.dialogs.validator.ValidationProfileDialog;
 import org.openstreetmap.josm.gui.dialogs.validator.ValidatorTreePanel;
 import org.openstreetmap.josm.gui.layer.MainLayerManager.ActiveLayerChangeEvent;
 import org.openstreetmap.josm.gui.layer.MainLayerManager.ActiveLayerChangeListener;
@@ -103,6 +105,8 @@ public class ValidatorDialog extends ToggleDialog
     /** The lookup action */
     private final transient LookupAction lookupAction;
     private final transient JosmAction ignoreForNowAction;
+    /** The action showing the timing information of the last validation run */
+    private final transient ProfileAction profileAction;
 
     private final JPopupMenu popupMenu = new JPopupMenu();
     private final transient PopupMenuHandler popupMenuHandler = new PopupMenuHandler(popupMenu);
@@ -197,9 +201,48 @@ public class ValidatorDialog extends ToggleDialog
             ignorelistManagementAction = null;
         }
 
+        if (Boolean.TRUE.equals(ValidatorPrefHelper.PREF_PROFILE.get())) {
+            profileAction = new ProfileAction();
+            buttons.add(new SideButton(profileAction));
+        } else {
+            profileAction = null;
+        }
+
         createLayout(tree, true, buttons);
     }
 
+    /**
+     * Sets the timing information of the last validation run.
+     * @param profile the timing information
+     */
+    public void setValidationProfile(ValidationProfile profile) {
+        if (profileAction != null) {
+            profileAction.profile = profile;
+            profileAction.setEnabled(profile != null);
+        }
+    }
+
+    /**
+     * The action to show the timing information of the last validation run.
+     */
+    static class ProfileAction extends AbstractAction {
+        private transient ValidationProfile profile;
+
+        ProfileAction() {
+            putValue(NAME, tr("Profile"));
+            putValue(SHORT_DESCRIPTION, tr("Show the time spent in each test during the last validation"));
+            new ImageProvider("clock").getResource().attachImageIcon(this, true);
+            setEnabled(false);
+        }
+
+        @Override
+        public void actionPerformed(ActionEvent e) {
+            if (profile != null) {
+                new ValidationProfileDialog(profile).showDialog();
+            }
+        }
+    }
+
     /**
      * The action to manage the ignore list.
      */
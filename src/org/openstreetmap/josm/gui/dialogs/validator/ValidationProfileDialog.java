@@ -0,0 +1,100 @@
+// License: GPL. For details, see LICENSE file.
+package org.openstreetmap.josm.gui.dialogs.validator;
+
+import static org.openstreetmap.josm.tools.I18n.tr;
+
+import java.awt.Dimension;
+import java.util.List;
+import java.util.function.Function;
+
+import javax.swing.JScrollPane;
+import javax.swing.JTabbedPane;
+import javax.swing.JTable;
+import javax.swing.table.AbstractTableModel;
+
+import org.openstreetmap.josm.data.validation.ValidationProfile;
+import org.openstreetmap.josm.data.validation.ValidationProfile.RuleTiming;
+import org.openstreetmap.josm.data.validation.ValidationProfile.TestTiming;
+import org.openstreetmap.josm.gui.ExtendedDialog;
+import org.openstreetmap.josm.gui.MainApplication;
+
+/**
+ * Displays the timing information collected during the last validation run.
+ * @see ValidationProfile
+ */
+public class ValidationProfileDialog extends ExtendedDialog {
+
+    /**
+     * Constructs a new {@code ValidationProfileDialog}.
+     * @param profile the profile to display
+     */
+    public ValidationProfileDialog(ValidationProfile profile) {
+        super(MainApplication.getMainFrame(), tr("Validation profile"), new String[] {tr("Close")}, false);
+        JTabbedPane tabs = new JTabbedPane();
+        tabs.addTab(tr("Tests"), buildTable(new ProfileTableModel<>(profile.getTestTimings(),
+                new String[] {tr("Test"), tr("Time (ms)"), tr("Primitives"), tr("Primitives/s"), tr("Errors")},
+                new Class<?>[] {String.class, Double.class, Long.class, Double.class, Long.class},
+                t -> new Object[] {t.getName(), t.getMillis(), t.getPrimitives(), t.getPrimitivesPerSecond(), t.getErrors()})));
+        List<RuleTiming> rules = profile.getRuleTimings();
+        if (!rules.isEmpty()) {
+            tabs.addTab(tr("MapCSS rules"), buildTable(new ProfileTableModel<>(rules,
+                    new String[] {tr("Source"), tr("Rule"), tr("Time (ms)"), tr("Evaluations"), tr("Matches")},
+                    new Class<?>[] {String.class, String.class, Double.class, Long.class, Long.class},
+                    r -> new Object[] {r.getSource(), r.getRule(), r.getMillis(), r.getEvaluations(), r.getMatches()})));
+        }
+        tabs.setPreferredSize(new Dimension(800, 500));
+        setContent(tabs, false);
+        setButtonIcons("ok");
+        setRememberWindowGeometry(getClass().getName() + ".geometry", null);
+    }
+
+    private static JScrollPane buildTable(AbstractTableModel model) {
+        JTable table = new JTable(model);
+        table.setAutoCreateRowSorter(true);
+        table.setFillsViewportHeight(true);
+        return new JScrollPane(table);
+    }
+
+    /**
+     * A read-only table model for {@link TestTiming} or {@link RuleTiming} rows.
+     * @param <T> the row type
+     */
+    private static final class ProfileTableModel<T> extends AbstractTableModel {
+        private final transient List<T> rows;
+        private final String[] columnNames;
+        private final Class<?>[] columnClasses;
+        private final transient Function<T, Object[]> toRow;
+
+        ProfileTableModel(List<T> rows, String[] columnNames, Class<?>[] columnClasses, Function<T, Object[]> toRow) {
+            this.rows = rows;
+            this.columnNames = columnNames;
+            this.columnClasses = columnClasses;
+            this.toRow = toRow;
+        }
+
+        @Override
+        public int getRowCount() {
+            return rows.size();
+        }
+
+        @Override
+        public int getColumnCount() {
+            return columnNames.length;
+        }
+
+        @Override
+        public String getColumnName(int column) {
+            return columnNames[column];
+        }
+
+        @Override
+        public Class<?> getColumnClass(int columnIndex) {
+            return columnClasses[columnIndex];
+        }
+
+        @Override
+        public Object getValueAt(int rowIndex, int columnIndex) {
+            return toRow.apply(rows.get(rowIndex))[columnIndex];
+        }
+    }
+}
@@ -0,0 +1,22 @@
+// License: GPL. For details, see LICENSE file.
+package org.openstreetmap.josm.gui.io.importexport;
+
+import static org.openstreetmap.josm.tools.I18n.tr;
+
+import java.io.IOException;
+
+import org.openstreetmap.josm.io.ImportCancelException;
+
+/**
+ * Exception raised by a batch importer when the user cancels the import. None of the files have been imported.
+ * @see FileImporter#importFilesHandleExceptions(java.util.List, org.openstreetmap.josm.gui.progress.ProgressMonitor)
+ */
+public class BatchImportCanceledException extends IOException implements ImportCancelException {
+
+    /**
+     * Constructs a new {@code BatchImportCanceledException}.
+     */
+    public BatchImportCanceledException() {
+        super(tr("Reading was canceled"));
+    }
+}
@@ -0,0 +1,43 @@
+// License: GPL. For details, see LICENSE file.
+package org.openstreetmap.josm.gui.io.importexport;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Exception raised by a batch importer when some of the files could not be imported.
+ * The other files of the batch have been imported.
+ * @see FileImporter#importFilesHandleExceptions(List, org.openstreetmap.josm.gui.progress.ProgressMonitor)
+ */
+public class BatchImportException extends IOException {
+
+    private final List<File> failedFiles;
+
+    /**
+     * Constructs a new {@code BatchImportException}.
+     * The detail message lists the files with the message of their error, the cause is the error of the first file.
+     * @param errors the files which could not be imported, with their error, in the order of the files
+     */
+    public BatchImportException(Map<File, ? extends Throwable> errors) {
+        super(buildMessage(errors), errors.values().stream().findFirst().orElse(null));
+        this.failedFiles = Collections.unmodifiableList(new ArrayList<>(errors.keySet()));
+    }
+
+    private static String buildMessage(Map<File, ? extends Throwable> errors) {
+        StringBuilder msg = new StringBuilder();
+        errors.forEach((file, error) -> msg.append(file.getName()).append(": ").append(error.getMessage()).append('\n'));
+        return msg.toString().trim();
+    }
+
+    /**
+     * Returns the files which could not be imported.
+     * @return the files which could not be imported
+     */
+    public List<File> getFailedFiles() {
+        return failedFiles;
+    }
+}
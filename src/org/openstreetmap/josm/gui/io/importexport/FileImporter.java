@@ -5,6 +5,8 @@ import static org.openstreetmap.josm.tools.I18n.tr;
 
 import java.io.File;
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.EnumSet;
 import java.util.List;
 import java.util.Objects;
@@ -67,6 +69,15 @@ public abstract class FileImporter implements Comparable<FileImporter> {
         return false;
     }
 
+    /**
+     * Determines if the files opened by this importer are recorded in the history of opened files.
+     * By default, the files of batch importers are not recorded, as they are not opened one by one.
+     * @return {@code true} if the files opened by this importer are recorded in the history
+     */
+    public boolean recordsFileHistory() {
+        return !isBatchImporter();
+    }
+
     /**
      * Needs to be implemented if isBatchImporter() returns false.
      * @param file file to import
@@ -147,10 +158,25 @@ public abstract class FileImporter implements Comparable<FileImporter> {
      * @return true if data import was successful
      */
     public boolean importDataHandleExceptions(List<File> files, ProgressMonitor progressMonitor) {
+        return importFilesHandleExceptions(files, progressMonitor).size() == files.size();
+    }
+
+    /**
+     * Wrapper to {@link #importData(List, ProgressMonitor)} to give meaningful output if things go wrong.
+     * If the importer throws a {@link BatchImportException}, the other files of the batch have been imported.
+     * If it throws a {@link BatchImportCanceledException}, none of the files have been imported.
+     * @param files data files to import
+     * @param progressMonitor progress monitor
+     * @return the files which have been imported successfully
+     */
+    public List<File> importFilesHandleExceptions(List<File> files, ProgressMonitor progressMonitor) {
         try {
             Logging.info("Open "+files.size()+" files");
             importData(files, progressMonitor);
-            return true;
+            return files;
+        } catch (BatchImportCanceledException e) {
+            displayCancel(e);
+            return Collections.emptyList();
         } catch (IOException | IllegalDataException e) {
             Logging.error(e);
             HelpAwareOptionPane.showMessageDialogInEDT(
@@ -159,7 +185,12 @@ public abstract class FileImporter implements Comparable<FileImporter> {
                     tr("Error"),
                     JOptionPane.ERROR_MESSAGE, null
             );
-            return false;
+            if (e instanceof BatchImportException) {
+                List<File> imported = new ArrayList<>(files);
+                imported.removeAll(((BatchImportException) e).getFailedFiles());
+                return imported;
+            }
+            return Collections.emptyList();
         }
     }
 
@@ -2,15 +2,26 @@
 package org.openstreetmap.josm.gui.io.importexport;
 
 import static org.openstreetmap.josm.tools.I18n.tr;
+import static org.openstreetmap.josm.tools.I18n.trn;
 
 import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 import javax.swing.JOptionPane;
 
 import org.openstreetmap.josm.actions.ExtensionFileFilter;
 import org.openstreetmap.josm.data.gpx.GpxData;
+import org.openstreetmap.josm.data.preferences.IntegerProperty;
 import org.openstreetmap.josm.gui.MainApplication;
 import org.openstreetmap.josm.gui.Notification;
 import org.openstreetmap.josm.gui.layer.GpxLayer;
@@ -25,7 +36,9 @@ import org.openstreetmap.josm.gui.util.GuiHelper;
 import org.openstreetmap.josm.io.Compression;
 import org.openstreetmap.josm.io.GpxReader;
 import org.openstreetmap.josm.spi.preferences.Config;
+import org.openstreetmap.josm.tools.JosmRuntimeException;
 import org.openstreetmap.josm.tools.Logging;
+import org.openstreetmap.josm.tools.Utils;
 import org.xml.sax.SAXException;
 
 /**
@@ -34,6 +47,17 @@ import org.xml.sax.SAXException;
  */
 public class GpxImporter extends FileImporter {
 
+    /**
+     * Number of GPX files opened at once from which the files are merged into a single layer,
+     * and their track points are read with the lean parser. 0 to never merge the files.
+     * @see GpxReader#GpxReader(InputStream, boolean)
+     */
+    public static final IntegerProperty MERGE_MIN_FILES = new IntegerProperty("gpx.import.merge_min_files", 50);
+
+    /** Number of threads reading GPX or GPX-like files opened at once */
+    static final IntegerProperty THREADS = new IntegerProperty("gpx.import.threads",
+            Runtime.getRuntime().availableProcessors());
+
     /**
      * Utility class containing imported GPX and marker layers, and a task to run after they are added to MapView.
      */
@@ -118,6 +142,110 @@ public class GpxImporter extends FileImporter {
                 Config.getPref().get("save.extension.gpx", "gpx"), tr("GPX Files"), true);
     }
 
+    /**
+     * The result of reading a GPX file.
+     */
+    private static final class ParsedFile {
+        private final File file;
+        private GpxData data;
+        private boolean parsedProperly;
+        private Exception error;
+
+        ParsedFile(File file) {
+            this.file = file;
+        }
+    }
+
+    @Override
+    public boolean isBatchImporter() {
+        return true;
+    }
+
+    @Override
+    public boolean recordsFileHistory() {
+        return true;
+    }
+
+    /**
+     * Reads the files in parallel, then adds their layers in the order of the files. When at least
+     * {@link #MERGE_MIN_FILES} files are opened, they are merged into a single layer.
+     * The files which can be read are added even if other files fail, the failures are reported by a {@link BatchImportException}.
+     * If the user cancels the import, no layer is added and a {@link BatchImportCanceledException} is thrown.
+     */
+    @Override
+    public void importData(List<File> files, ProgressMonitor progressMonitor) throws IOException {
+        final boolean merge = MERGE_MIN_FILES.get() > 0 && files.size() >= MERGE_MIN_FILES.get();
+        final List<ParsedFile> parsedFiles = new ArrayList<>(files.size());
+        progressMonitor.beginTask(trn("Reading {0} GPX file...", "Reading {0} GPX files...", files.size(), files.size()),
+                files.size());
+        ExecutorService executor = Executors.newFixedThreadPool(Utils.clamp(THREADS.get(), 1, files.size()),
+                Utils.newThreadFactory("gpx-importer-%d", Thread.NORM_PRIORITY));
+        try {
+            List<Future<ParsedFile>> futures = new ArrayList<>(files.size());
+            for (File file : files) {
+                futures.add(executor.submit(() -> parse(file, merge)));
+            }
+            for (Future<ParsedFile> future : futures) {
+                if (progressMonitor.isCanceled()) {
+                    throw new BatchImportCanceledException();
+                }
+                parsedFiles.add(future.get());
+                progressMonitor.worked(1);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw (InterruptedIOException) new InterruptedIOException(e.getMessage()).initCause(e);
+        } catch (ExecutionException e) {
+            throw new JosmRuntimeException(e.getCause());
+        } finally {
+            executor.shutdownNow();
+            progressMonitor.finishTask();
+        }
+
+        Map<File, Exception> failed = new LinkedHashMap<>();
+        GpxData merged = null;
+        if (merge) {
+            merged = new GpxData();
+            merged.beginUpdate();
+        }
+        boolean mergedProperly = true;
+        int mergedFiles = 0;
+        for (ParsedFile parsed : parsedFiles) {
+            if (parsed.error != null) {
+                failed.put(parsed.file, parsed.error);
+            } else if (merged != null) {
+                merged.mergeFrom(parsed.data);
+                mergedProperly &= parsed.parsedProperly;
+                mergedFiles++;
+            } else {
+                addLayers(loadLayers(parsed.data, parsed.parsedProperly, parsed.file.getName()));
+            }
+        }
+        if (merged != null && mergedFiles > 0) {
+            // the merged data must not be saved over one of the files
+            merged.storageFile = null;
+            merged.endUpdate();
+            addLayers(loadLayers(merged, mergedProperly, trn("{0} GPX file", "{0} GPX files", mergedFiles, mergedFiles)));
+        }
+        if (!failed.isEmpty()) {
+            throw new BatchImportException(failed);
+        }
+    }
+
+    private static ParsedFile parse(File file, boolean lean) {
+        ParsedFile result = new ParsedFile(file);
+        try (InputStream is = Compression.getUncompressedFileInputStream(file)) {
+            GpxReader r = new GpxReader(is, lean);
+            result.parsedProperly = r.parse(true);
+            result.data = r.getGpxData();
+            result.data.storageFile = file;
+        } catch (IOException | SAXException | RuntimeException e) {
+            Logging.error(e);
+            result.error = e;
+        }
+        return result;
+    }
+
     @Override
     public void importData(File file, ProgressMonitor progressMonitor) throws IOException {
         final String fileName = file.getName();
@@ -2,16 +2,27 @@
 package org.openstreetmap.josm.gui.io.importexport;
 
 import static org.openstreetmap.josm.tools.I18n.tr;
+import static org.openstreetmap.josm.tools.I18n.trn;
 
 import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.Objects;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 import javax.swing.JOptionPane;
 import javax.swing.SwingUtilities;
 
 import org.openstreetmap.josm.actions.ExtensionFileFilter;
+import org.openstreetmap.josm.data.preferences.IntegerProperty;
 import org.openstreetmap.josm.gui.HelpAwareOptionPane;
 import org.openstreetmap.josm.gui.MainApplication;
 import org.openstreetmap.josm.gui.Notification;
@@ -22,6 +33,8 @@ import org.openstreetmap.josm.gui.util.GuiHelper;
 import org.openstreetmap.josm.io.Compression;
 import org.openstreetmap.josm.io.IGpxReader;
 import org.openstreetmap.josm.spi.preferences.Config;
+import org.openstreetmap.josm.tools.Logging;
+import org.openstreetmap.josm.tools.Utils;
 import org.xml.sax.SAXException;
 
 /**
@@ -31,6 +44,13 @@ import org.xml.sax.SAXException;
  */
 public abstract class GpxLikeImporter<T extends IGpxReader> extends FileImporter {
 
+    /**
+     * Size in megabytes from which files are read in throughput mode, by the readers which have a
+     * {@code (InputStream, boolean)} constructor: only the time, elevation and accuracy of the points are kept,
+     * in compact track segments. 0 to never use it.
+     */
+    public static final IntegerProperty COMPACT_MIN_MEGABYTES = new IntegerProperty("gpx.import.compact_min_megabytes", 100);
+
     private Class<T> klass;
 
     /**
@@ -45,26 +65,89 @@ public abstract class GpxLikeImporter<T extends IGpxReader> extends FileImporter
 
     @Override
     public final void importData(File file, ProgressMonitor progressMonitor) throws IOException {
-        final String fn = file.getName();
+        addLayers(file, parse(file));
+    }
+
+    @Override
+    public boolean isBatchImporter() {
+        return true;
+    }
+
+    @Override
+    public boolean recordsFileHistory() {
+        return true;
+    }
+
+    /**
+     * Reads the files in parallel, then adds their layers in the order of the files.
+     * The files which can be read are added even if other files fail, the failures are reported by a {@link BatchImportException}.
+     * If the user cancels the import, no layer is added and a {@link BatchImportCanceledException} is thrown.
+     */
+    @Override
+    public void importData(List<File> files, ProgressMonitor progressMonitor) throws IOException {
+        final Map<File, T> readers = new LinkedHashMap<>();
+        final Map<File, Throwable> failed = new LinkedHashMap<>();
+        progressMonitor.beginTask(trn("Reading {0} file...", "Reading {0} files...", files.size(), files.size()),
+                files.size());
+        ExecutorService executor = Executors.newFixedThreadPool(Utils.clamp(GpxImporter.THREADS.get(), 1, files.size()),
+                Utils.newThreadFactory("gpx-like-importer-%d", Thread.NORM_PRIORITY));
+        try {
+            List<Future<T>> futures = new ArrayList<>(files.size());
+            for (File file : files) {
+                futures.add(executor.submit(() -> parse(file)));
+            }
+            for (int i = 0; i < files.size(); i++) {
+                if (progressMonitor.isCanceled()) {
+                    throw new BatchImportCanceledException();
+                }
+                try {
+                    readers.put(files.get(i), futures.get(i).get());
+                } catch (ExecutionException e) {
+                    Logging.error(e.getCause());
+                    failed.put(files.get(i), e.getCause());
+                }
+                progressMonitor.worked(1);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw (InterruptedIOException) new InterruptedIOException(e.getMessage()).initCause(e);
+        } finally {
+            executor.shutdownNow();
+            progressMonitor.finishTask();
+        }
+
+        for (Map.Entry<File, T> e : readers.entrySet()) {
+            addLayers(e.getKey(), e.getValue());
+        }
+        if (!failed.isEmpty()) {
+            throw new BatchImportException(failed);
+        }
+    }
+
+    private T parse(File file) throws IOException {
+        final int compactMinMegabytes = COMPACT_MIN_MEGABYTES.get();
+        final boolean lean = compactMinMegabytes > 0 && file.length() >= compactMinMegabytes * 1024L * 1024L;
         try (InputStream fis = Compression.getUncompressedFileInputStream(file)) {
-            final T r = buildAndParse(fis, klass);
-            if (r.getNumberOfCoordinates() > 0) {
-                r.getGpxData().storageFile = file;
-                final GpxLayer gpxLayer = new GpxLayer(r.getGpxData(), fn, true);
-                final File fileFinal = file;
-
-                GuiHelper.runInEDT(() -> {
-                    MainApplication.getLayerManager().addLayer(gpxLayer);
-                    if (Config.getPref().getBoolean("marker.makeautomarkers", true)) {
-                        MarkerLayer ml = new MarkerLayer(r.getGpxData(), tr("Markers from {0}", fn), fileFinal, gpxLayer);
-                        if (!ml.data.isEmpty()) {
-                            MainApplication.getLayerManager().addLayer(ml);
-                        }
+            return buildAndParse(fis, klass, lean);
+        }
+    }
+
+    private void addLayers(File file, T r) {
+        final String fn = file.getName();
+        if (r.getNumberOfCoordinates() > 0) {
+            r.getGpxData().storageFile = file;
+            final GpxLayer gpxLayer = new GpxLayer(r.getGpxData(), fn, true);
+            GuiHelper.runInEDT(() -> {
+                MainApplication.getLayerManager().addLayer(gpxLayer);
+                if (Config.getPref().getBoolean("marker.makeautomarkers", true)) {
+                    MarkerLayer ml = new MarkerLayer(r.getGpxData(), tr("Markers from {0}", fn), file, gpxLayer);
+                    if (!ml.data.isEmpty()) {
+                        MainApplication.getLayerManager().addLayer(ml);
                     }
-                });
-            }
-            showInfobox(r.getNumberOfCoordinates() > 0, r);
+                }
+            });
         }
+        showInfobox(r.getNumberOfCoordinates() > 0, r);
     }
 
     protected final void showInfobox(boolean success, T r) {
@@ -91,8 +174,32 @@ public abstract class GpxLikeImporter<T extends IGpxReader> extends FileImporter
     }
 
     protected static final <T extends IGpxReader> T buildAndParse(InputStream fis, Class<T> klass) throws IOException {
+        return buildAndParse(fis, klass, false);
+    }
+
+    /**
+     * Creates a reader and parses the input stream.
+     * @param <T> GPX reader type
+     * @param fis the input stream
+     * @param klass the reader type
+     * @param lean if {@code true}, the reader is created in throughput mode if it has
+     * a {@code (InputStream, boolean)} constructor
+     * @return the reader
+     * @throws IOException if an error occurs
+     */
+    protected static final <T extends IGpxReader> T buildAndParse(InputStream fis, Class<T> klass, boolean lean)
+            throws IOException {
         try {
-            final T r = klass.getConstructor(InputStream.class).newInstance(fis);
+            T r;
+            try {
+                r = lean ? klass.getConstructor(InputStream.class, boolean.class).newInstance(fis, true) : null;
+            } catch (NoSuchMethodException e) {
+                Logging.trace(e);
+                r = null;
+            }
+            if (r == null) {
+                r = klass.getConstructor(InputStream.class).newInstance(fis);
+            }
             r.parse(true);
             return r;
         } catch (SAXException | ReflectiveOperationException | IllegalArgumentException | SecurityException e) {
@@ -89,6 +89,8 @@ import org.openstreetmap.josm.data.imagery.ImageryInfo;
 import org.openstreetmap.josm.data.imagery.OffsetBookmark;
 import org.openstreetmap.josm.data.imagery.TMSCachedTileLoader;
 import org.openstreetmap.josm.data.imagery.TileLoaderFactory;
+import org.openstreetmap.josm.data.imagery.TileMemoryBudget;
+import org.openstreetmap.josm.data.imagery.TileViewport;
 import org.openstreetmap.josm.data.imagery.vectortile.VectorTile;
 import org.openstreetmap.josm.data.osm.visitor.BoundingXYVisitor;
 import org.openstreetmap.josm.data.preferences.BooleanProperty;
@@ -114,11 +116,13 @@ import org.openstreetmap.josm.gui.layer.imagery.IncreaseZoomAction;
 import org.openstreetmap.josm.gui.layer.imagery.LoadAllTilesAction;
 import org.openstreetmap.josm.gui.layer.imagery.LoadErroneousTilesAction;
 import org.openstreetmap.josm.gui.layer.imagery.MVTLayer;
+import org.openstreetmap.josm.gui.layer.imagery.MipTileCache;
 import org.openstreetmap.josm.gui.layer.imagery.ReprojectionTile;
 import org.openstreetmap.josm.gui.layer.imagery.ShowErrorsAction;
 import org.openstreetmap.josm.gui.layer.imagery.TileAnchor;
 import org.openstreetmap.josm.gui.layer.imagery.TileCoordinateConverter;
 import org.openstreetmap.josm.gui.layer.imagery.TilePosition;
+import org.openstreetmap.josm.gui.layer.imagery.TilePrefetcher;
 import org.openstreetmap.josm.gui.layer.imagery.TileSourceDisplaySettings;
 import org.openstreetmap.josm.gui.layer.imagery.TileSourceDisplaySettings.DisplaySettingsChangeEvent;
 import org.openstreetmap.josm.gui.layer.imagery.TileSourceDisplaySettings.DisplaySettingsChangeListener;
@@ -193,6 +197,8 @@ implements ImageObserver, TileLoaderListener, ZoomChangeListener, FilterChangeLi
     protected TileCache tileCache; // initialized together with tileSource
     protected T tileSource;
     protected TileLoader tileLoader;
+    private TilePrefetcher prefetcher;
+    private MipTileCache mipTiles;
 
     /** A timer that is used to delay invalidation events if required. */
     private final Timer invalidateLaterTimer = new Timer(100, e -> this.invalidate());
@@ -304,6 +310,21 @@ implements ImageObserver, TileLoaderListener, ZoomChangeListener, FilterChangeLi
             tileLoader = new OsmTileLoader(this, headers);
 
         tileCache = new MemoryTileCache(estimateTileCacheSize());
+        if (mipTiles != null) {
+            mipTiles.clear();
+        }
+        mipTiles = new MipTileCache(tileSource, tileCache);
+
+        if (prefetcher != null) {
+            prefetcher.shutdown();
+            prefetcher = null;
+        }
+        if (tileLoader instanceof TMSCachedTileLoader && TilePrefetcher.isAllowed(info.getUrl())) {
+            TileLoader prefetchLoader = getTileLoaderFactory().makeTileLoader(this, headers, minimumTileExpire);
+            if (prefetchLoader instanceof TMSCachedTileLoader) {
+                prefetcher = new TilePrefetcher(tileSource, (TMSCachedTileLoader) prefetchLoader, tileCache);
+            }
+        }
     }
 
     @Override
@@ -312,6 +333,9 @@ implements ImageObserver, TileLoaderListener, ZoomChangeListener, FilterChangeLi
             success = false;
             tile.setImage(null);
         }
+        if (success && mipTiles != null) {
+            mipTiles.tileLoaded(tile);
+        }
         invalidateLater();
         Logging.debug("tileLoadingFinished() tile: {0} success: {1}", tile, success);
     }
@@ -324,6 +348,10 @@ implements ImageObserver, TileLoaderListener, ZoomChangeListener, FilterChangeLi
             ((CachedTileLoader) tileLoader).clearCache(tileSource);
         }
         tileCache.clear();
+        TileMemoryBudget.getInstance().release(tileSource);
+        if (mipTiles != null) {
+            mipTiles.clear();
+        }
     }
 
     @Override
@@ -933,6 +961,9 @@ implements ImageObserver, TileLoaderListener, ZoomChangeListener, FilterChangeLi
             return false;
         if (tile.isLoading())
             return false;
+        if (prefetcher != null) {
+            prefetcher.tileRequested(tile);
+        }
         tileLoader.createTileLoaderJob(tile).submit(force);
         return true;
     }
@@ -1018,6 +1049,7 @@ implements ImageObserver, TileLoaderListener, ZoomChangeListener, FilterChangeLi
         BufferedImage img = tile.getImage();
         if (!imageLoaded(img))
             return null;
+        TileMemoryBudget.getInstance().touch(tile);
         return img;
     }
 
@@ -1148,6 +1180,31 @@ implements ImageObserver, TileLoaderListener, ZoomChangeListener, FilterChangeLi
         return Collections.unmodifiableList(missedTiles);
     }
 
+    /**
+     * Paints reduced images built from the tiles of higher zoom levels, instead of painting these tiles one by one.
+     * @param g the Graphics2D
+     * @param missedTiles tiles of the displayed zoom level which have not been painted
+     * @return the tiles which have not been painted
+     */
+    private List<Tile> paintMipImages(Graphics2D g, List<Tile> missedTiles) {
+        List<Tile> newlyMissedTiles = new ArrayList<>();
+        for (Tile missed : missedTiles) {
+            BufferedImage img = null;
+            // Don't try to paint from higher zoom levels when tile is overzoomed
+            if (!(missed instanceof VectorTile) && !"no-tile".equals(missed.getValue("tile-info"))) {
+                img = mipTiles.getImage(missed.getXtile(), missed.getYtile(), missed.getZoom());
+            }
+            if (img == null) {
+                newlyMissedTiles.add(missed);
+                continue;
+            }
+            TileAnchor anchorImage = getAnchor(missed, img);
+            img = applyImageProcessors(img);
+            drawImageInside(g, img, anchorImage, coordinateConverter.getScreenAnchorForTile(missed), null);
+        }
+        return newlyMissedTiles;
+    }
+
     private static TileAnchor getAnchor(Tile tile, BufferedImage image) {
         if (tile instanceof ReprojectionTile) {
             return ((ReprojectionTile) tile).getAnchor();
@@ -1363,6 +1420,26 @@ implements ImageObserver, TileLoaderListener, ZoomChangeListener, FilterChangeLi
             ts.loadAllTiles(false);
         }
 
+        /**
+         * Returns the tiles of this tile set as view for ranking tile downloads.
+         * @return the tiles of this tile set, or {@code null} for the null tile set
+         */
+        private TileViewport getViewport() {
+            if (this == nullTileSet) {
+                return null;
+            }
+            return new TileViewport(zoom, minX, maxX, minY, maxY, TMSCachedTileLoader.OFFSCREEN_MARGIN.get());
+        }
+
+        /**
+         * Prefetches the tiles which are expected to be displayed after this tile set, based on the movement of the view.
+         */
+        private void prefetch() {
+            if (this != nullTileSet && !tooLarge()) {
+                prefetcher.viewChanged(zoom, minX, maxX, minY, maxY);
+            }
+        }
+
         private void loadAllErrorTiles(boolean force) {
             if (!getDisplaySettings().isAutoLoad() && !force)
                 return;
@@ -1614,6 +1691,13 @@ implements ImageObserver, TileLoaderListener, ZoomChangeListener, FilterChangeLi
             setZoomLevel(zoom, false);
         }
         TileSet ts = dts.getTileSet(zoom);
+        if (tileLoader instanceof TMSCachedTileLoader) {
+            // rank queued downloads by their distance to the view, and cancel those which are not visible anymore
+            ((TMSCachedTileLoader) tileLoader).setViewport(ts.getViewport());
+        }
+        if (prefetcher != null && getDisplaySettings().isAutoLoad()) {
+            ts.prefetch();
+        }
 
         // try to load tiles from desired zoom level, no matter what we will show (for example, tiles from previous zoom level
         // on zoom in)
@@ -1635,6 +1719,9 @@ implements ImageObserver, TileLoaderListener, ZoomChangeListener, FilterChangeLi
         if (getDisplaySettings().isAutoLoad()) {
             ts.overloadTiles();
         }
+        if (mipTiles != null && !coordinateConverter.requiresReprojection()) {
+            missedTiles = paintMipImages(g, missedTiles);
+        }
         if (getDisplaySettings().isAutoZoom()) {
             /*
              * consult calculation in estimateTileCacheSize() before changing values here.
@@ -2036,6 +2123,14 @@ implements ImageObserver, TileLoaderListener, ZoomChangeListener, FilterChangeLi
         if (tileLoader instanceof TMSCachedTileLoader) {
             ((TMSCachedTileLoader) tileLoader).shutdown();
         }
+        if (prefetcher != null) {
+            Logging.debug("{0}: {1}, hit rate {2}", getName(), prefetcher, prefetcher.getHitRate());
+            prefetcher.shutdown();
+        }
+        TileMemoryBudget.getInstance().release(tileSource);
+        if (mipTiles != null) {
+            mipTiles.clear();
+        }
     }
 
     private final class TileSourcePainter extends CompatibilityModeLayerPainter {
@@ -2106,6 +2201,9 @@ implements ImageObserver, TileLoaderListener, ZoomChangeListener, FilterChangeLi
         if (tileCache != null) {
             tileCache.clear();
         }
+        if (mipTiles != null) {
+            mipTiles.clear();
+        }
     }
 
     @Override
@@ -15,6 +15,8 @@ import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
 import java.util.Locale;
+import java.util.Map;
+import java.util.WeakHashMap;
 
 import javax.swing.AbstractAction;
 import javax.swing.Action;
@@ -66,6 +68,13 @@ public abstract class ImageryLayer extends Layer {
 
     private final ImageryFilterSettings filterSettings = new ImageryFilterSettings();
 
+    /**
+     * Output of the filter settings by source image. The entries are dropped with the source images,
+     * i.e. when the tiles are removed from memory.
+     */
+    private final Map<BufferedImage, BufferedImage> filteredImages = new WeakHashMap<>();
+    private int filterVersion;
+
     /**
      * Constructs a new {@code ImageryLayer}.
      * @param info imagery info
@@ -83,6 +92,7 @@ public abstract class ImageryLayer extends Layer {
         for (ImageProcessor processor : filterSettings.getProcessors()) {
             addImageProcessor(processor);
         }
+        filterSettings.addFilterChangeListener(this::clearFilteredImages);
         filterSettings.setSharpenLevel(1 + PROP_SHARPEN_LEVEL.get() / 2f);
     }
 
@@ -280,6 +290,7 @@ public abstract class ImageryLayer extends Layer {
      * @return true if processor was added, false otherwise
      */
     public boolean addImageProcessor(ImageProcessor processor) {
+        clearFilteredImages();
         return processor != null && imageProcessors.add(processor);
     }
 
@@ -291,6 +302,7 @@ public abstract class ImageryLayer extends Layer {
      * @return true if processor was removed
      */
     public boolean removeImageProcessor(ImageProcessor processor) {
+        clearFilteredImages();
         return imageProcessors.remove(processor);
     }
 
@@ -315,23 +327,72 @@ public abstract class ImageryLayer extends Layer {
     }
 
     /**
-     * Applies all the chosen {@link ImageProcessor}s to the image
+     * Applies all the chosen {@link ImageProcessor}s to the image.
+     * <p>
+     * The output of the processors of the {@linkplain #getFilterSettings() filter settings} is computed once per image
+     * and reused until the settings change. Other processors, e.g. added by plugins, may change without notice and
+     * are applied each time.
      *
      * @param img - image which should be changed
      *
      * @return the new changed image
      */
     public BufferedImage applyImageProcessors(BufferedImage img) {
-        for (ImageProcessor processor : imageProcessors) {
-            try {
-                img = processor.process(img);
-            } catch (ImagingOpException e) {
-                Logging.error(e);
-            }
+        List<ImageProcessor> filters = filterSettings.getProcessors();
+        int filterCount = 0;
+        while (filterCount < imageProcessors.size() && filters.contains(imageProcessors.get(filterCount))) {
+            filterCount++;
+        }
+        if (filterCount > 0) {
+            img = applyFilterSettings(img, imageProcessors.subList(0, filterCount));
+        }
+        for (ImageProcessor processor : imageProcessors.subList(filterCount, imageProcessors.size())) {
+            img = applyImageProcessor(processor, img);
         }
         return img;
     }
 
+    private BufferedImage applyFilterSettings(BufferedImage img, List<ImageProcessor> processors) {
+        int version;
+        synchronized (filteredImages) {
+            BufferedImage filtered = filteredImages.get(img);
+            if (filtered != null) {
+                return filtered;
+            }
+            version = filterVersion;
+        }
+        BufferedImage filtered = img;
+        for (ImageProcessor processor : processors) {
+            filtered = applyImageProcessor(processor, filtered);
+        }
+        // an unchanged image would keep its own entry alive
+        if (filtered != img) {
+            synchronized (filteredImages) {
+                // the settings may have changed while filtering
+                if (version == filterVersion) {
+                    filteredImages.put(img, filtered);
+                }
+            }
+        }
+        return filtered;
+    }
+
+    private static BufferedImage applyImageProcessor(ImageProcessor processor, BufferedImage img) {
+        try {
+            return processor.process(img);
+        } catch (ImagingOpException e) {
+            Logging.error(e);
+            return img;
+        }
+    }
+
+    private void clearFilteredImages() {
+        synchronized (filteredImages) {
+            filterVersion++;
+            filteredImages.clear();
+        }
+    }
+
     /**
      * An additional menu entry in the imagery offset menu.
      * @author Michael Zangl
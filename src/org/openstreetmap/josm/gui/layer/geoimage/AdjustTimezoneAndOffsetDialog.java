@@ -9,7 +9,9 @@ import java.awt.Dimension;
 import java.awt.GridBagLayout;
 import java.util.Dictionary;
 import java.util.Hashtable;
+import java.util.stream.IntStream;
 
+import javax.swing.JButton;
 import javax.swing.JLabel;
 import javax.swing.JOptionPane;
 import javax.swing.JPanel;
@@ -20,6 +22,7 @@ import org.openstreetmap.josm.data.gpx.GpxTimeOffset;
 import org.openstreetmap.josm.data.gpx.GpxTimezone;
 import org.openstreetmap.josm.gui.ExtendedDialog;
 import org.openstreetmap.josm.gui.MainApplication;
+import org.openstreetmap.josm.gui.util.GuiHelper;
 import org.openstreetmap.josm.tools.GBC;
 import org.openstreetmap.josm.tools.JosmRuntimeException;
 import org.openstreetmap.josm.tools.Logging;
@@ -81,9 +84,39 @@ public class AdjustTimezoneAndOffsetDialog extends ExtendedDialog {
         sldSeconds.setLabelTable(labelTable);
         sldSeconds.setMajorTickSpacing(300);
 
+        // Searches the seconds offset which matches the most photos
+        final JButton btnBestSeconds = new JButton(tr("Find best seconds"));
+        btnBestSeconds.setToolTipText(tr("Sets the seconds to the offset which matches the most photos"));
+        btnBestSeconds.addActionListener(e -> {
+            if (listener == null) {
+                return;
+            }
+            final AdjustListener adjustListener = listener;
+            final int[] seconds = IntStream.rangeClosed(sldSeconds.getMinimum(), sldSeconds.getMaximum()).toArray();
+            final GpxTimezone timezone = new GpxTimezone(sldTimezone.getValue() / 2.);
+            final int minutes = sldMinutes.getValue();
+            final int current = sldSeconds.getValue();
+            // matching the photos for all offsets takes a while, the dialog must stay responsive
+            btnBestSeconds.setEnabled(false);
+            MainApplication.worker.execute(() -> {
+                int[] counts = null;
+                try {
+                    counts = adjustListener.countMatches(timezone, minutes, seconds);
+                } finally {
+                    final int[] result = counts;
+                    GuiHelper.runInEDT(() -> {
+                        btnBestSeconds.setEnabled(true);
+                        if (result != null) {
+                            sldSeconds.setValue(findBest(seconds, result, current));
+                        }
+                    });
+                }
+            });
+        });
+
         // Put everything together
         JPanel p = new JPanel(new GridBagLayout());
-        p.setPreferredSize(new Dimension(400, 230));
+        p.setPreferredSize(new Dimension(400, 260));
         p.add(lblMatches, GBC.eol().fill());
         p.add(lblTimezone, GBC.eol().fill());
         p.add(sldTimezone, GBC.eol().fill().insets(0, 0, 0, 10));
@@ -91,6 +124,7 @@ public class AdjustTimezoneAndOffsetDialog extends ExtendedDialog {
         p.add(sldMinutes, GBC.eol().fill().insets(0, 0, 0, 10));
         p.add(lblSeconds, GBC.eol().fill());
         p.add(sldSeconds, GBC.eol().fill());
+        p.add(btnBestSeconds, GBC.eol().anchor(GBC.EAST).insets(0, 5, 0, 0));
 
         // If there's an error in the calculation the found values
         // will be off range for the sliders. Catch this error
@@ -141,6 +175,25 @@ public class AdjustTimezoneAndOffsetDialog extends ExtendedDialog {
         return p;
     }
 
+    /**
+     * Returns the value which matches the most photos, the nearest to the current value if several values match as many photos.
+     * @param values the values
+     * @param counts the number of matched photos for each value
+     * @param current the current value
+     * @return the best value
+     */
+    static int findBest(int[] values, int[] counts, int current) {
+        int best = current;
+        int bestCount = -1;
+        for (int i = 0; i < values.length; i++) {
+            if (counts[i] > bestCount || (counts[i] == bestCount && Math.abs(values[i] - current) < Math.abs(best - current))) {
+                best = values[i];
+                bestCount = counts[i];
+            }
+        }
+        return best;
+    }
+
     /**
      * Listener called when the sliders are moved.
      */
@@ -153,6 +206,18 @@ public class AdjustTimezoneAndOffsetDialog extends ExtendedDialog {
          * @return an HTML textual description matching the new state after the change of values
          */
         String valuesChanged(GpxTimezone timezone, int minutes, int seconds);
+
+        /**
+         * Counts the photos matched for several seconds offsets at once, to search the best offset.
+         * This method is called in a worker thread, not in the event dispatch thread.
+         * @param timezone the timezone
+         * @param minutes the minutes offset
+         * @param seconds the seconds offsets, in tenths of seconds like the values of {@link #valuesChanged}
+         * @return the number of matched photos for each seconds offset, or {@code null} if not supported
+         */
+        default int[] countMatches(GpxTimezone timezone, int minutes, int[] seconds) {
+            return null;
+        }
     }
 
     /**
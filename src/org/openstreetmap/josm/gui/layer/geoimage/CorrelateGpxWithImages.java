@@ -68,6 +68,7 @@ import org.openstreetmap.josm.gui.layer.LayerManager.LayerRemoveEvent;
 import org.openstreetmap.josm.gui.layer.geoimage.AdjustTimezoneAndOffsetDialog.AdjustListener;
 import org.openstreetmap.josm.gui.layer.geoimage.SynchronizeTimeFromPhotoDialog.TimeZoneItem;
 import org.openstreetmap.josm.gui.layer.gpx.GpxDataHelper;
+import org.openstreetmap.josm.gui.util.GuiHelper;
 import org.openstreetmap.josm.gui.widgets.JosmComboBox;
 import org.openstreetmap.josm.gui.widgets.JosmComboBoxModel;
 import org.openstreetmap.josm.gui.widgets.JosmTextField;
@@ -817,28 +818,47 @@ public class CorrelateGpxWithImages extends AbstractAction implements ExpertMode
             final int dayOffset = offset.getDayOffset();
             final Pair<GpxTimezone, GpxTimeOffset> timezoneOffsetPair = offset.withoutDayOffset().splitOutTimezone();
 
-            // This is called whenever one of the sliders is moved.
-            // It calls the "match photos" code
-            AdjustListener listener = (tz, min, sec) -> {
-                timezone = tz;
+            AdjustListener listener = new AdjustListener() {
+                // This is called whenever one of the sliders is moved.
+                // It calls the "match photos" code
+                @Override
+                public String valuesChanged(GpxTimezone tz, int min, int sec) {
+                    timezone = tz;
 
-                delta = GpxTimeOffset.milliseconds(100L * sec
-                        + TimeUnit.MINUTES.toMillis(min)
-                        + TimeUnit.DAYS.toMillis(dayOffset));
+                    delta = GpxTimeOffset.milliseconds(100L * sec
+                            + TimeUnit.MINUTES.toMillis(min)
+                            + TimeUnit.DAYS.toMillis(dayOffset));
 
-                tfTimezone.getDocument().removeDocumentListener(statusBarUpdater);
-                tfOffset.getDocument().removeDocumentListener(statusBarUpdater);
+                    tfTimezone.getDocument().removeDocumentListener(statusBarUpdater);
+                    tfOffset.getDocument().removeDocumentListener(statusBarUpdater);
 
-                tfTimezone.setText(timezone.formatTimezone());
-                tfOffset.setText(delta.formatOffset());
+                    tfTimezone.setText(timezone.formatTimezone());
+                    tfOffset.setText(delta.formatOffset());
 
-                tfTimezone.getDocument().addDocumentListener(statusBarUpdater);
-                tfOffset.getDocument().addDocumentListener(statusBarUpdater);
+                    tfTimezone.getDocument().addDocumentListener(statusBarUpdater);
+                    tfOffset.getDocument().addDocumentListener(statusBarUpdater);
 
-                statusBarUpdater.matchAndUpdateStatusBar();
-                yLayer.updateBufferAndRepaint();
+                    statusBarUpdater.matchAndUpdateStatusBar();
+                    yLayer.updateBufferAndRepaint();
+
+                    return statusBarText.getText();
+                }
 
-                return statusBarText.getText();
+                @Override
+                public int[] countMatches(GpxTimezone tz, int min, int[] seconds) {
+                    // called in a worker thread, the selection is read in the EDT
+                    GpxDataWrapper selGpx = GuiHelper.runInEDTAndWaitAndReturn(() -> selectedGPX(false));
+                    if (selGpx == null) {
+                        return null;
+                    }
+                    final long timezoneMs = (long) (tz.getHours() * TimeUnit.HOURS.toMillis(1));
+                    long[] offsets = new long[seconds.length];
+                    for (int i = 0; i < seconds.length; i++) {
+                        offsets[i] = timezoneMs + 100L * seconds[i] + TimeUnit.MINUTES.toMillis(min) + TimeUnit.DAYS.toMillis(dayOffset);
+                    }
+                    List<ImageEntry> images = GuiHelper.runInEDTAndWaitAndReturn(CorrelateGpxWithImages.this::getSortedImgList);
+                    return GpxImageCorrelation.countMatches(images, selGpx.data, forceTags, offsets);
+                }
             };
 
             // There is no way to cancel this dialog, all changes get applied
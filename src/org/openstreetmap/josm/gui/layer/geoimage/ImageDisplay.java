@@ -70,6 +70,9 @@ public class ImageDisplay extends JComponent implements Destroyable, PreferenceC
     /** The image currently displayed after applying {@link #imageProcessor} */
     private transient BufferedImage processedImage;
 
+    /** Loads the details of the image file missing in {@link #image} when zooming in, may be {@code null} */
+    private transient ImageRegionLoader regionLoader;
+
     /**
      * Process the image before it is being displayed
      */
@@ -111,6 +114,10 @@ public class ImageDisplay extends JComponent implements Destroyable, PreferenceC
     private static final IntegerProperty MAX_WIDTH =
         new IntegerProperty("geoimage.maximum-width", 6000);
 
+    /** Decode the visible region of images larger than {@link #MAX_WIDTH} when zooming in **/
+    private static final BooleanProperty REGION_DECODING =
+        new BooleanProperty("geoimage.region-decoding", true);
+
     /** Show a background for the error text (may be hard on eyes) */
     private static final BooleanProperty ERROR_MESSAGE_BACKGROUND = new BooleanProperty("geoimage.message.error.background", false);
 
@@ -296,6 +303,8 @@ public class ImageDisplay extends JComponent implements Destroyable, PreferenceC
                 int height = img.getHeight();
                 entry.setWidth(width);
                 entry.setHeight(height);
+                ImageRegionLoader loader = Boolean.TRUE.equals(REGION_DECODING.get())
+                        ? ImageRegionLoader.create(entry, img, imageProcessor, ImageDisplay.this::repaint) : null;
 
                 synchronized (ImageDisplay.this) {
                     if (this.entry != ImageDisplay.this.entry) {
@@ -304,6 +313,7 @@ public class ImageDisplay extends JComponent implements Destroyable, PreferenceC
                     }
 
                     ImageDisplay.this.image = img;
+                    ImageDisplay.this.regionLoader = loader;
                     updateProcessedImage();
                     // This will clear the loading info box
                     ImageDisplay.this.oldEntry = ImageDisplay.this.entry;
@@ -648,6 +658,7 @@ public class ImageDisplay extends JComponent implements Destroyable, PreferenceC
         synchronized (this) {
             this.oldEntry = this.entry;
             this.entry = entry;
+            this.regionLoader = null;
             if (entry == null) {
                 image = null;
                 updateProcessedImage();
@@ -692,6 +703,10 @@ public class ImageDisplay extends JComponent implements Destroyable, PreferenceC
 
     private void updateProcessedImage() {
         processedImage = image == null ? null : imageProcessor.process(image);
+        ImageRegionLoader loader = regionLoader;
+        if (loader != null) {
+            loader.invalidate();
+        }
         GuiHelper.runInEDT(this::repaint);
     }
 
@@ -703,10 +718,12 @@ public class ImageDisplay extends JComponent implements Destroyable, PreferenceC
         IImageEntry<?> currentOldEntry;
         IImageViewer currentImageViewer;
         BufferedImage currentImage;
+        ImageRegionLoader currentRegionLoader;
         boolean currentErrorLoading;
 
         synchronized (this) {
             currentImage = this.processedImage;
+            currentRegionLoader = this.regionLoader;
             currentEntry = this.entry;
             currentOldEntry = this.oldEntry;
             currentErrorLoading = this.errorLoading;
@@ -730,6 +747,9 @@ public class ImageDisplay extends JComponent implements Destroyable, PreferenceC
             Rectangle target = calculateDrawImageRectangle(currentVisibleRect, size);
 
             currentImageViewer.paintImage(g, currentImage, target, r);
+            if (currentRegionLoader != null) {
+                currentRegionLoader.paint(g, target, r, currentImage.getWidth(), currentImage.getHeight());
+            }
             paintSelectedRect(g, target, currentVisibleRect, size);
             if (currentErrorLoading && currentEntry != null) {
                 String loadingStr = tr("Error on file {0}", currentEntry.getDisplayName());
@@ -0,0 +1,379 @@
+// License: GPL. For details, see LICENSE file.
+package org.openstreetmap.josm.gui.layer.geoimage;
+
+import java.awt.Dimension;
+import java.awt.Graphics;
+import java.awt.Rectangle;
+import java.awt.image.BufferedImage;
+import java.awt.image.ColorModel;
+import java.io.File;
+import java.io.IOException;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReadParam;
+import javax.imageio.ImageReader;
+import javax.imageio.stream.ImageInputStream;
+
+import org.openstreetmap.josm.data.imagery.street_level.IImageEntry;
+import org.openstreetmap.josm.data.imagery.street_level.Projections;
+import org.openstreetmap.josm.data.preferences.IntegerProperty;
+import org.openstreetmap.josm.tools.ExifReader;
+import org.openstreetmap.josm.tools.ImageProcessor;
+import org.openstreetmap.josm.tools.Logging;
+import org.openstreetmap.josm.tools.Utils;
+
+/**
+ * Loads the details of an image which is larger than the image displayed by {@link ImageDisplay}.
+ * <p>
+ * When the view is zoomed in beyond the resolution of the displayed image, only the visible region of the image file
+ * is decoded, at the resolution needed for the zoom, with {@link ImageReadParam#setSourceRegion} and
+ * {@link ImageReadParam#setSourceSubsampling}. The regions are split in tiles of {@link #TILE_SIZE} pixels,
+ * which are kept in a small LRU cache. The tiles are drawn over the displayed image as soon as they are decoded,
+ * after the coarser tiles already in the cache.
+ */
+final class ImageRegionLoader {
+
+    /** The size of the tiles, in pixels of the subsampled image */
+    static final int TILE_SIZE = 512;
+
+    /** The maximum number of pixels of the cached tiles, in megapixels */
+    private static final IntegerProperty CACHE_SIZE = new IntegerProperty("geoimage.region-cache-megapixels", 16);
+
+    private static final ExecutorService EXECUTOR =
+            Executors.newSingleThreadExecutor(Utils.newThreadFactory("image-region-loader-%d", Thread.NORM_PRIORITY));
+
+    private final File file;
+    private final Dimension sourceSize;
+    private final ImageProcessor imageProcessor;
+    private final Runnable whenLoaded;
+
+    /** The decoded tiles, least recently used first */
+    private final Map<Tile, BufferedImage> tiles = new LinkedHashMap<>(16, 0.75f, true);
+    private long cachedPixels;
+    /** The tiles being decoded */
+    private final Set<Tile> pending = new HashSet<>();
+    /** The tiles needed for the last paint */
+    private volatile Set<Tile> wanted = Collections.emptySet();
+    /** Incremented when the cached tiles are dropped, to drop the tiles being decoded too */
+    private int generation;
+    private volatile boolean failed;
+
+    /**
+     * A tile of the image subsampled by a power of two.
+     */
+    private static final class Tile {
+        private final int subsampling;
+        private final int col;
+        private final int row;
+
+        Tile(int subsampling, int col, int row) {
+            this.subsampling = subsampling;
+            this.col = col;
+            this.row = row;
+        }
+
+        /**
+         * Returns the area of this tile in the image file.
+         */
+        Rectangle getSourceRegion(Dimension sourceSize) {
+            int size = TILE_SIZE * subsampling;
+            Rectangle region = new Rectangle(col * size, row * size, size, size);
+            return region.intersection(new Rectangle(sourceSize));
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(subsampling, col, row);
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (this == obj)
+                return true;
+            if (obj == null || getClass() != obj.getClass())
+                return false;
+            Tile other = (Tile) obj;
+            return subsampling == other.subsampling && col == other.col && row == other.row;
+        }
+    }
+
+    /**
+     * Constructs a new {@code ImageRegionLoader}.
+     * @param file the image file
+     * @param sourceSize the size of the image in the file
+     * @param imageProcessor the processor applied to the decoded tiles
+     * @param whenLoaded called in a background thread when tiles have been decoded
+     */
+    ImageRegionLoader(File file, Dimension sourceSize, ImageProcessor imageProcessor, Runnable whenLoaded) {
+        this.file = file;
+        this.sourceSize = sourceSize;
+        this.imageProcessor = imageProcessor;
+        this.whenLoaded = whenLoaded;
+    }
+
+    /**
+     * Creates a loader for the details of an image, if the image file is larger than the displayed image.
+     * Images which are rotated by their EXIF orientation and panoramic images are not supported.
+     * @param entry the image entry
+     * @param image the displayed image
+     * @param imageProcessor the processor applied to the decoded tiles
+     * @param whenLoaded called in a background thread when tiles have been decoded
+     * @return the loader, or {@code null} if the displayed image has all the details or if the image is not supported
+     */
+    static ImageRegionLoader create(IImageEntry<?> entry, BufferedImage image, ImageProcessor imageProcessor,
+            Runnable whenLoaded) {
+        File file = entry.getFile();
+        if (file == null || entry.getProjectionType() != Projections.PERSPECTIVE) {
+            return null;
+        }
+        if (entry instanceof ImageMetadata) {
+            Integer orientation = ((ImageMetadata) entry).getExifOrientation();
+            if (orientation != null && ExifReader.orientationNeedsCorrection(orientation)) {
+                return null;
+            }
+        }
+        try (ImageInputStream stream = ImageIO.createImageInputStream(file)) {
+            ImageReader reader = getReader(stream);
+            if (reader == null) {
+                return null;
+            }
+            try {
+                Dimension sourceSize = new Dimension(reader.getWidth(0), reader.getHeight(0));
+                if (sourceSize.width <= image.getWidth() && sourceSize.height <= image.getHeight()) {
+                    return null;
+                }
+                return new ImageRegionLoader(file, sourceSize, imageProcessor, whenLoaded);
+            } finally {
+                reader.dispose();
+            }
+        } catch (IOException e) {
+            Logging.debug(e);
+            return null;
+        }
+    }
+
+    private static ImageReader getReader(ImageInputStream stream) {
+        if (stream == null) {
+            return null;
+        }
+        Iterator<ImageReader> readers = ImageIO.getImageReaders(stream);
+        if (!readers.hasNext()) {
+            return null;
+        }
+        ImageReader reader = readers.next();
+        reader.setInput(stream, true, true);
+        return reader;
+    }
+
+    /**
+     * Returns the size of the image in the file.
+     * @return the size of the image in the file
+     */
+    Dimension getSourceSize() {
+        return new Dimension(sourceSize);
+    }
+
+    /**
+     * Drops the decoded tiles, e.g. when the image processor has changed.
+     */
+    synchronized void invalidate() {
+        tiles.clear();
+        cachedPixels = 0;
+        generation++;
+    }
+
+    /**
+     * Draws the details of the visible part of the image which are missing in the displayed image.
+     * The missing tiles are decoded in the background.
+     * @param g the graphics to draw on
+     * @param target the area where the image is drawn, in component coordinates
+     * @param r the visible part of the image, in coordinates of the displayed image
+     * @param imageWidth the width of the displayed image
+     * @param imageHeight the height of the displayed image
+     */
+    void paint(Graphics g, Rectangle target, Rectangle r, int imageWidth, int imageHeight) {
+        if (failed || target.isEmpty() || r.isEmpty()) {
+            return;
+        }
+        double fx = (double) sourceSize.width / imageWidth;
+        double fy = (double) sourceSize.height / imageHeight;
+        // the visible part of the image, in pixels of the image file
+        Rectangle visible = new Rectangle((int) Math.floor(r.x * fx), (int) Math.floor(r.y * fy),
+                (int) Math.ceil(r.width * fx), (int) Math.ceil(r.height * fy)).intersection(new Rectangle(sourceSize));
+        double pixelsPerScreenPixel = Math.min((double) r.width * fx / target.width, (double) r.height * fy / target.height);
+        int subsampling = Integer.highestOneBit(Math.max(1, (int) pixelsPerScreenPixel));
+        if (visible.isEmpty() || subsampling >= Math.min(fx, fy)) {
+            // the displayed image has enough pixels
+            wanted = Collections.emptySet();
+            return;
+        }
+
+        double scaleX = target.width / (r.width * fx);
+        double scaleY = target.height / (r.height * fy);
+        double originX = r.x * fx;
+        double originY = r.y * fy;
+        Set<Tile> needed = getTiles(subsampling, visible);
+        Set<Tile> missing = new LinkedHashSet<>();
+        Graphics clipped = g.create();
+        try {
+            clipped.clipRect(target.x, target.y, target.width, target.height);
+            synchronized (this) {
+                // coarser tiles first, until the finer ones are decoded
+                for (int s = Integer.highestOneBit((int) Math.min(fx, fy)); s > subsampling; s /= 2) {
+                    for (Tile tile : getTiles(s, visible)) {
+                        BufferedImage image = tiles.get(tile);
+                        if (image != null) {
+                            draw(clipped, tile, image, target, originX, originY, scaleX, scaleY);
+                        }
+                    }
+                }
+                for (Tile tile : needed) {
+                    BufferedImage image = tiles.get(tile);
+                    if (image != null) {
+                        draw(clipped, tile, image, target, originX, originY, scaleX, scaleY);
+                    } else if (!pending.contains(tile)) {
+                        missing.add(tile);
+                    }
+                }
+                pending.addAll(missing);
+            }
+        } finally {
+            clipped.dispose();
+        }
+        wanted = needed;
+        if (!missing.isEmpty()) {
+            int currentGeneration;
+            synchronized (this) {
+                currentGeneration = generation;
+            }
+            EXECUTOR.submit(() -> load(missing, subsampling, currentGeneration));
+        }
+    }
+
+    /**
+     * Returns the tiles of the image subsampled by {@code subsampling} which cover an area of the image file.
+     */
+    private Set<Tile> getTiles(int subsampling, Rectangle area) {
+        int size = TILE_SIZE * subsampling;
+        Set<Tile> result = new LinkedHashSet<>();
+        for (int row = area.y / size; row <= (area.y + area.height - 1) / size; row++) {
+            for (int col = area.x / size; col <= (area.x + area.width - 1) / size; col++) {
+                result.add(new Tile(subsampling, col, row));
+            }
+        }
+        return result;
+    }
+
+    private void draw(Graphics g, Tile tile, BufferedImage image, Rectangle target, double originX, double originY,
+            double scaleX, double scaleY) {
+        Rectangle region = tile.getSourceRegion(sourceSize);
+        int x1 = target.x + (int) Math.round((region.x - originX) * scaleX);
+        int y1 = target.y + (int) Math.round((region.y - originY) * scaleY);
+        int x2 = target.x + (int) Math.round((region.x + region.width - originX) * scaleX);
+        int y2 = target.y + (int) Math.round((region.y + region.height - originY) * scaleY);
+        g.drawImage(image, x1, y1, x2, y2, 0, 0, image.getWidth(), image.getHeight(), null);
+    }
+
+    /**
+     * Decodes tiles which are still needed, with a single read of the region of the image file covering them.
+     */
+    private void load(Set<Tile> batch, int subsampling, int batchGeneration) {
+        try {
+            Set<Tile> needed = new LinkedHashSet<>(batch);
+            needed.retainAll(wanted);
+            if (needed.isEmpty()) {
+                return;
+            }
+            Rectangle region = null;
+            for (Tile tile : needed) {
+                Rectangle tileRegion = tile.getSourceRegion(sourceSize);
+                region = region == null ? tileRegion : region.union(tileRegion);
+            }
+            BufferedImage decoded = decode(region, subsampling);
+            if (decoded == null) {
+                failed = true;
+                return;
+            }
+            decoded = imageProcessor.process(decoded);
+            int size = TILE_SIZE * subsampling;
+            synchronized (this) {
+                if (batchGeneration != generation) {
+                    return;
+                }
+                for (Tile tile : needed) {
+                    Rectangle tileRegion = tile.getSourceRegion(sourceSize);
+                    int x = (tileRegion.x - region.x) / size * TILE_SIZE;
+                    int y = (tileRegion.y - region.y) / size * TILE_SIZE;
+                    int width = Math.min(TILE_SIZE, decoded.getWidth() - x);
+                    int height = Math.min(TILE_SIZE, decoded.getHeight() - y);
+                    if (width > 0 && height > 0) {
+                        put(tile, copy(decoded, x, y, width, height));
+                    }
+                }
+            }
+            whenLoaded.run();
+        } catch (IOException | RuntimeException e) {
+            Logging.warn(e);
+            failed = true;
+        } finally {
+            synchronized (this) {
+                pending.removeAll(batch);
+            }
+        }
+    }
+
+    private BufferedImage decode(Rectangle region, int subsampling) throws IOException {
+        try (ImageInputStream stream = ImageIO.createImageInputStream(file)) {
+            ImageReader reader = getReader(stream);
+            if (reader == null) {
+                return null;
+            }
+            try {
+                ImageReadParam param = reader.getDefaultReadParam();
+                param.setSourceRegion(region);
+                param.setSourceSubsampling(subsampling, subsampling, 0, 0);
+                return reader.read(0, param);
+            } finally {
+                reader.dispose();
+            }
+        }
+    }
+
+    /**
+     * Copies a part of an image, so that the whole image can be garbage collected.
+     */
+    private static BufferedImage copy(BufferedImage image, int x, int y, int width, int height) {
+        ColorModel colorModel = image.getColorModel();
+        BufferedImage copy = new BufferedImage(colorModel, image.getRaster().createCompatibleWritableRaster(width, height),
+                colorModel.isAlphaPremultiplied(), null);
+        copy.setData(image.getRaster().createChild(x, y, width, height, 0, 0, null));
+        return copy;
+    }
+
+    private void put(Tile tile, BufferedImage image) {
+        BufferedImage previous = tiles.put(tile, image);
+        if (previous != null) {
+            cachedPixels -= (long) previous.getWidth() * previous.getHeight();
+        }
+        cachedPixels += (long) image.getWidth() * image.getHeight();
+        long maxPixels = CACHE_SIZE.get() * 1_000_000L;
+        Iterator<BufferedImage> it = tiles.values().iterator();
+        while (cachedPixels > maxPixels && tiles.size() > 1 && it.hasNext()) {
+            BufferedImage eldest = it.next();
+            if (eldest != image) {
+                cachedPixels -= (long) eldest.getWidth() * eldest.getHeight();
+                it.remove();
+            }
+        }
+    }
+}
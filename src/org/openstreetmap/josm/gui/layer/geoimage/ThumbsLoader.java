@@ -2,38 +2,65 @@
 package org.openstreetmap.josm.gui.layer.geoimage;
 
 import java.awt.Dimension;
+import java.awt.RenderingHints;
 import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
 import java.io.File;
 import java.io.IOException;
 import java.io.UncheckedIOException;
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Comparator;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import javax.imageio.ImageIO;
 
 import org.apache.commons.jcs3.access.behavior.ICacheAccess;
 import org.apache.commons.jcs3.engine.behavior.ICache;
 import org.openstreetmap.josm.data.cache.BufferedImageCacheEntry;
 import org.openstreetmap.josm.data.cache.JCSCacheManager;
 import org.openstreetmap.josm.gui.MainApplication;
+import org.openstreetmap.josm.gui.MapViewState;
+import org.openstreetmap.josm.gui.MapViewState.MapViewPoint;
 import org.openstreetmap.josm.spi.preferences.Config;
+import org.openstreetmap.josm.tools.ExifReader;
+import org.openstreetmap.josm.tools.ImageProvider;
 import org.openstreetmap.josm.tools.Logging;
 import org.openstreetmap.josm.tools.Stopwatch;
+import org.openstreetmap.josm.tools.Utils;
 
 /**
  * Loads thumbnail previews for a list of images from a {@link GeoImageLayer}.
  *
  * Thumbnails are loaded in the background and cached on disk for the next session.
+ * The thumbnail embedded in the EXIF data is used when it is large enough, otherwise the image is decoded with
+ * subsampling. Several images are loaded in parallel, the images visible in the map view first.
  */
 public class ThumbsLoader implements Runnable {
     public static final int maxSize = 120;
     public static final int minSize = 22;
+
+    private static final int THREADS = Math.max(1, Config.getPref().getInt("geoimage.thumbnails.threads",
+            Math.min(4, Runtime.getRuntime().availableProcessors())));
+    private static final ExecutorService WORKERS =
+            Executors.newFixedThreadPool(THREADS, Utils.newThreadFactory("thumbnail-worker-%d", Thread.MIN_PRIORITY));
+
     public volatile boolean stop;
-    private final Collection<ImageEntry> data;
+    private final List<ImageEntry> data;
+    private int next;
+    private MapViewState sortedFor;
     private final GeoImageLayer layer;
     private ICacheAccess<String, BufferedImageCacheEntry> cache;
     private final boolean cacheOff = Config.getPref().getBoolean("geoimage.noThumbnailCache", false);
 
     private ThumbsLoader(Collection<ImageEntry> data, GeoImageLayer layer) {
-        this.data = data;
+        this.data = new ArrayList<>(data);
         this.layer = layer;
         initCache();
     }
@@ -43,7 +70,7 @@ public class ThumbsLoader implements Runnable {
      * @param layer geoimage layer
      */
     public ThumbsLoader(GeoImageLayer layer) {
-        this(new ArrayList<>(layer.getImageData().getImages()), layer);
+        this(layer.getImageData().getImages(), layer);
     }
 
     /**
@@ -66,12 +93,36 @@ public class ThumbsLoader implements Runnable {
 
     @Override
     public void run() {
-        int count = 0;
         Stopwatch stopwatch = Stopwatch.createStarted();
         Logging.debug("Loading {0} thumbnails", data.size());
-        for (ImageEntry entry : data) {
-            if (stop) return;
+        // the calling thread loads thumbnails too, so that a single thumbnail is loaded without switching threads
+        List<Future<?>> workers = new ArrayList<>();
+        for (int i = 1; i < Math.min(THREADS, data.size()); i++) {
+            workers.add(WORKERS.submit(this::loadThumbs));
+        }
+        loadThumbs();
+        for (Future<?> worker : workers) {
+            try {
+                worker.get();
+            } catch (InterruptedException e) {
+                Logging.trace(e);
+                stop = true;
+                Thread.currentThread().interrupt();
+            } catch (ExecutionException e) {
+                Logging.error(e);
+            }
+        }
+        if (stop) return;
+        Logging.debug("Loaded {0} thumbnails in {1}", data.size(), stopwatch);
+        if (layer != null) {
+            layer.thumbsLoaded();
+            layer.updateBufferAndRepaint();
+        }
+    }
 
+    private void loadThumbs() {
+        ImageEntry entry;
+        while (!stop && (entry = next()) != null) {
             // Do not load thumbnails that were loaded before.
             if (!entry.hasThumbnail()) {
                 entry.setThumbnail(loadThumb(entry));
@@ -80,13 +131,40 @@ public class ThumbsLoader implements Runnable {
                     layer.updateBufferAndRepaint();
                 }
             }
-            count++;
         }
-        Logging.debug("Loaded {0} thumbnails in {1}", count, stopwatch);
-        if (layer != null) {
-            layer.thumbsLoaded();
-            layer.updateBufferAndRepaint();
+    }
+
+    /**
+     * Returns the next image to load, the images visible in the map view first.
+     * The remaining images are sorted again when the map view is moved.
+     */
+    private synchronized ImageEntry next() {
+        if (next >= data.size()) {
+            return null;
+        }
+        if (layer != null && MainApplication.isDisplayingMapView()) {
+            MapViewState state = MainApplication.getMap().mapView.getState();
+            if (!state.equalsInWindow(sortedFor)) {
+                sortedFor = state;
+                sort(data.subList(next, data.size()), state);
+            }
         }
+        return data.get(next++);
+    }
+
+    /**
+     * Sorts the images by their visibility: images in the view first, nearest to its center first,
+     * and images without position last.
+     */
+    static void sort(List<ImageEntry> entries, MapViewState state) {
+        MapViewPoint center = state.getCenter();
+        Map<ImageEntry, MapViewPoint> points = new IdentityHashMap<>(entries.size());
+        for (ImageEntry entry : entries) {
+            points.put(entry, entry.getPos() != null ? state.getPointFor(entry.getPos()) : null);
+        }
+        entries.sort(Comparator.comparing(points::get, Comparator.nullsLast(
+                Comparator.comparing((MapViewPoint p) -> !p.isInView())
+                        .thenComparingDouble(p -> p.distanceToInViewSq(center)))));
     }
 
     private BufferedImage loadThumb(ImageEntry entry) {
@@ -104,13 +182,15 @@ public class ThumbsLoader implements Runnable {
             }
         }
 
-        BufferedImage img;
-        try {
-            img = entry.read(new Dimension(maxSize, maxSize));
-        } catch (IOException e) {
-            Logging.warn("Failed to load geoimage thumb");
-            Logging.warn(e);
-            return null;
+        BufferedImage img = readExifThumbnail(entry);
+        if (img == null) {
+            try {
+                img = entry.read(new Dimension(maxSize, maxSize));
+            } catch (IOException e) {
+                Logging.warn("Failed to load geoimage thumb");
+                Logging.warn(e);
+                return null;
+            }
         }
 
         if (img == null || img.getWidth() <= 0 || img.getHeight() <= 0) {
@@ -120,7 +200,7 @@ public class ThumbsLoader implements Runnable {
 
         if (!cacheOff && cache != null) {
             try {
-                cache.put(cacheIdent, BufferedImageCacheEntry.pngEncoded(img));
+                cache.put(cacheIdent, BufferedImageCacheEntry.jpegEncoded(img));
             } catch (UncheckedIOException e) {
                 Logging.warn("Failed to save geoimage thumb to cache");
                 Logging.warn(e);
@@ -129,4 +209,57 @@ public class ThumbsLoader implements Runnable {
 
         return img;
     }
+
+    /**
+     * Reads the thumbnail embedded in the EXIF data of the image, which is much faster than decoding the image.
+     * @param entry the image
+     * @return the thumbnail scaled to {@link #maxSize} and rotated, or {@code null} if the image has no thumbnail,
+     * or if it is too small or has black bars
+     */
+    private static BufferedImage readExifThumbnail(ImageEntry entry) {
+        if (entry.getFile() == null || !entry.getFile().isFile()) {
+            return null;
+        }
+        byte[] data = ExifReader.readThumbnail(entry.getFile());
+        if (data == null) {
+            return null;
+        }
+        BufferedImage thumb;
+        try {
+            thumb = ImageIO.read(new ByteArrayInputStream(data));
+        } catch (IOException e) {
+            Logging.debug(e);
+            return null;
+        }
+        return thumb == null ? null : scaleExifThumbnail(thumb, entry);
+    }
+
+    /**
+     * Scales and rotates the thumbnail embedded in the EXIF data of the image.
+     * @param thumb the thumbnail, as stored in the EXIF data
+     * @param entry the image
+     * @return the thumbnail scaled to {@link #maxSize} and rotated, or {@code null} if it is too small or has black bars
+     */
+    static BufferedImage scaleExifThumbnail(BufferedImage thumb, ImageEntry entry) {
+        if (Math.max(thumb.getWidth(), thumb.getHeight()) < maxSize) {
+            return null;
+        }
+        // cameras often store 4:3 thumbnails with black bars for images of another aspect ratio.
+        // The size of the entry is the stored size until the image is displayed, then the rotated size, so the
+        // aspect ratios are compared independently of the orientation.
+        if (entry.getWidth() > 0 && entry.getHeight() > 0 && Math.abs(aspectRatio(thumb.getWidth(), thumb.getHeight())
+                - aspectRatio(entry.getWidth(), entry.getHeight())) > 0.02) {
+            return null;
+        }
+        double scale = (double) maxSize / Math.max(thumb.getWidth(), thumb.getHeight());
+        if (scale < 1) {
+            thumb = ImageProvider.createScaledImage(thumb, Math.max(1, (int) Math.round(thumb.getWidth() * scale)),
+                    Math.max(1, (int) Math.round(thumb.getHeight() * scale)), RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+        }
+        return ImageUtils.applyExifRotation(thumb, entry.getExifOrientation());
+    }
+
+    private static double aspectRatio(int width, int height) {
+        return (double) Math.max(width, height) / Math.min(width, height);
+    }
 }
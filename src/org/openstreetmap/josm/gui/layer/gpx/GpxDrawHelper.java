@@ -16,6 +16,7 @@ import java.awt.Point;
 import java.awt.Rectangle;
 import java.awt.RenderingHints;
 import java.awt.Stroke;
+import java.awt.geom.Path2D;
 import java.awt.image.BufferedImage;
 import java.awt.image.DataBufferInt;
 import java.awt.image.Raster;
@@ -25,8 +26,10 @@ import java.time.Instant;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
+import java.util.IdentityHashMap;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
 import java.util.Random;
 
@@ -40,8 +43,12 @@ import org.openstreetmap.josm.data.gpx.GpxConstants;
 import org.openstreetmap.josm.data.gpx.GpxData;
 import org.openstreetmap.josm.data.gpx.GpxData.GpxDataChangeEvent;
 import org.openstreetmap.josm.data.gpx.GpxData.GpxDataChangeListener;
+import org.openstreetmap.josm.data.gpx.GpxDataIndex;
+import org.openstreetmap.josm.data.gpx.GpxSimplification;
+import org.openstreetmap.josm.data.gpx.IGpxTrackSegment;
 import org.openstreetmap.josm.data.gpx.Line;
 import org.openstreetmap.josm.data.gpx.WayPoint;
+import org.openstreetmap.josm.data.preferences.DoubleProperty;
 import org.openstreetmap.josm.data.preferences.NamedColorProperty;
 import org.openstreetmap.josm.gui.MapView;
 import org.openstreetmap.josm.gui.MapViewState;
@@ -52,6 +59,7 @@ import org.openstreetmap.josm.gui.layer.MapViewPaintable.MapViewEvent;
 import org.openstreetmap.josm.gui.layer.MapViewPaintable.PaintableInvalidationEvent;
 import org.openstreetmap.josm.gui.layer.MapViewPaintable.PaintableInvalidationListener;
 import org.openstreetmap.josm.gui.preferences.display.GPXSettingsPanel;
+import org.openstreetmap.josm.gui.util.GuiHelper;
 import org.openstreetmap.josm.io.CachedFile;
 import org.openstreetmap.josm.spi.preferences.Config;
 import org.openstreetmap.josm.tools.ColorScale;
@@ -103,6 +111,12 @@ public class GpxDrawHelper implements SoMChangeListener, MapViewPaintable.LayerP
 
     private static final double PHI = Utils.toRadians(15);
 
+    /** lines with at least this number of points are culled using the {@link GpxDataIndex} */
+    private static final int INDEXED_LINE_MIN_POINTS = 256;
+
+    /** points nearer than this number of pixels to the simplified lines are not drawn, see {@link GpxSimplification} */
+    private static final DoubleProperty SIMPLIFICATION_TOLERANCE = new DoubleProperty("draw.rawgps.simplification.tolerance", 0.5);
+
     //// Variables used only to check cache validity
     private boolean computeCacheInSync;
     private int computeCacheMaxLineLengthUsed;
@@ -164,18 +178,17 @@ public class GpxDrawHelper implements SoMChangeListener, MapViewPaintable.LayerP
     // do not draw elements with value lower than this limit
     private int heatMapDrawLowerLimit;
 
-    // normal buffered image and draw object (cached)
-    private BufferedImage heatMapImgGray;
-    private Graphics2D heatMapGraph2d;
+    // gray scale image drawn in tiles (cached)
+    private final HeatMapRaster heatMapRaster = new HeatMapRaster();
+
+    // colored image mapped from the gray scale image (cached)
+    private BufferedImage heatMapImgColor;
+    private boolean heatMapImgColorValid;
 
     // some cached values
-    Rectangle heatMapCacheScreenBounds = new Rectangle();
-    MapViewState heatMapMapViewState;
     int heatMapCacheLineWith;
-
-    // copied value for line drawing
-    private final List<Integer> heatMapPolyX = new ArrayList<>();
-    private final List<Integer> heatMapPolyY = new ArrayList<>();
+    private int heatMapCacheSampleRaster;
+    private int heatMapCacheOutlineWidth;
 
     // setup color maps used by heat map
     private static final Color[] heatMapLutColorJosmInferno = createColorFromResource("inferno");
@@ -412,9 +425,9 @@ public class GpxDrawHelper implements SoMChangeListener, MapViewPaintable.LayerP
     @Override
     public void paint(MapViewGraphics graphics) {
         Bounds clipBounds = graphics.getClipBounds().getLatLonBoundsBox();
-        List<WayPoint> visibleSegments = listVisibleSegments(clipBounds);
+        readPreferences();
+        List<WayPoint> visibleSegments = listVisibleSegments(clipBounds, getSimplificationTolerance(graphics.getMapView()));
         if (!visibleSegments.isEmpty()) {
-            readPreferences();
             drawAll(graphics.getDefaultGraphics(), graphics.getMapView(), visibleSegments, clipBounds);
             if (graphics.getMapView().getLayerManager().getActiveLayer() == layer) {
                 drawColorBar(graphics.getDefaultGraphics(), graphics.getMapView());
@@ -422,37 +435,141 @@ public class GpxDrawHelper implements SoMChangeListener, MapViewPaintable.LayerP
         }
     }
 
-    private List<WayPoint> listVisibleSegments(Bounds box) {
+    /**
+     * Returns the tolerance for leaving out points of the tracks which are not needed to draw the lines.
+     * Points are only left out when lines are drawn without large points or hdop circles.
+     * @param mv the map view
+     * @return the tolerance in east/north units, or 0 to draw all points
+     */
+    private double getSimplificationTolerance(MapView mv) {
+        double pixels = SIMPLIFICATION_TOLERANCE.get();
+        return lines && !large && !hdopCircle && pixels > 0 ? pixels * mv.getScale() : 0;
+    }
+
+    private List<WayPoint> listVisibleSegments(Bounds box, double tolerance) {
         WayPoint last = null;
         LinkedList<WayPoint> visibleSegments = new LinkedList<>();
+        Map<IGpxTrackSegment, List<GpxDataIndex.Part>> visibleParts = null;
+        GpxSimplification simplification = tolerance > 0
+                ? data.getSimplification(() -> GuiHelper.runInEDT(layer::invalidate)) : null;
 
         ensureTrackVisibilityLength();
         for (Line segment : getLinesIterable(layer.trackVisibility)) {
-
-            for (WayPoint pt : segment) {
-                Bounds b = new Bounds(pt.getCoor());
-                if (pt.drawLine && last != null) {
-                    b.extend(last.getCoor());
-                }
-                if (b.intersects(box)) {
-                    if (last != null && (visibleSegments.isEmpty()
-                            || visibleSegments.getLast() != last)) {
-                        if (last.drawLine) {
-                            WayPoint l = new WayPoint(last);
-                            l.drawLine = false;
-                            visibleSegments.add(l);
-                        } else {
-                            visibleSegments.add(last);
+            IGpxTrackSegment trackSegment = segment.getSegment();
+            float[] tolerances = simplification != null && trackSegment != null
+                    ? simplification.getTolerances(trackSegment) : null;
+            if (tolerances != null && tolerances.length != segment.size()) {
+                tolerances = null;
+            }
+            if (trackSegment != null && segment.size() >= INDEXED_LINE_MIN_POINTS) {
+                // only look at the parts of long segments near the view
+                GpxDataIndex index = data.getIndex();
+                if (index.contains(trackSegment)) {
+                    if (visibleParts == null) {
+                        visibleParts = new IdentityHashMap<>();
+                        for (GpxDataIndex.Part part : index.search(box)) {
+                            visibleParts.computeIfAbsent(part.getSegment(), k -> new ArrayList<>()).add(part);
                         }
                     }
-                    visibleSegments.add(pt);
+                    last = addVisibleParts(visibleSegments, box, GpxDataIndex.getWayPoints(trackSegment),
+                            visibleParts.getOrDefault(trackSegment, Collections.emptyList()), last, tolerances, tolerance);
+                    continue;
+                }
+            }
+            // point left out by the simplification, needed if the next point starts a new line
+            WayPoint skipped = null;
+            int i = 0;
+            for (WayPoint pt : segment) {
+                if (tolerances != null && pt.drawLine && tolerances[i] <= tolerance) {
+                    skipped = pt;
+                } else {
+                    if (skipped != null && !pt.drawLine) {
+                        addIfVisible(visibleSegments, box, skipped, last);
+                        last = skipped;
+                    }
+                    skipped = null;
+                    addIfVisible(visibleSegments, box, pt, last);
+                    last = pt;
                 }
-                last = pt;
+                i++;
             }
         }
         return visibleSegments;
     }
 
+    private static WayPoint addVisibleParts(LinkedList<WayPoint> visibleSegments, Bounds box, List<WayPoint> wpts,
+            List<GpxDataIndex.Part> parts, WayPoint last, float[] tolerances, double tolerance) {
+        WayPoint pt = last;
+        // point left out by the simplification, needed if the next point starts a new line or is not visible
+        WayPoint skipped = null;
+        int next = 0;
+        for (GpxDataIndex.Part part : parts) {
+            // consecutive parts share a point
+            int from = Math.max(next, part.getFromIndex());
+            if (from > next) {
+                if (skipped != null) {
+                    addIfVisible(visibleSegments, box, skipped, pt);
+                    skipped = null;
+                }
+                pt = wpts.get(from - 1);
+            }
+            for (int i = from; i <= part.getToIndex(); i++) {
+                WayPoint wpt = wpts.get(i);
+                if (tolerances != null && wpt.drawLine && tolerances[i] <= tolerance) {
+                    skipped = wpt;
+                    continue;
+                }
+                if (skipped != null && !wpt.drawLine) {
+                    addIfVisible(visibleSegments, box, skipped, pt);
+                    pt = skipped;
+                }
+                skipped = null;
+                WayPoint previous = pt;
+                pt = wpt;
+                addIfVisible(visibleSegments, box, pt, previous);
+            }
+            next = part.getToIndex() + 1;
+        }
+        if (skipped != null) {
+            addIfVisible(visibleSegments, box, skipped, pt);
+        }
+        return next == wpts.size() ? pt : wpts.get(wpts.size() - 1);
+    }
+
+    private static void addIfVisible(LinkedList<WayPoint> visibleSegments, Bounds box, WayPoint pt, WayPoint last) {
+        boolean withLine = pt.drawLine && last != null;
+        double minLat = withLine ? Math.min(pt.lat(), last.lat()) : pt.lat();
+        double maxLat = withLine ? Math.max(pt.lat(), last.lat()) : pt.lat();
+        double minLon = withLine ? Math.min(pt.lon(), last.lon()) : pt.lon();
+        double maxLon = withLine ? Math.max(pt.lon(), last.lon()) : pt.lon();
+        if (intersects(box, minLat, minLon, maxLat, maxLon)) {
+            if (last != null && (visibleSegments.isEmpty()
+                    || visibleSegments.getLast() != last)) {
+                if (last.drawLine) {
+                    WayPoint l = new WayPoint(last);
+                    l.drawLine = false;
+                    visibleSegments.add(l);
+                } else {
+                    visibleSegments.add(last);
+                }
+            }
+            visibleSegments.add(pt);
+        }
+    }
+
+    /**
+     * Same as {@link Bounds#intersects(Bounds)} for bounds not crossing the 180th meridian, without creating them.
+     */
+    private static boolean intersects(Bounds box, double minLat, double minLon, double maxLat, double maxLon) {
+        if (maxLat < box.getMinLat() || minLat > box.getMaxLat()) {
+            return false;
+        }
+        if (box.crosses180thMeridian()) {
+            return minLon <= box.getMaxLon() || maxLon >= box.getMinLon();
+        }
+        return maxLon >= box.getMinLon() && minLon <= box.getMaxLon();
+    }
+
     protected Iterable<Line> getLinesIterable(final boolean[] trackVisibility) {
         return data.getLinesIterable(trackVisibility);
     }
@@ -491,7 +608,7 @@ public class GpxDrawHelper implements SoMChangeListener, MapViewPaintable.LayerP
             calculateColors();
             // update the WaiPoint.drawline attributes
             visibleSegments.clear();
-            visibleSegments.addAll(listVisibleSegments(clipBounds));
+            visibleSegments.addAll(listVisibleSegments(clipBounds, getSimplificationTolerance(mv)));
         }
 
         fixColors(visibleSegments);
@@ -738,7 +855,7 @@ public class GpxDrawHelper implements SoMChangeListener, MapViewPaintable.LayerP
                                              selectColorMap(neutralColor != null ? neutralColor : Color.WHITE, heatMapDrawColorTableIdx));
 
             // force redraw of image
-            heatMapMapViewState = null;
+            heatMapRaster.invalidate();
         }
 
         computeCacheInSync = true;
@@ -1217,59 +1334,75 @@ public class GpxDrawHelper implements SoMChangeListener, MapViewPaintable.LayerP
     }
 
     /**
-     * Draw gray heat map with current Graphics2D setting
-     * @param gB              the common draw object to use
+     * Collect the screen coordinates of the GPS segments for the heat map
      * @param mv              the meta data to current displayed area
      * @param listSegm        segments visible in the current scope of mv
+     * @return the lines, a new line is started at each point which is not connected to the previous point
+     */
+    private static HeatMapRaster.Lines getHeatMapLines(MapView mv, List<WayPoint> listSegm) {
+
+        final HeatMapRaster.Lines lines = new HeatMapRaster.Lines();
+
+        for (WayPoint trkPnt : listSegm) {
+
+            // end of line segment
+            if (!trkPnt.drawLine) {
+                lines.newLine();
+            }
+
+            // get transformed coordinates
+            final Point paintPnt = mv.getPoint(trkPnt);
+
+            // store only the integer part (make sense because pixel is 1:1 here)
+            lines.add(paintPnt.x, paintPnt.y);
+        }
+        lines.finish();
+        return lines;
+    }
+
+    /**
+     * Draw gray heat map of a tile with current Graphics2D setting
+     * @param gB              the draw object of the tile
+     * @param lines           lines visible in the current scope of mv
+     * @param tile            the area of the tile
+     * @param margin          maximum distance of drawn pixels to the lines
      * @param foreComp        composite use to draw foreground objects
      * @param foreStroke      stroke use to draw foreground objects
      * @param backComp        composite use to draw background objects
      * @param backStroke      stroke use to draw background objects
      */
-    private void drawHeatGrayLineMap(Graphics2D gB, MapView mv, List<WayPoint> listSegm,
+    private void drawHeatGrayLineMap(Graphics2D gB, HeatMapRaster.Lines lines, Rectangle tile, int margin,
                                      Composite foreComp, Stroke foreStroke,
                                      Composite backComp, Stroke backStroke) {
 
         // draw foreground
-        boolean drawForeground = foreComp != null && foreStroke != null;
+        boolean drawForeground = foreComp != null && foreStroke != null && heatMapDrawExtraLine;
+
+        // lines near to the tile may be drawn into it
+        final Rectangle area = new Rectangle(tile);
+        area.grow(margin, margin);
 
         // set initial values
         gB.setStroke(backStroke); gB.setComposite(backComp);
 
-        // get last point in list
-        final WayPoint lastPnt = !listSegm.isEmpty() ? listSegm.get(listSegm.size() - 1) : null;
-
-        // for all points, draw single lines by using optimized drawing
-        for (WayPoint trkPnt : listSegm) {
-
-            // get transformed coordinates
-            final Point paintPnt = mv.getPoint(trkPnt);
-
-            // end of line segment or end of list reached
-            if (!trkPnt.drawLine || (lastPnt == trkPnt)) {
+        // for all lines, draw the parts near to the tile
+        for (int i = 0; i < lines.getLineCount(); i++) {
 
-                // convert to primitive type
-                final int[] polyXArr = heatMapPolyX.stream().mapToInt(Integer::intValue).toArray();
-                final int[] polyYArr = heatMapPolyY.stream().mapToInt(Integer::intValue).toArray();
-
-                // a.) draw background
-                gB.drawPolyline(polyXArr, polyYArr, polyXArr.length);
+            final Path2D path = lines.getPath(i, area);
+            if (path == null) {
+                continue;
+            }
 
-                // b.) draw extra foreground
-                if (drawForeground && heatMapDrawExtraLine) {
+            // a.) draw background
+            gB.draw(path);
 
-                    gB.setStroke(foreStroke); gB.setComposite(foreComp);
-                    gB.drawPolyline(polyXArr, polyYArr, polyXArr.length);
-                    gB.setStroke(backStroke); gB.setComposite(backComp);
-                }
+            // b.) draw extra foreground
+            if (drawForeground) {
 
-                // drop used points
-                heatMapPolyX.clear(); heatMapPolyY.clear();
+                gB.setStroke(foreStroke); gB.setComposite(foreComp);
+                gB.draw(path);
+                gB.setStroke(backStroke); gB.setComposite(backComp);
             }
-
-            // store only the integer part (make sense because pixel is 1:1 here)
-            heatMapPolyX.add((int) paintPnt.getX());
-            heatMapPolyY.add((int) paintPnt.getY());
         }
     }
 
@@ -1369,6 +1502,9 @@ public class GpxDrawHelper implements SoMChangeListener, MapViewPaintable.LayerP
 
     /**
      * Collect and draw GPS segments and displays a heat-map
+     * <p>
+     * The gray image is drawn in tiles on a thread pool, and only the uncovered area is drawn when the map is moved.
+     * The colored image is cached until the gray image or the color map changes.
      * @param g               the common draw object to use
      * @param mv              the meta data to current displayed area
      * @param visibleSegments segments visible in the current scope of mv
@@ -1376,7 +1512,6 @@ public class GpxDrawHelper implements SoMChangeListener, MapViewPaintable.LayerP
     private void drawHeatMap(Graphics2D g, MapView mv, List<WayPoint> visibleSegments) {
 
         // get bounds of screen image and projection, zoom and adjust input parameters
-        final Rectangle screenBounds = new Rectangle(mv.getWidth(), mv.getHeight());
         final MapViewState mapViewState = mv.getState();
         final double zoomScale = mv.getDist100Pixel() / 50.0f;
 
@@ -1385,28 +1520,9 @@ public class GpxDrawHelper implements SoMChangeListener, MapViewPaintable.LayerP
 
         // 1st setup virtual paint area ----------------------------------------
 
-        // new image buffer needed
-        final boolean imageSetup = null == heatMapImgGray || !heatMapCacheScreenBounds.equals(screenBounds);
-
         // screen bounds changed, need new image buffer ?
-        if (imageSetup) {
-            // we would use a "pure" grayscale image, but there is not efficient way to map gray scale values to RGB)
-            heatMapImgGray = new BufferedImage(screenBounds.width, screenBounds.height, BufferedImage.TYPE_INT_ARGB);
-            heatMapGraph2d = heatMapImgGray.createGraphics();
-            heatMapGraph2d.setBackground(new Color(0, 0, 0, 255));
-            heatMapGraph2d.setColor(Color.WHITE);
-
-            // fast draw ( maybe help or not )
-            heatMapGraph2d.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_OFF);
-            heatMapGraph2d.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_SPEED);
-            heatMapGraph2d.setRenderingHint(RenderingHints.KEY_ALPHA_INTERPOLATION, RenderingHints.VALUE_ALPHA_INTERPOLATION_SPEED);
-            heatMapGraph2d.setRenderingHint(RenderingHints.KEY_DITHERING, RenderingHints.VALUE_DITHER_DISABLE);
-            heatMapGraph2d.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_NEAREST_NEIGHBOR);
-            heatMapGraph2d.setRenderingHint(RenderingHints.KEY_STROKE_CONTROL, RenderingHints.VALUE_STROKE_PURE);
-            heatMapGraph2d.setRenderingHint(RenderingHints.KEY_COLOR_RENDERING, RenderingHints.VALUE_COLOR_RENDER_SPEED);
-
-            // cache it
-            heatMapCacheScreenBounds = screenBounds;
+        if (heatMapRaster.setSize(mv.getWidth(), mv.getHeight())) {
+            heatMapImgColor = null;
         }
 
         // 2nd. determine current scale factors -------------------------------
@@ -1428,79 +1544,111 @@ public class GpxDrawHelper implements SoMChangeListener, MapViewPaintable.LayerP
 
         // 3rd Calculate the heat map data by draw GPX traces with alpha value ----------
 
-        // recalculation of image needed
-        final boolean imageRecalc = !mapViewState.equalsInWindow(heatMapMapViewState)
-                || gpxLayerInvalidated
-                || heatMapCacheLineWith != globalLineWidth;
+        // recalculation of whole image needed
+        if (gpxLayerInvalidated || heatMapCacheLineWith != globalLineWidth) {
+            heatMapRaster.invalidate();
+        }
 
         // need re-generation of gray image ?
-        if (imageSetup || imageRecalc) {
+        if (!heatMapRaster.isValidFor(mapViewState)) {
 
-            // clear background
-            heatMapGraph2d.clearRect(0, 0, heatMapImgGray.getWidth(), heatMapImgGray.getHeight());
+            final HeatMapRaster.Lines lines = getHeatMapLines(mv, visibleSegments);
 
             // point or line blending
             if (heatMapDrawPointMode) {
-                heatMapGraph2d.setComposite(AlphaComposite.SrcOver.derive(lineAlphaBPoint));
-                drawHeatGrayDotMap(heatMapGraph2d, mv, visibleSegments, lineWidthB);
+                final Composite pointComp = AlphaComposite.SrcOver.derive(lineAlphaBPoint);
+                final int drawSize = lineWidthB;
+
+                // typical rendering rate -> use realtime preview instead of accurate display
+                final double maxSegm = 25_000;
+                final double nrSegms = lines.getPointCount();
+
+                // determine random drop rate
+                final double randomDrop = Math.min(nrSegms > maxSegm ? (nrSegms - maxSegm) / nrSegms : 0, 0.70f);
+
+                // http://www.nstb.tc.faa.gov/reports/PAN94_0716.pdf#page=22
+                // Global Average Position Domain Accuracy, typical -> not worst case !
+                // < 4.218 m Vertical
+                // < 2.168 m Horizontal
+                final double pixelRmsX = (100 / mv.getDist100Pixel()) * 2.168;
+                final double pixelRmsY = (100 / mv.getDist100Pixel()) * 4.218;
+
+                heatMapRaster.accumulate(mapViewState, (gB, tile) -> {
+                    gB.setComposite(pointComp);
+                    drawHeatGrayDotMap(gB, lines, tile, drawSize, pixelRmsX, pixelRmsY, randomDrop);
+                });
 
             } else {
-                drawHeatGrayLineMap(heatMapGraph2d, mv, visibleSegments,
-                                    lineWidthF > 1 ? AlphaComposite.SrcOver.derive(lineAlphaFLine) : null,
-                                    new BasicStroke(lineWidthF, BasicStroke.CAP_ROUND, BasicStroke.JOIN_ROUND),
-                                    AlphaComposite.SrcOver.derive(lineAlphaBLine),
-                                    new BasicStroke(lineWidthB, BasicStroke.CAP_ROUND, BasicStroke.JOIN_ROUND));
+                final Composite foreComp = lineWidthF > 1 ? AlphaComposite.SrcOver.derive(lineAlphaFLine) : null;
+                final Stroke foreStroke = new BasicStroke(lineWidthF, BasicStroke.CAP_ROUND, BasicStroke.JOIN_ROUND);
+                final Composite backComp = AlphaComposite.SrcOver.derive(lineAlphaBLine);
+                final Stroke backStroke = new BasicStroke(lineWidthB, BasicStroke.CAP_ROUND, BasicStroke.JOIN_ROUND);
+                final int margin = Math.max(lineWidthB, lineWidthF) / 2 + 2;
+
+                heatMapRaster.accumulate(mapViewState, (gB, tile) ->
+                    drawHeatGrayLineMap(gB, lines, tile, margin, foreComp, foreStroke, backComp, backStroke));
             }
 
             // remember draw parameter
-            heatMapMapViewState = mapViewState;
             heatMapCacheLineWith = globalLineWidth;
             gpxLayerInvalidated = false;
+            heatMapImgColorValid = false;
         }
 
         // 4th. Draw data on target layer, map data via color lookup table --------------
-        drawHeatMapGrayMap(g, heatMapImgGray, lineWidthB > 2 ? (int) (lineWidthB*1.25f) : 1, lineWidth > 2 ? (lineWidth - 2) : 1);
+        final BufferedImage imgGray = heatMapRaster.getImage();
+        final int sampleRaster = lineWidthB > 2 ? (int) (lineWidthB*1.25f) : 1;
+        final int outlineWidth = lineWidth > 2 ? (lineWidth - 2) : 1;
+
+        // color mapping needed ?
+        if (null == heatMapImgColor || !heatMapImgColorValid
+                || heatMapCacheSampleRaster != sampleRaster || heatMapCacheOutlineWidth != outlineWidth) {
+
+            if (null == heatMapImgColor) {
+                heatMapImgColor = new BufferedImage(imgGray.getWidth(), imgGray.getHeight(), BufferedImage.TYPE_INT_ARGB);
+            }
+            final Graphics2D gC = heatMapImgColor.createGraphics();
+            try {
+                gC.setComposite(AlphaComposite.Clear);
+                gC.fillRect(0, 0, heatMapImgColor.getWidth(), heatMapImgColor.getHeight());
+                gC.setComposite(AlphaComposite.SrcOver);
+                drawHeatMapGrayMap(gC, imgGray, sampleRaster, outlineWidth);
+            } finally {
+                gC.dispose();
+            }
+
+            // remember draw parameter
+            heatMapCacheSampleRaster = sampleRaster;
+            heatMapCacheOutlineWidth = outlineWidth;
+            heatMapImgColorValid = true;
+        }
+
+        g.drawImage(heatMapImgColor, 0, 0, null);
     }
 
     /**
-     * Draw a dotted heat map
+     * Draw a dotted heat map of a tile
      *
-     * @param gB              the common draw object to use
-     * @param mv              the meta data to current displayed area
-     * @param listSegm        segments visible in the current scope of mv
+     * @param gB              the draw object of the tile
+     * @param lines           lines visible in the current scope of mv
+     * @param tile            the area of the tile
      * @param drawSize        draw size of draw element
+     * @param pixelRmsX       RMS size of circle for X (width)
+     * @param pixelRmsY       RMS size of circle for Y (height)
+     * @param randomDrop      Pixel render drop rate
      */
-    private static void drawHeatGrayDotMap(Graphics2D gB, MapView mv, List<WayPoint> listSegm, int drawSize) {
-
-        // typical rendering rate -> use realtime preview instead of accurate display
-        final double maxSegm = 25_000;
-        final double nrSegms = listSegm.size();
-
-        // determine random drop rate
-        final double randomDrop = Math.min(nrSegms > maxSegm ? (nrSegms - maxSegm) / nrSegms : 0, 0.70f);
-
-        // http://www.nstb.tc.faa.gov/reports/PAN94_0716.pdf#page=22
-        // Global Average Position Domain Accuracy, typical -> not worst case !
-        // < 4.218 m Vertical
-        // < 2.168 m Horizontal
-        final double pixelRmsX = (100 / mv.getDist100Pixel()) * 2.168;
-        final double pixelRmsY = (100 / mv.getDist100Pixel()) * 4.218;
-
-        Point lastPnt = null;
-
-        // for all points, draw single lines
-        for (WayPoint trkPnt : listSegm) {
-
-            // get transformed coordinates
-            final Point paintPnt = mv.getPoint(trkPnt);
-
-            // end of line segment or end of list reached
-            if (trkPnt.drawLine && null != lastPnt) {
-                drawHeatSurfaceLine(gB, paintPnt, lastPnt, drawSize, pixelRmsX, pixelRmsY, randomDrop);
-            }
-
-            // remember
-            lastPnt = paintPnt;
+    private static void drawHeatGrayDotMap(Graphics2D gB, HeatMapRaster.Lines lines, Rectangle tile, int drawSize,
+            double pixelRmsX, double pixelRmsY, double randomDrop) {
+
+        // points near to the tile may be drawn into it, the random distribution is practically within 8 RMS
+        final Rectangle area = new Rectangle(tile);
+        final int margin = drawSize + (int) Math.ceil(8 * Math.max(pixelRmsX, pixelRmsY)) + 1;
+        area.grow(margin, margin);
+
+        // for all lines, draw the parts near to the tile
+        for (int i = 0; i < lines.getLineCount(); i++) {
+            lines.forEachSegment(i, area, (paintPnt, lastPnt) ->
+                drawHeatSurfaceLine(gB, paintPnt, lastPnt, drawSize, pixelRmsX, pixelRmsY, randomDrop));
         }
     }
 
@@ -0,0 +1,412 @@
+// License: GPL. For details, see LICENSE file.
+package org.openstreetmap.josm.gui.layer.gpx;
+
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.Point;
+import java.awt.Rectangle;
+import java.awt.RenderingHints;
+import java.awt.geom.Path2D;
+import java.awt.image.BufferedImage;
+import java.awt.image.DataBufferInt;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+
+import org.openstreetmap.josm.gui.MapViewState;
+import org.openstreetmap.josm.gui.MapViewState.MapViewPoint;
+import org.openstreetmap.josm.tools.Logging;
+import org.openstreetmap.josm.tools.Utils;
+
+/**
+ * The gray scale image of a heat map, accumulated in tiles on a thread pool.
+ * <p>
+ * The image is split into square tiles. Each tile is drawn with its own {@link Graphics2D} clipped to the tile,
+ * so the tiles can be drawn in parallel. The elements of the heat map are drawn in the same order in each tile,
+ * which gives the same image as drawing them at once.
+ * <p>
+ * When the map view is only moved by whole pixels, the part of the image which is still visible is moved and only
+ * the tiles of the uncovered area are drawn.
+ */
+final class HeatMapRaster {
+
+    /** Width and height of a tile in pixels */
+    static final int TILE_SIZE = 256;
+
+    /** The background of the gray scale image, no heat */
+    private static final int BACKGROUND = 0xff000000;
+
+    private static final ForkJoinPool THREAD_POOL = newForkJoinPool();
+
+    private static ForkJoinPool newForkJoinPool() {
+        try {
+            return Utils.newForkJoinPool("draw.rawgps.heatmap.numberOfThreads", "gpx-heatmap-%d", Thread.NORM_PRIORITY);
+        } catch (SecurityException e) {
+            Logging.log(Logging.LEVEL_ERROR, "Unable to create new ForkJoinPool", e);
+            return null;
+        }
+    }
+
+    /**
+     * Draws the elements of the heat map into a tile.
+     */
+    @FunctionalInterface
+    interface TileRenderer {
+        /**
+         * Draws the elements of the heat map which intersect the tile.
+         * The graphics is set up for drawing in white with view coordinates and clipped to the tile.
+         * @param g the graphics of the tile
+         * @param tile the area of the tile in view coordinates
+         */
+        void draw(Graphics2D g, Rectangle tile);
+    }
+
+    /**
+     * The screen coordinates of polylines, with the bounds of chunks of consecutive points.
+     * This allows a tile to draw only the parts of long polylines which are near to it.
+     */
+    static final class Lines {
+        /** Maximum number of lines in a chunk */
+        static final int CHUNK_SIZE = 32;
+
+        private int[] xs = new int[1024];
+        private int[] ys = new int[1024];
+        private int size;
+        /** index of the first point of each polyline, the last entry is the number of points */
+        private int[] lineStarts = new int[64];
+        private int lineCount;
+        /** index of the first chunk of each polyline, the last entry is the number of chunks */
+        private int[] lineChunks;
+        /** first and last point of each chunk, inclusive */
+        private int[] chunkPoints;
+        /** minimum x, minimum y, maximum x and maximum y of each chunk */
+        private int[] chunkBounds;
+
+        /**
+         * Starts a new polyline.
+         */
+        void newLine() {
+            if (lineCount + 1 == lineStarts.length) {
+                lineStarts = Arrays.copyOf(lineStarts, lineStarts.length * 2);
+            }
+            lineStarts[lineCount++] = size;
+        }
+
+        /**
+         * Appends a point to the current polyline.
+         * @param x the x coordinate in the view
+         * @param y the y coordinate in the view
+         */
+        void add(int x, int y) {
+            if (lineCount == 0) {
+                newLine();
+            }
+            if (size == xs.length) {
+                xs = Arrays.copyOf(xs, size * 2);
+                ys = Arrays.copyOf(ys, size * 2);
+            }
+            xs[size] = x;
+            ys[size] = y;
+            size++;
+        }
+
+        /**
+         * Computes the bounds of the chunks, after all points were added.
+         */
+        void finish() {
+            lineStarts[lineCount] = size;
+            lineChunks = new int[lineCount + 1];
+            List<int[]> chunks = new ArrayList<>();
+            for (int line = 0; line < lineCount; line++) {
+                lineChunks[line] = chunks.size();
+                int last = lineStarts[line + 1] - 1;
+                for (int from = lineStarts[line]; from < last; from += CHUNK_SIZE) {
+                    chunks.add(new int[] {from, Math.min(from + CHUNK_SIZE, last)});
+                }
+            }
+            lineChunks[lineCount] = chunks.size();
+            chunkPoints = new int[chunks.size() * 2];
+            chunkBounds = new int[chunks.size() * 4];
+            for (int c = 0; c < chunks.size(); c++) {
+                int from = chunks.get(c)[0];
+                int to = chunks.get(c)[1];
+                chunkPoints[2 * c] = from;
+                chunkPoints[2 * c + 1] = to;
+                int minX = Integer.MAX_VALUE;
+                int minY = Integer.MAX_VALUE;
+                int maxX = Integer.MIN_VALUE;
+                int maxY = Integer.MIN_VALUE;
+                for (int i = from; i <= to; i++) {
+                    minX = Math.min(minX, xs[i]);
+                    minY = Math.min(minY, ys[i]);
+                    maxX = Math.max(maxX, xs[i]);
+                    maxY = Math.max(maxY, ys[i]);
+                }
+                chunkBounds[4 * c] = minX;
+                chunkBounds[4 * c + 1] = minY;
+                chunkBounds[4 * c + 2] = maxX;
+                chunkBounds[4 * c + 3] = maxY;
+            }
+        }
+
+        /**
+         * Returns the number of polylines.
+         * @return the number of polylines
+         */
+        int getLineCount() {
+            return lineCount;
+        }
+
+        /**
+         * Returns the total number of points.
+         * @return the number of points
+         */
+        int getPointCount() {
+            return size;
+        }
+
+        private boolean intersects(int chunk, Rectangle area) {
+            return chunkBounds[4 * chunk] <= area.x + area.width && chunkBounds[4 * chunk + 2] >= area.x
+                && chunkBounds[4 * chunk + 1] <= area.y + area.height && chunkBounds[4 * chunk + 3] >= area.y;
+        }
+
+        /**
+         * Returns the parts of a polyline near to an area. The parts are sub paths of one path, so that areas where
+         * the parts overlap are filled once when the path is drawn, as for the whole polyline.
+         * @param line the index of the polyline
+         * @param area the area, including the margin needed for the line width
+         * @return the parts of the polyline, or {@code null} if no part is near the area
+         */
+        Path2D getPath(int line, Rectangle area) {
+            Path2D path = null;
+            int lastTo = -1;
+            for (int c = lineChunks[line]; c < lineChunks[line + 1]; c++) {
+                if (intersects(c, area)) {
+                    int from = chunkPoints[2 * c];
+                    int to = chunkPoints[2 * c + 1];
+                    if (path == null) {
+                        path = new Path2D.Float(Path2D.WIND_NON_ZERO, 2 * CHUNK_SIZE);
+                    }
+                    if (from != lastTo) {
+                        path.moveTo(xs[from], ys[from]);
+                    }
+                    for (int i = from + 1; i <= to; i++) {
+                        path.lineTo(xs[i], ys[i]);
+                    }
+                    lastTo = to;
+                }
+            }
+            return path;
+        }
+
+        /**
+         * Calls the consumer for each line between two points of a polyline near to an area.
+         * @param line the index of the polyline
+         * @param area the area, including the margin needed for the drawn elements
+         * @param consumer called with the end point and start point of each line
+         */
+        void forEachSegment(int line, Rectangle area, SegmentConsumer consumer) {
+            for (int c = lineChunks[line]; c < lineChunks[line + 1]; c++) {
+                if (intersects(c, area)) {
+                    for (int i = chunkPoints[2 * c] + 1; i <= chunkPoints[2 * c + 1]; i++) {
+                        consumer.accept(new Point(xs[i], ys[i]), new Point(xs[i - 1], ys[i - 1]));
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Consumer of the lines of a polyline.
+     */
+    @FunctionalInterface
+    interface SegmentConsumer {
+        /**
+         * Called for a line between two points.
+         * @param point the end point
+         * @param lastPoint the start point
+         */
+        void accept(Point point, Point lastPoint);
+    }
+
+    private BufferedImage image;
+    private MapViewState state;
+
+    /**
+     * Returns the gray scale image. The gray value is in the lowest byte of each pixel.
+     * @return the image, or {@code null} if no size was set
+     */
+    BufferedImage getImage() {
+        return image;
+    }
+
+    /**
+     * Sets the size of the image. A new image is created if the size changed.
+     * @param width the width of the map view
+     * @param height the height of the map view
+     * @return {@code true} if a new image was created
+     */
+    boolean setSize(int width, int height) {
+        if (image != null && image.getWidth() == width && image.getHeight() == height) {
+            return false;
+        }
+        // we would use a "pure" grayscale image, but there is not efficient way to map gray scale values to RGB)
+        image = new BufferedImage(Math.max(1, width), Math.max(1, height), BufferedImage.TYPE_INT_ARGB);
+        state = null;
+        return true;
+    }
+
+    /**
+     * Forces the whole image to be drawn again on the next call to {@link #accumulate}.
+     */
+    void invalidate() {
+        state = null;
+    }
+
+    /**
+     * Determines if the image is drawn for a map view state.
+     * @param mapViewState the map view state
+     * @return {@code true} if the image was drawn for this state and not invalidated since
+     */
+    boolean isValidFor(MapViewState mapViewState) {
+        return mapViewState.equalsInWindow(state);
+    }
+
+    /**
+     * Draws the image for a map view state. If the image was drawn for a state which differs only by a move of whole
+     * pixels, the visible part of the image is reused.
+     * @param mapViewState the map view state
+     * @param renderer draws the elements of the heat map
+     */
+    void accumulate(MapViewState mapViewState, TileRenderer renderer) {
+        Point translation = getTranslation(state, mapViewState);
+        if (translation != null) {
+            shift(translation.x, translation.y, renderer);
+        } else {
+            drawAll(renderer);
+        }
+        state = mapViewState;
+    }
+
+    /**
+     * Returns the move of the view between two states.
+     * @param from the previous state
+     * @param to the current state
+     * @return the move in whole pixels, or {@code null} if the states differ by more than a move or the move
+     * is not by whole pixels or by more than the view size
+     */
+    static Point getTranslation(MapViewState from, MapViewState to) {
+        if (from == null
+                || from.getViewWidth() != to.getViewWidth()
+                || from.getViewHeight() != to.getViewHeight()
+                || from.getScale() != to.getScale()
+                || !Objects.equals(from.getProjecting(), to.getProjecting())) {
+            return null;
+        }
+        MapViewPoint origin = to.getPointFor(from.getForView(0, 0).getEastNorth());
+        double dx = origin.getInViewX();
+        double dy = origin.getInViewY();
+        long x = Math.round(dx);
+        long y = Math.round(dy);
+        if (Math.abs(dx - x) > 1e-3 || Math.abs(dy - y) > 1e-3
+                || Math.abs(x) >= to.getViewWidth() || Math.abs(y) >= to.getViewHeight()) {
+            return null;
+        }
+        return new Point((int) x, (int) y);
+    }
+
+    /**
+     * Draws the whole image.
+     * @param renderer draws the elements of the heat map
+     */
+    void drawAll(TileRenderer renderer) {
+        draw(Arrays.asList(new Rectangle(image.getWidth(), image.getHeight())), renderer);
+    }
+
+    /**
+     * Moves the image and draws the uncovered area.
+     * @param dx the move to the right in pixels, less than the width
+     * @param dy the move downwards in pixels, less than the height
+     * @param renderer draws the elements of the heat map
+     */
+    void shift(int dx, int dy, TileRenderer renderer) {
+        final int width = image.getWidth();
+        final int height = image.getHeight();
+        final int[] pixels = ((DataBufferInt) image.getRaster().getDataBuffer()).getData();
+        final int rowLength = width - Math.abs(dx);
+        if (dy > 0) {
+            for (int y = height - 1; y >= dy; y--) {
+                System.arraycopy(pixels, (y - dy) * width + Math.max(0, -dx), pixels, y * width + Math.max(0, dx), rowLength);
+            }
+        } else {
+            for (int y = 0; y < height + dy; y++) {
+                System.arraycopy(pixels, (y - dy) * width + Math.max(0, -dx), pixels, y * width + Math.max(0, dx), rowLength);
+            }
+        }
+
+        // the uncovered rows, then the uncovered columns of the remaining rows
+        List<Rectangle> areas = new ArrayList<>(2);
+        int rowsTop = dy > 0 ? dy : 0;
+        int rowsBottom = dy < 0 ? height + dy : height;
+        if (dy != 0) {
+            areas.add(new Rectangle(0, dy > 0 ? 0 : rowsBottom, width, Math.abs(dy)));
+        }
+        if (dx != 0) {
+            areas.add(new Rectangle(dx > 0 ? 0 : width + dx, rowsTop, Math.abs(dx), rowsBottom - rowsTop));
+        }
+        draw(areas, renderer);
+    }
+
+    private void draw(List<Rectangle> areas, TileRenderer renderer) {
+        List<Rectangle> tiles = new ArrayList<>();
+        for (Rectangle area : areas) {
+            for (int y = area.y / TILE_SIZE * TILE_SIZE; y < area.y + area.height; y += TILE_SIZE) {
+                for (int x = area.x / TILE_SIZE * TILE_SIZE; x < area.x + area.width; x += TILE_SIZE) {
+                    Rectangle tile = area.intersection(new Rectangle(x, y, TILE_SIZE, TILE_SIZE));
+                    if (!tile.isEmpty()) {
+                        tiles.add(tile);
+                    }
+                }
+            }
+        }
+        if (THREAD_POOL != null && tiles.size() > 1) {
+            List<ForkJoinTask<?>> tasks = new ArrayList<>(tiles.size());
+            for (Rectangle tile : tiles) {
+                tasks.add(ForkJoinTask.adapt(() -> drawTile(tile, renderer)));
+            }
+            THREAD_POOL.invoke(ForkJoinTask.adapt(() -> ForkJoinTask.invokeAll(tasks)));
+        } else {
+            tiles.forEach(tile -> drawTile(tile, renderer));
+        }
+    }
+
+    private void drawTile(Rectangle tile, TileRenderer renderer) {
+        final int[] pixels = ((DataBufferInt) image.getRaster().getDataBuffer()).getData();
+        final int width = image.getWidth();
+        for (int y = tile.y; y < tile.y + tile.height; y++) {
+            Arrays.fill(pixels, y * width + tile.x, y * width + tile.x + tile.width, BACKGROUND);
+        }
+        // each tile has its own graphics, they only write to the pixels of their tiles
+        Graphics2D g = image.createGraphics();
+        try {
+            g.setColor(Color.WHITE);
+
+            // fast draw ( maybe help or not )
+            g.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_OFF);
+            g.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_SPEED);
+            g.setRenderingHint(RenderingHints.KEY_ALPHA_INTERPOLATION, RenderingHints.VALUE_ALPHA_INTERPOLATION_SPEED);
+            g.setRenderingHint(RenderingHints.KEY_DITHERING, RenderingHints.VALUE_DITHER_DISABLE);
+            g.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_NEAREST_NEIGHBOR);
+            g.setRenderingHint(RenderingHints.KEY_STROKE_CONTROL, RenderingHints.VALUE_STROKE_PURE);
+            g.setRenderingHint(RenderingHints.KEY_COLOR_RENDERING, RenderingHints.VALUE_COLOR_RENDER_SPEED);
+
+            g.setClip(tile);
+            renderer.draw(g, tile);
+        } finally {
+            g.dispose();
+        }
+    }
+}
@@ -45,12 +45,24 @@ public class ColorfulFilter implements BufferedImageOp {
         int type = src.getType();
 
         switch (type) {
+        case BufferedImage.TYPE_INT_RGB:
+        case BufferedImage.TYPE_INT_ARGB:
+            int[] srcPixels = PackedPixels.getData(src);
+            if (srcPixels == null) {
+                break;
+            }
+            BufferedImage intDest = dst != null ? dst : PackedPixels.createCompatible(src);
+            int[] destPixels = intDest.getType() == type ? PackedPixels.getData(intDest) : null;
+            if (destPixels == null || destPixels.length != srcPixels.length) {
+                Logging.trace("Src / Dest differ in layout. Filtering RGB values instead.");
+                break;
+            }
+            doFilter(srcPixels, destPixels);
+            return intDest;
         case BufferedImage.TYPE_BYTE_INDEXED:
         case BufferedImage.TYPE_3BYTE_BGR:
         case BufferedImage.TYPE_4BYTE_ABGR:
         case BufferedImage.TYPE_4BYTE_ABGR_PRE:
-        case BufferedImage.TYPE_INT_ARGB:
-        case BufferedImage.TYPE_INT_ARGB_PRE:
 
             BufferedImage dest = Optional.ofNullable(dst).orElseGet(() -> createCompatibleDestImage(src, null));
 
@@ -91,13 +103,6 @@ public class ColorfulFilter implements BufferedImageOp {
                 greenOffset = 2;
                 redOffset = 3;
                 break;
-            case BufferedImage.TYPE_INT_ARGB:
-            case BufferedImage.TYPE_INT_ARGB_PRE:
-                redOffset = 0;
-                greenOffset = 1;
-                blueOffset = 2;
-                alphaOffset = 3;
-                break;
             default:
                 return doFilterRGB(src);
             }
@@ -179,33 +184,24 @@ public class ColorfulFilter implements BufferedImageOp {
         }
     }
 
-    private BufferedImage doFilterRGB(BufferedImage src) {
-        int w = src.getWidth();
-        int h = src.getHeight();
-
-        int[] arr = src.getRGB(0, 0, w, h, null, 0, w);
-        int argb, a, r, g, b;
-        double luminosity;
-
-        for (int i = 0; i < arr.length; i++) {
-            argb = arr[i];
-            a = (argb >> 24) & 0xff;
-            r = (argb >> 16) & 0xff;
-            g = (argb >> 8) & 0xff;
-            b = argb & 0xff;
-            luminosity = r * LUMINOSITY_RED + g * LUMINOSITY_GREEN + b * LUMINOSITY_BLUE;
-            r = mixInt(r, luminosity);
-            g = mixInt(g, luminosity);
-            b = mixInt(b, luminosity);
-            argb = a;
-            argb = (argb << 8) + r;
-            argb = (argb << 8) + g;
-            argb = (argb << 8) + b;
-            arr[i] = argb;
+    /**
+     * Filters packed ARGB or RGB pixels. The alpha value is kept.
+     */
+    private void doFilter(int[] src, int[] dest) {
+        for (int i = 0; i < src.length; i++) {
+            int argb = src[i];
+            int r = (argb >> 16) & 0xff;
+            int g = (argb >> 8) & 0xff;
+            int b = argb & 0xff;
+            double luminosity = r * LUMINOSITY_RED + g * LUMINOSITY_GREEN + b * LUMINOSITY_BLUE;
+            dest[i] = (argb & 0xff000000) | (mixInt(r, luminosity) << 16) | (mixInt(g, luminosity) << 8) | mixInt(b, luminosity);
         }
+    }
 
-        BufferedImage dest = new BufferedImage(w, h, BufferedImage.TYPE_INT_ARGB);
-        dest.setRGB(0, 0, w, h, arr, 0, w);
+    private BufferedImage doFilterRGB(BufferedImage src) {
+        BufferedImage dest = PackedPixels.toIntArgb(src);
+        int[] pixels = PackedPixels.getData(dest);
+        doFilter(pixels, pixels);
         return dest;
     }
 
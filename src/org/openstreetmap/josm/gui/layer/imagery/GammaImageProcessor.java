@@ -49,6 +49,12 @@ public class GammaImageProcessor implements ImageProcessor, SessionAwareReadAppl
         if (gamma == 1.0) {
             return image;
         }
+        int[] src = PackedPixels.getData(image);
+        if (src != null) {
+            BufferedImage to = PackedPixels.createCompatible(image);
+            filter(src, PackedPixels.getData(to), image.getType() == BufferedImage.TYPE_INT_ARGB);
+            return to;
+        }
         try {
             final int bands = image.getRaster().getNumBands();
             if (image.getType() != BufferedImage.TYPE_CUSTOM && bands == 3) {
@@ -65,6 +71,21 @@ public class GammaImageProcessor implements ImageProcessor, SessionAwareReadAppl
         return process(to);
     }
 
+    /**
+     * Applies the gamma table to packed pixels. Like the lookup of 4 band images, the alpha value is changed as well.
+     */
+    private void filter(int[] src, int[] dest, boolean alpha) {
+        int[] table = new int[256];
+        for (int i = 0; i < table.length; i++) {
+            table[i] = gammaChange[i] & 0xff;
+        }
+        for (int i = 0; i < src.length; i++) {
+            int argb = src[i];
+            int a = alpha ? table[argb >>> 24] << 24 : argb & 0xff000000;
+            dest[i] = a | table[(argb >> 16) & 0xff] << 16 | table[(argb >> 8) & 0xff] << 8 | table[argb & 0xff];
+        }
+    }
+
     @Override
     public void applyFromPropertiesMap(Map<String, String> properties) {
         String cStr = properties.get("gamma");
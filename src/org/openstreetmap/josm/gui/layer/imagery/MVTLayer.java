@@ -14,6 +14,7 @@ import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.function.BooleanSupplier;
 import java.util.function.Consumer;
 import java.util.stream.Collectors;
@@ -25,6 +26,7 @@ import javax.swing.JMenuItem;
 
 import org.apache.commons.jcs3.access.CacheAccess;
 import org.openstreetmap.gui.jmapviewer.Tile;
+import org.openstreetmap.gui.jmapviewer.interfaces.TileCache;
 import org.openstreetmap.gui.jmapviewer.interfaces.TileLoader;
 import org.openstreetmap.josm.actions.ExpertToggleAction;
 import org.openstreetmap.josm.data.Bounds;
@@ -67,7 +69,7 @@ public class MVTLayer extends AbstractCachedTileSourceLayer<MapboxVectorTileSour
     private static final String CACHE_REGION_NAME = "MVT";
     // Just to avoid allocating a bunch of 0 length action arrays
     private static final Action[] EMPTY_ACTIONS = new Action[0];
-    private final Map<String, Boolean> layerNames = new HashMap<>();
+    private final Map<String, Boolean> layerNames = new ConcurrentHashMap<>();
     private final VectorDataSet dataSet = new VectorDataSet();
 
     /**
@@ -297,5 +299,10 @@ public class MVTLayer extends AbstractCachedTileSourceLayer<MapboxVectorTileSour
             this.layerNames.putIfAbsent(layer.getName(), true);
         }
         this.dataSet.addTileData(tile);
+        // Release the data of tiles which have been evicted from the tile cache, e.g. after they left the view
+        final TileCache cache = this.tileCache;
+        if (cache != null) {
+            this.dataSet.removeTileData(t -> cache.getTile(t.getTileSource(), t.getXtile(), t.getYtile(), t.getZoom()) != t);
+        }
     }
 }
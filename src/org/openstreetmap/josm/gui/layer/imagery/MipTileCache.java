@@ -0,0 +1,181 @@
+// License: GPL. For details, see LICENSE file.
+package org.openstreetmap.josm.gui.layer.imagery;
+
+import java.awt.image.BufferedImage;
+
+import org.openstreetmap.gui.jmapviewer.Tile;
+import org.openstreetmap.gui.jmapviewer.interfaces.TileCache;
+import org.openstreetmap.gui.jmapviewer.interfaces.TileSource;
+import org.openstreetmap.josm.data.cache.WeightedLruCache;
+import org.openstreetmap.josm.data.imagery.TileMemoryBudget;
+
+/**
+ * Reduced images of tiles, built from the loaded tiles of the next zoom levels.
+ * <p>
+ * When a tile of the displayed zoom level is not loaded, e.g. after zooming out or when offline, the layer can draw
+ * one reduced image instead of scaling down four (or sixteen) tiles of higher zoom levels on each paint.
+ * The images are kept in a memory cache shared by all layers, within a share of the decoded tile budget
+ * (see {@link TileMemoryBudget#getMipBudget()}), and dropped when one of the tiles they are built from is loaded again.
+ */
+public class MipTileCache {
+
+    /** Number of zoom levels above the loaded tiles for which reduced images are built */
+    private static final int MAX_DEPTH = 2;
+
+    private static final WeightedLruCache<Key, BufferedImage> IMAGES = new WeightedLruCache<>(
+            TileMemoryBudget::getImageSize, TileMemoryBudget::getMipBudget, null);
+
+    private static final class Key {
+        private final MipTileCache owner;
+        private final int zoom;
+        private final int x;
+        private final int y;
+
+        Key(MipTileCache owner, int zoom, int x, int y) {
+            this.owner = owner;
+            this.zoom = zoom;
+            this.x = x;
+            this.y = y;
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (this == obj)
+                return true;
+            if (obj == null || getClass() != obj.getClass())
+                return false;
+            Key other = (Key) obj;
+            return owner == other.owner && zoom == other.zoom && x == other.x && y == other.y;
+        }
+
+        @Override
+        public int hashCode() {
+            return ((System.identityHashCode(owner) * 31 + zoom) * 31 + x) * 31 + y;
+        }
+    }
+
+    private final TileSource tileSource;
+    private final TileCache tileCache;
+
+    /**
+     * Constructs a new {@code MipTileCache}.
+     * @param tileSource the tile source
+     * @param tileCache tile cache of the layer, the reduced images are built from the loaded tiles in it
+     */
+    public MipTileCache(TileSource tileSource, TileCache tileCache) {
+        this.tileSource = tileSource;
+        this.tileCache = tileCache;
+    }
+
+    /**
+     * Returns a reduced image of a tile.
+     * @param x x index of the tile
+     * @param y y index of the tile
+     * @param zoom zoom level of the tile
+     * @return an image with the size of the tiles of the next zoom level, or {@code null} if not all the tiles
+     * covering the tile are loaded
+     */
+    public BufferedImage getImage(int x, int y, int zoom) {
+        return getImage(x, y, zoom, MAX_DEPTH);
+    }
+
+    private BufferedImage getImage(int x, int y, int zoom, int depth) {
+        Key key = new Key(this, zoom, x, y);
+        BufferedImage image = IMAGES.get(key);
+        if (image != null || depth == 0 || zoom >= tileSource.getMaxZoom()) {
+            return image;
+        }
+        BufferedImage[] children = new BufferedImage[4];
+        for (int i = 0; i < children.length; i++) {
+            int childX = 2 * x + (i & 1);
+            int childY = 2 * y + (i >> 1);
+            BufferedImage child = getLoadedImage(childX, childY, zoom + 1);
+            if (child == null) {
+                child = getImage(childX, childY, zoom + 1, depth - 1);
+            }
+            if (child == null) {
+                return null;
+            }
+            children[i] = child;
+        }
+        image = reduce(children);
+        if (image != null) {
+            IMAGES.put(key, image);
+        }
+        return image;
+    }
+
+    private BufferedImage getLoadedImage(int x, int y, int zoom) {
+        Tile tile = tileCache.getTile(tileSource, x, y, zoom);
+        if (tile == null || !tile.isLoaded() || tile.hasError()) {
+            return null;
+        }
+        synchronized (tile) {
+            BufferedImage image = tile.getImage();
+            return image == Tile.LOADING_IMAGE || image == Tile.ERROR_IMAGE ? null : image;
+        }
+    }
+
+    /**
+     * Composes four images to one with the same size, by averaging 2x2 pixels.
+     * @param children the images, in the order upper left, upper right, lower left, lower right
+     * @return the reduced image, or {@code null} if the images do not have the same, even size
+     */
+    static BufferedImage reduce(BufferedImage... children) {
+        int width = children[0].getWidth();
+        int height = children[0].getHeight();
+        if (width % 2 != 0 || height % 2 != 0) {
+            return null;
+        }
+        for (BufferedImage child : children) {
+            if (child.getWidth() != width || child.getHeight() != height) {
+                return null;
+            }
+        }
+        BufferedImage image = new BufferedImage(width, height, BufferedImage.TYPE_INT_ARGB);
+        int[] dest = PackedPixels.getData(image);
+        for (int i = 0; i < children.length; i++) {
+            int[] src = PackedPixels.getData(children[i]);
+            if (src == null) {
+                src = PackedPixels.getData(PackedPixels.toIntArgb(children[i]));
+            }
+            boolean opaque = children[i].getType() == BufferedImage.TYPE_INT_RGB;
+            int offset = (i >> 1) * height / 2 * width + (i & 1) * width / 2;
+            for (int y = 0; y < height / 2; y++) {
+                int row = 2 * y * width;
+                int destRow = offset + y * width;
+                for (int x = 0; x < width / 2; x++) {
+                    int p0 = src[row + 2 * x];
+                    int p1 = src[row + 2 * x + 1];
+                    int p2 = src[row + width + 2 * x];
+                    int p3 = src[row + width + 2 * x + 1];
+                    int a = opaque ? 0xff : average(p0, p1, p2, p3, 24);
+                    dest[destRow + x] = a << 24 | average(p0, p1, p2, p3, 16) << 16
+                            | average(p0, p1, p2, p3, 8) << 8 | average(p0, p1, p2, p3, 0);
+                }
+            }
+        }
+        return image;
+    }
+
+    private static int average(int p0, int p1, int p2, int p3, int shift) {
+        return (((p0 >>> shift) & 0xff) + ((p1 >>> shift) & 0xff) + ((p2 >>> shift) & 0xff) + ((p3 >>> shift) & 0xff) + 2) >> 2;
+    }
+
+    /**
+     * Drops the reduced images which contain a tile, after it has been loaded.
+     * @param tile the tile
+     */
+    public void tileLoaded(Tile tile) {
+        for (int depth = 1; depth <= MAX_DEPTH; depth++) {
+            IMAGES.remove(new Key(this, tile.getZoom() - depth, tile.getXtile() >> depth, tile.getYtile() >> depth));
+        }
+    }
+
+    /**
+     * Drops all reduced images of this layer.
+     */
+    public void clear() {
+        IMAGES.removeIf(key -> key.owner == this);
+    }
+}
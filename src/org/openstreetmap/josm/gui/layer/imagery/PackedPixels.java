@@ -0,0 +1,66 @@
+// License: GPL. For details, see LICENSE file.
+package org.openstreetmap.josm.gui.layer.imagery;
+
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.awt.image.DataBufferInt;
+import java.awt.image.SinglePixelPackedSampleModel;
+import java.awt.image.WritableRaster;
+
+/**
+ * Access to the pixels of images of type {@link BufferedImage#TYPE_INT_RGB} and {@link BufferedImage#TYPE_INT_ARGB}
+ * as one {@code int} per pixel, so that filters can loop over an array instead of calling the color model per pixel.
+ */
+final class PackedPixels {
+
+    private PackedPixels() {
+        // Hide default constructor
+    }
+
+    /**
+     * Returns the pixel array of an image.
+     * @param image the image
+     * @return the pixels in row major order without padding, or {@code null} if the image is not of type
+     * {@code TYPE_INT_RGB} or {@code TYPE_INT_ARGB} or does not use a plain layout, e.g. a sub image
+     */
+    static int[] getData(BufferedImage image) {
+        int type = image.getType();
+        if (type != BufferedImage.TYPE_INT_RGB && type != BufferedImage.TYPE_INT_ARGB) {
+            return null;
+        }
+        WritableRaster raster = image.getRaster();
+        if (raster.getParent() != null || raster.getSampleModelTranslateX() != 0 || raster.getSampleModelTranslateY() != 0
+                || !(raster.getSampleModel() instanceof SinglePixelPackedSampleModel)
+                || ((SinglePixelPackedSampleModel) raster.getSampleModel()).getScanlineStride() != image.getWidth()
+                || !(raster.getDataBuffer() instanceof DataBufferInt) || raster.getDataBuffer().getNumBanks() != 1
+                || raster.getDataBuffer().getOffset() != 0) {
+            return null;
+        }
+        return ((DataBufferInt) raster.getDataBuffer()).getData();
+    }
+
+    /**
+     * Creates an image of the same size and type with a plain layout.
+     * @param image an image of type {@code TYPE_INT_RGB} or {@code TYPE_INT_ARGB}
+     * @return the new image
+     */
+    static BufferedImage createCompatible(BufferedImage image) {
+        return new BufferedImage(image.getWidth(), image.getHeight(), image.getType());
+    }
+
+    /**
+     * Copies an image of any type into a new image of type {@code TYPE_INT_ARGB}.
+     * @param image the image
+     * @return the copy
+     */
+    static BufferedImage toIntArgb(BufferedImage image) {
+        BufferedImage copy = new BufferedImage(image.getWidth(), image.getHeight(), BufferedImage.TYPE_INT_ARGB);
+        Graphics2D g = copy.createGraphics();
+        try {
+            g.drawImage(image, 0, 0, null);
+        } finally {
+            g.dispose();
+        }
+        return copy;
+    }
+}
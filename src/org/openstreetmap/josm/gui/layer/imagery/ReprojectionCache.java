@@ -0,0 +1,175 @@
+// License: GPL. For details, see LICENSE file.
+package org.openstreetmap.josm.gui.layer.imagery;
+
+import java.awt.image.BufferedImage;
+import java.awt.image.DataBuffer;
+import java.awt.image.DataBufferByte;
+import java.awt.image.DataBufferInt;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.openstreetmap.josm.data.cache.WeightedLruCache;
+import org.openstreetmap.josm.data.coor.EastNorth;
+import org.openstreetmap.josm.data.imagery.TileMemoryBudget;
+import org.openstreetmap.josm.data.preferences.IntegerProperty;
+import org.openstreetmap.josm.data.projection.Projection;
+
+/**
+ * Caches used by {@link ReprojectionTile}.
+ * <ul>
+ * <li>Reprojected tile images, keyed by source tile, source image content, target projection and scale, so that tiles
+ * evicted from the layer tile cache are not warped again.</li>
+ * <li>Grid points of the projection transform, shared by all tiles with the same projections and scale.</li>
+ * </ul>
+ */
+final class ReprojectionCache {
+
+    /** Percentage of the available memory used for reprojected tile images */
+    static final IntegerProperty MEMORY_PERCENT = new IntegerProperty("imagery.reprojection.cache_memory_percent", 5);
+
+    private static final int MAX_LATTICES = 4;
+    private static final int MAX_LATTICE_NODES = 1 << 18;
+
+    /**
+     * A reprojected tile image.
+     */
+    static final class Result {
+        final BufferedImage image;
+        final TileAnchor anchor;
+        final double nativeScale;
+        final boolean maxZoomReached;
+
+        Result(BufferedImage image, TileAnchor anchor, double nativeScale, boolean maxZoomReached) {
+            this.image = image;
+            this.anchor = anchor;
+            this.nativeScale = nativeScale;
+            this.maxZoomReached = maxZoomReached;
+        }
+    }
+
+    /**
+     * Grid points of the transformation from east/north of the current projection to east/north of the server
+     * projection. The grid points are at multiples of a step size in pixel coordinates of the current projection,
+     * i.e. east / scale and -north / scale, so adjacent tiles share them.
+     */
+    static final class Lattice {
+        private final Projection projCurrent;
+        private final Projection projServer;
+        private final double scale;
+        private final int stride;
+        private final Map<Long, EastNorth> nodes = new ConcurrentHashMap<>();
+
+        private Lattice(Projection projCurrent, Projection projServer, double scale, int stride) {
+            this.projCurrent = projCurrent;
+            this.projServer = projServer;
+            this.scale = scale;
+            this.stride = stride;
+        }
+
+        /**
+         * Returns the east/north in the server projection of a grid point.
+         * @param x x pixel coordinate in the current projection, a multiple of the step size
+         * @param y y pixel coordinate in the current projection, a multiple of the step size
+         * @return east/north in the server projection
+         */
+        EastNorth getSourceEastNorth(double x, double y) {
+            long xIdx = Math.round(x / stride);
+            long yIdx = Math.round(y / stride);
+            Long key = (xIdx << 32) | (yIdx & 0xffff_ffffL);
+            EastNorth value = nodes.get(key);
+            if (value == null) {
+                EastNorth target = new EastNorth(xIdx * stride * scale, -yIdx * stride * scale);
+                value = projServer.latlon2eastNorth(projCurrent.eastNorth2latlon(target));
+                if (nodes.size() >= MAX_LATTICE_NODES) {
+                    nodes.clear();
+                }
+                nodes.put(key, value);
+            }
+            return value;
+        }
+
+        private boolean matches(Projection projCurrent, Projection projServer, double scale, int stride) {
+            return this.projCurrent == projCurrent && this.projServer == projServer && this.scale == scale && this.stride == stride;
+        }
+    }
+
+    private static final WeightedLruCache<String, Result> TILES = new WeightedLruCache<>(
+            r -> TileMemoryBudget.getImageSize(r.image),
+            () -> TileMemoryBudget.getBudget(MEMORY_PERCENT), null);
+
+    private static final Lattice[] LATTICES = new Lattice[MAX_LATTICES];
+    private static int nextLattice;
+
+    private ReprojectionCache() {
+        // Hide default constructor
+    }
+
+    /**
+     * Returns the shared grid points for the given projections and scale.
+     * @param projCurrent current projection
+     * @param projServer server projection
+     * @param scale scale of the reprojected image, in east/north units per pixel
+     * @param stride step size of the grid, in pixels
+     * @return the shared grid points
+     */
+    static synchronized Lattice getLattice(Projection projCurrent, Projection projServer, double scale, int stride) {
+        for (Lattice lattice : LATTICES) {
+            if (lattice != null && lattice.matches(projCurrent, projServer, scale, stride)) {
+                return lattice;
+            }
+        }
+        Lattice lattice = new Lattice(projCurrent, projServer, scale, stride);
+        LATTICES[nextLattice] = lattice;
+        nextLattice = (nextLattice + 1) % MAX_LATTICES;
+        return lattice;
+    }
+
+    /**
+     * Returns the cache key of a reprojected tile.
+     * @param tileKey key of the source tile
+     * @param image source tile image
+     * @param projCurrent current projection
+     * @param scale map view scale
+     * @param settings other settings affecting the result, e.g. the interpolation
+     * @return the cache key
+     */
+    static String getKey(String tileKey, BufferedImage image, Projection projCurrent, double scale, Object... settings) {
+        return tileKey + '|' + contentHash(image) + '|' + projCurrent.toCode() + '|' + scale + '|' + Arrays.toString(settings);
+    }
+
+    /**
+     * Returns a hash of the pixels of an image, to detect reloaded tiles whose content has changed.
+     */
+    private static int contentHash(BufferedImage image) {
+        DataBuffer buffer = image.getRaster().getDataBuffer();
+        int hash = Objects.hash(image.getWidth(), image.getHeight(), image.getType());
+        if (buffer instanceof DataBufferByte && buffer.getNumBanks() == 1) {
+            return 31 * hash + Arrays.hashCode(((DataBufferByte) buffer).getData());
+        } else if (buffer instanceof DataBufferInt && buffer.getNumBanks() == 1) {
+            return 31 * hash + Arrays.hashCode(((DataBufferInt) buffer).getData());
+        }
+        return 31 * hash + Arrays.hashCode(image.getRGB(0, 0, image.getWidth(), image.getHeight(), null, 0, image.getWidth()));
+    }
+
+    /**
+     * Returns a reprojected tile image.
+     * @param key the cache key
+     * @return the reprojected tile image, or {@code null}
+     * @see #getKey
+     */
+    static Result get(String key) {
+        return TILES.get(key);
+    }
+
+    /**
+     * Caches a reprojected tile image.
+     * @param key the cache key
+     * @param result the reprojected tile image
+     * @see #getKey
+     */
+    static void put(String key, Result result) {
+        TILES.put(key, result);
+    }
+}
@@ -158,18 +158,21 @@ public class ReprojectionTile extends Tile {
         Dimension dim = getDimension(pbMarginAndAlign(pbTarget, scaleMapView, margin), scaleMapView);
         Integer scaleFix = limitScale(source.getTileSize(), Math.sqrt(dim.getWidth() * dim.getHeight()));
         double scale = scaleFix == null ? scaleMapView : (scaleMapView * scaleFix);
+        int stride = Config.getPref().getInt("imagery.warp.projection-interpolation.stride", 7);
+
+        String cacheKey = ReprojectionCache.getKey(getKey(), imageIn, projCurrent, scale, interpolation, stride);
+        ReprojectionCache.Result cached = ReprojectionCache.get(cacheKey);
+        if (cached != null) {
+            setResult(cached);
+            return;
+        }
+
         ProjectionBounds pbTargetAligned = pbMarginAndAlign(pbTarget, scale, margin);
 
-        ImageWarp.PointTransform pointTransform = (x, y) -> {
-            EastNorth target = new EastNorth(pbTargetAligned.minEast + x * scale,
-                    pbTargetAligned.maxNorth - y * scale);
-            EastNorth sourceEN = projServer.latlon2eastNorth(projCurrent.eastNorth2latlon(target));
-            double x2 = source.getTileSize() *
-                    (sourceEN.east() - pbServer.minEast) / (pbServer.maxEast - pbServer.minEast);
-            double y2 = source.getTileSize() *
-                    (pbServer.maxNorth - sourceEN.north()) / (pbServer.maxNorth - pbServer.minNorth);
-            return new Point2D.Double(x2, y2);
-        };
+        // linear mapping from east/north of the server projection to pixels of the source tile
+        ImageWarp.PointTransform serverToPixel = (east, north) -> new Point2D.Double(
+                source.getTileSize() * (east - pbServer.minEast) / (pbServer.maxEast - pbServer.minEast),
+                source.getTileSize() * (pbServer.maxNorth - north) / (pbServer.maxNorth - pbServer.minNorth));
 
         // pixel coordinates of tile origin and opposite tile corner inside the target image
         // (tile may be deformed / rotated by reprojection)
@@ -182,22 +185,29 @@ public class ReprojectionTile extends Tile {
                 (en11Current.east() - pbTargetAligned.minEast) / scale,
                 (pbTargetAligned.maxNorth - en11Current.north()) / scale);
 
+        Dimension targetDim = getDimension(pbTargetAligned, scale);
         ImageWarp.PointTransform transform;
-        int stride = Config.getPref().getInt("imagery.warp.projection-interpolation.stride", 7);
         if (stride > 0) {
-            transform = new ImageWarp.GridTransform(pointTransform, stride);
+            // grid points are shared with the adjacent tiles, the origin of the image is aligned to the pixel grid
+            ReprojectionCache.Lattice lattice = ReprojectionCache.getLattice(projCurrent, projServer, scale, stride);
+            transform = new ImageWarp.LatticeTransform((x, y) -> {
+                EastNorth sourceEN = lattice.getSourceEastNorth(x, y);
+                return serverToPixel.transform(sourceEN.east(), sourceEN.north());
+            }, stride, Math.round(pbTargetAligned.minEast / scale), Math.round(-pbTargetAligned.maxNorth / scale),
+                    targetDim.width, targetDim.height);
         } else {
-            transform = pointTransform;
+            transform = (x, y) -> {
+                EastNorth target = new EastNorth(pbTargetAligned.minEast + x * scale,
+                        pbTargetAligned.maxNorth - y * scale);
+                EastNorth sourceEN = projServer.latlon2eastNorth(projCurrent.eastNorth2latlon(target));
+                return serverToPixel.transform(sourceEN.east(), sourceEN.north());
+            };
         }
-        Dimension targetDim = getDimension(pbTargetAligned, scale);
         try {
-            BufferedImage imageOut = ImageWarp.warp(imageIn, targetDim, transform, interpolation);
-            synchronized (this) {
-                this.image = imageOut;
-                this.anchor = new TileAnchor(p00Img, p11Img);
-                this.nativeScale = scale;
-                this.maxZoomReached = scaleFix != null;
-            }
+            BufferedImage imageOut = ImageWarp.warp(imageIn, targetDim, transform, interpolation, true);
+            ReprojectionCache.Result result = new ReprojectionCache.Result(imageOut, new TileAnchor(p00Img, p11Img), scale, scaleFix != null);
+            ReprojectionCache.put(cacheKey, result);
+            setResult(result);
         } catch (NegativeArraySizeException | IllegalArgumentException e) {
             // See #19746 + #17387 - https://bugs.openjdk.java.net/browse/JDK-4690476
             throw BugReport.intercept(e).put("targetDim", targetDim).put("key", getKey())
@@ -206,6 +216,13 @@ public class ReprojectionTile extends Tile {
         }
     }
 
+    private synchronized void setResult(ReprojectionCache.Result result) {
+        this.image = result.image;
+        this.anchor = result.anchor;
+        this.nativeScale = result.nativeScale;
+        this.maxZoomReached = result.maxZoomReached;
+    }
+
     // add margin and align to pixel grid
     private static ProjectionBounds pbMarginAndAlign(ProjectionBounds box, double scale, double margin) {
         double minEast = Math.floor(box.minEast / scale - margin) * scale;
@@ -25,6 +25,7 @@ import org.openstreetmap.josm.tools.Utils;
 public class SharpenImageProcessor implements ImageProcessor, SessionAwareReadApply {
     private float sharpenLevel = 1.0f;
     private ConvolveOp op;
+    private float[] kernel;
 
     private static final float[] KERNEL_IDENTITY = {
         0, 0, 0,
@@ -64,15 +65,16 @@ public class SharpenImageProcessor implements ImageProcessor, SessionAwareReadAp
         }
 
         if (this.sharpenLevel < 0.95) {
-            op = generateMixed(this.sharpenLevel, KERNEL_IDENTITY, KERNEL_BLUR);
+            kernel = generateMixed(this.sharpenLevel, KERNEL_IDENTITY, KERNEL_BLUR);
         } else if (this.sharpenLevel > 1.05) {
-            op = generateMixed(this.sharpenLevel - 1, KERNEL_SHARPEN, KERNEL_IDENTITY);
+            kernel = generateMixed(this.sharpenLevel - 1, KERNEL_SHARPEN, KERNEL_IDENTITY);
         } else {
-            op = null;
+            kernel = null;
         }
+        op = kernel == null ? null : new ConvolveOp(new Kernel(3, 3, kernel), ConvolveOp.EDGE_NO_OP, null);
     }
 
-    private static ConvolveOp generateMixed(float aFactor, float[] a, float[] b) {
+    private static float[] generateMixed(float aFactor, float[] a, float[] b) {
         if (a.length != 9 || b.length != 9) {
             throw new IllegalArgumentException("Illegal kernel array length.");
         }
@@ -80,16 +82,68 @@ public class SharpenImageProcessor implements ImageProcessor, SessionAwareReadAp
         for (int i = 0; i < values.length; i++) {
             values[i] = aFactor * a[i] + (1 - aFactor) * b[i];
         }
-        return new ConvolveOp(new Kernel(3, 3, values), ConvolveOp.EDGE_NO_OP, null);
+        return values;
     }
 
     @Override
     public BufferedImage process(BufferedImage image) {
-        if (op != null) {
-            return op.filter(image, null);
-        } else {
+        float[] k = kernel;
+        ConvolveOp o = op;
+        if (k == null || o == null) {
             return image;
         }
+        int[] src = PackedPixels.getData(image);
+        if (src != null) {
+            BufferedImage dest = PackedPixels.createCompatible(image);
+            convolve(src, PackedPixels.getData(dest), image.getWidth(), image.getHeight(), k,
+                    image.getType() == BufferedImage.TYPE_INT_ARGB);
+            return dest;
+        }
+        return o.filter(image, null);
+    }
+
+    /**
+     * Convolves packed pixels with a 3x3 kernel. The border pixels are copied, like {@link ConvolveOp#EDGE_NO_OP}.
+     * Like {@link ConvolveOp}, the color values of images with alpha are premultiplied before the convolution.
+     */
+    static void convolve(int[] src, int[] dest, int width, int height, float[] kernel, boolean alpha) {
+        System.arraycopy(src, 0, dest, 0, src.length);
+        if (width < 3 || height < 3) {
+            return;
+        }
+        int[] offsets = {-width - 1, -width, -width + 1, -1, 0, 1, width - 1, width, width + 1};
+        for (int y = 1; y < height - 1; y++) {
+            int row = y * width;
+            for (int i = row + 1; i < row + width - 1; i++) {
+                float a = 0;
+                float r = 0;
+                float g = 0;
+                float b = 0;
+                for (int k = 0; k < 9; k++) {
+                    int argb = src[i + offsets[k]];
+                    float w = kernel[k];
+                    if (alpha) {
+                        int pa = argb >>> 24;
+                        w *= pa;
+                        a += kernel[k] * pa;
+                    }
+                    r += w * ((argb >> 16) & 0xff);
+                    g += w * ((argb >> 8) & 0xff);
+                    b += w * (argb & 0xff);
+                }
+                if (alpha) {
+                    int outA = clamp(a);
+                    float scale = outA == 0 ? 0 : 1f / outA;
+                    dest[i] = outA << 24 | clamp(r * scale) << 16 | clamp(g * scale) << 8 | clamp(b * scale);
+                } else {
+                    dest[i] = src[i] & 0xff000000 | clamp(r) << 16 | clamp(g) << 8 | clamp(b);
+                }
+            }
+        }
+    }
+
+    private static int clamp(float value) {
+        return Utils.clamp((int) (value + .5f), 0, 0xff);
     }
 
     @Override
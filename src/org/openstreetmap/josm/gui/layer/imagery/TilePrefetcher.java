@@ -0,0 +1,296 @@
+// License: GPL. For details, see LICENSE file.
+package org.openstreetmap.josm.gui.layer.imagery;
+
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.openstreetmap.gui.jmapviewer.Tile;
+import org.openstreetmap.gui.jmapviewer.interfaces.TileCache;
+import org.openstreetmap.gui.jmapviewer.interfaces.TileSource;
+import org.openstreetmap.josm.data.imagery.TMSCachedTileLoader;
+import org.openstreetmap.josm.data.imagery.TileViewport;
+import org.openstreetmap.josm.data.preferences.BooleanProperty;
+import org.openstreetmap.josm.data.preferences.IntegerProperty;
+import org.openstreetmap.josm.data.preferences.ListProperty;
+import org.openstreetmap.josm.tools.Logging;
+
+/**
+ * Downloads tiles into the cache before they are displayed, based on the movement of the map view.
+ * <p>
+ * The pan velocity and the zoom direction are tracked from the displayed tile ranges. The viewport expected one second
+ * later is extended by a ring of tiles, and the tiles of the next zoom level are added.
+ * Tiles are downloaded with a separate, small thread pool, the number of tiles is limited by a rate budget.
+ * Prefetched tiles are not decoded, they are only stored in the disk cache and in the compressed tile memory.
+ * Prefetching is opt-in, and never done for hosts whose tile usage policy forbids it.
+ * @see org.openstreetmap.josm.data.imagery.TileMemoryBudget
+ */
+public class TilePrefetcher {
+
+    /**
+     * Whether tiles are prefetched. Off by default, as prefetching downloads tiles which may never be displayed.
+     * @see #isAllowed(String)
+     */
+    public static final BooleanProperty PROPERTY_ENABLED = new BooleanProperty("imagery.prefetch.enabled", false);
+    /** Hosts, with their subdomains, whose tile usage policy forbids prefetching. Tiles of these hosts are never prefetched. */
+    public static final ListProperty PROPERTY_FORBIDDEN_HOSTS = new ListProperty("imagery.prefetch.forbidden_hosts",
+            Arrays.asList("openstreetmap.org", "openstreetmap.fr"));
+    /** Maximum number of prefetched tiles per minute */
+    public static final IntegerProperty PROPERTY_TILES_PER_MINUTE = new IntegerProperty("imagery.prefetch.tiles_per_minute", 120);
+    /** Number of threads downloading prefetched tiles */
+    public static final IntegerProperty PROPERTY_THREADS = new IntegerProperty("imagery.prefetch.threads", 2);
+
+    /** Time span for which the view is predicted */
+    private static final long LOOKAHEAD_MILLIS = 1000;
+    /** Views further apart in time are considered as separate moves */
+    private static final long MOTION_TIMEOUT_MILLIS = 2000;
+    /** Weight of the latest move in the velocity */
+    private static final double SMOOTHING = 0.5;
+    /** Number of tiles around the view which are prefetched. The layer itself loads one tile around the view. */
+    private static final int RING = 2;
+    /** Maximum number of prefetched tiles remembered to compute the hit rate */
+    private static final int MAX_TRACKED = 1024;
+
+    private final TileSource tileSource;
+    private final TMSCachedTileLoader loader;
+    private final TileCache tileCache;
+
+    private final Map<String, Boolean> prefetched = new LinkedHashMap<String, Boolean>(16, 0.75f, false) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, Boolean> eldest) {
+            return size() > MAX_TRACKED;
+        }
+    };
+
+    // last view, center in world coordinates (tiles at zoom 0)
+    private long lastTime;
+    private int lastZoom = -1;
+    private int lastMinX;
+    private int lastMaxX;
+    private int lastMinY;
+    private int lastMaxY;
+    private double lastCenterX;
+    private double lastCenterY;
+    // velocity in world coordinates per second
+    private double velocityX;
+    private double velocityY;
+    private int zoomDirection;
+
+    private double tokens;
+    private long lastRefill;
+
+    private long submitted;
+    private long hits;
+
+    /**
+     * Constructs a new {@code TilePrefetcher}.
+     * @param tileSource the tile source
+     * @param loader tile loader used for prefetching, not used otherwise. It is configured to not decode images.
+     * @param tileCache tile cache of the layer, tiles present there are not prefetched
+     */
+    public TilePrefetcher(TileSource tileSource, TMSCachedTileLoader loader, TileCache tileCache) {
+        this.tileSource = tileSource;
+        this.loader = loader;
+        this.tileCache = tileCache;
+        int threads = Math.max(1, PROPERTY_THREADS.get());
+        loader.setDownloadExecutor(TMSCachedTileLoader.getNewThreadPoolExecutor("prefetch-downloader-%d", threads, threads));
+        loader.setDecodeImages(false);
+    }
+
+    /**
+     * Determines if the tiles of an imagery source may be prefetched, that is if prefetching is enabled
+     * and the tile usage policy of the host does not forbid it.
+     * @param url the URL of the imagery source
+     * @return {@code true} if the tiles may be prefetched
+     */
+    public static boolean isAllowed(String url) {
+        if (!PROPERTY_ENABLED.get() || url == null) {
+            return false;
+        }
+        String host;
+        try {
+            // template parameters like {switch:a,b,c} are not valid in URIs
+            host = new URI(url.replaceAll("\\{[^}]*}", "x")).getHost();
+        } catch (URISyntaxException e) {
+            Logging.trace(e);
+            return false;
+        }
+        if (host == null) {
+            return false;
+        }
+        host = host.toLowerCase(Locale.ROOT);
+        for (String forbidden : PROPERTY_FORBIDDEN_HOSTS.get()) {
+            String domain = forbidden.toLowerCase(Locale.ROOT);
+            if (host.equals(domain) || host.endsWith('.' + domain)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Called when a range of tiles is displayed. Prefetches the tiles which are expected to be displayed next.
+     * @param zoom displayed zoom level
+     * @param minX minimum tile x index, inclusive
+     * @param maxX maximum tile x index, inclusive
+     * @param minY minimum tile y index, inclusive
+     * @param maxY maximum tile y index, inclusive
+     */
+    public void viewChanged(int zoom, int minX, int maxX, int minY, int maxY) {
+        viewChanged(System.currentTimeMillis(), zoom, minX, maxX, minY, maxY);
+    }
+
+    synchronized void viewChanged(long now, int zoom, int minX, int maxX, int minY, int maxY) {
+        if (zoom == lastZoom && minX == lastMinX && maxX == lastMaxX && minY == lastMinY && maxY == lastMaxY) {
+            // repaint without move, e.g. after a tile has been loaded
+            return;
+        }
+        double scale = Math.scalb(1.0, zoom);
+        double centerX = (minX + maxX + 1) / 2.0 / scale;
+        double centerY = (minY + maxY + 1) / 2.0 / scale;
+        long elapsed = now - lastTime;
+        if (lastZoom >= 0 && elapsed < MOTION_TIMEOUT_MILLIS) {
+            if (elapsed > 0) {
+                velocityX = SMOOTHING * (centerX - lastCenterX) * 1000 / elapsed + (1 - SMOOTHING) * velocityX;
+                velocityY = SMOOTHING * (centerY - lastCenterY) * 1000 / elapsed + (1 - SMOOTHING) * velocityY;
+            }
+            if (zoom != lastZoom) {
+                zoomDirection = Integer.signum(zoom - lastZoom);
+            }
+        } else {
+            velocityX = 0;
+            velocityY = 0;
+            zoomDirection = 0;
+        }
+        lastTime = now;
+        lastZoom = zoom;
+        lastMinX = minX;
+        lastMaxX = maxX;
+        lastMinY = minY;
+        lastMaxY = maxY;
+        lastCenterX = centerX;
+        lastCenterY = centerY;
+
+        refillTokens(now);
+        if (tokens < 1) {
+            return;
+        }
+
+        // predicted view, in tiles of the displayed zoom level
+        double halfWidth = (maxX + 1 - minX) / 2.0;
+        double halfHeight = (maxY + 1 - minY) / 2.0;
+        double predictedX = (centerX + velocityX * LOOKAHEAD_MILLIS / 1000) * scale;
+        double predictedY = (centerY + velocityY * LOOKAHEAD_MILLIS / 1000) * scale;
+        int pMinX = (int) Math.floor(predictedX - halfWidth);
+        int pMaxX = (int) Math.ceil(predictedX + halfWidth) - 1;
+        int pMinY = (int) Math.floor(predictedY - halfHeight);
+        int pMaxY = (int) Math.ceil(predictedY + halfHeight) - 1;
+        TileViewport predicted = new TileViewport(zoom, pMinX, pMaxX, pMinY, pMaxY, RING + 1);
+        loader.setViewport(predicted);
+
+        List<Tile> candidates = new ArrayList<>();
+        addTiles(candidates, zoom, pMinX - RING, pMaxX + RING, pMinY - RING, pMaxY + RING, true);
+        // when zooming in, the center of the view is displayed at the next zoom level
+        int nextZoom = zoomDirection < 0 ? zoom - 1 : zoom + 1;
+        if (nextZoom >= tileSource.getMinZoom() && nextZoom <= tileSource.getMaxZoom()) {
+            if (nextZoom > zoom) {
+                addTiles(candidates, nextZoom,
+                        (int) Math.floor(2 * predictedX - halfWidth), (int) Math.ceil(2 * predictedX + halfWidth) - 1,
+                        (int) Math.floor(2 * predictedY - halfHeight), (int) Math.ceil(2 * predictedY + halfHeight) - 1, false);
+            } else {
+                addTiles(candidates, nextZoom, Math.floorDiv(pMinX - RING, 2), Math.floorDiv(pMaxX + RING, 2),
+                        Math.floorDiv(pMinY - RING, 2), Math.floorDiv(pMaxY + RING, 2), false);
+            }
+        }
+        candidates.sort(Comparator.comparingDouble(t -> predicted.getPriority(t.getZoom(), t.getXtile(), t.getYtile())));
+        for (Tile tile : candidates) {
+            if (tokens < 1) {
+                break;
+            }
+            if (prefetched.put(tile.getKey(), Boolean.TRUE) == null) {
+                tokens--;
+                submitted++;
+                prefetch(tile);
+            }
+        }
+    }
+
+    /**
+     * Submits the download of a tile.
+     * @param tile the tile
+     */
+    void prefetch(Tile tile) {
+        loader.createTileLoaderJob(tile).submit();
+    }
+
+    /**
+     * Adds the tiles of a range which are not in memory yet.
+     * If {@code excludeView} is set, the displayed tiles and the ones around them, which are loaded by the layer, are skipped.
+     */
+    private void addTiles(List<Tile> tiles, int zoom, int minX, int maxX, int minY, int maxY, boolean excludeView) {
+        int x0 = Math.max(minX, tileSource.getTileXMin(zoom));
+        int x1 = Math.min(maxX, tileSource.getTileXMax(zoom));
+        int y0 = Math.max(minY, tileSource.getTileYMin(zoom));
+        int y1 = Math.min(maxY, tileSource.getTileYMax(zoom));
+        for (int x = x0; x <= x1; x++) {
+            for (int y = y0; y <= y1; y++) {
+                if (excludeView && x >= lastMinX - 1 && x <= lastMaxX + 1 && y >= lastMinY - 1 && y <= lastMaxY + 1) {
+                    continue;
+                }
+                Tile existing = tileCache.getTile(tileSource, x, y, zoom);
+                if (existing == null || !(existing.isLoaded() || existing.isLoading())) {
+                    tiles.add(new Tile(tileSource, x, y, zoom));
+                }
+            }
+        }
+    }
+
+    private void refillTokens(long now) {
+        int perMinute = Math.max(0, PROPERTY_TILES_PER_MINUTE.get());
+        // allow bursts of a quarter of a minute
+        double capacity = Math.max(1, perMinute / 4.0);
+        if (lastRefill == 0) {
+            tokens = capacity;
+        } else {
+            tokens = Math.min(capacity, tokens + (now - lastRefill) * perMinute / (double) TimeUnit.MINUTES.toMillis(1));
+        }
+        lastRefill = now;
+    }
+
+    /**
+     * Called when the layer requests a tile which is not in memory. Used to compute the hit rate.
+     * @param tile the tile
+     */
+    public synchronized void tileRequested(Tile tile) {
+        if (prefetched.remove(tile.getKey()) != null) {
+            hits++;
+        }
+    }
+
+    /**
+     * Returns the fraction of prefetched tiles which have been requested by the layer afterwards.
+     * @return the hit rate, between 0 and 1
+     */
+    public synchronized double getHitRate() {
+        return submitted == 0 ? 0 : (double) hits / submitted;
+    }
+
+    /**
+     * Cancels the queued downloads and releases the download threads.
+     */
+    public void shutdown() {
+        loader.shutdown();
+    }
+
+    @Override
+    public synchronized String toString() {
+        return "TilePrefetcher [submitted=" + submitted + ", hits=" + hits + ']';
+    }
+}
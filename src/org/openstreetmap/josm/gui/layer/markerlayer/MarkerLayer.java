@@ -11,6 +11,7 @@ import java.awt.Color;
 import java.awt.Component;
 import java.awt.Graphics2D;
 import java.awt.Point;
+import java.awt.Rectangle;
 import java.awt.event.ActionEvent;
 import java.awt.event.MouseAdapter;
 import java.awt.event.MouseEvent;
@@ -22,11 +23,13 @@ import java.util.Collection;
 import java.util.Collections;
 import java.util.Comparator;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.ListIterator;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
+import java.util.Set;
 
 import javax.swing.AbstractAction;
 import javax.swing.Action;
@@ -53,6 +56,7 @@ import org.openstreetmap.josm.data.preferences.NamedColorProperty;
 import org.openstreetmap.josm.data.preferences.StrokeProperty;
 import org.openstreetmap.josm.gui.MainApplication;
 import org.openstreetmap.josm.gui.MapView;
+import org.openstreetmap.josm.gui.MapViewState;
 import org.openstreetmap.josm.gui.dialogs.LayerListDialog;
 import org.openstreetmap.josm.gui.dialogs.LayerListPopup;
 import org.openstreetmap.josm.gui.layer.CustomizeColor;
@@ -108,6 +112,25 @@ public class MarkerLayer extends Layer implements JumpToMarkerLayer, IGeoImageLa
      */
     public static final NamedColorProperty DEFAULT_COLOR_PROPERTY = new NamedColorProperty(marktr("gps marker"), Color.magenta);
 
+    /**
+     * Number of markers in the map view from which overlapping markers are clustered: only one marker
+     * is painted in each square of {@link #CLUSTER_CELL_SIZE} pixels. 0 to never cluster the markers.
+     */
+    public static final IntegerProperty CLUSTER_MIN_MARKERS = new IntegerProperty("marker.cluster.min_markers", 1000);
+
+    /** Size in pixels of the squares in which overlapping markers are clustered */
+    private static final int CLUSTER_CELL_SIZE = 8;
+    /** Markers up to this distance in pixels outside of the map view are painted, for their icon and label */
+    private static final int PAINT_MARGIN = 200;
+    /** Markers whose hotspot may contain a point are searched up to this distance in pixels */
+    private static final int HOTSPOT_DISTANCE = 64;
+
+    // the markers painted for the last map view state, see getPaintedMarkers
+    private MapViewState paintedState;
+    private int paintedVersion;
+    private int paintedSize;
+    private List<Marker> paintedMarkers;
+
     /**
      * Constructs a new {@code MarkerLayer}.
      * @param indata The GPX data for this layer
@@ -230,19 +253,101 @@ public class MarkerLayer extends Layer implements JumpToMarkerLayer, IGeoImageLa
         if (mousePressed) {
             boolean mousePressedTmp = mousePressed;
             Point mousePos = mv.getMousePosition(); // Get mouse position only when necessary (it's the slowest part of marker layer painting)
-            for (Marker mkr : data) {
-                if (mousePos != null && mkr.containsPoint(mousePos)) {
+            if (mousePos != null) {
+                for (Marker mkr : getMarkersAt(mv.getState(), mousePos)) {
                     mkr.paint(g, mv, mousePressedTmp, showTextOrIcon);
                     mousePressedTmp = false;
                 }
             }
         } else {
-            for (Marker mkr : data) {
+            for (Marker mkr : getPaintedMarkers(mv.getState())) {
                 mkr.paint(g, mv, false, showTextOrIcon);
             }
         }
     }
 
+    /**
+     * Returns the markers to paint in a map view, found with the spatial index. When many markers are in view,
+     * only one of the markers overlapping in a small square is painted. The result is kept until the map view
+     * or the markers change.
+     * @param state the map view state
+     * @return the markers to paint
+     */
+    List<Marker> getPaintedMarkers(MapViewState state) {
+        if (state == paintedState && data.version == paintedVersion && data.size() == paintedSize) {
+            return paintedMarkers;
+        }
+        List<Marker> markers = search(state, new Rectangle(-PAINT_MARGIN, -PAINT_MARGIN,
+                (int) state.getViewWidth() + 2 * PAINT_MARGIN, (int) state.getViewHeight() + 2 * PAINT_MARGIN));
+        int clusterMinMarkers = CLUSTER_MIN_MARKERS.get();
+        if (clusterMinMarkers > 0 && markers.size() >= clusterMinMarkers) {
+            List<Marker> clustered = new ArrayList<>();
+            Set<Long> cells = new HashSet<>();
+            for (Marker mkr : markers) {
+                MapViewState.MapViewPoint p = state.getPointFor(mkr);
+                long cell = ((long) Math.floor(p.getInViewX() / CLUSTER_CELL_SIZE) << 32)
+                        | ((long) Math.floor(p.getInViewY() / CLUSTER_CELL_SIZE) & 0xffff_ffffL);
+                if (cells.add(cell)) {
+                    clustered.add(mkr);
+                }
+            }
+            markers = clustered;
+        }
+        paintedState = state;
+        paintedVersion = data.version;
+        paintedSize = data.size();
+        paintedMarkers = markers;
+        return markers;
+    }
+
+    /**
+     * Returns the markers whose hotspot contains a point of the map view, found with the spatial index.
+     * @param state the map view state
+     * @param p the point in the map view
+     * @return the markers containing the point
+     * @see Marker#containsPoint
+     */
+    List<Marker> getMarkersAt(MapViewState state, Point p) {
+        List<Marker> markers = new ArrayList<>();
+        for (Marker mkr : search(state, new Rectangle(p.x - HOTSPOT_DISTANCE, p.y - HOTSPOT_DISTANCE,
+                2 * HOTSPOT_DISTANCE, 2 * HOTSPOT_DISTANCE))) {
+            if (mkr.containsPoint(p)) {
+                markers.add(mkr);
+            }
+        }
+        return markers;
+    }
+
+    /**
+     * Returns the nearest audio marker whose hotspot contains a point of the map view.
+     * @param state the map view state
+     * @param p the point in the map view
+     * @return the nearest audio marker if it contains the point, or {@code null}
+     */
+    AudioMarker getAudioMarkerAt(MapViewState state, Point p) {
+        AudioMarker nearest = null;
+        double nearestDistanceSq = (double) HOTSPOT_DISTANCE * HOTSPOT_DISTANCE;
+        for (Marker mkr : search(state, new Rectangle(p.x - HOTSPOT_DISTANCE, p.y - HOTSPOT_DISTANCE,
+                2 * HOTSPOT_DISTANCE, 2 * HOTSPOT_DISTANCE))) {
+            if (mkr instanceof AudioMarker) {
+                double distanceSq = state.getPointFor(mkr).getInView().distanceSq(p);
+                if (distanceSq <= nearestDistanceSq) {
+                    nearest = (AudioMarker) mkr;
+                    nearestDistanceSq = distanceSq;
+                }
+            }
+        }
+        return nearest != null && nearest.containsPoint(p) ? nearest : null;
+    }
+
+    /**
+     * Searches the markers in a rectangle of the map view.
+     */
+    private List<Marker> search(MapViewState state, Rectangle rectangle) {
+        Bounds bounds = state.getViewArea(rectangle).getLatLonBoundsBox();
+        return bounds.crosses180thMeridian() ? data : data.search(bounds.toBBox());
+    }
+
     @Override
     public String getToolTipText() {
         return Integer.toString(data.size())+' '+trn("marker", "markers", data.size());
@@ -390,14 +495,9 @@ public class MarkerLayer extends Layer implements JumpToMarkerLayer, IGeoImageLa
         if (currentMarker == null) {
             currentMarker = data.get(0);
         } else {
-            boolean foundCurrent = false;
-            for (Marker m: data) {
-                if (foundCurrent) {
-                    currentMarker = m;
-                    break;
-                } else if (currentMarker == m) {
-                    foundCurrent = true;
-                }
+            int index = data.indexOf(currentMarker);
+            if (index >= 0 && index + 1 < data.size()) {
+                currentMarker = data.get(index + 1);
             }
         }
         MainApplication.getMap().mapView.zoomTo(currentMarker);
@@ -408,15 +508,9 @@ public class MarkerLayer extends Layer implements JumpToMarkerLayer, IGeoImageLa
         if (currentMarker == null) {
             currentMarker = data.get(data.size() - 1);
         } else {
-            boolean foundCurrent = false;
-            for (int i = data.size() - 1; i >= 0; i--) {
-                Marker m = data.get(i);
-                if (foundCurrent) {
-                    currentMarker = m;
-                    break;
-                } else if (currentMarker == m) {
-                    foundCurrent = true;
-                }
+            int index = data.lastIndexOf(currentMarker);
+            if (index > 0) {
+                currentMarker = data.get(index - 1);
             }
         }
         MainApplication.getMap().mapView.zoomTo(currentMarker);
@@ -594,7 +688,7 @@ public class MarkerLayer extends Layer implements JumpToMarkerLayer, IGeoImageLa
         public void mousePressed(MouseEvent e) {
             if (e.getButton() != MouseEvent.BUTTON1)
                 return;
-            boolean mousePressedInButton = data.stream().anyMatch(mkr -> mkr.containsPoint(e.getPoint()));
+            boolean mousePressedInButton = !getMarkersAt(mapView.getState(), e.getPoint()).isEmpty();
             if (!mousePressedInButton)
                 return;
             mousePressed = true;
@@ -610,10 +704,8 @@ public class MarkerLayer extends Layer implements JumpToMarkerLayer, IGeoImageLa
             mousePressed = false;
             if (!isVisible())
                 return;
-            for (Marker mkr : data) {
-                if (mkr.containsPoint(ev.getPoint())) {
-                    mkr.actionPerformed(new ActionEvent(this, 0, null));
-                }
+            for (Marker mkr : getMarkersAt(mapView.getState(), ev.getPoint())) {
+                mkr.actionPerformed(new ActionEvent(this, 0, null));
             }
             invalidate();
         }
@@ -732,6 +824,8 @@ public class MarkerLayer extends Layer implements JumpToMarkerLayer, IGeoImageLa
 
         private Map<String, String> ownLayerPrefs;
         private final List<Marker> markerList = new ArrayList<>();
+        // incremented when markers are added or removed, for the painted markers
+        private int version;
 
         @Override
         public Map<String, String> getLayerPrefs() {
@@ -761,6 +855,18 @@ public class MarkerLayer extends Layer implements JumpToMarkerLayer, IGeoImageLa
             }
         }
 
+        @Override
+        public boolean add(Marker n) {
+            version++;
+            return super.add(n);
+        }
+
+        @Override
+        public boolean remove(Object o) {
+            version++;
+            return super.remove(o);
+        }
+
         @Override
         public boolean addAll(int index, Collection<? extends Marker> c) {
             c.forEach(this::add);
@@ -781,6 +887,7 @@ public class MarkerLayer extends Layer implements JumpToMarkerLayer, IGeoImageLa
         public Marker set(int index, Marker element) {
             Marker original = this.markerList.set(index, element);
             this.remove(original);
+            this.add(element);
             return original;
         }
 
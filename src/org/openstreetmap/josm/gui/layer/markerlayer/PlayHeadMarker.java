@@ -211,21 +211,8 @@ public final class PlayHeadMarker extends Marker {
         Point startPoint = mapView.getPoint(en);
         AudioMarker ca = null;
         if (recent.parentLayer != null) {
-            double closestAudioMarkerDistanceSquared = 1.0E100;
-            for (Marker m : recent.parentLayer.data) {
-                if (m instanceof AudioMarker) {
-                    double distanceSquared = m.getEastNorth(ProjectionRegistry.getProjection()).distanceSq(en);
-                    if (distanceSquared < closestAudioMarkerDistanceSquared) {
-                        ca = (AudioMarker) m;
-                        closestAudioMarkerDistanceSquared = distanceSquared;
-                    }
-                }
-            }
-        }
-
-        /* We found the closest marker: did we actually hit it? */
-        if (ca != null && !ca.containsPoint(startPoint)) {
-            ca = null;
+            /* The closest marker, if we actually hit it */
+            ca = recent.parentLayer.getAudioMarkerAt(mapView.getState(), startPoint);
         }
 
         /* If we didn't hit an audio marker, we need to create one at the nearest point on the track */
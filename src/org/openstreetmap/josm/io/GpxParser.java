@@ -17,6 +17,7 @@ import static org.openstreetmap.josm.data.gpx.GpxConstants.PT_TIME;
 import static org.openstreetmap.josm.tools.I18n.tr;
 
 import java.time.DateTimeException;
+import java.time.Instant;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.HashMap;
@@ -28,6 +29,7 @@ import java.util.Stack;
 
 import org.openstreetmap.josm.data.Bounds;
 import org.openstreetmap.josm.data.coor.LatLon;
+import org.openstreetmap.josm.data.gpx.CompactGpxTrackSegment;
 import org.openstreetmap.josm.data.gpx.GpxConstants;
 import org.openstreetmap.josm.data.gpx.GpxData;
 import org.openstreetmap.josm.data.gpx.GpxExtensionCollection;
@@ -37,6 +39,7 @@ import org.openstreetmap.josm.data.gpx.GpxTrack;
 import org.openstreetmap.josm.data.gpx.GpxTrackSegment;
 import org.openstreetmap.josm.data.gpx.IGpxTrackSegment;
 import org.openstreetmap.josm.data.gpx.WayPoint;
+import org.openstreetmap.josm.data.preferences.IntegerProperty;
 import org.openstreetmap.josm.tools.Logging;
 import org.openstreetmap.josm.tools.UncheckedParseException;
 import org.openstreetmap.josm.tools.date.DateUtils;
@@ -48,6 +51,11 @@ import org.xml.sax.helpers.DefaultHandler;
  * A parser for gpx files
  */
 class GpxParser extends DefaultHandler {
+
+    /**
+     * Track segments with at least this number of points are stored as {@link CompactGpxTrackSegment}
+     */
+    static final IntegerProperty COMPACT_SEGMENT_MIN_POINTS = new IntegerProperty("gpx.compact_segment_min_points", 10_000);
     private enum State {
         INIT,
         GPX,
@@ -59,14 +67,19 @@ class GpxParser extends DefaultHandler {
         AUTHOR,
         LINK,
         TRKSEG,
+        TRKPT_LEAN,
         COPYRIGHT
     }
 
+    private final boolean lean;
+
     private String version;
     private GpxData data;
     private Collection<IGpxTrackSegment> currentTrack;
     private Map<String, Object> currentTrackAttr;
     private Collection<WayPoint> currentTrackSeg;
+    private CompactGpxTrackSegment.Builder currentCompactTrackSeg;
+    private int compactSegmentMinPoints;
     private GpxRoute currentRoute;
     private WayPoint currentWayPoint;
 
@@ -82,10 +95,37 @@ class GpxParser extends DefaultHandler {
 
     private boolean nokiaSportsTrackerBug;
 
+    // the track point being read in lean mode
+    private double leanLat;
+    private double leanLon;
+    private Instant leanTime;
+    private String leanEle;
+    private float leanHdop;
+    private String leanFix;
+    /** the number of open elements inside the track point */
+    private int leanDepth;
+
+    /**
+     * Constructs a new {@code GpxParser} which reads all the data.
+     */
+    GpxParser() {
+        this(false);
+    }
+
+    /**
+     * Constructs a new {@code GpxParser}.
+     * @param lean if {@code true}, only the time, elevation, hdop and fix of track points are read, and the track
+     * points are stored in {@link CompactGpxTrackSegment}s as they are parsed, without creating a {@link WayPoint}
+     */
+    GpxParser(boolean lean) {
+        this.lean = lean;
+    }
+
     @Override
     public void startDocument() {
         accumulator = new StringBuilder();
         data = new GpxData(true);
+        compactSegmentMinPoints = COMPACT_SEGMENT_MIN_POINTS.get();
         currentExtensionCollection = new GpxExtensionCollection();
         currentTrackExtensionCollection = new GpxExtensionCollection();
     }
@@ -169,6 +209,9 @@ class GpxParser extends DefaultHandler {
             case EXT:
                 startElementExt(namespaceURI, qName, attributes);
                 break;
+            case TRKPT_LEAN:
+                leanDepth++;
+                break;
             default: // Do nothing
         }
         accumulator.setLength(0);
@@ -310,6 +353,7 @@ class GpxParser extends DefaultHandler {
                 states.push(currentState);
                 currentState = State.TRKSEG;
                 currentTrackSeg = new ArrayList<>();
+                currentCompactTrackSeg = lean ? new CompactGpxTrackSegment.Builder() : null;
                 break;
             case "link":
                 states.push(currentState);
@@ -334,8 +378,19 @@ class GpxParser extends DefaultHandler {
         switch (localName) {
             case "trkpt":
                 states.push(currentState);
-                currentState = State.WPT;
-                currentWayPoint = new WayPoint(parseLatLon(attributes));
+                if (lean) {
+                    currentState = State.TRKPT_LEAN;
+                    leanLat = parseCoordinates(attributes, "lat");
+                    leanLon = parseCoordinates(attributes, "lon");
+                    leanTime = null;
+                    leanEle = null;
+                    leanHdop = Float.NaN;
+                    leanFix = null;
+                    leanDepth = 0;
+                } else {
+                    currentState = State.WPT;
+                    currentWayPoint = new WayPoint(parseLatLon(attributes));
+                }
                 break;
             case "extensions":
                 states.push(currentState);
@@ -459,6 +514,9 @@ class GpxParser extends DefaultHandler {
             case WPT:
                 endElementWpt(localName);
                 break;
+            case TRKPT_LEAN:
+                endElementLeanTrkpt(localName);
+                break;
             case TRKSEG:
                 endElementTrkseg(localName);
                 break;
@@ -649,7 +707,17 @@ class GpxParser extends DefaultHandler {
                 if (!currentWayPoint.isLatLonKnown()) {
                     throw new SAXException(tr("{0} element does not have valid latitude and/or longitude.", localName));
                 }
-                currentTrackSeg.add(currentWayPoint);
+                if (currentCompactTrackSeg != null) {
+                    currentCompactTrackSeg.add(currentWayPoint);
+                } else {
+                    currentTrackSeg.add(currentWayPoint);
+                    if (compactSegmentMinPoints > 0 && currentTrackSeg.size() >= compactSegmentMinPoints) {
+                        // long recording, store the remaining points in arrays as they are parsed
+                        currentCompactTrackSeg = new CompactGpxTrackSegment.Builder();
+                        currentTrackSeg.forEach(currentCompactTrackSeg::add);
+                        currentTrackSeg.clear();
+                    }
+                }
                 break;
             case "wpt":
                 currentState = states.pop();
@@ -666,6 +734,51 @@ class GpxParser extends DefaultHandler {
         }
     }
 
+    /**
+     * End a trkpt element or one of its children in lean mode. Only the direct children which are needed to draw
+     * the track are read.
+     * @param localName The local name (without prefix), or the empty string if Namespace processing is not being performed.
+     * @throws SAXException If the track point does not have valid coordinates
+     * @see #startElementTrkSeg(String, Attributes)
+     */
+    private void endElementLeanTrkpt(String localName) throws SAXException {
+        if (leanDepth == 0) {
+            // end of the trkpt element
+            currentState = states.pop();
+            if (Double.isNaN(leanLat) || Double.isNaN(leanLon)) {
+                throw new SAXException(tr("{0} element does not have valid latitude and/or longitude.", localName));
+            }
+            currentCompactTrackSeg.add(leanLat, leanLon, leanTime, leanEle, leanHdop, leanFix);
+            return;
+        }
+        if (leanDepth == 1) {
+            switch (localName) {
+                case GpxConstants.PT_ELE:
+                    leanEle = accumulator.toString();
+                    break;
+                case GpxConstants.PT_HDOP:
+                    try {
+                        leanHdop = Float.parseFloat(accumulator.toString());
+                    } catch (NumberFormatException e) {
+                        leanHdop = 0f;
+                    }
+                    break;
+                case GpxConstants.PT_FIX:
+                    leanFix = accumulator.toString();
+                    break;
+                case PT_TIME:
+                    try {
+                        leanTime = DateUtils.parseInstant(accumulator.toString());
+                    } catch (UncheckedParseException | DateTimeException e) {
+                        Logging.error(e);
+                    }
+                    break;
+                default: // Do nothing
+            }
+        }
+        leanDepth--;
+    }
+
     /**
      * End a trkseg element
      * @param localName The local name (without prefix), or the empty string if Namespace processing is not being performed.
@@ -674,7 +787,14 @@ class GpxParser extends DefaultHandler {
     private void endElementTrkseg(String localName) {
         if ("trkseg".equals(localName)) {
             currentState = states.pop();
-            if (!currentTrackSeg.isEmpty()) {
+            if (currentCompactTrackSeg != null && currentCompactTrackSeg.size() > 0) {
+                CompactGpxTrackSegment seg = currentCompactTrackSeg.build();
+                if (!currentExtensionCollection.isEmpty()) {
+                    seg.getExtensions().addAll(currentExtensionCollection);
+                }
+                currentTrack.add(seg);
+                currentCompactTrackSeg = null;
+            } else if (!currentTrackSeg.isEmpty()) {
                 GpxTrackSegment seg = new GpxTrackSegment(currentTrackSeg);
                 if (!currentExtensionCollection.isEmpty()) {
                     seg.getExtensions().addAll(currentExtensionCollection);
@@ -31,6 +31,7 @@ public class GpxReader implements GpxConstants, IGpxReader {
     /** The resulting gpx data */
     private GpxData gpxData;
     private final InputSource inputSource;
+    private final boolean lean;
 
     /**
      * Constructs a new {@code GpxReader}, which can later parse the input stream
@@ -40,9 +41,23 @@ public class GpxReader implements GpxConstants, IGpxReader {
      * @throws IOException if an IO error occurs, e.g. the input stream is closed.
      */
     public GpxReader(InputStream source) throws IOException {
+        this(source, false);
+    }
+
+    /**
+     * Constructs a new {@code GpxReader}, which can later parse the input stream
+     * and store the result in trackData and markerData
+     *
+     * @param source the source input stream
+     * @param lean if {@code true}, only the time, elevation, hdop and fix of track points are read, which needs
+     * much less memory and time for large files. Other data of track points, including their extensions, is skipped.
+     * @throws IOException if an IO error occurs, e.g. the input stream is closed.
+     */
+    public GpxReader(InputStream source, boolean lean) throws IOException {
         Reader utf8stream = UTFInputStreamReader.create(source); // NOPMD
         Reader filtered = new InvalidXmlCharacterFilter(utf8stream); // NOPMD
         this.inputSource = new InputSource(filtered);
+        this.lean = lean;
     }
 
     /**
@@ -57,7 +72,7 @@ public class GpxReader implements GpxConstants, IGpxReader {
      */
     @Override
     public boolean parse(boolean tryToFinish) throws SAXException, IOException {
-        GpxParser parser = new GpxParser();
+        GpxParser parser = new GpxParser(lean);
         try {
             XmlUtils.parseSafeSAX(inputSource, parser);
             return true;
@@ -30,6 +30,7 @@ import javax.xml.stream.XMLStreamReader;
 
 import org.openstreetmap.josm.data.Bounds;
 import org.openstreetmap.josm.data.coor.EastNorth;
+import org.openstreetmap.josm.data.imagery.CapabilitiesCache;
 import org.openstreetmap.josm.data.imagery.DefaultLayer;
 import org.openstreetmap.josm.data.imagery.GetCapabilitiesParseHelper;
 import org.openstreetmap.josm.data.imagery.ImageryInfo;
@@ -124,6 +125,37 @@ public class WMSImagery {
         }
     }
 
+    /**
+     * The result of parsing a capabilities document, shared by all {@code WMSImagery} instances for the same URL.
+     */
+    private static final class ParsedCapabilities {
+        private final String version;
+        private final String title;
+        private final String getMapUrl;
+        private final List<String> formats;
+        private final List<LayerDetails> layers;
+
+        ParsedCapabilities(WMSImagery imagery) {
+            this.version = imagery.version;
+            this.title = imagery.title;
+            this.getMapUrl = imagery.getMapUrl;
+            this.formats = new ArrayList<>(imagery.formats);
+            this.layers = new ArrayList<>(imagery.layers);
+        }
+
+        void restore(WMSImagery imagery) {
+            imagery.version = version;
+            imagery.title = title;
+            imagery.getMapUrl = getMapUrl;
+            imagery.formats.clear();
+            imagery.formats.addAll(formats);
+            imagery.layers = new ArrayList<>(layers);
+        }
+    }
+
+    /** Parsed capabilities documents, so that layers of the same service do not parse the document again */
+    private static final CapabilitiesCache<ParsedCapabilities> CAPABILITIES_CACHE = new CapabilitiesCache<>(16);
+
     private final Map<String, String> headers = new ConcurrentHashMap<>();
     private String version = "1.1.1"; // default version
     private String getMapUrl;
@@ -193,7 +225,6 @@ public class WMSImagery {
                     monitor.worked(1);
                     attemptGetCapabilities(z + ver);
                     workingAddress = z;
-                    calculateChildren();
                     // clear saved exception - we've got something working
                     savedExc = null;
                     break url_search;
@@ -424,12 +455,17 @@ public class WMSImagery {
 
     private void attemptGetCapabilities(String url) throws IOException, WMSGetCapabilitiesException {
         Logging.debug("Trying WMS GetCapabilities with url {0}", url);
-        try (CachedFile cf = new CachedFile(url); InputStream in = cf.setHttpHeaders(headers).
-                setMaxAge(7 * CachedFile.DAYS).
-                setCachingStrategy(CachedFile.CachingStrategy.IfModifiedSince).
-                getInputStream()) {
-
-            try {
+        try (CachedFile cf = new CachedFile(url)) {
+            File file = cf.setHttpHeaders(headers).
+                    setMaxAge(7 * CachedFile.DAYS).
+                    setCachingStrategy(CachedFile.CachingStrategy.IfModifiedSince).
+                    getFile();
+            ParsedCapabilities cached = CAPABILITIES_CACHE.get(url, headers, file);
+            if (cached != null) {
+                cached.restore(this);
+                return;
+            }
+            try (InputStream in = cf.getInputStream()) {
                 XMLStreamReader reader = GetCapabilitiesParseHelper.getReader(in);
                 for (int event = reader.getEventType(); reader.hasNext(); event = reader.next()) {
                     if (event == XMLStreamReader.START_ELEMENT) {
@@ -454,8 +490,11 @@ public class WMSImagery {
             } catch (XMLStreamException e) {
                 String content = new String(cf.getByteContent(), UTF_8);
                 cf.clear(); // if there is a problem with parsing of the file, remove it from the cache
+                CAPABILITIES_CACHE.remove(url, headers);
                 throw new WMSGetCapabilitiesException(e, content);
             }
+            calculateChildren();
+            CAPABILITIES_CACHE.put(url, headers, file, new ParsedCapabilities(this));
         }
     }
 
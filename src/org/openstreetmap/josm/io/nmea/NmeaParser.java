@@ -5,16 +5,19 @@ import java.nio.charset.StandardCharsets;
 import java.text.ParsePosition;
 import java.text.SimpleDateFormat;
 import java.time.Instant;
+import java.time.LocalDate;
 import java.util.ArrayList;
-import java.util.Arrays;
+import java.util.Calendar;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.Date;
 import java.util.Locale;
+import java.util.concurrent.TimeUnit;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
 import org.openstreetmap.josm.data.coor.LatLon;
+import org.openstreetmap.josm.data.gpx.CompactGpxTrackSegment;
 import org.openstreetmap.josm.data.gpx.GpxConstants;
 import org.openstreetmap.josm.data.gpx.WayPoint;
 import org.openstreetmap.josm.io.IllegalDataException;
@@ -161,9 +164,17 @@ public class NmeaParser {
 
     private static final Pattern DATE_TIME_PATTERN = Pattern.compile("(\\d{12})(\\.\\d+)?");
 
+    private static final TalkerId[] TALKER_IDS = TalkerId.values();
+
     private final SimpleDateFormat rmcTimeFmt = new SimpleDateFormat("ddMMyyHHmmss.SSS", Locale.ENGLISH);
+    /** the first year of the 100 years in which two-digit years are placed by {@link #rmcTimeFmt} */
+    private final int twoDigitYearStart;
 
     private Instant readTime(String p) throws IllegalDataException {
+        Instant instant = parseValidTime(p);
+        if (instant != null) {
+            return instant;
+        }
         // NMEA defines time with "a variable number of digits for decimal-fraction of seconds"
         // This variable decimal fraction cannot be parsed by SimpleDateFormat
         Matcher m = DATE_TIME_PATTERN.matcher(p);
@@ -182,6 +193,54 @@ public class NmeaParser {
         throw new IllegalDataException("Date is malformed: '" + p + "'");
     }
 
+    /**
+     * Parses a date and time (ddMMyyHHmmss with an optional decimal fraction of seconds) without regular expression
+     * and date format, when all the values are within their range. Otherwise, the lenient date format is needed.
+     * @param p the date and time
+     * @return the time, or {@code null} if the date and time must be parsed by {@link #rmcTimeFmt}
+     */
+    private Instant parseValidTime(String p) {
+        final int length = p.length();
+        // up to 15 digits of fraction are exactly divided by a power of 10 like Double.parseDouble does
+        if (length < 12 || length == 13 || length > 28 || (length > 12 && p.charAt(12) != '.')) {
+            return null;
+        }
+        int[] values = new int[6];
+        for (int i = 0; i < 12; i++) {
+            char c = p.charAt(i);
+            if (c < '0' || c > '9') {
+                return null;
+            }
+            values[i / 2] = values[i / 2] * 10 + (c - '0');
+        }
+        long fraction = 0;
+        double scale = 1;
+        for (int i = 13; i < length; i++) {
+            char c = p.charAt(i);
+            if (c < '0' || c > '9') {
+                return null;
+            }
+            fraction = fraction * 10 + (c - '0');
+            scale *= 10;
+        }
+        final int day = values[0];
+        final int month = values[1];
+        final int twoDigitYear = values[2];
+        if (twoDigitYear == twoDigitYearStart % 100 || month < 1 || month > 12 || day < 1
+                || values[3] > 23 || values[4] > 59 || values[5] > 59) {
+            return null;
+        }
+        final int year = twoDigitYearStart / 100 * 100 + twoDigitYear + (twoDigitYear < twoDigitYearStart % 100 ? 100 : 0);
+        final LocalDate date = LocalDate.of(year, 1, 1).withMonth(month);
+        if (day > date.lengthOfMonth()) {
+            return null;
+        }
+        final int milliseconds = (int) (1000d * (fraction / scale));
+        return Instant.ofEpochMilli(TimeUnit.DAYS.toMillis(date.withDayOfMonth(day).toEpochDay())
+                + TimeUnit.HOURS.toMillis(values[3]) + TimeUnit.MINUTES.toMillis(values[4])
+                + TimeUnit.SECONDS.toMillis(values[5]) + milliseconds);
+    }
+
     protected Collection<WayPoint> waypoints = new ArrayList<>();
     protected String pTime;
     protected String pDate;
@@ -194,6 +253,8 @@ public class NmeaParser {
     protected int noChecksum;
     protected int unknown;
     protected int zeroCoord;
+    /* the completed points in throughput mode, instead of waypoints */
+    private final CompactGpxTrackSegment.Builder compact;
 
     /**
      * Number of unknown sentences
@@ -270,8 +331,57 @@ public class NmeaParser {
      * Constructs a new {@code NmeaParser}
      */
     public NmeaParser() {
+        this(false);
+    }
+
+    /**
+     * Constructs a new {@code NmeaParser}
+     * @param lean if {@code true}, the parser runs in throughput mode: only the time, elevation, hdop and fix
+     * of the points are kept, and the completed points are stored in a {@link CompactGpxTrackSegment},
+     * see {@link #getCompactSegment()}
+     */
+    public NmeaParser(boolean lean) {
+        // the two-digit year start is computed in the default time zone
+        Calendar calendar = Calendar.getInstance(Locale.ENGLISH);
+        calendar.setTime(rmcTimeFmt.get2DigitYearStart());
+        twoDigitYearStart = calendar.get(Calendar.YEAR);
         rmcTimeFmt.setTimeZone(DateUtils.UTC);
         pDate = "010100"; // TODO date problem
+        compact = lean ? new CompactGpxTrackSegment.Builder() : null;
+    }
+
+    /**
+     * Returns the points collected in throughput mode, including the last point.
+     * @return the segment of the points
+     * @throws IllegalStateException if the parser does not run in throughput mode
+     * @see #NmeaParser(boolean)
+     */
+    public CompactGpxTrackSegment getCompactSegment() {
+        if (compact == null) {
+            throw new IllegalStateException("The parser does not run in throughput mode");
+        }
+        setCurrentWayPoint(null);
+        return compact.build();
+    }
+
+    /**
+     * Sets the waypoint currently in work. In throughput mode, the previous waypoint is complete and stored.
+     * @param wp the new waypoint in work
+     */
+    private void setCurrentWayPoint(WayPoint wp) {
+        if (compact != null && pWp != null && pWp != wp) {
+            compact.add(pWp);
+        }
+        pWp = wp;
+    }
+
+    /**
+     * Puts an attribute which is not kept in throughput mode.
+     */
+    private void putDetail(WayPoint wp, String key, Object value) {
+        if (compact == null) {
+            wp.put(key, value);
+        }
     }
 
     /**
@@ -281,8 +391,43 @@ public class NmeaParser {
      * @return {@code true} if the {@code address} denotes the given NMEA sentence formatter of a known talker
      */
     static boolean isSentence(String address, Sentence formatter) {
-        return Arrays.stream(TalkerId.values())
-                .anyMatch(talker -> address.equals('$' + talker.name() + formatter.name()));
+        final String name = formatter.name();
+        final int talkerLength = address.length() - 1 - name.length();
+        if (talkerLength <= 0 || address.charAt(0) != '$' || !address.endsWith(name)) {
+            return false;
+        }
+        for (TalkerId talker : TALKER_IDS) {
+            if (talker.name().length() == talkerLength && address.regionMatches(1, talker.name(), 0, talkerLength)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Computes the checksum of a sentence: the bytes between the $ and the * are xored.
+     * @param s the sentence
+     * @param end the index of the *
+     * @return the checksum
+     */
+    private static int checksum(String s, int end) {
+        int chk = 0;
+        for (int i = 0; i < end; i++) {
+            char c = s.charAt(i);
+            if (c >= 0x80) {
+                // not ASCII, xor the UTF-8 bytes
+                byte[] chb = s.substring(0, end).getBytes(StandardCharsets.UTF_8);
+                chk = 0;
+                for (int j = 1; j < chb.length; j++) {
+                    chk ^= chb[j];
+                }
+                return chk;
+            }
+            if (i > 0) {
+                chk ^= c;
+            }
+        }
+        return chk;
     }
 
     /**
@@ -301,23 +446,22 @@ public class NmeaParser {
             // the bytes between the $ and the * are xored
             // if there is no * or other meanities it will throw
             // and result in a malformed packet.
-            String[] chkstrings = s.split("\\*", -1);
-            if (chkstrings.length > 1) {
-                byte[] chb = chkstrings[0].getBytes(StandardCharsets.UTF_8);
-                int chk = 0;
-                for (int i = 1; i < chb.length; i++) {
-                    chk ^= chb[i];
-                }
-                if (Integer.parseInt(chkstrings[1].substring(0, 2), 16) != chk) {
+            final int star = s.indexOf('*');
+            if (star >= 0) {
+                int d1 = star + 2 < s.length() ? Character.digit(s.charAt(star + 1), 16) : -1;
+                int d2 = star + 2 < s.length() ? Character.digit(s.charAt(star + 2), 16) : -1;
+                // let Integer.parseInt throw for a malformed checksum
+                int expected = d1 >= 0 && d2 >= 0 ? d1 * 16 + d2 : Integer.parseInt(s.split("\\*", -1)[1].substring(0, 2), 16);
+                if (expected != checksum(s, star)) {
                     checksumErrors++;
-                    pWp = null;
+                    setCurrentWayPoint(null);
                     return false;
                 }
             } else {
                 noChecksum++;
             }
             // now for the content
-            String[] e = chkstrings[0].split(",", -1);
+            String[] e = (star >= 0 ? s.substring(0, star) : s).split(",", -1);
             String accu;
 
             WayPoint currentwp = pWp;
@@ -375,7 +519,7 @@ public class NmeaParser {
                 int sat = 0;
                 if (!accu.isEmpty()) {
                     sat = Integer.parseInt(accu);
-                    currentwp.put(GpxConstants.PT_SAT, accu);
+                    putDetail(currentwp, GpxConstants.PT_SAT, accu);
                 }
                 // h-dilution
                 accu = e[GGA.HDOP.position];
@@ -426,7 +570,7 @@ public class NmeaParser {
                 if (GGA.REF.position < e.length) {
                     accu = e[GGA.REF.position];
                     if (!accu.isEmpty()) {
-                        currentwp.put(GpxConstants.PT_DGPSID, accu);
+                        putDetail(currentwp, GpxConstants.PT_DGPSID, accu);
                     }
                 }
             } else if (isSentence(e[0], Sentence.VTG)) {
@@ -437,7 +581,7 @@ public class NmeaParser {
                     accu = e[VTG.COURSE.position];
                     if (!accu.isEmpty() && currentwp != null) {
                         Double.parseDouble(accu);
-                        currentwp.put("course", accu);
+                        putDetail(currentwp, "course", accu);
                     }
                 }
                 // SPEED
@@ -446,14 +590,14 @@ public class NmeaParser {
                     accu = e[VTG.SPEED_KMH.position];
                     if (!accu.isEmpty() && currentwp != null) {
                         double speed = Double.parseDouble(accu);
-                        currentwp.put("speed", Double.toString(speed)); // speed in km/h
+                        putDetail(currentwp, "speed", Double.toString(speed)); // speed in km/h
                     }
                 }
             } else if (isSentence(e[0], Sentence.GSA)) {
                 // vdop
                 accu = e[GSA.VDOP.position];
                 if (!accu.isEmpty() && currentwp != null) {
-                    currentwp.put(GpxConstants.PT_VDOP, Float.valueOf(accu));
+                    putDetail(currentwp, GpxConstants.PT_VDOP, Float.valueOf(accu));
                 }
                 // hdop
                 accu = e[GSA.HDOP.position];
@@ -463,7 +607,7 @@ public class NmeaParser {
                 // pdop
                 accu = e[GSA.PDOP.position];
                 if (!accu.isEmpty() && currentwp != null) {
-                    currentwp.put(GpxConstants.PT_PDOP, Float.valueOf(accu));
+                    putDetail(currentwp, GpxConstants.PT_PDOP, Float.valueOf(accu));
                 }
             } else if (isSentence(e[0], Sentence.RMC)) {
                 // coordinates
@@ -495,13 +639,13 @@ public class NmeaParser {
                 if (!accu.isEmpty() && !currentwp.attr.containsKey("speed")) {
                     double speed = Double.parseDouble(accu);
                     speed *= 0.514444444 * 3.6; // to km/h
-                    currentwp.put("speed", Double.toString(speed));
+                    putDetail(currentwp, "speed", Double.toString(speed));
                 }
                 // course
                 accu = e[RMC.COURSE.position];
                 if (!accu.isEmpty() && !currentwp.attr.containsKey("course")) {
                     Double.parseDouble(accu);
-                    currentwp.put("course", accu);
+                    putDetail(currentwp, "course", accu);
                 }
 
                 // TODO fix?
@@ -541,8 +685,10 @@ public class NmeaParser {
                 if (pWp != null) {
                     pWp.getInstant();
                 }
-                pWp = currentwp;
-                waypoints.add(currentwp);
+                setCurrentWayPoint(currentwp);
+                if (compact == null) {
+                    waypoints.add(currentwp);
+                }
                 success++;
                 return true;
             }
@@ -555,7 +701,7 @@ public class NmeaParser {
                 Logging.debug(ex);
             }
             malformed++;
-            pWp = null;
+            setCurrentWayPoint(null);
             return false;
         }
     }
@@ -9,10 +9,13 @@ import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.List;
 import java.util.Objects;
 
+import org.openstreetmap.josm.data.gpx.CompactGpxTrackSegment;
 import org.openstreetmap.josm.data.gpx.GpxData;
 import org.openstreetmap.josm.data.gpx.GpxTrack;
+import org.openstreetmap.josm.data.gpx.IGpxTrackSegment;
 import org.openstreetmap.josm.data.gpx.WayPoint;
 import org.openstreetmap.josm.io.IGpxReader;
 import org.openstreetmap.josm.io.IllegalDataException;
@@ -36,6 +39,7 @@ import org.openstreetmap.josm.tools.Logging;
 public class NmeaReader implements IGpxReader {
 
     private final InputStream source;
+    private final boolean lean;
     GpxData data;
 
     private NmeaParser ps;
@@ -85,7 +89,19 @@ public class NmeaReader implements IGpxReader {
      * @throws IOException if an I/O error occurs
      */
     public NmeaReader(InputStream source) throws IOException {
+        this(source, false);
+    }
+
+    /**
+     * Constructs a new {@code NmeaReader}
+     * @param source NMEA file input stream
+     * @param lean if {@code true}, only the time, elevation, hdop and fix of the points are read,
+     * and the track is stored in a {@link CompactGpxTrackSegment}, which needs much less memory for large files
+     * @throws IOException if an I/O error occurs
+     */
+    public NmeaReader(InputStream source, boolean lean) throws IOException {
         this.source = Objects.requireNonNull(source);
+        this.lean = lean;
     }
 
     @Override
@@ -97,31 +113,39 @@ public class NmeaReader implements IGpxReader {
         try (BufferedReader rd = new BufferedReader(new InputStreamReader(source, StandardCharsets.UTF_8))) {
             StringBuilder sb = new StringBuilder(1024);
             int loopstartChar = rd.read();
-            ps = new NmeaParser();
+            ps = new NmeaParser(lean);
             if (loopstartChar == -1)
                 //TODO tell user about the problem?
                 return false;
             sb.append((char) loopstartChar);
-            while (true) {
-                // don't load unparsable files completely to memory
-                if (sb.length() >= 1020) {
-                    sb.delete(0, sb.length()-1);
-                }
-                int c = rd.read();
-                if (c == '$') {
-                    ps.parseNMEASentence(sb.toString());
-                    sb.delete(0, sb.length());
-                    sb.append('$');
-                } else if (c == -1) {
-                    // EOF: add last WayPoint if it works out
-                    ps.parseNMEASentence(sb.toString());
-                    break;
-                } else {
-                    sb.append((char) c);
+            char[] buffer = new char[8192];
+            int length;
+            while ((length = rd.read(buffer)) != -1) {
+                for (int i = 0; i < length; i++) {
+                    // don't load unparsable files completely to memory
+                    truncate(sb);
+                    char c = buffer[i];
+                    if (c == '$') {
+                        ps.parseNMEASentence(sb.toString());
+                        sb.setLength(0);
+                        sb.append('$');
+                    } else {
+                        sb.append(c);
+                    }
                 }
             }
-            currentTrack.add(ps.getWaypoints());
-            data.tracks.add(new GpxTrack(currentTrack, Collections.<String, Object>emptyMap()));
+            // EOF: add last WayPoint if it works out
+            truncate(sb);
+            ps.parseNMEASentence(sb.toString());
+            if (lean) {
+                CompactGpxTrackSegment segment = ps.getCompactSegment();
+                List<IGpxTrackSegment> segments = segment.size() > 0
+                        ? Collections.singletonList(segment) : Collections.emptyList();
+                data.tracks.add(new GpxTrack(segments, Collections.<String, Object>emptyMap()));
+            } else {
+                currentTrack.add(ps.getWaypoints());
+                data.tracks.add(new GpxTrack(currentTrack, Collections.<String, Object>emptyMap()));
+            }
 
         } catch (IllegalDataException e) {
             Logging.warn(e);
@@ -130,6 +154,12 @@ public class NmeaReader implements IGpxReader {
         return true;
     }
 
+    private static void truncate(StringBuilder sb) {
+        if (sb.length() >= 1020) {
+            sb.delete(0, sb.length()-1);
+        }
+    }
+
     @Override
     public GpxData getGpxData() {
         return data;
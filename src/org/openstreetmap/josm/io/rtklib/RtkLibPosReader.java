@@ -6,15 +6,19 @@ import java.io.IOException;
 import java.io.InputStream;
 import java.io.InputStreamReader;
 import java.nio.charset.StandardCharsets;
+import java.time.Instant;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.List;
 import java.util.Objects;
 
 import org.openstreetmap.josm.data.coor.LatLon;
+import org.openstreetmap.josm.data.gpx.CompactGpxTrackSegment;
 import org.openstreetmap.josm.data.gpx.GpxConstants;
 import org.openstreetmap.josm.data.gpx.GpxData;
 import org.openstreetmap.josm.data.gpx.GpxTrack;
+import org.openstreetmap.josm.data.gpx.IGpxTrackSegment;
 import org.openstreetmap.josm.data.gpx.WayPoint;
 import org.openstreetmap.josm.io.IGpxReader;
 import org.openstreetmap.josm.tools.Logging;
@@ -46,6 +50,7 @@ public class RtkLibPosReader implements IGpxReader {
     private static final int IDX_RATIO = 14;
 
     private final InputStream source;
+    private final boolean lean;
     private GpxData data;
     private int success; // number of successfully parsed lines
 
@@ -55,7 +60,44 @@ public class RtkLibPosReader implements IGpxReader {
      * @throws IOException if an I/O error occurs
      */
     public RtkLibPosReader(InputStream source) throws IOException {
+        this(source, false);
+    }
+
+    /**
+     * Constructs a new {@code RtkLibPosReader}
+     * @param source RTKLib .pos file input stream
+     * @param lean if {@code true}, only the time, elevation, quality and hdop of the points are read,
+     * and the track is stored in a {@link CompactGpxTrackSegment}, which needs much less memory for large files
+     * @throws IOException if an I/O error occurs
+     */
+    public RtkLibPosReader(InputStream source, boolean lean) throws IOException {
         this.source = Objects.requireNonNull(source);
+        this.lean = lean;
+    }
+
+    /**
+     * Splits a line at the runs of spaces, like {@code line.split("[ ]+", -1)} without regular expression.
+     * @param line the line
+     * @return the fields
+     */
+    static String[] splitFields(String line) {
+        List<String> fields = new ArrayList<>(IDX_RATIO + 1);
+        final int length = line.length();
+        int start = 0;
+        int i = 0;
+        while (i < length) {
+            if (line.charAt(i) == ' ') {
+                fields.add(line.substring(start, i));
+                while (i < length && line.charAt(i) == ' ') {
+                    i++;
+                }
+                start = i;
+            } else {
+                i++;
+            }
+        }
+        fields.add(line.substring(start));
+        return fields.toArray(new String[0]);
     }
 
     @Override
@@ -63,6 +105,7 @@ public class RtkLibPosReader implements IGpxReader {
         data = new GpxData();
         Collection<Collection<WayPoint>> currentTrack = new ArrayList<>();
         Collection<WayPoint> waypoints = new ArrayList<>();
+        CompactGpxTrackSegment.Builder compact = lean ? new CompactGpxTrackSegment.Builder() : null;
         try (BufferedReader rd = new BufferedReader(new InputStreamReader(source, StandardCharsets.UTF_8))) {
             String line;
             do {
@@ -72,26 +115,12 @@ public class RtkLibPosReader implements IGpxReader {
                         // TODO add marker
                     } else if (!line.startsWith("%")) {
                         try {
-                            String[] fields = line.split("[ ]+", -1);
-                            WayPoint currentwp = new WayPoint(new LatLon(
-                                    Double.parseDouble(fields[IDX_LAT]),
-                                    Double.parseDouble(fields[IDX_LON])));
-                            currentwp.put(GpxConstants.PT_ELE, fields[IDX_HEIGHT]);
-                            currentwp.setInstant(DateUtils.parseInstant(fields[IDX_DATE]+" "+fields[IDX_TIME]));
-                            currentwp.put(GpxConstants.RTKLIB_Q, Integer.parseInt(fields[IDX_Q]));
-                            currentwp.put(GpxConstants.PT_SAT, fields[IDX_NS]);
-                            currentwp.put(GpxConstants.RTKLIB_SDN, fields[IDX_SDN]);
-                            currentwp.put(GpxConstants.RTKLIB_SDE, fields[IDX_SDE]);
-                            currentwp.put(GpxConstants.RTKLIB_SDU, fields[IDX_SDU]);
-                            currentwp.put(GpxConstants.RTKLIB_SDNE, fields[IDX_SDNE]);
-                            currentwp.put(GpxConstants.RTKLIB_SDEU, fields[IDX_SDEU]);
-                            currentwp.put(GpxConstants.RTKLIB_SDUN, fields[IDX_SDUN]);
-                            currentwp.put(GpxConstants.RTKLIB_AGE, fields[IDX_AGE]);
-                            currentwp.put(GpxConstants.RTKLIB_RATIO, fields[IDX_RATIO]);
-                            double sdn = Double.parseDouble(fields[IDX_SDN]);
-                            double sde = Double.parseDouble(fields[IDX_SDE]);
-                            currentwp.put(GpxConstants.PT_HDOP, (float) Math.sqrt(sdn*sdn + sde*sde));
-                            waypoints.add(currentwp);
+                            String[] fields = splitFields(line);
+                            if (compact != null) {
+                                parseLean(fields, compact);
+                            } else {
+                                waypoints.add(parseWayPoint(fields));
+                            }
                             success++;
                         } catch (IllegalArgumentException e) {
                             Logging.error(e);
@@ -100,11 +129,53 @@ public class RtkLibPosReader implements IGpxReader {
                 }
             } while (line != null);
         }
-        currentTrack.add(waypoints);
-        data.tracks.add(new GpxTrack(currentTrack, Collections.<String, Object>emptyMap()));
+        if (compact != null) {
+            List<IGpxTrackSegment> segments = compact.size() > 0
+                    ? Collections.singletonList(compact.build()) : Collections.emptyList();
+            data.tracks.add(new GpxTrack(segments, Collections.<String, Object>emptyMap()));
+        } else {
+            currentTrack.add(waypoints);
+            data.tracks.add(new GpxTrack(currentTrack, Collections.<String, Object>emptyMap()));
+        }
         return true;
     }
 
+    private static WayPoint parseWayPoint(String[] fields) {
+        WayPoint currentwp = new WayPoint(new LatLon(
+                Double.parseDouble(fields[IDX_LAT]),
+                Double.parseDouble(fields[IDX_LON])));
+        currentwp.put(GpxConstants.PT_ELE, fields[IDX_HEIGHT]);
+        currentwp.setInstant(DateUtils.parseInstant(fields[IDX_DATE]+" "+fields[IDX_TIME]));
+        currentwp.put(GpxConstants.RTKLIB_Q, Integer.parseInt(fields[IDX_Q]));
+        currentwp.put(GpxConstants.PT_SAT, fields[IDX_NS]);
+        currentwp.put(GpxConstants.RTKLIB_SDN, fields[IDX_SDN]);
+        currentwp.put(GpxConstants.RTKLIB_SDE, fields[IDX_SDE]);
+        currentwp.put(GpxConstants.RTKLIB_SDU, fields[IDX_SDU]);
+        currentwp.put(GpxConstants.RTKLIB_SDNE, fields[IDX_SDNE]);
+        currentwp.put(GpxConstants.RTKLIB_SDEU, fields[IDX_SDEU]);
+        currentwp.put(GpxConstants.RTKLIB_SDUN, fields[IDX_SDUN]);
+        currentwp.put(GpxConstants.RTKLIB_AGE, fields[IDX_AGE]);
+        currentwp.put(GpxConstants.RTKLIB_RATIO, fields[IDX_RATIO]);
+        double sdn = Double.parseDouble(fields[IDX_SDN]);
+        double sde = Double.parseDouble(fields[IDX_SDE]);
+        currentwp.put(GpxConstants.PT_HDOP, (float) Math.sqrt(sdn*sdn + sde*sde));
+        return currentwp;
+    }
+
+    /**
+     * Parses the fields of a line in the order of {@link #parseWayPoint}, and adds the point to the compact segment.
+     */
+    private static void parseLean(String[] fields, CompactGpxTrackSegment.Builder compact) {
+        LatLon latLon = new LatLon(Double.parseDouble(fields[IDX_LAT]), Double.parseDouble(fields[IDX_LON]));
+        String ele = fields[IDX_HEIGHT];
+        Instant instant = DateUtils.parseInstant(fields[IDX_DATE]+" "+fields[IDX_TIME]);
+        int q = Integer.parseInt(fields[IDX_Q]);
+        Objects.checkIndex(IDX_RATIO, fields.length);
+        double sdn = Double.parseDouble(fields[IDX_SDN]);
+        double sde = Double.parseDouble(fields[IDX_SDE]);
+        compact.add(latLon.lat(), latLon.lon(), instant, ele, (float) Math.sqrt(sdn*sdn + sde*sde), null, q);
+    }
+
     @Override
     public GpxData getGpxData() {
         return data;
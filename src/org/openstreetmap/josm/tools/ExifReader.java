@@ -6,6 +6,8 @@ import java.io.File;
 import java.io.IOException;
 import java.time.DateTimeException;
 import java.time.Instant;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
 import java.util.concurrent.TimeUnit;
 
@@ -15,6 +17,10 @@ import org.openstreetmap.josm.tools.date.DateUtils;
 
 import com.drew.imaging.jpeg.JpegMetadataReader;
 import com.drew.imaging.jpeg.JpegProcessingException;
+import com.drew.imaging.jpeg.JpegSegmentData;
+import com.drew.imaging.jpeg.JpegSegmentReader;
+import com.drew.imaging.jpeg.JpegSegmentType;
+import com.drew.lang.ByteArrayReader;
 import com.drew.lang.Rational;
 import com.drew.metadata.Directory;
 import com.drew.metadata.Metadata;
@@ -22,6 +28,7 @@ import com.drew.metadata.MetadataException;
 import com.drew.metadata.Tag;
 import com.drew.metadata.exif.ExifDirectoryBase;
 import com.drew.metadata.exif.ExifIFD0Directory;
+import com.drew.metadata.exif.ExifThumbnailDirectory;
 import com.drew.metadata.exif.GpsDirectory;
 import com.drew.metadata.iptc.IptcDirectory;
 
@@ -363,6 +370,39 @@ public final class ExifReader {
         return dirIptc == null ? null : dirIptc.getDescription(IptcDirectory.TAG_OBJECT_NAME);
     }
 
+    /**
+     * Returns the thumbnail embedded in the EXIF section of the given JPEG file.
+     * Only the metadata segments are read, not the image itself.
+     * @param filename The JPEG file to read
+     * @return The JPEG encoded thumbnail, or {@code null} if not found
+     */
+    public static byte[] readThumbnail(File filename) {
+        try {
+            final JpegSegmentData segments = JpegSegmentReader.readSegments(filename, Collections.singleton(JpegSegmentType.APP1));
+            for (byte[] segment : segments.getSegments(JpegSegmentType.APP1)) {
+                if (!com.drew.metadata.exif.ExifReader.startsWithJpegExifPreamble(segment)) {
+                    continue;
+                }
+                final Metadata metadata = new Metadata();
+                new com.drew.metadata.exif.ExifReader().extract(new ByteArrayReader(segment), metadata,
+                        com.drew.metadata.exif.ExifReader.JPEG_SEGMENT_PREAMBLE.length());
+                final ExifThumbnailDirectory dir = metadata.getFirstDirectoryOfType(ExifThumbnailDirectory.class);
+                if (dir == null) {
+                    continue;
+                }
+                // the offset is relative to the segment
+                final Integer offset = dir.getAdjustedThumbnailOffset();
+                final Integer length = dir.getInteger(ExifThumbnailDirectory.TAG_THUMBNAIL_LENGTH);
+                if (offset != null && length != null && offset > 0 && length > 0 && (long) offset + length <= segment.length) {
+                    return Arrays.copyOfRange(segment, offset, offset + length);
+                }
+            }
+        } catch (JpegProcessingException | IOException e) {
+            Logging.debug(e);
+        }
+        return null;
+    }
+
     /**
      * Returns a Transform that fixes the image orientation.
      * <p>
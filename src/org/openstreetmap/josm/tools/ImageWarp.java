@@ -11,6 +11,7 @@ import java.util.HashSet;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Set;
+import java.util.stream.IntStream;
 
 /**
  * Image warping algorithm.
@@ -153,6 +154,71 @@ public final class ImageWarp {
         BILINEAR;
     }
 
+    /**
+     * Thread-safe, random access variant of {@link GridTransform}.
+     * <p>
+     * The master transform is invoked in advance at all grid points covering the target image, in parallel.
+     * The grid points are aligned to multiples of the step size in a coordinate system shifted by a given offset,
+     * so that the master transform may share grid points between adjacent images, e.g. tiles.
+     */
+    public static class LatticeTransform implements ImageWarp.PointTransform {
+
+        private final double stride;
+        private final double offsetX;
+        private final double offsetY;
+        private final int minXIdx;
+        private final int minYIdx;
+        private final int cols;
+        private final int rows;
+        private final double[] valuesX;
+        private final double[] valuesY;
+
+        /**
+         * Create a new LatticeTransform.
+         * @param trfm the master transform, invoked with shifted coordinates; it must be thread-safe
+         * @param stride step size
+         * @param offsetX offset added to the x coordinates before calling the master transform
+         * @param offsetY offset added to the y coordinates before calling the master transform
+         * @param width width of the target image
+         * @param height height of the target image
+         */
+        public LatticeTransform(ImageWarp.PointTransform trfm, double stride, double offsetX, double offsetY, int width, int height) {
+            this.stride = stride;
+            this.offsetX = offsetX;
+            this.offsetY = offsetY;
+            this.minXIdx = (int) Math.floor(offsetX / stride);
+            this.minYIdx = (int) Math.floor(offsetY / stride);
+            this.cols = (int) Math.floor((offsetX + width) / stride) - minXIdx + 2;
+            this.rows = (int) Math.floor((offsetY + height) / stride) - minYIdx + 2;
+            this.valuesX = new double[cols * rows];
+            this.valuesY = new double[cols * rows];
+            IntStream.range(0, rows).parallel().forEach(j -> {
+                for (int i = 0; i < cols; i++) {
+                    Point2D value = trfm.transform((minXIdx + i) * stride, (minYIdx + j) * stride);
+                    valuesX[j * cols + i] = value.getX();
+                    valuesY[j * cols + i] = value.getY();
+                }
+            });
+        }
+
+        @Override
+        public Point2D transform(double x, double y) {
+            double gx = (x + offsetX) / stride;
+            double gy = (y + offsetY) / stride;
+            int xIdx = Utils.clamp((int) Math.floor(gx) - minXIdx, 0, cols - 2);
+            int yIdx = Utils.clamp((int) Math.floor(gy) - minYIdx, 0, rows - 2);
+            double dx = gx - minXIdx - xIdx;
+            double dy = gy - minYIdx - yIdx;
+            int i00 = yIdx * cols + xIdx;
+            int i01 = i00 + cols;
+            double valueX = (valuesX[i00] * (1-dx) + valuesX[i00 + 1] * dx) * (1-dy) +
+                    (valuesX[i01] * (1-dx) + valuesX[i01 + 1] * dx) * dy;
+            double valueY = (valuesY[i00] * (1-dx) + valuesY[i00 + 1] * dx) * (1-dy) +
+                    (valuesY[i01] * (1-dx) + valuesY[i01 + 1] * dx) * dy;
+            return new Point2D.Double(valueX, valueY);
+        }
+    }
+
     /**
      * Warp an image.
      * @param srcImg the original image
@@ -163,49 +229,71 @@ public final class ImageWarp {
      * @return the warped image
      */
     public static BufferedImage warp(BufferedImage srcImg, Dimension targetDim, PointTransform invTransform, Interpolation interpolation) {
+        return warp(srcImg, targetDim, invTransform, interpolation, false);
+    }
+
+    /**
+     * Warp an image, optionally processing the rows in parallel.
+     * @param srcImg the original image
+     * @param targetDim dimension of the target image
+     * @param invTransform inverse transformation (translates pixel coordinates
+     * of the target image to pixel coordinates of the original image). For parallel processing, it must be thread-safe
+     * and support random access, like {@link LatticeTransform}, but unlike {@link GridTransform}.
+     * @param interpolation the interpolation method
+     * @param parallel whether the rows are processed in parallel in the common fork-join pool
+     * @return the warped image
+     */
+    public static BufferedImage warp(BufferedImage srcImg, Dimension targetDim, PointTransform invTransform, Interpolation interpolation,
+            boolean parallel) {
         BufferedImage imgTarget = new BufferedImage(targetDim.width, targetDim.height, BufferedImage.TYPE_INT_ARGB);
+        IntStream rows = IntStream.range(0, imgTarget.getHeight());
+        (parallel ? rows.parallel() : rows).forEach(j -> warpRow(srcImg, imgTarget, j, invTransform, interpolation));
+        return imgTarget;
+    }
+
+    private static void warpRow(BufferedImage srcImg, BufferedImage imgTarget, int j, PointTransform invTransform,
+            Interpolation interpolation) {
         Rectangle2D srcRect = new Rectangle2D.Double(0, 0, srcImg.getWidth(), srcImg.getHeight());
         // These arrays reduce the amount of memory allocations (getRGB and setRGB are
         // collectively 40% of the memory cost, 78% if LambdaForm#linkToTargetMethod is
         // ignored). We mostly want to decrease GC pauses here.
-        final int[] pixel = new int[1]; // Yes, this really does decrease memory allocations with TYPE_INT_ARGB.
+        // TYPE_INT_ARGB stores the ARGB value as data element, so a whole row is written at once.
+        final int[] row = new int[imgTarget.getWidth()];
         final Object sharedArray = getSharedArray(srcImg);
-        for (int j = 0; j < imgTarget.getHeight(); j++) {
-            for (int i = 0; i < imgTarget.getWidth(); i++) {
-                Point2D srcCoord = invTransform.transform(i, j);
-                if (srcRect.contains(srcCoord)) {
-                    int rgba;
-                    switch (interpolation) {
-                        case NEAREST_NEIGHBOR:
-                            rgba = getColor((int) Math.round(srcCoord.getX()), (int) Math.round(srcCoord.getY()), srcImg, sharedArray);
-                            break;
-                        case BILINEAR:
-                            int x0 = (int) Math.floor(srcCoord.getX());
-                            double dx = srcCoord.getX() - x0;
-                            int y0 = (int) Math.floor(srcCoord.getY());
-                            double dy = srcCoord.getY() - y0;
-                            int c00 = getColor(x0, y0, srcImg, sharedArray);
-                            int c01 = getColor(x0, y0 + 1, srcImg, sharedArray);
-                            int c10 = getColor(x0 + 1, y0, srcImg, sharedArray);
-                            int c11 = getColor(x0 + 1, y0 + 1, srcImg, sharedArray);
-                            rgba = 0;
-                            // loop over color components: blue, green, red, alpha
-                            for (int ch = 0; ch <= 3; ch++) {
-                                int shift = 8 * ch;
-                                int chVal = (int) Math.round(
-                                    (((c00 >> shift) & 0xff) * (1-dx) + ((c10 >> shift) & 0xff) * dx) * (1-dy) +
-                                    (((c01 >> shift) & 0xff) * (1-dx) + ((c11 >> shift) & 0xff) * dx) * dy);
-                                rgba |= chVal << shift;
-                            }
-                            break;
-                        default:
-                            throw new AssertionError(Objects.toString(interpolation));
-                    }
-                    imgTarget.getRaster().setDataElements(i, j, imgTarget.getColorModel().getDataElements(rgba, pixel));
+        for (int i = 0; i < row.length; i++) {
+            Point2D srcCoord = invTransform.transform(i, j);
+            if (srcRect.contains(srcCoord)) {
+                int rgba;
+                switch (interpolation) {
+                    case NEAREST_NEIGHBOR:
+                        rgba = getColor((int) Math.round(srcCoord.getX()), (int) Math.round(srcCoord.getY()), srcImg, sharedArray);
+                        break;
+                    case BILINEAR:
+                        int x0 = (int) Math.floor(srcCoord.getX());
+                        double dx = srcCoord.getX() - x0;
+                        int y0 = (int) Math.floor(srcCoord.getY());
+                        double dy = srcCoord.getY() - y0;
+                        int c00 = getColor(x0, y0, srcImg, sharedArray);
+                        int c01 = getColor(x0, y0 + 1, srcImg, sharedArray);
+                        int c10 = getColor(x0 + 1, y0, srcImg, sharedArray);
+                        int c11 = getColor(x0 + 1, y0 + 1, srcImg, sharedArray);
+                        rgba = 0;
+                        // loop over color components: blue, green, red, alpha
+                        for (int ch = 0; ch <= 3; ch++) {
+                            int shift = 8 * ch;
+                            int chVal = (int) Math.round(
+                                (((c00 >> shift) & 0xff) * (1-dx) + ((c10 >> shift) & 0xff) * dx) * (1-dy) +
+                                (((c01 >> shift) & 0xff) * (1-dx) + ((c11 >> shift) & 0xff) * dx) * dy);
+                            rgba |= chVal << shift;
+                        }
+                        break;
+                    default:
+                        throw new AssertionError(Objects.toString(interpolation));
                 }
+                row[i] = rgba;
             }
         }
-        return imgTarget;
+        imgTarget.getRaster().setDataElements(0, j, row.length, 1, row);
     }
 
     private static Object getSharedArray(BufferedImage srcImg) {
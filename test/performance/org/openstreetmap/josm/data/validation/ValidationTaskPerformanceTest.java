@@ -1,6 +1,7 @@
 // License: GPL. For details, see LICENSE file.
 package org.openstreetmap.josm.data.validation;
 
+import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
 import java.util.Collection;
@@ -62,4 +63,24 @@ class ValidationTaskPerformanceTest {
             assertTrue(validationTask.getErrors().size() > 3000);
         });
     }
+
+    /**
+     * Runs the validation task on a test dataset and prints the time spent in each test and MapCSS rule.
+     */
+    @Test
+    void testProfile() {
+        DataSet dataSet = MainApplication.getLayerManager().getActiveDataSet();
+        Collection<OsmPrimitive> primitives = dataSet.allPrimitives();
+
+        ValidationTask validationTask = new ValidationTask(NullProgressMonitor.INSTANCE, tests, primitives, primitives);
+        validationTask.setProfile(new ValidationProfile());
+        validationTask.realRun();
+        ValidationProfile profile = validationTask.getProfile();
+        assertFalse(profile.getTestTimings().isEmpty());
+        assertFalse(profile.getRuleTimings().isEmpty());
+        System.out.println(profile);
+        profile.getRuleTimings().stream().limit(20).forEach(r ->
+                System.out.println(String.format("%10.1f ms %10d/%10d %s %s",
+                        r.getMillis(), r.getMatches(), r.getEvaluations(), r.getSource(), r.getRule())));
+    }
 }
@@ -2,6 +2,8 @@
 package org.openstreetmap.josm.data.cache;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
 import java.io.IOException;
@@ -66,6 +68,55 @@ class HostLimitQueueTest {
         }
     }
 
+    /**
+     * Mock class with download priority
+     */
+    static class PriorityTask extends Task {
+        private final double priority;
+        private boolean canceled;
+
+        PriorityTask(ICacheAccess<String, CacheEntry> cache, URL url, double priority) {
+            super(cache, url, new AtomicInteger());
+            this.priority = priority;
+        }
+
+        @Override
+        public double getDownloadPriority() {
+            return priority;
+        }
+
+        @Override
+        public void handleJobCancellation() {
+            canceled = true;
+        }
+    }
+
+    /**
+     * Check that jobs are taken by priority, and jobs which are not needed anymore are canceled
+     * @throws Exception in case of error
+     */
+    @Test
+    void testPriority() throws Exception {
+        HostLimitQueue queue = new HostLimitQueue(1);
+        ICacheAccess<String, CacheEntry> cache = JCSCacheManager.getCache("test", 3, 0, "");
+        PriorityTask far = new PriorityTask(cache, new URL("http://localhost/far"), 5);
+        PriorityTask offscreen = new PriorityTask(cache, new URL("http://localhost/offscreen"), Double.POSITIVE_INFINITY);
+        PriorityTask near = new PriorityTask(cache, new URL("http://localhost/near"), 1);
+        PriorityTask otherHost = new PriorityTask(cache, new URL("http://hostlocal/other"), 3);
+        queue.offer(far);
+        queue.offer(offscreen);
+        queue.offer(near);
+        queue.offer(otherHost);
+        assertSame(near, queue.take());
+        assertTrue(offscreen.canceled);
+        // localhost is at its limit, so the job of the other host is taken first
+        assertSame(otherHost, queue.take());
+        near.executionFinished();
+        assertSame(far, queue.poll(1, TimeUnit.SECONDS));
+        assertTrue(queue.isEmpty());
+        assertFalse(far.canceled);
+    }
+
     /**
      * Check if single threaded execution works properly
      * @throws Exception in case of error
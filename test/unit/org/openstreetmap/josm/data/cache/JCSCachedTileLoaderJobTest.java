@@ -13,11 +13,15 @@ import static org.junit.jupiter.api.Assertions.assertArrayEquals;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assertions.fail;
 
 import java.io.IOException;
 import java.net.MalformedURLException;
 import java.net.URL;
 import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
 import java.util.concurrent.TimeUnit;
 
 import com.github.tomakehurst.wiremock.junit5.WireMockRuntimeInfo;
@@ -51,6 +55,7 @@ class JCSCachedTileLoaderJobTest {
     private static class TestCachedTileLoaderJob extends JCSCachedTileLoaderJob<String, CacheEntry> {
         private final String url;
         private final String key;
+        private boolean staleWhileRevalidate;
 
         TestCachedTileLoaderJob(String url, String key) {
             this(url, key, (int) TimeUnit.DAYS.toSeconds(1));
@@ -81,6 +86,11 @@ class JCSCachedTileLoaderJobTest {
         protected CacheEntry createCacheEntry(byte[] content) {
             return new CacheEntry(content);
         }
+
+        @Override
+        protected boolean isStaleWhileRevalidateAllowed() {
+            return staleWhileRevalidate;
+        }
     }
 
     private static final class Listener implements ICachedLoaderListener {
@@ -88,6 +98,7 @@ class JCSCachedTileLoaderJobTest {
         private boolean ready;
         private LoadResult result;
         private byte[] data;
+        private final List<byte[]> received = new ArrayList<>();
 
         @Override
         public synchronized void loadingFinished(CacheEntry data, CacheEntryAttributes attributes, LoadResult result) {
@@ -97,6 +108,7 @@ class JCSCachedTileLoaderJobTest {
             if (data != null) {
                 this.data = data.content;
             }
+            this.received.add(this.data);
             this.notifyAll();
         }
     }
@@ -540,6 +552,49 @@ class JCSCachedTileLoaderJobTest {
         tileServer.getWireMock().verifyThat(1, getRequestedFor(urlEqualTo("/test"))); // no more requests were made
     }
 
+    /**
+     * Check that an expired entry is returned at once, when allowed, and listeners are notified again after it has been
+     * replaced in background
+     * @throws IOException exception
+     */
+    @Test
+    void testStaleWhileRevalidate() throws IOException {
+        ICacheAccess<String, CacheEntry> cache = getCache();
+        long expires = TimeUnit.DAYS.toMillis(1);
+        long testStart = System.currentTimeMillis();
+        cache.put("test",
+                new CacheEntry("cached dummy".getBytes(StandardCharsets.UTF_8)),
+                createEntryAttributes(-1 * expires, 200, testStart, "eTag")
+                );
+        createHeadGetStub(urlEqualTo("/test"), expires, testStart, "newTag", "mock entry");
+
+        TestCachedTileLoaderJob job = new TestCachedTileLoaderJob(tileServer.getHttpBaseUrl() + "/test", "test");
+        job.staleWhileRevalidate = true;
+        Listener listener = submitJob(job, false);
+        byte[] fresh = "mock entry".getBytes(StandardCharsets.UTF_8);
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        synchronized (listener) {
+            // the stale entry is returned at once, the refreshed one follows from the background revalidation
+            assertArrayEquals("cached dummy".getBytes(StandardCharsets.UTF_8), listener.received.get(0));
+            while (!Arrays.equals(fresh, listener.data)) {
+                long remaining = TimeUnit.NANOSECONDS.toMillis(deadline - System.nanoTime());
+                if (remaining <= 0) {
+                    fail("Background revalidation did not finish in time");
+                }
+                try {
+                    listener.wait(remaining);
+                } catch (InterruptedException e) {
+                    // do nothing, wait
+                    Logging.trace(e);
+                }
+            }
+            assertEquals(2, listener.received.size());
+        }
+        assertEquals(LoadResult.SUCCESS, listener.result);
+        tileServer.getWireMock().verifyThat(1, getRequestedFor(urlEqualTo("/test")));
+        assertArrayEquals(fresh, cache.get("test").getContent());
+    }
+
     private void createHeadGetStub(UrlPattern url, long expires, long lastModified, String eTag, String body) {
         tileServer.getWireMock().register(get(url)
                 .willReturn(aResponse()
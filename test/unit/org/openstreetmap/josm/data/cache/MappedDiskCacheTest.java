@@ -0,0 +1,261 @@
+// License: GPL. For details, see LICENSE file.
+package org.openstreetmap.josm.data.cache;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+
+import org.apache.commons.jcs3.engine.CacheElement;
+import org.apache.commons.jcs3.engine.behavior.ICacheElement;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * Unit tests of {@link MappedDiskCache}.
+ */
+class MappedDiskCacheTest {
+    @TempDir
+    File dir;
+
+    private MappedDiskCache<String, Object> open(int maxKeySize) throws IOException {
+        MappedDiskCacheAttributes attributes = new MappedDiskCacheAttributes();
+        attributes.setCacheName("test_MMAP_v1");
+        attributes.setDiskPath(dir);
+        attributes.setMaxKeySize(maxKeySize);
+        return new MappedDiskCacheFactory().createCache(attributes, null, null, null);
+    }
+
+    private static void putTile(MappedDiskCache<String, Object> cache, String key, byte[] content) throws IOException {
+        CacheEntryAttributes attributes = new CacheEntryAttributes();
+        attributes.setEtag("etag-" + key);
+        attributes.setResponseCode(203);
+        cache.processUpdate(new CacheElement<>("TMS", key, new BufferedImageCacheEntry(content), attributes));
+    }
+
+    private static byte[] content(int i, int size) {
+        byte[] content = new byte[size];
+        Arrays.fill(content, (byte) i);
+        return content;
+    }
+
+    private static void assertTile(MappedDiskCache<String, Object> cache, String key, byte[] content) throws IOException {
+        ICacheElement<String, Object> element = cache.processGet(key);
+        assertEquals("TMS", element.getCacheName());
+        assertEquals(key, element.getKey());
+        assertInstanceOf(BufferedImageCacheEntry.class, element.getVal());
+        assertArrayEquals(content, ((BufferedImageCacheEntry) element.getVal()).getContent());
+        CacheEntryAttributes attributes = (CacheEntryAttributes) element.getElementAttributes();
+        assertEquals("etag-" + key, attributes.getEtag());
+        assertEquals(203, attributes.getResponseCode());
+    }
+
+    /**
+     * Tiles and other values are stored and restored after a restart.
+     * @throws IOException never
+     */
+    @Test
+    void testStoreAndReopen() throws IOException {
+        MappedDiskCache<String, Object> cache = open(-1);
+        putTile(cache, "osm:1/0/0", content(1, 100));
+        putTile(cache, "osm:1/0/1", content(2, 200));
+        cache.processUpdate(new CacheElement<>("TMS", "other", "some value"));
+        putTile(cache, "osm:1/0/1", content(3, 300));
+        assertEquals(3, cache.getSize());
+        assertTile(cache, "osm:1/0/1", content(3, 300));
+        assertNull(cache.processGet("osm:1/1/1"));
+        cache.dispose();
+        assertTrue(new File(dir, "test_MMAP_v1.key").isFile());
+
+        cache = open(-1);
+        assertEquals(3, cache.getSize());
+        assertTile(cache, "osm:1/0/0", content(1, 100));
+        assertTile(cache, "osm:1/0/1", content(3, 300));
+        assertEquals("some value", cache.processGet("other").getVal());
+        assertEquals(new HashSet<>(Arrays.asList("osm:1/0/0", "osm:1/0/1", "other")), cache.getKeySet());
+        cache.dispose();
+    }
+
+    /**
+     * Restored tiles keep their creation time and get the default element attributes of the cache region.
+     * @throws IOException never
+     */
+    @Test
+    void testElementAttributes() throws IOException {
+        long createTime = System.currentTimeMillis() - 3_600_000;
+        MappedDiskCache<String, Object> cache = open(-1);
+        CacheEntryAttributes attributes = new CacheEntryAttributes();
+        attributes.restoreCreateTime(createTime);
+        cache.processUpdate(new CacheElement<>("TMS", "osm:1/0/0", new BufferedImageCacheEntry(content(1, 100)), attributes));
+        cache.dispose();
+
+        CacheEntryAttributes defaults = new CacheEntryAttributes();
+        defaults.setIsEternal(false);
+        defaults.setMaxLife(7200);
+        defaults.setIdleTime(7200);
+        cache = open(-1);
+        cache.setDefaultElementAttributes(defaults);
+        CacheEntryAttributes restored = (CacheEntryAttributes) cache.processGet("osm:1/0/0").getElementAttributes();
+        assertEquals(createTime, restored.getCreateTime());
+        assertFalse(restored.getIsEternal());
+        assertEquals(7200, restored.getMaxLife());
+        assertEquals(7200, restored.getIdleTime());
+        assertEquals("200", restored.getMetadata().get("httpResponseCode"));
+        // the metadata of the restored tile is not shared with the defaults
+        restored.setEtag("etag");
+        assertNull(defaults.getEtag());
+        cache.dispose();
+    }
+
+    /**
+     * The index is rebuilt from the data file if the cache was not closed, and incomplete records are discarded.
+     * @throws IOException never
+     */
+    @Test
+    void testRebuildIndex() throws IOException {
+        MappedDiskCache<String, Object> cache = open(-1);
+        putTile(cache, "osm:1/0/0", content(1, 100));
+        cache.dispose();
+        // simulate a crash: records appended after the index was saved, the last one incomplete
+        cache = open(-1);
+        putTile(cache, "osm:1/0/1", content(2, 200));
+        assertTrue(cache.processRemove("osm:1/0/0"));
+        putTile(cache, "osm:1/1/1", content(3, 300));
+        File dataFile = new File(dir, "test_MMAP_v1.data");
+        long length = dataFile.length();
+
+        try (RandomAccessFile file = new RandomAccessFile(dataFile, "rw")) {
+            file.setLength(length - 10);
+        }
+        cache = open(-1);
+        assertEquals(1, cache.getSize());
+        assertNull(cache.processGet("osm:1/0/0"));
+        assertTile(cache, "osm:1/0/1", content(2, 200));
+        assertNull(cache.processGet("osm:1/1/1"));
+        assertTrue(dataFile.length() < length - 10);
+        cache.dispose();
+
+        // corrupted index
+        try (RandomAccessFile file = new RandomAccessFile(new File(dir, "test_MMAP_v1.key"), "rw")) {
+            file.seek(20);
+            file.write(42);
+        }
+        cache = open(-1);
+        assertEquals(1, cache.getSize());
+        assertTile(cache, "osm:1/0/1", content(2, 200));
+        cache.dispose();
+    }
+
+    /**
+     * All entries of a tile source can be removed.
+     * @throws IOException never
+     */
+    @Test
+    void testRemove() throws IOException {
+        MappedDiskCache<String, Object> cache = open(-1);
+        for (int i = 0; i < 10; i++) {
+            putTile(cache, "osm:1/0/" + i, content(i, 10));
+            putTile(cache, "bing:1/0/" + i, content(i, 10));
+        }
+        assertTrue(cache.processRemove("osm:"));
+        assertFalse(cache.processRemove("osm:1/0/1"));
+        assertEquals(10, cache.getSize());
+        assertTrue(cache.getKeySet().stream().allMatch(k -> k.startsWith("bing:")));
+        cache.processRemoveAll();
+        assertEquals(0, cache.getSize());
+        assertEquals(MappedDiskCache.HEADER_SIZE, new File(dir, "test_MMAP_v1.data").length());
+        cache.dispose();
+        cache = open(-1);
+        assertEquals(Collections.emptySet(), cache.getKeySet());
+        cache.dispose();
+    }
+
+    /**
+     * The size limit is enforced with CLOCK eviction, which keeps recently used entries, and the data file is compacted.
+     * @throws IOException never
+     */
+    @Test
+    void testEvictionAndCompaction() throws IOException {
+        int tileSize = 64 * 1024;
+        int maxKeySize = 4 * 1024; // 64 tiles
+        MappedDiskCache<String, Object> cache = open(maxKeySize);
+        putTile(cache, "osm:hot", content(0, tileSize));
+        for (int i = 0; i < 1000; i++) {
+            putTile(cache, "osm:" + i, content(i, tileSize));
+            assertTile(cache, "osm:hot", content(0, tileSize));
+        }
+        assertTrue(cache.getSize() < 64);
+        assertTile(cache, "osm:999", content(999, tileSize));
+        assertNull(cache.processGet("osm:0"));
+        // 1000 tiles of 64 kB have been written, the data file was compacted to keep it below the size limit plus the garbage threshold
+        File dataFile = new File(dir, "test_MMAP_v1.data");
+        assertTrue(dataFile.length() < 2L * maxKeySize * 1024 + (16 << 20), Long.toString(dataFile.length()));
+        cache.dispose();
+
+        cache = open(maxKeySize);
+        assertTile(cache, "osm:hot", content(0, tileSize));
+        assertTile(cache, "osm:999", content(999, tileSize));
+        cache.dispose();
+    }
+
+    /**
+     * Records in full segments are read from the memory mapped file.
+     * @throws IOException never
+     */
+    @Test
+    void testMappedSegments() throws IOException {
+        MappedDiskCache<String, Object> cache = open(-1);
+        int tileSize = 1 << 20;
+        int count = MappedDiskCache.SEGMENT_SIZE / tileSize + 8;
+        for (int i = 0; i < count; i++) {
+            putTile(cache, "osm:" + i, content(i, tileSize));
+        }
+        for (int i = 0; i < count; i++) {
+            assertTile(cache, "osm:" + i, content(i, tileSize));
+        }
+        cache.dispose();
+        cache = open(-1);
+        assertEquals(count, cache.getSize());
+        assertTile(cache, "osm:0", content(0, tileSize));
+        assertTile(cache, "osm:" + (count - 1), content(count - 1, tileSize));
+        cache.dispose();
+    }
+
+    /**
+     * The index handles collisions, removals and growth.
+     */
+    @Test
+    void testIndex() {
+        MappedDiskCacheIndex index = new MappedDiskCacheIndex();
+        for (int i = 1; i <= 10_000; i++) {
+            index.put(MappedDiskCacheIndex.hash(Integer.toString(i).getBytes(StandardCharsets.UTF_8)), i * 10L, 10);
+        }
+        for (int i = 1; i <= 10_000; i += 2) {
+            assertEquals(10, index.remove(MappedDiskCacheIndex.hash(Integer.toString(i).getBytes(StandardCharsets.UTF_8))));
+        }
+        assertEquals(5_000, index.size());
+        assertEquals(50_000, index.getTotalLength());
+        for (int i = 1; i <= 10_000; i++) {
+            int slot = index.find(MappedDiskCacheIndex.hash(Integer.toString(i).getBytes(StandardCharsets.UTF_8)));
+            if (i % 2 == 0) {
+                assertEquals(i * 10L, index.getOffset(slot));
+            } else {
+                assertEquals(-1, slot);
+            }
+        }
+        int[] slots = index.getSlotsByOffset();
+        for (int i = 1; i < slots.length; i++) {
+            assertTrue(index.getOffset(slots[i - 1]) < index.getOffset(slots[i]));
+        }
+    }
+}
@@ -0,0 +1,69 @@
+// License: GPL. For details, see LICENSE file.
+package org.openstreetmap.josm.data.cache;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Unit tests of {@link WeightedLruCache}.
+ */
+class WeightedLruCacheTest {
+
+    /**
+     * Least recently used values are evicted when the total weight exceeds the capacity.
+     */
+    @Test
+    void testEviction() {
+        List<String> evicted = new ArrayList<>();
+        WeightedLruCache<String, String> cache = new WeightedLruCache<>(String::length, () -> 10, (k, v) -> evicted.add(k));
+        cache.put("a", "aaaa");
+        cache.put("b", "bbbb");
+        assertEquals("aaaa", cache.get("a"));
+        cache.put("c", "cccc");
+        assertEquals(List.of("b"), evicted);
+        assertEquals(8, cache.getWeight());
+        assertEquals(2, cache.size());
+        assertNull(cache.get("b"));
+
+        // replacing a value updates the weight
+        assertEquals("cccc", cache.put("c", "c"));
+        assertEquals(5, cache.getWeight());
+
+        // a value heavier than the capacity is not kept
+        cache.put("d", "ddddddddddddd");
+        assertEquals(List.of("b", "a", "c", "d"), evicted);
+        assertEquals(0, cache.getWeight());
+        assertEquals(4, cache.getEvictions());
+    }
+
+    /**
+     * Removed values are not reported as evicted, and a reduced capacity is applied on trim.
+     */
+    @Test
+    void testRemoveAndTrim() {
+        List<String> evicted = new ArrayList<>();
+        AtomicLong capacity = new AtomicLong(100);
+        WeightedLruCache<String, String> cache = new WeightedLruCache<>(String::length, capacity::get, (k, v) -> evicted.add(k));
+        for (int i = 0; i < 10; i++) {
+            cache.put(Integer.toString(i), "0123456789");
+        }
+        assertEquals("0123456789", cache.remove("0"));
+        assertNull(cache.remove("0"));
+        assertEquals(90, cache.getWeight());
+        cache.removeIf(k -> "9".equals(k));
+        assertEquals(80, cache.getWeight());
+        capacity.set(30);
+        cache.trim();
+        assertEquals(List.of("1", "2", "3", "4", "5"), evicted);
+        assertEquals(3, cache.size());
+        cache.clear();
+        assertEquals(0, cache.getWeight());
+        assertEquals(5, evicted.size());
+    }
+}
@@ -0,0 +1,87 @@
+// License: GPL. For details, see LICENSE file.
+package org.openstreetmap.josm.data.gpx;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.awt.Color;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.openstreetmap.josm.data.coor.LatLon;
+
+/**
+ * Unit tests for class {@link CompactGpxTrackSegment}.
+ */
+class CompactGpxTrackSegmentTest {
+
+    private static List<WayPoint> createWayPoints() {
+        List<WayPoint> wpts = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            WayPoint wpt = new WayPoint(new LatLon(47 + i * 1e-4, 8 + i * 2e-4));
+            wpt.setInstant(Instant.ofEpochSecond(1_600_000_000L + i));
+            wpt.put(GpxConstants.PT_ELE, Integer.toString(400 + i % 3));
+            if (i % 2 == 0) {
+                wpt.put(GpxConstants.PT_HDOP, 1.5f);
+            }
+            wpts.add(wpt);
+        }
+        wpts.get(10).put(GpxConstants.GPX_NAME, "named");
+        wpts.get(20).setInstant(Instant.ofEpochSecond(1_600_000_020L, 123));
+        return wpts;
+    }
+
+    /**
+     * The points, bounds and length are the same as for a {@link GpxTrackSegment}.
+     */
+    @Test
+    void testWayPoints() {
+        List<WayPoint> wpts = createWayPoints();
+        GpxTrackSegment expected = new GpxTrackSegment(wpts);
+        CompactGpxTrackSegment segment = new CompactGpxTrackSegment(wpts);
+
+        assertEquals(expected.getWayPoints(), segment.getWayPoints());
+        assertEquals(expected.getBounds(), segment.getBounds());
+        assertEquals(expected.length(), segment.length(), 1e-6);
+        assertEquals(100, segment.size());
+        assertTrue(segment.hasTime());
+        assertEquals(1_600_000_005_000L, segment.getTimeInMillis(5));
+        assertEquals(47.0005, segment.getLat(5), 1e-9);
+
+        // points with other attributes or a time with nanoseconds are kept as they are
+        assertSame(wpts.get(10), segment.getWayPoints().get(10));
+        assertSame(wpts.get(20), segment.getWayPoints().get(20));
+        assertNotSame(wpts.get(30), segment.getWayPoints().get(30));
+    }
+
+    /**
+     * The drawing state set while iterating over a line is kept.
+     */
+    @Test
+    void testDrawingState() {
+        CompactGpxTrackSegment segment = new CompactGpxTrackSegment(createWayPoints());
+        Line line = Line.forDrawing(segment, Collections.emptyMap(), null);
+        assertFalse(line.isUnordered());
+        int i = 0;
+        for (WayPoint wpt : line) {
+            wpt.customColoring = i % 2 == 0 ? Color.RED : Color.BLUE;
+            wpt.drawLine = i > 0;
+            wpt.dir = i % 8;
+            i++;
+        }
+        i = 0;
+        for (WayPoint wpt : Line.forDrawing(segment, Collections.emptyMap(), null)) {
+            assertEquals(i % 2 == 0 ? Color.RED : Color.BLUE, wpt.customColoring);
+            assertEquals(i > 0, wpt.drawLine);
+            assertEquals(i % 8, wpt.dir);
+            i++;
+        }
+        assertEquals(100, i);
+    }
+}
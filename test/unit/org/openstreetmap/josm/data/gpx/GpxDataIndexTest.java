@@ -0,0 +1,100 @@
+// License: GPL. For details, see LICENSE file.
+package org.openstreetmap.josm.data.gpx;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.openstreetmap.josm.data.Bounds;
+import org.openstreetmap.josm.data.coor.LatLon;
+import org.openstreetmap.josm.tools.date.Interval;
+
+/**
+ * Unit tests for class {@link GpxDataIndex}.
+ */
+class GpxDataIndexTest {
+
+    /**
+     * Creates a segment along the equator from 0° to 1° longitude.
+     */
+    private static GpxTrackSegment createSegment(int size, boolean withTime) {
+        List<WayPoint> wpts = new ArrayList<>();
+        for (int i = 0; i < size; i++) {
+            WayPoint wpt = new WayPoint(new LatLon(0, (double) i / (size - 1)));
+            if (withTime && i > 0) {
+                wpt.setInstant(Instant.ofEpochSecond(1_600_000_000L + i));
+            }
+            wpts.add(wpt);
+        }
+        return new GpxTrackSegment(wpts);
+    }
+
+    /**
+     * Parts of a segment are found by their area.
+     */
+    @Test
+    void testSearch() {
+        GpxTrackSegment segment = createSegment(1001, false);
+        GpxDataIndex index = new GpxDataIndex(Collections.singletonList(segment));
+        assertTrue(index.contains(segment));
+        assertFalse(index.contains(createSegment(1001, false)));
+
+        List<GpxDataIndex.Part> parts = index.search(new Bounds(-0.1, 0.5, 0.1, 0.51));
+        assertFalse(parts.isEmpty());
+        int previous = -1;
+        for (GpxDataIndex.Part part : parts) {
+            assertSame(segment, part.getSegment());
+            assertTrue(part.getFromIndex() > previous);
+            assertTrue(part.getToIndex() - part.getFromIndex() <= GpxDataIndex.PART_SIZE);
+            previous = part.getFromIndex();
+        }
+        // the points in the area are in the parts found
+        assertTrue(parts.get(0).getFromIndex() <= 500);
+        assertTrue(parts.get(parts.size() - 1).getToIndex() >= 510);
+        assertTrue(parts.size() < 1000 / GpxDataIndex.PART_SIZE);
+
+        assertTrue(index.search(new Bounds(1, 0, 2, 1)).isEmpty());
+        // area crossing the 180th meridian
+        assertTrue(index.search(new Bounds(-1, 179, 1, -179)).isEmpty());
+        assertEquals(1, new GpxDataIndex(Collections.singletonList(new GpxTrackSegment(Arrays.asList(
+                new WayPoint(new LatLon(0, -179.5)), new WayPoint(new LatLon(0, -179.4))))))
+                .search(new Bounds(-1, 179, 1, -179)).size());
+    }
+
+    /**
+     * The time range of a segment only contains the points with time.
+     */
+    @Test
+    void testGetTimeRange() {
+        GpxTrackSegment segment = createSegment(200, true);
+        GpxTrackSegment withoutTime = createSegment(200, false);
+        GpxDataIndex index = new GpxDataIndex(Arrays.asList(segment, withoutTime));
+        assertEquals(new Interval(Instant.ofEpochSecond(1_600_000_001L), Instant.ofEpochSecond(1_600_000_199L)),
+                index.getTimeRange(segment));
+        assertNull(index.getTimeRange(withoutTime));
+    }
+
+    /**
+     * The index of a {@link GpxData} is created again after a change.
+     */
+    @Test
+    void testGpxDataIndex() {
+        GpxData data = new GpxData();
+        data.addTrack(new GpxTrack(Collections.singletonList(createSegment(10, true)), Collections.emptyMap()));
+        GpxDataIndex index = data.getIndex();
+        assertSame(index, data.getIndex());
+        data.addTrack(new GpxTrack(Collections.singletonList(createSegment(10, true)), Collections.emptyMap()));
+        assertNotSame(index, data.getIndex());
+        assertEquals(2, data.getIndex().search(new Bounds(-1, -1, 1, 2)).size());
+    }
+}
@@ -15,6 +15,8 @@ import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Future;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
@@ -496,10 +498,16 @@ class GpxDataTest {
         EqualsVerifier.forClass(GpxData.class).usingGetClass()
             .suppress(Warning.NONFINAL_FIELDS)
             .withIgnoredFields("creator", "fromServer", "fromSession", "storageFile", "initializing", "updating",
-                    "suppressedInvalidate", "listeners", "tracks", "routes", "waypoints", "proxy", "segSpans", "modified")
+                    "suppressedInvalidate", "listeners", "tracks", "routes", "waypoints", "proxy", "segSpans", "modified", "index",
+                    "simplification", "simplificationTask")
             .withPrefabValues(WayPoint.class, new WayPoint(LatLon.NORTH_POLE), new WayPoint(LatLon.SOUTH_POLE))
             .withPrefabValues(ListenerList.class, ListenerList.create(), ListenerList.create())
             .withPrefabValues(GpxExtensionCollection.class, new GpxExtensionCollection(), col)
+            .withPrefabValues(GpxDataIndex.class, new GpxDataIndex(Collections.emptyList()),
+                    new GpxDataIndex(Collections.singletonList(new GpxTrackSegment(Collections.singletonList(new WayPoint(LatLon.ZERO))))))
+            .withPrefabValues(GpxSimplification.class, new GpxSimplification(Collections.emptyList(), null),
+                    new GpxSimplification(Collections.emptyList(), null))
+            .withPrefabValues(Future.class, CompletableFuture.completedFuture(1), CompletableFuture.completedFuture(2))
             .verify();
     }
 }
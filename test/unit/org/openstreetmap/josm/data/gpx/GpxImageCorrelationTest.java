@@ -350,4 +350,44 @@ class GpxImageCorrelationTest {
         wp.put(GpxConstants.PT_ELE, "150.0");
         assertEquals(Double.valueOf(150.0d), GpxImageCorrelation.getElevation(wp));
     }
+
+    /**
+     * Unit test of {@link GpxImageCorrelation#countMatches}: the same photos as {@link GpxImageCorrelation#matchGpxTrack}
+     * are counted for each offset, and the photos are not modified.
+     */
+    @Test
+    void testCountMatches() {
+        long[] offsets = {0, 60_000, -60_000, 3_600_000, -300_000};
+        for (boolean forceTags : new boolean[] {false, true}) {
+            int[] counts = GpxImageCorrelation.countMatches(images, gpx, forceTags, offsets);
+            assertEquals(offsets.length, counts.length);
+            assertFalse(i1.getTmp().hasNewGpsData());
+            assertEquals(new CachedLatLon(2, 3), i1.getTmp().getPos());
+            for (int k = 0; k < offsets.length; k++) {
+                clearTmp();
+                assertEquals(GpxImageCorrelation.matchGpxTrack(images, gpx, new GpxImageCorrelationSettings(offsets[k], forceTags)),
+                        counts[k], "offset " + offsets[k]);
+            }
+            clearTmp();
+        }
+        assertEquals(7, GpxImageCorrelation.countMatches(images, gpx, false, 0)[0]);
+        assertEquals(9, GpxImageCorrelation.countMatches(images, gpx, true, 0)[0]);
+    }
+
+    /**
+     * Unit test of {@link GpxImageCorrelation.ImageCursor}
+     */
+    @Test
+    void testImageCursor() {
+        GpxImageCorrelation.ImageCursor cursor = new GpxImageCorrelation.ImageCursor(new long[] {10, 20, 20, 30, 40, 50, 60});
+        assertEquals(-1, cursor.getLastIndexAtOrBefore(5));
+        assertEquals(0, cursor.getLastIndexAtOrBefore(10));
+        assertEquals(2, cursor.getLastIndexAtOrBefore(20));
+        assertEquals(2, cursor.getLastIndexAtOrBefore(25));
+        assertEquals(5, cursor.getLastIndexAtOrBefore(55));
+        assertEquals(0, cursor.getLastIndexAtOrBefore(15));
+        assertEquals(6, cursor.getLastIndexAtOrBefore(100));
+        assertEquals(-1, cursor.getLastIndexAtOrBefore(0));
+        assertEquals(3, cursor.getLastIndexAtOrBefore(30));
+    }
 }
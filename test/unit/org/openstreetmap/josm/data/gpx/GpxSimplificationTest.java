@@ -0,0 +1,117 @@
+// License: GPL. For details, see LICENSE file.
+package org.openstreetmap.josm.data.gpx;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+import org.openstreetmap.josm.data.coor.EastNorth;
+import org.openstreetmap.josm.data.coor.LatLon;
+import org.openstreetmap.josm.data.projection.ProjectionRegistry;
+import org.openstreetmap.josm.testutils.annotations.Projection;
+import org.openstreetmap.josm.tools.Geometry;
+
+/**
+ * Unit tests for class {@link GpxSimplification}.
+ */
+@Projection
+class GpxSimplificationTest {
+
+    /**
+     * The points kept by the Douglas-Peucker algorithm with a tolerance.
+     */
+    private static void douglasPeucker(double[] easts, double[] norths, int from, int to, double tolerance,
+            boolean[] kept) {
+        kept[from] = true;
+        kept[to] = true;
+        double max = 0;
+        int split = -1;
+        for (int i = from + 1; i < to; i++) {
+            double d = new EastNorth(easts[i], norths[i]).distance(Geometry.closestPointToSegment(
+                    new EastNorth(easts[from], norths[from]), new EastNorth(easts[to], norths[to]),
+                    new EastNorth(easts[i], norths[i])));
+            if (d > max) {
+                max = d;
+                split = i;
+            }
+        }
+        if (split >= 0 && max > tolerance) {
+            douglasPeucker(easts, norths, from, split, tolerance, kept);
+            douglasPeucker(easts, norths, split, to, tolerance, kept);
+        }
+    }
+
+    /**
+     * The tolerance of a point is the distance at which the Douglas-Peucker algorithm leaves it out.
+     */
+    @Test
+    void testComputeTolerances() {
+        // a straight line with a bump of 10
+        float[] tolerances = GpxSimplification.computeTolerances(
+                new double[] {0, 10, 20, 30, 40},
+                new double[] {0, 0, 10, 0, 0});
+        assertEquals(Float.POSITIVE_INFINITY, tolerances[0]);
+        assertEquals(Float.POSITIVE_INFINITY, tolerances[4]);
+        assertEquals(10, tolerances[2], 1e-6);
+        assertEquals(Math.sqrt(20), tolerances[1], 1e-6);
+        assertEquals(Math.sqrt(20), tolerances[3], 1e-6);
+        assertEquals(0, GpxSimplification.computeTolerances(new double[0], new double[0]).length);
+
+        // the same points as the Douglas-Peucker algorithm for each tolerance
+        Random random = new Random(42);
+        double[] easts = new double[500];
+        double[] norths = new double[500];
+        for (int i = 1; i < easts.length; i++) {
+            easts[i] = easts[i - 1] + random.nextGaussian();
+            norths[i] = norths[i - 1] + random.nextGaussian();
+        }
+        tolerances = GpxSimplification.computeTolerances(easts, norths);
+        for (double tolerance : new double[] {0.1, 0.5, 1, 2, 5, 10}) {
+            boolean[] kept = new boolean[easts.length];
+            douglasPeucker(easts, norths, 0, easts.length - 1, tolerance, kept);
+            for (int i = 0; i < easts.length; i++) {
+                assertEquals(kept[i], tolerances[i] > tolerance, "point " + i + ", tolerance " + tolerance);
+            }
+        }
+    }
+
+    /**
+     * The simplification of a {@link GpxData} is computed in the background and dropped when the data changes.
+     * @throws InterruptedException if the test is interrupted
+     */
+    @Test
+    void testGpxDataSimplification() throws InterruptedException {
+        List<WayPoint> wpts = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            wpts.add(new WayPoint(new LatLon(i % 2 * 1e-6, i * 1e-3)));
+        }
+        GpxTrackSegment segment = new GpxTrackSegment(wpts);
+        GpxData data = new GpxData();
+        data.addTrack(new GpxTrack(Collections.singletonList(segment), Collections.emptyMap()));
+
+        CountDownLatch computed = new CountDownLatch(1);
+        assertNull(data.getSimplification(computed::countDown));
+        assertTrue(computed.await(10, TimeUnit.SECONDS));
+        GpxSimplification simplification = data.getSimplification(() -> { });
+        assertNotNull(simplification);
+        assertSame(ProjectionRegistry.getProjection(), simplification.getProjection());
+        float[] tolerances = simplification.getTolerances(segment);
+        assertEquals(100, tolerances.length);
+        assertEquals(Float.POSITIVE_INFINITY, tolerances[99]);
+        // the zigzag is smaller than one meter
+        assertTrue(tolerances[50] < 1);
+
+        data.resetEastNorthCache();
+        assertNull(data.getSimplification(() -> { }));
+    }
+}
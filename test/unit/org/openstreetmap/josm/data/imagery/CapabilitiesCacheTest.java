@@ -0,0 +1,68 @@
+// License: GPL. For details, see LICENSE file.
+package org.openstreetmap.josm.data.imagery;
+
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Collections;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * Unit tests of {@link CapabilitiesCache}.
+ */
+class CapabilitiesCacheTest {
+
+    @TempDir
+    File dir;
+
+    /**
+     * Parsed documents are returned while the cached file is unchanged, per URL and headers.
+     * @throws IOException if the file cannot be written
+     */
+    @Test
+    void testGet() throws IOException {
+        File file = new File(dir, "capabilities.xml");
+        Files.write(file.toPath(), "<Capabilities/>".getBytes(StandardCharsets.UTF_8));
+        CapabilitiesCache<Object> cache = new CapabilitiesCache<>(2);
+        Object parsed = new Object();
+        String url = "https://example.com/wmts";
+
+        assertNull(cache.get(url, null, file));
+        cache.put(url, null, file, parsed);
+        assertSame(parsed, cache.get(url, null, file));
+        assertSame(parsed, cache.get(url, Collections.emptyMap(), file));
+        assertNull(cache.get(url, Collections.singletonMap("apikey", "1"), file));
+
+        // the document has been downloaded again
+        Files.write(file.toPath(), "<Capabilities></Capabilities>".getBytes(StandardCharsets.UTF_8));
+        assertNull(cache.get(url, null, file));
+
+        cache.put(url, null, file, parsed);
+        cache.remove(url, null);
+        assertNull(cache.get(url, null, file));
+    }
+
+    /**
+     * The least recently used documents are dropped.
+     * @throws IOException if the file cannot be written
+     */
+    @Test
+    void testMaxEntries() throws IOException {
+        File file = new File(dir, "capabilities.xml");
+        Files.write(file.toPath(), "<Capabilities/>".getBytes(StandardCharsets.UTF_8));
+        CapabilitiesCache<String> cache = new CapabilitiesCache<>(2);
+        cache.put("a", null, file, "a");
+        cache.put("b", null, file, "b");
+        cache.get("a", null, file);
+        cache.put("c", null, file, "c");
+        assertSame("a", cache.get("a", null, file));
+        assertNull(cache.get("b", null, file));
+        assertSame("c", cache.get("c", null, file));
+    }
+}
@@ -0,0 +1,37 @@
+// License: GPL. For details, see LICENSE file.
+package org.openstreetmap.josm.data.imagery;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Unit tests of {@link TileViewport}.
+ */
+class TileViewportTest {
+
+    /**
+     * Tiles are ranked by distance to the view center and zoom level, tiles outside of the view are not needed.
+     */
+    @Test
+    void testGetPriority() {
+        // 4x4 tiles at zoom 10, centered on the corner between tiles 101 and 102
+        TileViewport viewport = new TileViewport(10, 100, 103, 200, 203, 1);
+        double center = viewport.getPriority(10, 101, 201);
+        assertEquals(Math.hypot(0.5, 0.5), center, 1e-9);
+        double border = viewport.getPriority(10, 103, 203);
+        double margin = viewport.getPriority(10, 104, 203);
+        assertTrue(center < border);
+        assertTrue(border < margin);
+        assertEquals(Double.POSITIVE_INFINITY, viewport.getPriority(10, 105, 203));
+        assertEquals(Double.POSITIVE_INFINITY, viewport.getPriority(10, 101, 198));
+
+        // tiles of other zoom levels are ranked after the tiles of the displayed zoom level
+        double parent = viewport.getPriority(9, 50, 100);
+        assertTrue(parent > border);
+        assertTrue(viewport.getPriority(11, 202, 402) > center);
+        assertEquals(Double.POSITIVE_INFINITY, viewport.getPriority(9, 48, 100));
+        assertEquals(Double.POSITIVE_INFINITY, viewport.getPriority(11, 220, 402));
+    }
+}
@@ -0,0 +1,69 @@
+// License: GPL. For details, see LICENSE file.
+package org.openstreetmap.josm.data.validation;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Unit tests for class {@link IgnoredErrorIndex}.
+ */
+class IgnoredErrorIndexTest {
+
+    /**
+     * Unit test of {@link IgnoredErrorIndex#split}.
+     */
+    @Test
+    void testSplit() {
+        assertEquals(Arrays.asList("1351", "", "n_2449148994", "w_236955234"),
+                new ArrayList<>(IgnoredErrorIndex.split("1351:n_2449148994:w_236955234")));
+        assertEquals(Arrays.asList("-1234", "_1201_foo: bar", "r_1"),
+                new ArrayList<>(IgnoredErrorIndex.split("-1234_1201_foo: bar:r_1")));
+        assertEquals(Arrays.asList("3000", "_n_1 is:w_x"),
+                new ArrayList<>(IgnoredErrorIndex.split("3000_n_1 is:w_x")));
+        assertEquals(Arrays.asList("", "foo"), new ArrayList<>(IgnoredErrorIndex.split("foo")));
+    }
+
+    /**
+     * Unit test of {@link IgnoredErrorIndex#add}, {@link IgnoredErrorIndex#remove} and the lookups.
+     */
+    @Test
+    void testAddRemove() {
+        IgnoredErrorIndex index = new IgnoredErrorIndex();
+        index.add("1351:n_1:w_2");
+        index.add("-1234_1201_foo");
+        index.add("-1234_1201_foo");
+        assertEquals(2, index.size());
+
+        assertTrue(index.contains("1351:n_1:w_2"));
+        assertTrue(index.contains("1351", Arrays.asList("n_1", "w_2")));
+        assertFalse(index.contains("1351"));
+        assertFalse(index.contains("1351:n_1"));
+        assertFalse(index.contains("1351", Arrays.asList("w_2", "n_1")));
+        assertTrue(index.contains("-1234_1201_foo"));
+        assertTrue(index.contains("-1234_1201_foo", Collections.emptyList()));
+        assertFalse(index.contains("-1234_1201"));
+        assertTrue(index.containsCode("1351"));
+        assertTrue(index.containsCode("-1234"));
+        assertFalse(index.containsCode("1201"));
+
+        index.remove("1351:n_1");
+        assertEquals(2, index.size());
+        index.remove("1351:n_1:w_2");
+        assertEquals(1, index.size());
+        assertFalse(index.contains("1351:n_1:w_2"));
+        assertFalse(index.containsCode("1351"));
+
+        index.rebuild(Arrays.asList("1351", "1351:n_1"));
+        assertEquals(2, index.size());
+        assertTrue(index.contains("1351"));
+        assertTrue(index.contains("1351:n_1"));
+        assertFalse(index.contains("-1234_1201_foo"));
+    }
+}
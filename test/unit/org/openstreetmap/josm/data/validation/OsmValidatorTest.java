@@ -3,6 +3,7 @@ package org.openstreetmap.josm.data.validation;
 
 import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
 import org.junit.jupiter.api.BeforeEach;
@@ -76,6 +77,21 @@ class OsmValidatorTest {
         assertTrue(OsmValidator.hasIgnoredError("1351:n_6871910559:w_733713588"));
     }
 
+    /**
+     * The ignore list can only be modified through {@link OsmValidator#addIgnoredError} and
+     * {@link OsmValidator#removeIgnoredError}, which keep the index used by {@link OsmValidator#hasIgnoredError} up to date.
+     */
+    @Test
+    void testIgnoredErrorsUnmodifiable() {
+        OsmValidator.addIgnoredError("1351");
+        assertThrows(UnsupportedOperationException.class, () -> OsmValidator.getIgnoredErrors().put("1201", ""));
+        assertThrows(UnsupportedOperationException.class, () -> OsmValidator.getIgnoredErrors().remove("1351"));
+        OsmValidator.removeIgnoredError("1351");
+        OsmValidator.addIgnoredError("1201");
+        assertFalse(OsmValidator.hasIgnoredError("1351"));
+        assertTrue(OsmValidator.hasIgnoredError("1201"));
+    }
+
     /**
      * Test that tests are really removed, and that core tests cannot be removed
      */
@@ -0,0 +1,112 @@
+// License: GPL. For details, see LICENSE file.
+package org.openstreetmap.josm.data.validation;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.openstreetmap.josm.data.cache.JCSCacheManager;
+import org.openstreetmap.josm.data.osm.Node;
+import org.openstreetmap.josm.data.osm.OsmPrimitive;
+import org.openstreetmap.josm.data.validation.tests.InternetTags;
+import org.openstreetmap.josm.data.validation.tests.NameMismatch;
+import org.openstreetmap.josm.gui.progress.NullProgressMonitor;
+import org.openstreetmap.josm.testutils.annotations.BasicPreferences;
+
+/**
+ * Unit tests of {@link ValidationResultCache}.
+ */
+@BasicPreferences
+class ValidationResultCacheTest {
+    private ValidationResultCache cache;
+
+    /**
+     * Setup test.
+     */
+    @BeforeEach
+    void setUp() {
+        cache = new ValidationResultCache(JCSCacheManager.getCache("validator-results-test", 100, 0, null));
+        JCSCacheManager.getCache("validator-results-test").clear();
+    }
+
+    private List<TestError> run(Test test, OsmPrimitive... primitives) {
+        test.setResultCache(cache);
+        test.startTest(NullProgressMonitor.INSTANCE);
+        test.visit(Arrays.asList(primitives));
+        test.endTest();
+        test.setResultCache(null);
+        return test.getErrors();
+    }
+
+    private static Node createNode(long id, int version, String... tags) {
+        Node n = new Node(id, version);
+        for (int i = 0; i < tags.length; i += 2) {
+            n.put(tags[i], tags[i + 1]);
+        }
+        return n;
+    }
+
+    /**
+     * Unchanged primitives reuse the stored errors.
+     */
+    @org.junit.jupiter.api.Test
+    void testHit() {
+        List<TestError> first = run(new NameMismatch(), createNode(1, 1, "name", "Europe", "name:de", "Europa"), createNode(2, 1));
+        assertEquals(1, first.size());
+        assertEquals(0, cache.getHits());
+        assertEquals(2, cache.getMisses());
+
+        Node n1 = createNode(1, 1, "name", "Europe", "name:de", "Europa");
+        List<TestError> second = run(new NameMismatch(), n1, createNode(2, 1));
+        assertEquals(2, cache.getHits());
+        assertEquals(1, second.size());
+        TestError error = second.get(0);
+        assertNotSame(first.get(0), error);
+        assertEquals(first.get(0).getMessage(), error.getMessage());
+        assertEquals(first.get(0).getDescription(), error.getDescription());
+        assertEquals(first.get(0).getIgnoreSubGroup(), error.getIgnoreSubGroup());
+        assertEquals(first.get(0).getSeverity(), error.getSeverity());
+        assertEquals(Arrays.asList(n1), error.getPrimitives());
+    }
+
+    /**
+     * A new version, changed tags, modified and new primitives are checked again.
+     */
+    @org.junit.jupiter.api.Test
+    void testMiss() {
+        run(new NameMismatch(), createNode(1, 1, "name", "Europe", "name:de", "Europa"));
+        assertEquals(1, cache.getMisses());
+
+        assertEquals(0, run(new NameMismatch(), createNode(1, 2, "name", "Europa", "name:de", "Europa")).size());
+        assertEquals(1, run(new NameMismatch(), createNode(1, 1, "name", "Europe", "name:it", "Europa")).size());
+        assertEquals(0, cache.getHits());
+        assertEquals(3, cache.getMisses());
+
+        Node modified = createNode(1, 1, "name", "Europe", "name:de", "Europa");
+        modified.setModified(true);
+        assertEquals(1, run(new NameMismatch(), modified).size());
+        Node added = new Node();
+        added.put("name", "Europe");
+        added.put("name:de", "Europa");
+        assertEquals(1, run(new NameMismatch(), added).size());
+        assertEquals(0, cache.getHits());
+        assertEquals(3, cache.getMisses());
+    }
+
+    /**
+     * Errors with a fix are not stored.
+     */
+    @org.junit.jupiter.api.Test
+    void testFixableErrorsNotStored() {
+        Node n = createNode(1, 1, "website", "http:\\\\www.example.com");
+        List<TestError> errors = run(new InternetTags(), n);
+        assertEquals(1, errors.size());
+        errors = run(new InternetTags(), n);
+        assertEquals(1, errors.size());
+        assertEquals(0, cache.getHits());
+        assertEquals(2, cache.getMisses());
+    }
+}
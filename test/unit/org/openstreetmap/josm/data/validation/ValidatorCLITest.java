@@ -135,6 +135,26 @@ class ValidatorCLITest {
         assertEquals(3, errors.size(), errors.stream().map(ValidatorCLITest::getMessage).collect(Collectors.joining("\n")));
     }
 
+    /**
+     * Check that {@code --profile} writes the timing information of the tests
+     * @throws IOException if the profile could not be read
+     */
+    @Test
+    void testProfile() throws IOException {
+        final String dataPath = TestUtils.getRegressionDataFile(13165, "13165.osm");
+        final String outputPath = Paths.get(temporaryDirectory.getPath(), "testProfile.geojson").toString();
+        final Path profilePath = Paths.get(temporaryDirectory.getPath(), "testProfile.json");
+        validatorCLI.processArguments(new String[]{"--input", dataPath, "--output", outputPath, "--profile", profilePath.toString()});
+        threadSync.threadSync();
+        final JsonObject profile = readJsonObjects(profilePath).get(0);
+        final List<JsonObject> tests = profile.getJsonArray("tests").getValuesAs(JsonObject.class);
+        assertTrue(tests.size() > 10);
+        assertTrue(tests.stream().allMatch(test -> test.containsKey("timeMs") && test.containsKey("primitives")));
+        assertTrue(tests.stream().mapToInt(test -> test.getInt("errors")).sum() >= 3);
+        assertTrue(profile.getJsonArray("rules").getValuesAs(JsonObject.class).stream()
+                .anyMatch(rule -> rule.getInt("matches") > 0));
+    }
+
     @Test
     void testBadDataPlusChangeFile() throws IOException {
         // Write test data out
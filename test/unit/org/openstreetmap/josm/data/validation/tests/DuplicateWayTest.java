@@ -98,6 +98,55 @@ class DuplicateWayTest {
         doTest(DuplicateWay.SAME_WAY, "highway=motorway", "highway=trunk", false);
     }
 
+    /**
+     * Test of "Duplicate way" validation test - reversed ways are only duplicates without direction keys.
+     */
+    @Test
+    void testDuplicateWayReversed() {
+        for (String tags : new String[] {"highway=residential", "highway=residential oneway=yes"}) {
+            DataSet ds = new DataSet();
+            Node a = new Node(new LatLon(10.0, 5.0));
+            Node b = new Node(new LatLon(10.0, 6.0));
+            Node c = new Node(new LatLon(11.0, 6.0));
+            ds.addPrimitive(a);
+            ds.addPrimitive(b);
+            ds.addPrimitive(c);
+            ds.addPrimitive(TestUtils.newWay(tags, a, b, c));
+            ds.addPrimitive(TestUtils.newWay(tags, c, b, a));
+            assertEquals(DuplicateWay.getFingerprint(ds.getWays().iterator().next()),
+                    DuplicateWay.getFingerprint(ds.getWays().stream().skip(1).findFirst().get()));
+
+            TEST.setPartialSelection(false);
+            TEST.startTest(NullProgressMonitor.INSTANCE);
+            TEST.visit(ds.allPrimitives());
+            TEST.endTest();
+            assertEquals(tags.contains("oneway") ? 0 : 1, TEST.getErrors().size(), tags);
+        }
+    }
+
+    /**
+     * Test of "Duplicate way" validation test - ways with the same fingerprint but different coordinates are not duplicates.
+     */
+    @Test
+    void testSameFingerprintDifferentPosition() {
+        DataSet ds = new DataSet();
+        Node a = new Node(new LatLon(10.0, 5.0));
+        Node b = new Node(new LatLon(10.0, 6.0));
+        Node c = new Node(new LatLon(10.000000001, 6.0));
+        ds.addPrimitive(a);
+        ds.addPrimitive(b);
+        ds.addPrimitive(c);
+        ds.addPrimitive(TestUtils.newWay("", a, b));
+        ds.addPrimitive(TestUtils.newWay("", a, c));
+        ds.getWays().forEach(w -> assertEquals(DuplicateWay.getFingerprint(TestUtils.newWay("", a, b)), DuplicateWay.getFingerprint(w)));
+
+        TEST.setPartialSelection(false);
+        TEST.startTest(NullProgressMonitor.INSTANCE);
+        TEST.visit(ds.allPrimitives());
+        TEST.endTest();
+        assertTrue(TEST.getErrors().isEmpty());
+    }
+
     /**
      * Non-regression test for <a href="https://josm.openstreetmap.de/ticket/14891">Bug #14891</a>.
      * @throws Exception if an error occurs
@@ -5,11 +5,18 @@ import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
 import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
 import java.util.stream.Collectors;
 
 import org.junit.jupiter.api.Test;
 import org.openstreetmap.josm.TestUtils;
+import org.openstreetmap.josm.data.osm.DataSet;
 import org.openstreetmap.josm.data.osm.Relation;
+import org.openstreetmap.josm.data.validation.TestError;
 import org.openstreetmap.josm.io.OsmReader;
 import org.openstreetmap.josm.testutils.annotations.BasicPreferences;
 import org.openstreetmap.josm.testutils.annotations.Main;
@@ -66,4 +73,37 @@ class MultipolygonTestTest {
             assertEquals(1, mpTest.getErrors().size());
         }
     }
+
+    /**
+     * Checks that the concurrent checks of a whole test run find the same errors as the checks of single relations.
+     * @throws Exception if an error occurs
+     */
+    @Test
+    void testConcurrentRelations() throws Exception {
+        DataSet ds;
+        try (InputStream is = Files.newInputStream(Paths.get("nodist/data/multipolygon.osm"))) {
+            ds = OsmReader.parseDataSet(is, null);
+        }
+        MultipolygonTest mpTest = new MultipolygonTest();
+        List<String> expected = new ArrayList<>();
+        for (Relation r : ds.getRelations()) {
+            mpTest.startTest(null);
+            mpTest.visit(Collections.singleton(r));
+            mpTest.endTest();
+            mpTest.getErrors().stream().map(MultipolygonTestTest::toString).forEach(expected::add);
+        }
+        mpTest.startTest(null);
+        mpTest.visit(new ArrayList<>(ds.getRelations()));
+        mpTest.endTest();
+        List<String> actual = mpTest.getErrors().stream().map(MultipolygonTestTest::toString).collect(Collectors.toList());
+        assertTrue(expected.size() > 10);
+        Collections.sort(expected);
+        Collections.sort(actual);
+        assertEquals(expected, actual);
+    }
+
+    private static String toString(TestError error) {
+        return error.getCode() + " " + error.getMessage() + " " + error.getPrimitives().stream()
+                .map(p -> p.getPrimitiveId().toString()).sorted().collect(Collectors.joining(","));
+    }
 }
@@ -14,6 +14,7 @@ import org.awaitility.Awaitility;
 import org.awaitility.Durations;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.RepeatedTest;
+import org.junit.jupiter.api.Test;
 import org.openstreetmap.josm.TestUtils;
 import org.openstreetmap.josm.data.imagery.ImageryInfo;
 import org.openstreetmap.josm.data.imagery.vectortile.mapbox.MVTTile;
@@ -124,4 +125,23 @@ class VectorDataSetTest {
         assertEquals(1, dataSet.getWays().size());
         assertEquals(0, dataSet.getRelations().size());
     }
+
+    /**
+     * Test that the data of removed tiles is released
+     */
+    @Test
+    void testRemoveTileData() {
+        final VectorDataSet dataSet = this.layer.getData();
+        dataSet.setZoom(14);
+        loadTile(this.layer, 14, 3248, 6258);
+        final MVTTile tile = this.layer.finishedLoading().iterator().next();
+        assertEquals(56, dataSet.getNodes().size());
+
+        dataSet.removeTileData(t -> t != tile);
+        assertEquals(56, dataSet.getNodes().size());
+
+        dataSet.removeTileData(t -> t == tile);
+        assertTrue(dataSet.allPrimitives().isEmpty());
+        assertTrue(tile.getData().getAllPrimitives().isEmpty());
+    }
 }
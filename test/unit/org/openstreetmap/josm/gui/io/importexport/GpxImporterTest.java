@@ -0,0 +1,149 @@
+// License: GPL. For details, see LICENSE file.
+package org.openstreetmap.josm.gui.io.importexport;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.openstreetmap.josm.TestUtils;
+import org.openstreetmap.josm.data.gpx.CompactGpxTrackSegment;
+import org.openstreetmap.josm.data.gpx.GpxData;
+import org.openstreetmap.josm.data.gpx.IGpxTrack;
+import org.openstreetmap.josm.data.gpx.IGpxTrackSegment;
+import org.openstreetmap.josm.gui.MainApplication;
+import org.openstreetmap.josm.gui.layer.GpxLayer;
+import org.openstreetmap.josm.gui.progress.CLIProgressMonitor;
+import org.openstreetmap.josm.gui.progress.NullProgressMonitor;
+import org.openstreetmap.josm.gui.progress.ProgressMonitor;
+import org.openstreetmap.josm.gui.util.GuiHelper;
+import org.openstreetmap.josm.testutils.annotations.BasicPreferences;
+import org.openstreetmap.josm.testutils.annotations.Main;
+import org.openstreetmap.josm.testutils.annotations.Projection;
+
+/**
+ * Unit tests of {@link GpxImporter} class.
+ */
+@BasicPreferences
+@Main
+@Projection
+class GpxImporterTest {
+
+    private static final File TRACKS = new File(TestUtils.getTestDataRoot(), "tracks/tracks.gpx");
+    private static final File TRACKS_GZ = new File(TestUtils.getTestDataRoot(), "tracks/tracks.gpx.gz");
+    private static final File TRACKS_BZ2 = new File(TestUtils.getTestDataRoot(), "tracks/tracks.gpx.bz2");
+
+    /**
+     * Setup test.
+     */
+    @BeforeEach
+    void setUp() {
+        MainApplication.getLayerManager().resetState();
+        GpxImporter.THREADS.put(2);
+    }
+
+    private static List<GpxLayer> importFiles(List<File> files) throws IOException {
+        try {
+            new GpxImporter().importData(files, NullProgressMonitor.INSTANCE);
+        } finally {
+            // the layers are added in the EDT
+            GuiHelper.runInEDTAndWait(() -> { });
+        }
+        return MainApplication.getLayerManager().getLayersOfType(GpxLayer.class);
+    }
+
+    /**
+     * From {@link GpxImporter#MERGE_MIN_FILES} files, the files are read in parallel with the lean parser
+     * and merged into a single layer with compact track segments.
+     * @throws IOException if an error occurs
+     */
+    @Test
+    void testImportMerged() throws IOException {
+        GpxImporter.MERGE_MIN_FILES.put(3);
+        List<GpxLayer> layers = importFiles(Arrays.asList(TRACKS, TRACKS_GZ, TRACKS_BZ2));
+        assertEquals(1, layers.size());
+        assertEquals("3 GPX files", layers.get(0).getName());
+        GpxData data = layers.get(0).data;
+        assertNull(data.storageFile);
+        assertEquals(15, data.getTracks().size());
+        assertEquals(3 * 397, data.getTrackPoints().count());
+        for (IGpxTrack track : data.getTracks()) {
+            for (IGpxTrackSegment segment : track.getSegments()) {
+                assertTrue(segment instanceof CompactGpxTrackSegment, segment.getClass().getName());
+            }
+        }
+    }
+
+    /**
+     * Below {@link GpxImporter#MERGE_MIN_FILES} files, each file has its own layer.
+     * @throws IOException if an error occurs
+     */
+    @Test
+    void testImportSeparate() throws IOException {
+        GpxImporter.MERGE_MIN_FILES.put(3);
+        List<GpxLayer> layers = importFiles(Arrays.asList(TRACKS, TRACKS_GZ));
+        assertEquals(2, layers.size());
+        assertEquals(new HashSet<>(Arrays.asList(TRACKS, TRACKS_GZ)),
+                layers.stream().map(layer -> layer.data.storageFile).collect(Collectors.toSet()));
+        for (GpxLayer layer : layers) {
+            assertEquals(397, layer.data.getTrackPoints().count());
+            assertEquals(layer.data.storageFile.getName(), layer.getName());
+        }
+    }
+
+    /**
+     * A file which cannot be read does not prevent the other files from being opened, it is reported on its own.
+     * @param tempDir temporary directory
+     * @throws IOException if an error occurs
+     */
+    @Test
+    void testImportPartialFailure(@TempDir Path tempDir) throws IOException {
+        GpxImporter.MERGE_MIN_FILES.put(0);
+        File invalid = tempDir.resolve("invalid.gpx").toFile();
+        Files.write(invalid.toPath(), "--foo--bar--".getBytes(StandardCharsets.UTF_8));
+        BatchImportException e = assertThrows(BatchImportException.class,
+                () -> importFiles(Arrays.asList(TRACKS, invalid, TRACKS_GZ)));
+        assertEquals(Collections.singletonList(invalid), e.getFailedFiles());
+        assertTrue(e.getMessage().startsWith("invalid.gpx: "), e.getMessage());
+        assertEquals(2, MainApplication.getLayerManager().getLayersOfType(GpxLayer.class).size());
+    }
+
+    /**
+     * A canceled import adds no layer and throws a {@link BatchImportCanceledException}, so that no file is recorded as opened.
+     */
+    @Test
+    void testImportCanceled() {
+        ProgressMonitor progressMonitor = new CLIProgressMonitor();
+        progressMonitor.cancel();
+        assertThrows(BatchImportCanceledException.class,
+                () -> new GpxImporter().importData(Arrays.asList(TRACKS, TRACKS_GZ), progressMonitor));
+        GuiHelper.runInEDTAndWait(() -> { });
+        assertTrue(MainApplication.getLayerManager().getLayersOfType(GpxLayer.class).isEmpty());
+    }
+
+    /**
+     * GPX files are read as a batch, but belong to the history of opened files, unlike images.
+     */
+    @Test
+    void testRecordsFileHistory() {
+        assertTrue(new GpxImporter().recordsFileHistory());
+        assertTrue(new NMEAImporter().recordsFileHistory());
+        assertFalse(new ImageImporter().recordsFileHistory());
+        assertTrue(new OsmImporter().recordsFileHistory());
+    }
+}
@@ -0,0 +1,30 @@
+// License: GPL. For details, see LICENSE file.
+package org.openstreetmap.josm.gui.layer.geoimage;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Unit tests of {@link AdjustTimezoneAndOffsetDialog} class.
+ */
+class AdjustTimezoneAndOffsetDialogTest {
+
+    /**
+     * Unit test of {@link AdjustTimezoneAndOffsetDialog#findBest}.
+     */
+    @Test
+    void testFindBest() {
+        int[] values = {-20, -10, 0, 10, 20};
+        // the value matching the most photos
+        assertEquals(10, AdjustTimezoneAndOffsetDialog.findBest(values, new int[] {1, 2, 3, 5, 4}, 0));
+        assertEquals(-20, AdjustTimezoneAndOffsetDialog.findBest(values, new int[] {6, 2, 3, 5, 4}, 20));
+        // among values matching as many photos, the nearest to the current value
+        assertEquals(-10, AdjustTimezoneAndOffsetDialog.findBest(values, new int[] {1, 5, 3, 2, 5}, -15));
+        assertEquals(20, AdjustTimezoneAndOffsetDialog.findBest(values, new int[] {1, 5, 3, 2, 5}, 18));
+        // the current value is kept when no value is better
+        assertEquals(0, AdjustTimezoneAndOffsetDialog.findBest(values, new int[] {0, 0, 0, 0, 0}, 0));
+        assertEquals(0, AdjustTimezoneAndOffsetDialog.findBest(values, new int[] {2, 2, 2, 2, 2}, 0));
+        assertEquals(7, AdjustTimezoneAndOffsetDialog.findBest(new int[0], new int[0], 7));
+    }
+}
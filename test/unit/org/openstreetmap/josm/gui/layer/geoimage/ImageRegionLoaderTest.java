@@ -0,0 +1,122 @@
+// License: GPL. For details, see LICENSE file.
+package org.openstreetmap.josm.gui.layer.geoimage;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.awt.Color;
+import java.awt.Dimension;
+import java.awt.Graphics2D;
+import java.awt.Rectangle;
+import java.awt.image.BufferedImage;
+import java.io.File;
+import java.io.IOException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import javax.imageio.ImageIO;
+
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.openstreetmap.josm.testutils.annotations.BasicPreferences;
+
+/**
+ * Unit tests of {@link ImageRegionLoader} class.
+ */
+@BasicPreferences
+class ImageRegionLoaderTest {
+
+    private static final int WIDTH = 2048;
+    private static final int HEIGHT = 1024;
+    private static final int MARKER = 0xff00ff;
+
+    @TempDir
+    static File tempDir;
+    private static File file;
+    private static BufferedImage source;
+
+    /**
+     * Writes an image with a different color for each pixel.
+     * @throws IOException if the image cannot be written
+     */
+    @BeforeAll
+    static void setUp() throws IOException {
+        source = new BufferedImage(WIDTH, HEIGHT, BufferedImage.TYPE_INT_RGB);
+        for (int y = 0; y < HEIGHT; y++) {
+            for (int x = 0; x < WIDTH; x++) {
+                source.setRGB(x, y, x << 10 | y);
+            }
+        }
+        file = new File(tempDir, "large.png");
+        ImageIO.write(source, "png", file);
+    }
+
+    private static BufferedImage createCanvas(int width, int height) {
+        BufferedImage canvas = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+        Graphics2D g = canvas.createGraphics();
+        g.setColor(new Color(MARKER));
+        g.fillRect(0, 0, width, height);
+        g.dispose();
+        return canvas;
+    }
+
+    /**
+     * The details are loaded only for images larger than the displayed image.
+     */
+    @Test
+    void testCreate() {
+        ImageRegionLoader loader = ImageRegionLoader.create(new ImageEntry(file),
+                new BufferedImage(WIDTH / 4, HEIGHT / 4, BufferedImage.TYPE_INT_RGB), image -> image, () -> { });
+        assertNotNull(loader);
+        assertEquals(new Dimension(WIDTH, HEIGHT), loader.getSourceSize());
+        assertNull(ImageRegionLoader.create(new ImageEntry(file),
+                new BufferedImage(WIDTH, HEIGHT, BufferedImage.TYPE_INT_RGB), image -> image, () -> { }));
+        assertNull(ImageRegionLoader.create(new ImageEntry(), source, image -> image, () -> { }));
+    }
+
+    /**
+     * When zoomed in, the visible region is drawn at the resolution of the image file.
+     * @throws InterruptedException if the test is interrupted
+     */
+    @Test
+    void testPaint() throws InterruptedException {
+        CountDownLatch loaded = new CountDownLatch(1);
+        ImageRegionLoader loader = new ImageRegionLoader(file, new Dimension(WIDTH, HEIGHT), image -> image,
+                loaded::countDown);
+        // the displayed image is subsampled by 4, 100x50 of its pixels are drawn on 400x200 pixels
+        Rectangle target = new Rectangle(0, 0, 400, 200);
+        Rectangle visible = new Rectangle(100, 50, 100, 50);
+        BufferedImage canvas = createCanvas(400, 200);
+        Graphics2D g = canvas.createGraphics();
+        loader.paint(g, target, visible, WIDTH / 4, HEIGHT / 4);
+        assertEquals(MARKER, canvas.getRGB(0, 0) & 0xffffff);
+        assertTrue(loaded.await(10, TimeUnit.SECONDS));
+
+        loader.paint(g, target, visible, WIDTH / 4, HEIGHT / 4);
+        g.dispose();
+        for (int y = 0; y < 200; y += 7) {
+            for (int x = 0; x < 400; x += 7) {
+                assertEquals(source.getRGB(400 + x, 200 + y) & 0xffffff, canvas.getRGB(x, y) & 0xffffff, x + "," + y);
+            }
+        }
+    }
+
+    /**
+     * Nothing is drawn when the displayed image has enough pixels.
+     */
+    @Test
+    void testPaintFullView() {
+        ImageRegionLoader loader = new ImageRegionLoader(file, new Dimension(WIDTH, HEIGHT), image -> image, () -> {
+            throw new AssertionError("no tile should be loaded");
+        });
+        BufferedImage canvas = createCanvas(WIDTH / 4, HEIGHT / 4);
+        Graphics2D g = canvas.createGraphics();
+        loader.paint(g, new Rectangle(0, 0, WIDTH / 4, HEIGHT / 4), new Rectangle(0, 0, WIDTH / 4, HEIGHT / 4),
+                WIDTH / 4, HEIGHT / 4);
+        g.dispose();
+        assertEquals(MARKER, canvas.getRGB(10, 10) & 0xffffff);
+    }
+}
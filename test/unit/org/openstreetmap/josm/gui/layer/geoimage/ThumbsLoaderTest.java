@@ -3,23 +3,35 @@ package org.openstreetmap.josm.gui.layer.geoimage;
 
 import org.junit.jupiter.api.Disabled;
 import org.junit.jupiter.api.Test;
+import org.openstreetmap.josm.TestUtils;
+import org.openstreetmap.josm.data.coor.LatLon;
+import org.openstreetmap.josm.data.projection.ProjectionRegistry;
+import org.openstreetmap.josm.gui.MapViewState;
+import org.openstreetmap.josm.spi.preferences.Config;
 import org.openstreetmap.josm.testutils.annotations.BasicPreferences;
+import org.openstreetmap.josm.testutils.annotations.Projection;
 import org.openstreetmap.josm.tools.StreamUtils;
 
+import java.awt.image.BufferedImage;
+import java.io.File;
 import java.nio.file.DirectoryStream;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 import java.util.stream.Collectors;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
 
 /**
  * Unit tests of {@link ThumbsLoader} class.
  */
 @BasicPreferences
+@Projection
 class ThumbsLoaderTest {
     /**
      * Performance test for {@link ThumbsLoader}
@@ -41,4 +53,85 @@ class ThumbsLoaderTest {
         }
     }
 
+    private static ImageEntry createEntry(int width, int height, Integer exifOrientation) {
+        ImageEntry entry = new ImageEntry();
+        entry.setWidth(width);
+        entry.setHeight(height);
+        entry.setExifOrientation(exifOrientation);
+        return entry;
+    }
+
+    /**
+     * The EXIF thumbnail is not rotated yet. The size of the entry is the stored size read by {@link ImageUtils#applyExif},
+     * or the rotated size once the image has been displayed.
+     */
+    @Test
+    void testScaleExifThumbnailRotated() {
+        BufferedImage thumb = new BufferedImage(160, 120, BufferedImage.TYPE_INT_RGB);
+        // portrait image, rotated by 90 degrees, with the stored size
+        for (int orientation : new int[] {6, 8}) {
+            BufferedImage rotated = ThumbsLoader.scaleExifThumbnail(thumb, createEntry(4000, 3000, orientation));
+            assertNotNull(rotated);
+            assertEquals(90, rotated.getWidth());
+            assertEquals(120, rotated.getHeight());
+        }
+        // the same image after it has been displayed, with the rotated size
+        BufferedImage displayed = ThumbsLoader.scaleExifThumbnail(thumb, createEntry(3000, 4000, 6));
+        assertNotNull(displayed);
+        assertEquals(90, displayed.getWidth());
+        assertEquals(120, displayed.getHeight());
+
+        // landscape image, upside down
+        BufferedImage upsideDown = ThumbsLoader.scaleExifThumbnail(thumb, createEntry(4000, 3000, 3));
+        assertNotNull(upsideDown);
+        assertEquals(120, upsideDown.getWidth());
+        assertEquals(90, upsideDown.getHeight());
+
+        // black bars: a 4:3 thumbnail of a 16:9 or a square image
+        assertNull(ThumbsLoader.scaleExifThumbnail(thumb, createEntry(1600, 900, null)));
+        assertNull(ThumbsLoader.scaleExifThumbnail(thumb, createEntry(900, 1600, 6)));
+        assertNull(ThumbsLoader.scaleExifThumbnail(thumb, createEntry(3000, 3000, 1)));
+        // too small
+        assertNull(ThumbsLoader.scaleExifThumbnail(new BufferedImage(100, 75, BufferedImage.TYPE_INT_RGB),
+                createEntry(4000, 3000, null)));
+    }
+
+    /**
+     * The images in the view are loaded first, nearest to the center first, the images without position last.
+     */
+    @Test
+    void testSort() {
+        ImageEntry center = new ImageEntry();
+        center.setPos(LatLon.ZERO);
+        ImageEntry inView = new ImageEntry();
+        inView.setPos(new LatLon(0, 0.001));
+        ImageEntry outOfView = new ImageEntry();
+        outOfView.setPos(new LatLon(10, 10));
+        ImageEntry noPosition = new ImageEntry();
+        List<ImageEntry> entries = new ArrayList<>(Arrays.asList(noPosition, outOfView, inView, center));
+
+        // 2 meters per pixel, the image 111 meters east is in view
+        MapViewState state = MapViewState.createDefaultState(200, 200)
+                .usingCenter(ProjectionRegistry.getProjection().latlon2eastNorth(LatLon.ZERO)).usingScale(2);
+        ThumbsLoader.sort(entries, state);
+        assertEquals(Arrays.asList(center, inView, outOfView, noPosition), entries);
+    }
+
+    /**
+     * The images are loaded by several threads, each image gets its thumbnail.
+     */
+    @Test
+    void testParallelLoading() {
+        Config.getPref().putBoolean("geoimage.noThumbnailCache", true);
+        File file = new File(TestUtils.getRegressionDataFile(12255, "G0016941.JPG"));
+        List<ImageEntry> entries = new ArrayList<>();
+        for (int i = 0; i < 16; i++) {
+            entries.add(new ImageEntry(file));
+        }
+        new ThumbsLoader(entries).run();
+        for (ImageEntry entry : entries) {
+            assertNotNull(entry.getThumbnail());
+            assertEquals(ThumbsLoader.maxSize, Math.max(entry.getThumbnail().getWidth(null), entry.getThumbnail().getHeight(null)));
+        }
+    }
 }
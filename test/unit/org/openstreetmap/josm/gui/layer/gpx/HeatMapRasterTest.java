@@ -0,0 +1,133 @@
+// License: GPL. For details, see LICENSE file.
+package org.openstreetmap.josm.gui.layer.gpx;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.awt.AlphaComposite;
+import java.awt.BasicStroke;
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.Point;
+import java.awt.Rectangle;
+import java.awt.RenderingHints;
+import java.awt.geom.Path2D;
+import java.awt.image.BufferedImage;
+import java.awt.image.DataBufferInt;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+import org.openstreetmap.josm.gui.MapViewState;
+import org.openstreetmap.josm.testutils.annotations.Projection;
+
+/**
+ * Unit tests of {@link HeatMapRaster} class.
+ */
+@Projection
+class HeatMapRasterTest {
+
+    private static final int WIDTH = 700;
+    private static final int HEIGHT = 500;
+
+    /**
+     * Creates random lines, moved by an offset.
+     */
+    private static HeatMapRaster.Lines createLines(int dx, int dy) {
+        Random random = new Random(42);
+        HeatMapRaster.Lines lines = new HeatMapRaster.Lines();
+        for (int line = 0; line < 20; line++) {
+            lines.newLine();
+            int x = random.nextInt(WIDTH);
+            int y = random.nextInt(HEIGHT);
+            for (int i = 0; i < 200; i++) {
+                x += random.nextInt(41) - 20;
+                y += random.nextInt(41) - 20;
+                lines.add(x + dx, y + dy);
+            }
+        }
+        lines.finish();
+        return lines;
+    }
+
+    private static HeatMapRaster.TileRenderer createRenderer(HeatMapRaster.Lines lines) {
+        return (g, tile) -> {
+            Rectangle area = new Rectangle(tile);
+            area.grow(5, 5);
+            g.setStroke(new BasicStroke(6, BasicStroke.CAP_ROUND, BasicStroke.JOIN_ROUND));
+            g.setComposite(AlphaComposite.SrcOver.derive(0.2f));
+            for (int i = 0; i < lines.getLineCount(); i++) {
+                Path2D path = lines.getPath(i, area);
+                if (path != null) {
+                    g.draw(path);
+                }
+            }
+        };
+    }
+
+    private static int[] getPixels(BufferedImage image) {
+        return ((DataBufferInt) image.getRaster().getDataBuffer()).getData();
+    }
+
+    /**
+     * Drawing in tiles gives the same image as drawing the whole lines at once.
+     */
+    @Test
+    void testDrawAll() {
+        HeatMapRaster.Lines lines = createLines(0, 0);
+        HeatMapRaster raster = new HeatMapRaster();
+        assertTrue(raster.setSize(WIDTH, HEIGHT));
+        assertFalse(raster.setSize(WIDTH, HEIGHT));
+        raster.drawAll(createRenderer(lines));
+
+        BufferedImage expected = new BufferedImage(WIDTH, HEIGHT, BufferedImage.TYPE_INT_ARGB);
+        Graphics2D g = expected.createGraphics();
+        g.setBackground(new Color(0, 0, 0, 255));
+        g.clearRect(0, 0, WIDTH, HEIGHT);
+        g.setColor(Color.WHITE);
+        g.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_OFF);
+        g.setRenderingHint(RenderingHints.KEY_STROKE_CONTROL, RenderingHints.VALUE_STROKE_PURE);
+        createRenderer(lines).draw(g, new Rectangle(WIDTH, HEIGHT));
+        g.dispose();
+
+        assertArrayEquals(getPixels(expected), getPixels(raster.getImage()));
+    }
+
+    /**
+     * After a move, the image is the same as an image drawn at once.
+     */
+    @Test
+    void testShift() {
+        for (Point move : new Point[] {new Point(37, 0), new Point(0, -300), new Point(-1, 1), new Point(-400, 260)}) {
+            HeatMapRaster raster = new HeatMapRaster();
+            raster.setSize(WIDTH, HEIGHT);
+            raster.drawAll(createRenderer(createLines(0, 0)));
+            raster.shift(move.x, move.y, createRenderer(createLines(move.x, move.y)));
+
+            HeatMapRaster expected = new HeatMapRaster();
+            expected.setSize(WIDTH, HEIGHT);
+            expected.drawAll(createRenderer(createLines(move.x, move.y)));
+
+            assertArrayEquals(getPixels(expected.getImage()), getPixels(raster.getImage()), move.toString());
+        }
+    }
+
+    /**
+     * Only moves by whole pixels are detected.
+     */
+    @Test
+    void testGetTranslation() {
+        MapViewState state = MapViewState.createDefaultState(WIDTH, HEIGHT);
+        assertEquals(new Point(0, 0), HeatMapRaster.getTranslation(state, state));
+        MapViewState moved = state.movedTo(state.getForView(10, -20), state.getForView(0, 0).getEastNorth());
+        assertEquals(new Point(10, -20), HeatMapRaster.getTranslation(state, moved));
+        assertNull(HeatMapRaster.getTranslation(state,
+                state.movedTo(state.getForView(10.5, 20), state.getForView(0, 0).getEastNorth())));
+        assertNull(HeatMapRaster.getTranslation(state,
+                state.movedTo(state.getForView(WIDTH, 0), state.getForView(0, 0).getEastNorth())));
+        assertNull(HeatMapRaster.getTranslation(state, state.usingScale(state.getScale() * 2)));
+        assertNull(HeatMapRaster.getTranslation(null, state));
+    }
+}
@@ -84,6 +84,8 @@ class ColorfulImageProcessorTest {
         }) {
             for (int type : new int[] {
                     BufferedImage.TYPE_3BYTE_BGR,
+                    BufferedImage.TYPE_INT_RGB,
+                    BufferedImage.TYPE_INT_ARGB,
                     BufferedImage.TYPE_4BYTE_ABGR,
                     BufferedImage.TYPE_4BYTE_ABGR_PRE,
                     BufferedImage.TYPE_BYTE_INDEXED,
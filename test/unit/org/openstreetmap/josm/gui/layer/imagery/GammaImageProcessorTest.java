@@ -3,6 +3,8 @@ package org.openstreetmap.josm.gui.layer.imagery;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 
+import java.awt.image.BufferedImage;
+
 import org.junit.jupiter.api.Test;
 
 /**
@@ -38,6 +40,34 @@ class GammaImageProcessorTest {
         assertEquals(5, processor.getGamma(), 0.001);
     }
 
+    /**
+     * Test the gamma correction of packed pixels. Like for other 4 band images, the alpha value is corrected as well.
+     */
+    @Test
+    void testProcessing() {
+        GammaImageProcessor processor = new GammaImageProcessor();
+        processor.setGamma(0.5);
+        for (int type : new int[] {BufferedImage.TYPE_INT_RGB, BufferedImage.TYPE_INT_ARGB}) {
+            BufferedImage image = new BufferedImage(16, 16, type);
+            for (int i = 0; i < 256; i++) {
+                image.setRGB(i % 16, i / 16, (255 - i) << 24 | i << 16 | (i / 2) << 8 | (255 - i));
+            }
+            BufferedImage result = processor.process(image);
+            for (int i = 0; i < 256; i++) {
+                int argb = result.getRGB(i % 16, i / 16);
+                int alpha = type == BufferedImage.TYPE_INT_RGB ? 255 : gamma(255 - i, 0.5);
+                assertEquals(alpha, argb >>> 24, "alpha " + i);
+                assertEquals(gamma(i, 0.5), (argb >> 16) & 0xff, "red " + i);
+                assertEquals(gamma(i / 2, 0.5), (argb >> 8) & 0xff, "green " + i);
+                assertEquals(gamma(255 - i, 0.5), argb & 0xff, "blue " + i);
+            }
+        }
+    }
+
+    private static int gamma(int value, double gamma) {
+        return (int) (255 * Math.pow(value / 255., gamma));
+    }
+
     /**
      * Test {@link GammaImageProcessor#toString()}
      */
@@ -0,0 +1,59 @@
+// License: GPL. For details, see LICENSE file.
+package org.openstreetmap.josm.gui.layer.imagery;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import java.awt.image.BufferedImage;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Unit tests of {@link MipTileCache}.
+ */
+class MipTileCacheTest {
+
+    private static BufferedImage createImage(int type, int width, int height, int rgb) {
+        BufferedImage image = new BufferedImage(width, height, type);
+        for (int x = 0; x < width; x++) {
+            for (int y = 0; y < height; y++) {
+                image.setRGB(x, y, rgb);
+            }
+        }
+        return image;
+    }
+
+    /**
+     * Four tiles are reduced to one image of the same size, each quadrant averaging 2x2 pixels of one tile.
+     */
+    @Test
+    void testReduce() {
+        BufferedImage upperLeft = createImage(BufferedImage.TYPE_INT_RGB, 4, 4, 0xff0000);
+        BufferedImage upperRight = createImage(BufferedImage.TYPE_3BYTE_BGR, 4, 4, 0x00ff00);
+        BufferedImage lowerLeft = createImage(BufferedImage.TYPE_INT_ARGB, 4, 4, 0x800000ff);
+        BufferedImage lowerRight = createImage(BufferedImage.TYPE_INT_RGB, 4, 4, 0x000000);
+        // a checkerboard is averaged to gray
+        lowerRight.setRGB(2, 2, 0xffffff);
+        lowerRight.setRGB(3, 3, 0xffffff);
+
+        BufferedImage reduced = MipTileCache.reduce(upperLeft, upperRight, lowerLeft, lowerRight);
+        assertEquals(4, reduced.getWidth());
+        assertEquals(4, reduced.getHeight());
+        assertEquals(0xffff0000, reduced.getRGB(1, 1));
+        assertEquals(0xff00ff00, reduced.getRGB(2, 0));
+        assertEquals(0x800000ff, reduced.getRGB(0, 3));
+        assertEquals(0xff000000, reduced.getRGB(2, 2));
+        assertEquals(0xff808080, reduced.getRGB(3, 3));
+    }
+
+    /**
+     * Tiles of different or odd sizes are not reduced.
+     */
+    @Test
+    void testReduceSizeMismatch() {
+        BufferedImage tile = createImage(BufferedImage.TYPE_INT_RGB, 4, 4, 0);
+        assertNull(MipTileCache.reduce(tile, tile, tile, createImage(BufferedImage.TYPE_INT_RGB, 2, 2, 0)));
+        BufferedImage odd = createImage(BufferedImage.TYPE_INT_RGB, 3, 3, 0);
+        assertNull(MipTileCache.reduce(odd, odd, odd, odd));
+    }
+}
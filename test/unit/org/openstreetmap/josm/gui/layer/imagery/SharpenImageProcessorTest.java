@@ -3,6 +3,8 @@ package org.openstreetmap.josm.gui.layer.imagery;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 
+import java.awt.image.BufferedImage;
+
 import org.junit.jupiter.api.Test;
 
 /**
@@ -38,6 +40,37 @@ class SharpenImageProcessorTest {
         assertEquals(5, processor.getSharpenLevel(), 0.001);
     }
 
+    /**
+     * Test that the convolution of packed pixels gives the same result as the convolution of other image types.
+     */
+    @Test
+    void testProcessing() {
+        BufferedImage intImage = new BufferedImage(8, 6, BufferedImage.TYPE_INT_RGB);
+        BufferedImage byteImage = new BufferedImage(8, 6, BufferedImage.TYPE_3BYTE_BGR);
+        for (int x = 0; x < 8; x++) {
+            for (int y = 0; y < 6; y++) {
+                int rgb = (x * 31) << 16 | (y * 47) << 8 | ((x + y) * 17);
+                intImage.setRGB(x, y, rgb);
+                byteImage.setRGB(x, y, rgb);
+            }
+        }
+        for (float level : new float[] {0, 0.5f, 2, 5}) {
+            SharpenImageProcessor processor = new SharpenImageProcessor();
+            processor.setSharpenLevel(level);
+            BufferedImage fromInt = processor.process(intImage);
+            BufferedImage fromByte = processor.process(byteImage);
+            for (int x = 0; x < 8; x++) {
+                for (int y = 0; y < 6; y++) {
+                    int expected = fromByte.getRGB(x, y);
+                    int actual = fromInt.getRGB(x, y);
+                    for (int shift = 0; shift < 24; shift += 8) {
+                        assertEquals((expected >> shift) & 0xff, (actual >> shift) & 0xff, 1, level + ": " + x + "/" + y);
+                    }
+                }
+            }
+        }
+    }
+
     /**
      * Test {@link SharpenImageProcessor#toString()}
      */
@@ -0,0 +1,185 @@
+// License: GPL. For details, see LICENSE file.
+package org.openstreetmap.josm.gui.layer.imagery;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Predicate;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.openstreetmap.gui.jmapviewer.MemoryTileCache;
+import org.openstreetmap.gui.jmapviewer.Tile;
+import org.openstreetmap.gui.jmapviewer.tilesources.TMSTileSource;
+import org.openstreetmap.josm.data.cache.JCSCacheManager;
+import org.openstreetmap.josm.data.imagery.ImageryInfo;
+import org.openstreetmap.josm.data.imagery.TMSCachedTileLoader;
+import org.openstreetmap.josm.data.imagery.TileJobOptions;
+import org.openstreetmap.josm.testutils.annotations.BasicPreferences;
+
+/**
+ * Unit tests of {@link TilePrefetcher}.
+ */
+@BasicPreferences
+class TilePrefetcherTest {
+
+    /**
+     * Prefetcher recording the tiles instead of downloading them.
+     */
+    private static final class RecordingPrefetcher extends TilePrefetcher {
+        private final List<Tile> tiles = new ArrayList<>();
+
+        RecordingPrefetcher(TMSTileSource tileSource, MemoryTileCache tileCache) {
+            super(tileSource, new TMSCachedTileLoader(null, JCSCacheManager.getCache("test"),
+                    new TileJobOptions(1, 1, null, 10)), tileCache);
+        }
+
+        @Override
+        void prefetch(Tile tile) {
+            tiles.add(tile);
+        }
+
+        List<Tile> take() {
+            List<Tile> result = new ArrayList<>(tiles);
+            tiles.clear();
+            return result;
+        }
+    }
+
+    private TMSTileSource tileSource;
+    private MemoryTileCache tileCache;
+    private RecordingPrefetcher prefetcher;
+
+    /**
+     * Setup test.
+     */
+    @BeforeEach
+    void setUp() {
+        TilePrefetcher.PROPERTY_TILES_PER_MINUTE.put(4000);
+        tileSource = new TMSTileSource(new ImageryInfo("test", "http://localhost/{zoom}/{x}/{y}.png"));
+        tileCache = new MemoryTileCache();
+        prefetcher = new RecordingPrefetcher(tileSource, tileCache);
+    }
+
+    /**
+     * Cleanup test.
+     */
+    @AfterEach
+    void tearDown() {
+        prefetcher.shutdown();
+    }
+
+    private static boolean contains(List<Tile> tiles, Predicate<Tile> predicate) {
+        return tiles.stream().anyMatch(predicate);
+    }
+
+    /**
+     * A pan to the east prefetches the tiles in the east, beyond the ring of a static view, and nothing in the west.
+     */
+    @Test
+    void testPanPrediction() {
+        prefetcher.viewChanged(1000, 10, 500, 503, 300, 302);
+        List<Tile> first = prefetcher.take();
+        assertFalse(contains(first, t -> t.getZoom() == 10 && t.getXtile() > 505));
+
+        // two tiles in half a second, the view is expected two tiles further after smoothing
+        prefetcher.viewChanged(1500, 10, 502, 505, 300, 302);
+        List<Tile> second = prefetcher.take();
+        assertTrue(contains(second, t -> t.getZoom() == 10 && t.getXtile() == 509));
+        assertFalse(contains(second, t -> t.getZoom() == 10 && t.getXtile() < 506));
+    }
+
+    /**
+     * A pause longer than the motion timeout resets the velocity.
+     */
+    @Test
+    void testMotionTimeout() {
+        prefetcher.viewChanged(1000, 10, 500, 503, 300, 302);
+        prefetcher.viewChanged(1500, 10, 502, 505, 300, 302);
+        prefetcher.take();
+        prefetcher.viewChanged(10_000, 10, 506, 509, 300, 302);
+        List<Tile> tiles = prefetcher.take();
+        assertTrue(contains(tiles, t -> t.getZoom() == 10 && t.getXtile() == 511));
+        assertFalse(contains(tiles, t -> t.getZoom() == 10 && t.getXtile() > 511));
+    }
+
+    /**
+     * Zooming in prefetches the next zoom level, zooming out the previous one.
+     */
+    @Test
+    void testZoomDirection() {
+        prefetcher.viewChanged(1000, 10, 500, 503, 300, 302);
+        assertTrue(contains(prefetcher.take(), t -> t.getZoom() == 11));
+        prefetcher.viewChanged(1200, 11, 1002, 1005, 601, 604);
+        List<Tile> zoomIn = prefetcher.take();
+        assertTrue(contains(zoomIn, t -> t.getZoom() == 12));
+        assertFalse(contains(zoomIn, t -> t.getZoom() == 10));
+
+        prefetcher.viewChanged(1400, 10, 500, 503, 300, 302);
+        List<Tile> zoomOut = prefetcher.take();
+        assertTrue(contains(zoomOut, t -> t.getZoom() == 9));
+        assertFalse(contains(zoomOut, t -> t.getZoom() == 11));
+    }
+
+    /**
+     * The number of prefetched tiles is limited by a token bucket holding a quarter of the tiles per minute.
+     */
+    @Test
+    void testTokenBucket() {
+        TilePrefetcher.PROPERTY_TILES_PER_MINUTE.put(8);
+        prefetcher.viewChanged(1000, 10, 500, 503, 300, 302);
+        assertEquals(2, prefetcher.take().size());
+        // 1/7.5 tiles are refilled per second
+        prefetcher.viewChanged(2000, 10, 501, 504, 300, 302);
+        assertEquals(0, prefetcher.take().size());
+        prefetcher.viewChanged(9500, 10, 502, 505, 300, 302);
+        assertEquals(1, prefetcher.take().size());
+        // the bucket does not grow above its capacity
+        prefetcher.viewChanged(600_000, 10, 503, 506, 300, 302);
+        assertEquals(2, prefetcher.take().size());
+    }
+
+    /**
+     * Tiles which are displayed, loaded by the layer, in memory or being loaded are skipped.
+     */
+    @Test
+    void testSkippedTiles() {
+        Tile loaded = new Tile(tileSource, 498, 300, 10);
+        loaded.setLoaded(true);
+        tileCache.addToCache(loaded);
+        Tile loading = new Tile(tileSource, 505, 300, 10);
+        loading.initLoading();
+        tileCache.addToCache(loading);
+        tileCache.addToCache(new Tile(tileSource, 498, 301, 10));
+
+        prefetcher.viewChanged(1000, 10, 500, 503, 300, 302);
+        List<Tile> tiles = prefetcher.take();
+        assertFalse(contains(tiles, t -> t.getZoom() == 10
+                && t.getXtile() >= 499 && t.getXtile() <= 504 && t.getYtile() >= 299 && t.getYtile() <= 303));
+        assertFalse(contains(tiles, t -> t.getKey().equals(loaded.getKey())));
+        assertFalse(contains(tiles, t -> t.getKey().equals(loading.getKey())));
+        assertTrue(contains(tiles, t -> t.getZoom() == 10 && t.getXtile() == 498 && t.getYtile() == 301));
+        // a tile is prefetched only once
+        prefetcher.viewChanged(1100, 10, 500, 503, 301, 303);
+        assertFalse(contains(prefetcher.take(), t -> t.getZoom() == 10 && t.getXtile() == 498 && t.getYtile() == 301));
+    }
+
+    /**
+     * Prefetching is opt-in and never allowed for hosts whose tile usage policy forbids it.
+     */
+    @Test
+    void testIsAllowed() {
+        String url = "https://{switch:a,b,c}.tiles.example.com/{zoom}/{x}/{y}.png";
+        assertFalse(TilePrefetcher.isAllowed(url));
+        TilePrefetcher.PROPERTY_ENABLED.put(true);
+        assertTrue(TilePrefetcher.isAllowed(url));
+        assertFalse(TilePrefetcher.isAllowed("https://tile.openstreetmap.org/{zoom}/{x}/{y}.png"));
+        assertFalse(TilePrefetcher.isAllowed("https://{switch:a,b,c}.tile.openstreetmap.fr/hot/{zoom}/{x}/{y}.png"));
+        assertTrue(TilePrefetcher.isAllowed("https://notopenstreetmap.org/{zoom}/{x}/{y}.png"));
+        assertFalse(TilePrefetcher.isAllowed(null));
+    }
+}
@@ -3,12 +3,15 @@ package org.openstreetmap.josm.gui.layer.markerlayer;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
 import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
 import java.net.MalformedURLException;
 import java.net.URI;
 import java.util.Collections;
+import java.util.List;
 
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -18,8 +21,10 @@ import org.openstreetmap.josm.data.gpx.GpxData;
 import org.openstreetmap.josm.data.gpx.GpxLink;
 import org.openstreetmap.josm.data.gpx.WayPoint;
 import org.openstreetmap.josm.data.osm.DataSet;
+import org.openstreetmap.josm.data.projection.ProjectionRegistry;
 import org.openstreetmap.josm.gui.MainApplication;
 import org.openstreetmap.josm.gui.MapFrame;
+import org.openstreetmap.josm.gui.MapViewState;
 import org.openstreetmap.josm.gui.layer.OsmDataLayer;
 import org.openstreetmap.josm.spi.preferences.Config;
 import org.openstreetmap.josm.testutils.annotations.BasicPreferences;
@@ -106,4 +111,36 @@ class MarkerLayerTest {
                 layer, 0, 0));
         assertEquals(Collections.emptyList(), layer.getSelection());
     }
+
+    /**
+     * Unit test of {@link MarkerLayer#getPaintedMarkers}.
+     */
+    @Test
+    void testPaintedMarkers() {
+        GpxData gpx = new GpxData();
+        for (int i = 0; i < 10; i++) {
+            // overlapping markers
+            gpx.waypoints.add(new WayPoint(new LatLon(1e-7 * i, 0)));
+        }
+        gpx.waypoints.add(new WayPoint(new LatLon(0, 0.001)));
+        gpx.waypoints.add(new WayPoint(new LatLon(10, 10)));
+        MarkerLayer layer = new MarkerLayer(gpx, "foo", null, null);
+        assertEquals(12, layer.data.size());
+
+        // 2 meters per pixel, the marker 111 meters east is in view, the one at 10,10 is not
+        MapViewState state = MapViewState.createDefaultState(200, 200)
+                .usingCenter(ProjectionRegistry.getProjection().latlon2eastNorth(LatLon.ZERO)).usingScale(2);
+        List<Marker> painted = layer.getPaintedMarkers(state);
+        assertEquals(11, painted.size());
+        assertSame(painted, layer.getPaintedMarkers(state));
+
+        // the markers changed
+        layer.data.add(0, new Marker(new LatLon(0, -0.001), "", null, layer, 0, 0));
+        assertNotSame(painted, layer.getPaintedMarkers(state));
+        assertEquals(12, layer.getPaintedMarkers(state).size());
+
+        // overlapping markers are clustered when there are many markers in view
+        MarkerLayer.CLUSTER_MIN_MARKERS.put(5);
+        assertEquals(3, layer.getPaintedMarkers(state.usingScale(2)).size());
+    }
 }
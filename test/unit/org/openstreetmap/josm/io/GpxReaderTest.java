@@ -2,6 +2,9 @@
 package org.openstreetmap.josm.io;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.junit.jupiter.api.Assertions.fail;
@@ -12,6 +15,7 @@ import java.io.IOException;
 import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 
 import org.junit.jupiter.params.ParameterizedTest;
@@ -19,7 +23,10 @@ import org.junit.jupiter.params.provider.ValueSource;
 import org.openstreetmap.josm.TestUtils;
 import org.openstreetmap.josm.data.Bounds;
 import org.openstreetmap.josm.data.coor.LatLon;
+import org.openstreetmap.josm.data.gpx.CompactGpxTrackSegment;
+import org.openstreetmap.josm.data.gpx.GpxConstants;
 import org.openstreetmap.josm.data.gpx.GpxData;
+import org.openstreetmap.josm.data.gpx.IGpxTrackSegment;
 import org.openstreetmap.josm.data.gpx.WayPoint;
 import org.openstreetmap.josm.testutils.annotations.BasicPreferences;
 
@@ -48,6 +55,30 @@ public class GpxReaderTest {
         return result;
     }
 
+    /**
+     * Asserts that the first track segment read in throughput mode is a compact segment with the points of the segment read
+     * normally: same coordinates, time and kept attributes, while the other attributes are dropped.
+     * @param full the data read normally
+     * @param lean the data read in throughput mode
+     * @param dropped an attribute which is not kept in throughput mode
+     * @param kept the attributes which are kept in throughput mode, besides the coordinates and the time
+     */
+    public static void assertLeanSegment(GpxData full, GpxData lean, String dropped, String... kept) {
+        IGpxTrackSegment segment = lean.tracks.iterator().next().getSegments().iterator().next();
+        assertInstanceOf(CompactGpxTrackSegment.class, segment);
+        List<WayPoint> expected = new ArrayList<>(full.tracks.iterator().next().getSegments().iterator().next().getWayPoints());
+        List<WayPoint> wayPoints = new ArrayList<>(segment.getWayPoints());
+        assertEquals(expected.size(), wayPoints.size());
+        for (int i = 0; i < expected.size(); i++) {
+            assertEquals(expected.get(i).getCoor(), wayPoints.get(i).getCoor());
+            assertEquals(expected.get(i).getInstant(), wayPoints.get(i).getInstant());
+            for (String key : kept) {
+                assertEquals(expected.get(i).get(key), wayPoints.get(i).get(key), key);
+            }
+            assertNull(wayPoints.get(i).get(dropped));
+        }
+    }
+
     /**
      * Tests the {@code munich.gpx} test file.
      * @throws Exception if something goes wrong
@@ -124,4 +155,36 @@ public class GpxReaderTest {
         }
         assertEquals(type + " element does not have valid latitude and/or longitude.", saxException.getMessage());
     }
+
+    /**
+     * The lean parser keeps the coordinates, time, elevation, hdop and fix of the track points in compact segments.
+     * @throws Exception if something goes wrong
+     */
+    @Test
+    void testLean() throws Exception {
+        String gpx = "<gpx version=\"1.1\" xmlns=\"http://www.topografix.com/GPX/1/1\"><trk><trkseg>"
+                + "<trkpt lat=\"48.1\" lon=\"11.5\"><ele>520.5</ele><time>2021-01-01T10:00:00Z</time>"
+                + "<hdop>1.5</hdop><fix>3d</fix><name>skipped</name><extensions><foo><ele>0</ele></foo></extensions></trkpt>"
+                + "<trkpt lat=\"48.2\" lon=\"11.6\"/>"
+                + "</trkseg><trkseg/></trk></gpx>";
+        GpxReader reader = new GpxReader(new ByteArrayInputStream(gpx.getBytes(StandardCharsets.UTF_8)), true);
+        assertTrue(reader.parse(false));
+        List<IGpxTrackSegment> segments = new ArrayList<>(reader.getGpxData().getTracks().iterator().next().getSegments());
+        assertEquals(1, segments.size());
+        CompactGpxTrackSegment segment = assertInstanceOf(CompactGpxTrackSegment.class, segments.get(0));
+        assertEquals(2, segment.size());
+
+        WayPoint first = segment.getWayPoint(0);
+        assertEquals(new LatLon(48.1, 11.5), first.getCoor());
+        assertEquals("520.5", first.getString(GpxConstants.PT_ELE));
+        assertEquals(1609495200000L, first.getTimeInMillis());
+        assertEquals(1.5f, first.get(GpxConstants.PT_HDOP));
+        assertEquals("3d", first.getString(GpxConstants.PT_FIX));
+        assertFalse(first.attr.containsKey(GpxConstants.GPX_NAME));
+
+        WayPoint second = segment.getWayPoint(1);
+        assertEquals(new LatLon(48.2, 11.6), second.getCoor());
+        assertFalse(second.hasDate());
+        assertFalse(second.attr.containsKey(GpxConstants.PT_ELE));
+    }
 }
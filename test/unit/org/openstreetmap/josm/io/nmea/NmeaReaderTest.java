@@ -4,6 +4,7 @@ package org.openstreetmap.josm.io.nmea;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
 import java.io.ByteArrayInputStream;
@@ -63,6 +64,33 @@ class NmeaReaderTest {
         assertNull(wayPoints.get(0).get(GpxConstants.PT_PDOP));
     }
 
+    /**
+     * Tests reading a nmea file in throughput mode.
+     * @throws Exception if any error occurs
+     */
+    @Test
+    void testLean() throws Exception {
+        TimeZone.setDefault(TimeZone.getTimeZone("Europe/Berlin"));
+        final NmeaReader full = new NmeaReader(Files.newInputStream(Paths.get("nodist/data/btnmeatrack_2016-01-25.nmea")));
+        full.parse(true);
+        final NmeaReader lean = new NmeaReader(Files.newInputStream(Paths.get("nodist/data/btnmeatrack_2016-01-25.nmea")), true);
+        lean.parse(true);
+        assertEquals(full.getNumberOfCoordinates(), lean.getNumberOfCoordinates());
+        assertEquals(full.getParserMalformed(), lean.getParserMalformed());
+
+        GpxReaderTest.assertLeanSegment(full.data, lean.data, GpxConstants.PT_SAT,
+                GpxConstants.PT_ELE, GpxConstants.PT_HDOP, GpxConstants.PT_FIX);
+    }
+
+    /**
+     * The compact segment is only available in throughput mode.
+     */
+    @Test
+    void testCompactSegment() {
+        assertEquals(0, new NmeaParser(true).getCompactSegment().size());
+        assertThrows(IllegalStateException.class, () -> new NmeaParser().getCompactSegment());
+    }
+
     private static void compareWithReference(int ticket, String filename, int numCoor) throws IOException, SAXException {
         GpxData gpx = GpxReaderTest.parseGpxData(TestUtils.getRegressionDataFile(ticket, filename+".gpx"));
         NmeaReader in = new NmeaReader(Files.newInputStream(Paths.get(TestUtils.getRegressionDataFile(ticket, filename+".nmea"))));
@@ -100,6 +128,9 @@ class NmeaReaderTest {
         assertFalse(NmeaParser.isSentence("XGAVTG", Sentence.VTG));
         assertFalse(NmeaParser.isSentence("$GPXXX", Sentence.VTG));
         assertFalse(NmeaParser.isSentence("$XXVTG", Sentence.VTG));
+        assertFalse(NmeaParser.isSentence("$GPVTGX", Sentence.VTG));
+        assertFalse(NmeaParser.isSentence("$VTG", Sentence.VTG));
+        assertFalse(NmeaParser.isSentence("", Sentence.VTG));
     }
 
     /**
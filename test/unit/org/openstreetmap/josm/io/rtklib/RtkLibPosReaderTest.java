@@ -1,6 +1,7 @@
 // License: GPL. For details, see LICENSE file.
 package org.openstreetmap.josm.io.rtklib;
 
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 
 import java.io.IOException;
@@ -15,6 +16,7 @@ import org.junit.jupiter.api.Test;
 import org.openstreetmap.josm.data.coor.LatLon;
 import org.openstreetmap.josm.data.gpx.GpxConstants;
 import org.openstreetmap.josm.data.gpx.WayPoint;
+import org.openstreetmap.josm.io.GpxReaderTest;
 import org.openstreetmap.josm.tools.date.DateUtils;
 import org.xml.sax.SAXException;
 
@@ -23,8 +25,12 @@ import org.xml.sax.SAXException;
  */
 class RtkLibPosReaderTest {
     private static RtkLibPosReader read(String path) throws IOException, SAXException {
+        return read(path, false);
+    }
+
+    private static RtkLibPosReader read(String path, boolean lean) throws IOException, SAXException {
         TimeZone.setDefault(TimeZone.getTimeZone("Europe/Berlin"));
-        RtkLibPosReader in = new RtkLibPosReader(Files.newInputStream(Paths.get(path)));
+        RtkLibPosReader in = new RtkLibPosReader(Files.newInputStream(Paths.get(path)), lean);
         in.parse(true);
         return in;
     }
@@ -82,4 +88,28 @@ class RtkLibPosReaderTest {
         RtkLibPosReader in = read("nodist/data/rtklib_example3.pos");
         assertEquals(1, in.getNumberOfCoordinates());
     }
+
+    /**
+     * Tests reading a RTKLib pos file in throughput mode.
+     * @throws Exception if any error occurs
+     */
+    @Test
+    void testLean() throws Exception {
+        RtkLibPosReader full = read("nodist/data/rtklib_example.pos");
+        RtkLibPosReader lean = read("nodist/data/rtklib_example.pos", true);
+        assertEquals(full.getNumberOfCoordinates(), lean.getNumberOfCoordinates());
+
+        GpxReaderTest.assertLeanSegment(full.getGpxData(), lean.getGpxData(), GpxConstants.RTKLIB_SDN,
+                GpxConstants.PT_ELE, GpxConstants.PT_HDOP, GpxConstants.RTKLIB_Q);
+    }
+
+    /**
+     * Unit test of {@link RtkLibPosReader#splitFields}.
+     */
+    @Test
+    void testSplitFields() {
+        for (String line : new String[] {"", " ", "a", "a b", "a   b", " a b", "a b ", "  a  b  ", "a\tb c"}) {
+            assertArrayEquals(line.split("[ ]+", -1), RtkLibPosReader.splitFields(line), line);
+        }
+    }
 }
@@ -3,12 +3,17 @@ package org.openstreetmap.josm.tools;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
 
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
 import java.io.File;
 import java.io.IOException;
 import java.text.DecimalFormat;
 import java.time.Instant;
 
+import javax.imageio.ImageIO;
+
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.openstreetmap.josm.TestUtils;
@@ -118,4 +123,18 @@ class ExifReaderTest {
         doTestFile("2017-01-16T18:27:00.000Z", 14209, "0MbEfj1S--.1.jpg");
         doTestFile("2016-08-13T19:51:13.000Z", 14209, "7VWFOryj--.1.jpg");
     }
+
+    /**
+     * Test thumbnail extraction
+     * @throws IOException if an error occurs during reading
+     */
+    @Test
+    void testReadThumbnail() throws IOException {
+        byte[] thumbnail = ExifReader.readThumbnail(new File(TestUtils.getRegressionDataFile(12255, "G0016941.JPG")));
+        assertNotNull(thumbnail);
+        BufferedImage image = ImageIO.read(new ByteArrayInputStream(thumbnail));
+        assertEquals(160, image.getWidth());
+        assertEquals(120, image.getHeight());
+        assertNull(ExifReader.readThumbnail(new File("nodist/data/exif-example_speed_ele.jpg")));
+    }
 }
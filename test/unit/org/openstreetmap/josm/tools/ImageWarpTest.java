@@ -0,0 +1,73 @@
+// License: GPL. For details, see LICENSE file.
+package org.openstreetmap.josm.tools;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.awt.Dimension;
+import java.awt.geom.Point2D;
+import java.awt.image.BufferedImage;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Unit tests of {@link ImageWarp} class.
+ */
+class ImageWarpTest {
+
+    private static final ImageWarp.PointTransform ROTATION = (x, y) -> new Point2D.Double(
+            0.9 * x - 0.2 * y + 10 + 1e-3 * x * y, 0.2 * x + 0.9 * y - 5);
+
+    /**
+     * Test {@link ImageWarp.LatticeTransform}: it interpolates the master transform between grid points,
+     * which are aligned independently of the offset.
+     */
+    @Test
+    void testLatticeTransform() {
+        int[] calls = new int[1];
+        ImageWarp.PointTransform shifted = (x, y) -> {
+            synchronized (calls) {
+                calls[0]++;
+            }
+            return ROTATION.transform(x - 21, y - 35);
+        };
+        ImageWarp.LatticeTransform lattice = new ImageWarp.LatticeTransform(shifted, 7, 21, 35, 100, 50);
+        // grid of 16 x 9 points
+        assertEquals(16 * 9, calls[0]);
+        for (int y = 0; y < 50; y += 7) {
+            for (int x = 0; x < 100; x += 7) {
+                Point2D expected = ROTATION.transform(x, y);
+                Point2D actual = lattice.transform(x, y);
+                assertEquals(expected.getX(), actual.getX(), 1e-9);
+                assertEquals(expected.getY(), actual.getY(), 1e-9);
+            }
+        }
+        Point2D expected = ROTATION.transform(52.5, 17.3);
+        Point2D actual = lattice.transform(52.5, 17.3);
+        assertEquals(expected.getX(), actual.getX(), 0.02);
+        assertEquals(expected.getY(), actual.getY(), 0.02);
+    }
+
+    /**
+     * Test that warping rows in parallel gives the same result as sequential warping.
+     */
+    @Test
+    void testWarpParallel() {
+        BufferedImage src = new BufferedImage(64, 48, BufferedImage.TYPE_INT_ARGB);
+        for (int y = 0; y < src.getHeight(); y++) {
+            for (int x = 0; x < src.getWidth(); x++) {
+                src.setRGB(x, y, 0xff000000 | (x * 4) << 16 | (y * 5) << 8 | (x * y) & 0xff);
+            }
+        }
+        Dimension dim = new Dimension(80, 60);
+        for (ImageWarp.Interpolation interpolation : ImageWarp.Interpolation.values()) {
+            BufferedImage sequential = ImageWarp.warp(src, dim, ROTATION, interpolation);
+            BufferedImage parallel = ImageWarp.warp(src, dim, ROTATION, interpolation, true);
+            assertArrayEquals(sequential.getRGB(0, 0, 80, 60, null, 0, 80), parallel.getRGB(0, 0, 80, 60, null, 0, 80));
+            // pixels outside of the source image are transparent
+            assertEquals(0, sequential.getRGB(79, 0));
+            // target pixel (0, 10) is mapped to source pixel (8, 4)
+            assertEquals(src.getRGB(8, 4), sequential.getRGB(0, 10));
+        }
+    }
+}